@@ -0,0 +1,255 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+
+package cs4347.jdbcGame.benchmark;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.impl.GamesPlayedDAOImpl;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.testing.PopulateTables;
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
+
+/**
+ * Embedded H2 database, in MySQL compatibility mode, seeded from the csv files
+ * of the testing project. One instance is shared by all threads of a
+ * benchmark. Rows added by the write benchmarks are removed after every
+ * iteration so that each iteration starts from the seeded row counts.
+ * 
+ * The csv directory defaults to the testing project checked out next to this
+ * one and can be moved with -Dbench.csvDir=...
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase
+{
+    public static final String CSV_DIR_PROPERTY = "bench.csvDir";
+    private static final String defaultCsvDir = "../../GameJDBCProjectTesting/GameJDBCProjectTesting/csvData";
+    private static final String url = "jdbc:h2:mem:games;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private BasicDataSource dataSource;
+    private long[] playerIDs;
+    private long[] gameIDs;
+    private String[] titlePatterns;
+    private long maxPlayerID;
+    private long maxCreditCardID;
+    private long maxGamesPlayedID;
+
+    public static File getCsvDir()
+    {
+        return new File(System.getProperty(CSV_DIR_PROPERTY, defaultCsvDir));
+    }
+
+    @Setup(Level.Trial)
+    public void open() throws Exception
+    {
+        dataSource = new BasicDataSource();
+        dataSource.setUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setMaxTotal(16);
+
+        Connection connection = dataSource.getConnection();
+        try {
+            connection.setAutoCommit(false);
+            Statement stmt = connection.createStatement();
+            stmt.execute("RUNSCRIPT FROM 'classpath:/h2schema.sql'");
+            stmt.close();
+            connection.commit();
+
+            PopulateTables.populate(connection, getCsvDir());
+
+            playerIDs = selectIDs(connection, "select id from player order by id");
+            gameIDs = selectIDs(connection, "select id from game order by id");
+            titlePatterns = selectTitlePatterns(connection);
+            maxPlayerID = playerIDs[playerIDs.length - 1];
+            maxCreditCardID = selectMax(connection, "select max(id) from creditcard");
+            maxGamesPlayedID = selectMax(connection, "select max(id) from gamesplayed");
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Deletes whatever the write benchmarks committed during the iteration.
+     */
+    @TearDown(Level.Iteration)
+    public void trim() throws SQLException
+    {
+        Connection connection = dataSource.getConnection();
+        try {
+            connection.setAutoCommit(false);
+            deleteAbove(connection, "delete from gamesplayed where id > ?", maxGamesPlayedID);
+            deleteAbove(connection, "delete from creditcard where id > ?", maxCreditCardID);
+            deleteAbove(connection, "delete from player where id > ?", maxPlayerID);
+            connection.commit();
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException
+    {
+        Connection connection = dataSource.getConnection();
+        try {
+            Statement stmt = connection.createStatement();
+            stmt.execute("SHUTDOWN");
+            stmt.close();
+        }
+        finally {
+            connection.close();
+            dataSource.close();
+        }
+    }
+
+    public DataSource getDataSource()
+    {
+        return dataSource;
+    }
+
+    public long[] getPlayerIDs()
+    {
+        return playerIDs;
+    }
+
+    public long[] getGameIDs()
+    {
+        return gameIDs;
+    }
+
+    /**
+     * LIKE patterns built from the first word of each seeded title, so that
+     * every pattern matches at least one game.
+     */
+    public String[] getTitlePatterns()
+    {
+        return titlePatterns;
+    }
+
+    /**
+     * Adds sessions to gameID until it has exactly rows of them, for scan
+     * benchmarks that need more rows than the csv data provides. The new rows
+     * are committed and count as seed data, so trim keeps them.
+     */
+    public synchronized void topUpGamesPlayed(long gameID, int rows) throws SQLException, DAOException
+    {
+        GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+        Connection connection = dataSource.getConnection();
+        try {
+            connection.setAutoCommit(false);
+            int existing = gamesPlayedDAO.retrieveByGame(connection, gameID).size();
+            List<GamesPlayed> sessions = new ArrayList<GamesPlayed>();
+            for (int idx = existing; idx < rows; idx++) {
+                GamesPlayed gp = new GamesPlayed();
+                gp.setPlayerID(playerIDs[idx % playerIDs.length]);
+                gp.setGameID(gameID);
+                gp.setTimeFinished(new Date());
+                gp.setScore(idx % 100);
+                sessions.add(gp);
+            }
+            gamesPlayedDAO.createAll(connection, sessions);
+            connection.commit();
+            maxGamesPlayedID = selectMax(connection, "select max(id) from gamesplayed");
+        }
+        finally {
+            StatementCache.getInstance().closeAll(connection);
+            connection.close();
+        }
+    }
+
+    private static long[] selectIDs(Connection connection, String sql) throws SQLException
+    {
+        List<Long> ids = new ArrayList<Long>();
+        Statement stmt = connection.createStatement();
+        try {
+            ResultSet rs = stmt.executeQuery(sql);
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        finally {
+            stmt.close();
+        }
+
+        long[] result = new long[ids.size()];
+        for (int idx = 0; idx < result.length; idx++) {
+            result[idx] = ids.get(idx);
+        }
+        return result;
+    }
+
+    private static String[] selectTitlePatterns(Connection connection) throws SQLException
+    {
+        Set<String> patterns = new LinkedHashSet<String>();
+        Statement stmt = connection.createStatement();
+        try {
+            ResultSet rs = stmt.executeQuery("select title from game order by id");
+            while (rs.next()) {
+                String title = rs.getString(1);
+                int space = title.indexOf(' ');
+                patterns.add((space < 0 ? title : title.substring(0, space)) + "%");
+            }
+        }
+        finally {
+            stmt.close();
+        }
+        return patterns.toArray(new String[0]);
+    }
+
+    private static long selectMax(Connection connection, String sql) throws SQLException
+    {
+        Statement stmt = connection.createStatement();
+        try {
+            ResultSet rs = stmt.executeQuery(sql);
+            rs.next();
+            return rs.getLong(1);
+        }
+        finally {
+            stmt.close();
+        }
+    }
+
+    private static void deleteAbove(Connection connection, String sql, long id) throws SQLException
+    {
+        PreparedStatement ps = connection.prepareStatement(sql);
+        try {
+            ps.setLong(1, id);
+            ps.executeUpdate();
+        }
+        finally {
+            ps.close();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+
+package cs4347.jdbcGame.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark in this package with the GC profiler, which adds the
+ * allocation rate per operation (gc.alloc.rate.norm) next to the ops/sec
+ * score. Results are written to bench-results.json so that runs can be
+ * compared. Any arguments are passed to the JMH command line instead, e.g.
+ * "DAOBenchmark.gameCount -prof gc".
+ */
+public class BenchmarkMain
+{
+    public static final String RESULT_FILE = "bench-results.json";
+
+    public static void main(String args[]) throws Exception
+    {
+        if (args.length > 0) {
+            Main.main(args);
+            return;
+        }
+
+        String csvDir = BenchmarkDatabase.getCsvDir().getAbsolutePath();
+        Options options = new OptionsBuilder()
+                .include(BenchmarkMain.class.getPackage().getName() + ".")
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend("-D" + BenchmarkDatabase.CSV_DIR_PROPERTY + "=" + csvDir)
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULT_FILE)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,149 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+
+package cs4347.jdbcGame.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cs4347.jdbcGame.dao.CreditCardDAO;
+import cs4347.jdbcGame.dao.GameDAO;
+import cs4347.jdbcGame.dao.GamesOwnedDAO;
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.PlayerDAO;
+import cs4347.jdbcGame.dao.impl.CreditCardDAOImpl;
+import cs4347.jdbcGame.dao.impl.GameDAOImpl;
+import cs4347.jdbcGame.dao.impl.GamesOwnedDAOImpl;
+import cs4347.jdbcGame.dao.impl.GamesPlayedDAOImpl;
+import cs4347.jdbcGame.dao.impl.PlayerDAOImpl;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
+
+/**
+ * DAO hot paths, each thread on its own connection. Inserts made by
+ * gamesPlayedCreate are rolled back at the end of every iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DAOBenchmark
+{
+    private CreditCardDAO creditCardDAO = new CreditCardDAOImpl();
+    private GameDAO gameDAO = new GameDAOImpl();
+    private GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
+    private GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+    private PlayerDAO playerDAO = new PlayerDAOImpl();
+
+    private Connection connection;
+    private long[] playerIDs;
+    private long[] gameIDs;
+    private String[] titlePatterns;
+    private Random random = new Random(4347);
+
+    @Setup(Level.Trial)
+    public void setup(BenchmarkDatabase database) throws SQLException
+    {
+        connection = database.getDataSource().getConnection();
+        connection.setAutoCommit(false);
+        playerIDs = database.getPlayerIDs();
+        gameIDs = database.getGameIDs();
+        titlePatterns = database.getTitlePatterns();
+    }
+
+    @TearDown(Level.Iteration)
+    public void rollback() throws SQLException
+    {
+        connection.rollback();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException
+    {
+        StatementCache.getInstance().closeAll(connection);
+        connection.close();
+    }
+
+    @Benchmark
+    public GamesPlayed gamesPlayedCreate() throws SQLException, DAOException
+    {
+        GamesPlayed gp = new GamesPlayed();
+        gp.setPlayerID(playerIDs[random.nextInt(playerIDs.length)]);
+        gp.setGameID(gameIDs[random.nextInt(gameIDs.length)]);
+        gp.setTimeFinished(new Date());
+        gp.setScore(random.nextInt(100));
+        return gamesPlayedDAO.create(connection, gp);
+    }
+
+    @Benchmark
+    public List<GamesPlayed> gamesPlayedRetrieveByPlayer() throws SQLException, DAOException
+    {
+        return gamesPlayedDAO.retrieveByPlayer(connection, playerIDs[random.nextInt(playerIDs.length)]);
+    }
+
+    @Benchmark
+    public List<Game> gameRetrieveByTitle() throws SQLException, DAOException
+    {
+        return gameDAO.retrieveByTitle(connection, titlePatterns[random.nextInt(titlePatterns.length)]);
+    }
+
+    @Benchmark
+    public int creditCardCount() throws SQLException, DAOException
+    {
+        return creditCardDAO.count(connection);
+    }
+
+    @Benchmark
+    public int gameCount() throws SQLException, DAOException
+    {
+        return gameDAO.count(connection);
+    }
+
+    @Benchmark
+    public int gamesOwnedCount() throws SQLException, DAOException
+    {
+        return gamesOwnedDAO.count(connection);
+    }
+
+    @Benchmark
+    public int gamesPlayedCount() throws SQLException, DAOException
+    {
+        return gamesPlayedDAO.count(connection);
+    }
+
+    @Benchmark
+    public int playerCount() throws SQLException, DAOException
+    {
+        return playerDAO.count(connection);
+    }
+}
@@ -0,0 +1,82 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+
+package cs4347.jdbcGame.benchmark;
+
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cs4347.jdbcGame.entity.CreditCard;
+import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.services.PlayerService;
+import cs4347.jdbcGame.services.impl.PlayerServiceImpl;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * PlayerService.create, i.e. one player and two credit cards in a single
+ * transaction, including the pool borrow and commit. The cache is turned off
+ * since create does not read through it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerServiceBenchmark
+{
+    private PlayerService playerService;
+    private Random random = new Random(4347);
+
+    @Setup(Level.Trial)
+    public void setup(BenchmarkDatabase database)
+    {
+        playerService = new PlayerServiceImpl(database.getDataSource(), null);
+    }
+
+    @Benchmark
+    public Player createWithCreditCards() throws SQLException, DAOException
+    {
+        Player player = new Player();
+        player.setFirstName("Bench");
+        player.setLastName("Player" + random.nextInt(100000));
+        player.setJoinDate(new Date());
+        player.setEmail("bench.player@example.com");
+        player.getCreditCards().add(buildCreditCard());
+        player.getCreditCards().add(buildCreditCard());
+        return playerService.create(player);
+    }
+
+    private CreditCard buildCreditCard()
+    {
+        CreditCard ccard = new CreditCard();
+        ccard.setCcName("Bench Player");
+        ccard.setCcNumber("4111111111111111");
+        ccard.setExpDate("12/30");
+        ccard.setSecurityCode(100 + random.nextInt(900));
+        return ccard;
+    }
+}
@@ -0,0 +1,82 @@
+-- H2 (MODE=MySQL) version of schema.txt, used to build the embedded
+-- benchmark database. Keep the columns and indexes in step with schema.txt.
+
+CREATE TABLE IF NOT EXISTS Player (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  first_name VARCHAR(45) NULL,
+  last_name VARCHAR(45) NULL,
+  join_date DATE NULL,
+  email VARCHAR(45) NULL,
+  PRIMARY KEY (id));
+
+CREATE INDEX IF NOT EXISTS join_date_idx ON Player (join_date, id);
+
+CREATE TABLE IF NOT EXISTS Game (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  title VARCHAR(45) NULL,
+  description VARCHAR(150) NULL,
+  release_date DATE NULL,
+  version VARCHAR(45) NULL,
+  PRIMARY KEY (id));
+
+CREATE INDEX IF NOT EXISTS release_date_idx ON Game (release_date, id);
+
+CREATE TABLE IF NOT EXISTS GamesOwned (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  player_id BIGINT NOT NULL,
+  game_id BIGINT NOT NULL,
+  purchase_date DATE NULL,
+  purchase_price FLOAT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT fk_GamesOwned_Player1 FOREIGN KEY (player_id) REFERENCES Player (id),
+  CONSTRAINT fk_GamesOwned_Game1 FOREIGN KEY (game_id) REFERENCES Game (id));
+
+CREATE INDEX IF NOT EXISTS fk_GamesOwned_Game1_idx ON GamesOwned (game_id);
+CREATE UNIQUE INDEX IF NOT EXISTS player_game_UNIQUE ON GamesOwned (player_id, game_id);
+
+CREATE TABLE IF NOT EXISTS CreditCard (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  player_id BIGINT NOT NULL,
+  cc_name VARCHAR(45) NULL,
+  cc_number VARCHAR(45) NULL,
+  security_code INT NULL,
+  exp_date VARCHAR(45) NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT fk_CreditCard_Player FOREIGN KEY (player_id) REFERENCES Player (id));
+
+CREATE INDEX IF NOT EXISTS fk_CreditCard_Player_idx ON CreditCard (player_id);
+
+CREATE TABLE IF NOT EXISTS GamesPlayed (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  player_id BIGINT NOT NULL,
+  game_id BIGINT NOT NULL,
+  time_finished DATE NULL,
+  score INT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT fk_GamesPlayed_Player1 FOREIGN KEY (player_id) REFERENCES Player (id),
+  CONSTRAINT fk_GamesPlayed_Game1 FOREIGN KEY (game_id) REFERENCES Game (id));
+
+CREATE INDEX IF NOT EXISTS fk_GamesPlayed_Player1_idx ON GamesPlayed (player_id);
+CREATE INDEX IF NOT EXISTS fk_GamesPlayed_Game1_idx ON GamesPlayed (game_id);
+CREATE INDEX IF NOT EXISTS player_score_idx ON GamesPlayed (player_id, score);
+CREATE INDEX IF NOT EXISTS game_score_idx ON GamesPlayed (game_id, score);
+
+CREATE TABLE IF NOT EXISTS PlayerStats (
+  player_id BIGINT NOT NULL,
+  play_count INT NOT NULL DEFAULT 0,
+  score_total BIGINT NOT NULL DEFAULT 0,
+  best_score INT NULL,
+  owned_count INT NOT NULL DEFAULT 0,
+  total_spend DOUBLE NOT NULL DEFAULT 0,
+  PRIMARY KEY (player_id),
+  CONSTRAINT fk_PlayerStats_Player1 FOREIGN KEY (player_id) REFERENCES Player (id) ON DELETE CASCADE);
+
+CREATE TABLE IF NOT EXISTS GameStats (
+  game_id BIGINT NOT NULL,
+  play_count INT NOT NULL DEFAULT 0,
+  score_total BIGINT NOT NULL DEFAULT 0,
+  best_score INT NULL,
+  owned_count INT NOT NULL DEFAULT 0,
+  total_spend DOUBLE NOT NULL DEFAULT 0,
+  PRIMARY KEY (game_id),
+  CONSTRAINT fk_GameStats_Game1 FOREIGN KEY (game_id) REFERENCES Game (id) ON DELETE CASCADE);
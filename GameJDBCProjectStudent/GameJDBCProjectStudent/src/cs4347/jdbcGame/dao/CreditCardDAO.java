@@ -12,7 +12,9 @@ package cs4347.jdbcGame.dao;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import cs4347.jdbcGame.entity.CreditCard;
 import cs4347.jdbcGame.util.DAOException;
@@ -32,6 +34,20 @@ public interface CreditCardDAO
      */
     CreditCard create(Connection connection, CreditCard creditCard, Long playerID) throws SQLException, DAOException;
 
+    /**
+     * Inserts the given CreditCards using JDBC batches of at most batchSize
+     * rows. Every CreditCard must have a null ID and a non-null player ID.
+     * The generated IDs are assigned to the CreditCards in list order.
+     * 
+     * @throws DAOException if any CreditCard has a non-null id or a null player id.
+     */
+    List<CreditCard> createAll(Connection connection, List<CreditCard> creditCards, int batchSize) throws SQLException, DAOException;
+
+    /**
+     * Same as createAll(connection, creditCards, batchSize) using the default batch size.
+     */
+    List<CreditCard> createAll(Connection connection, List<CreditCard> creditCards) throws SQLException, DAOException;
+
     /**
      * The update method must throw DAOException if the provided ID is null.
      */
@@ -43,6 +59,16 @@ public interface CreditCardDAO
     List<CreditCard> retrieveCreditCardsForPlayer(Connection connection, Long playerID)
             throws SQLException, DAOException;
 
+    /**
+     * Returns the CCs of all the given players keyed by player id, loaded with
+     * a constant number of queries per few hundred players. Players without
+     * cards have no entry in the map.
+     * 
+     * @throws DAOException if any of the player IDs is null.
+     */
+    Map<Long, List<CreditCard>> retrieveCreditCardsForPlayers(Connection connection, Collection<Long> playerIDs)
+            throws SQLException, DAOException;
+
     /**
      * The update method must throw DAOException if the provided CreditCard has a
      * NULL id.
@@ -64,4 +90,10 @@ public interface CreditCardDAO
      */
     int count(Connection connection) throws SQLException, DAOException;
 
+    /**
+     * Returns the row estimate of the table statistics. Does not scan the
+     * table, but on InnoDB the estimate can be well off the exact count.
+     */
+    int countApproximate(Connection connection) throws SQLException, DAOException;
+
 }
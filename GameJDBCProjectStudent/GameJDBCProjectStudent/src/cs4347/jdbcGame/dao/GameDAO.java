@@ -34,6 +34,20 @@ public interface GameDAO
      */
     Game create(Connection connection, Game game) throws SQLException, DAOException;
 
+    /**
+     * Inserts the given Games using JDBC batches of at most batchSize rows.
+     * Every Game must have a null ID. The generated IDs are assigned to the
+     * Games in list order.
+     * 
+     * @throws DAOException if any Game has a non-null id.
+     */
+    List<Game> createAll(Connection connection, List<Game> games, int batchSize) throws SQLException, DAOException;
+
+    /**
+     * Same as createAll(connection, games, batchSize) using the default batch size.
+     */
+    List<Game> createAll(Connection connection, List<Game> games) throws SQLException, DAOException;
+
     /**
      * The update method must throw DAOException if the provided ID is null.
      */
@@ -54,14 +68,34 @@ public interface GameDAO
      */
     int count(Connection connection) throws SQLException, DAOException;
 
+    /**
+     * Returns the row estimate of the table statistics. Does not scan the
+     * table, but on InnoDB the estimate can be well off the exact count.
+     */
+    int countApproximate(Connection connection) throws SQLException, DAOException;
+
     /**
      * Retrieve games with the given title. Title can contain SQL wildcards
      */
     List<Game> retrieveByTitle(Connection connection, String title) throws SQLException, DAOException;
 
+    /**
+     * Returns one page of the games matching the given title, ordered by id.
+     * Pass a null pageToken for the first page.
+     */
+    Page<Game> retrieveByTitle(Connection connection, String title, String pageToken, int pageSize)
+            throws SQLException, DAOException;
+
     /**
      * Retrieve games in the given release date range
      */
     List<Game> retrieveByReleaseDate(Connection connection, Date start, Date end) throws SQLException, DAOException;
 
+    /**
+     * Returns one page of the games in the given release date range, ordered
+     * by release date and then id. Pass a null pageToken for the first page.
+     */
+    Page<Game> retrieveByReleaseDate(Connection connection, Date start, Date end, String pageToken, int pageSize)
+            throws SQLException, DAOException;
+
 }
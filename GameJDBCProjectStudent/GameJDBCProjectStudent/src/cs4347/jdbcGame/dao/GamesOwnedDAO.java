@@ -29,12 +29,66 @@ public interface GamesOwnedDAO
      */
     GamesOwned create(Connection connection, GamesOwned gamesOwned) throws SQLException, DAOException;
 
+    /**
+     * Inserts the given GamesOwned using JDBC batches of at most batchSize
+     * rows. Every GamesOwned must have a null ID and valid Player and Game
+     * IDs. The generated IDs are assigned to the GamesOwned in list order.
+     * 
+     * @throws DAOException if any GamesOwned has a non-null id.
+     */
+    List<GamesOwned> createAll(Connection connection, List<GamesOwned> gamesOwned, int batchSize) throws SQLException, DAOException;
+
+    /**
+     * Same as createAll(connection, gamesOwned, batchSize) using the default batch size.
+     */
+    List<GamesOwned> createAll(Connection connection, List<GamesOwned> gamesOwned) throws SQLException, DAOException;
+
+    /**
+     * Inserts the given GamesOwned, or updates the purchase date and price of
+     * the existing row for the same Player and Game ID, in one statement. The
+     * ID of the inserted or updated row is assigned to the GamesOwned.
+     * 
+     * @throws DAOException if the player or game ID is null.
+     */
+    GamesOwned upsert(Connection connection, GamesOwned gamesOwned) throws SQLException, DAOException;
+
+    /**
+     * Inserts the given GamesOwned unless a row for the same Player and Game
+     * ID exists, in which case that row is locked and left unchanged. Returns
+     * true and assigns the new ID if the row was inserted.
+     * 
+     * @throws DAOException if the player or game ID is null.
+     */
+    boolean insertIfAbsent(Connection connection, GamesOwned gamesOwned) throws SQLException, DAOException;
+
+    /**
+     * Upserts the given GamesOwned using JDBC batches of at most batchSize
+     * rows. Later entries win when the list repeats a Player and Game ID. IDs
+     * are not assigned.
+     * 
+     * @throws DAOException if any player or game ID is null.
+     */
+    void upsertAll(Connection connection, List<GamesOwned> gamesOwned, int batchSize)
+            throws SQLException, DAOException;
+
+    /**
+     * Same as upsertAll(connection, gamesOwned, batchSize) using the default batch size.
+     */
+    void upsertAll(Connection connection, List<GamesOwned> gamesOwned) throws SQLException, DAOException;
+
     /**
      * Return the single instance by GameOwned ID. Return null if no GameOwned
      * exist.
      */
     GamesOwned retrieveID(Connection connection, Long gamesOwnedID) throws SQLException, DAOException;
 
+    /**
+     * Same as retrieveID, but also locks the row until the transaction ends
+     * (SELECT ... FOR UPDATE), so the returned values stay current while the
+     * caller updates or deletes it.
+     */
+    GamesOwned retrieveIDForUpdate(Connection connection, Long gamesOwnedID) throws SQLException, DAOException;
+
     /**
      * Return the single instance by Player and Game ID. Return null if no GameOwned
      * exist.
@@ -42,16 +96,39 @@ public interface GamesOwnedDAO
     GamesOwned retrievePlayerGameID(Connection connection, Long playerID, Long gameID)
             throws SQLException, DAOException;
 
+    /**
+     * Same as retrievePlayerGameID, but locks the row until the transaction
+     * ends. Meant for a row known to exist, e.g. after insertIfAbsent
+     * returned false: for a missing pair InnoDB locks the index gap instead,
+     * which blocks concurrent inserts.
+     */
+    GamesOwned retrievePlayerGameIDForUpdate(Connection connection, Long playerID, Long gameID)
+            throws SQLException, DAOException;
+
     /**
      * Returns a list of GamesOwned associated with the given Game ID
      */
     List<GamesOwned> retrieveByGame(Connection connection, Long gameID) throws SQLException, DAOException;
 
+    /**
+     * Returns one page of the GamesOwned associated with the given Game ID,
+     * ordered by id. Pass a null pageToken for the first page.
+     */
+    Page<GamesOwned> retrieveByGame(Connection connection, Long gameID, String pageToken, int pageSize)
+            throws SQLException, DAOException;
+
     /**
      * Returns a list of GamesOwned associated with the given Player ID
      */
     List<GamesOwned> retrieveByPlayer(Connection connection, Long playerID) throws SQLException, DAOException;
 
+    /**
+     * Returns one page of the GamesOwned associated with the given Player ID,
+     * ordered by id. Pass a null pageToken for the first page.
+     */
+    Page<GamesOwned> retrieveByPlayer(Connection connection, Long playerID, String pageToken, int pageSize)
+            throws SQLException, DAOException;
+
     /**
      * 
      */
@@ -67,4 +144,10 @@ public interface GamesOwnedDAO
      */
     int count(Connection connection) throws SQLException, DAOException;
 
+    /**
+     * Returns the row estimate of the table statistics. Does not scan the
+     * table, but on InnoDB the estimate can be well off the exact count.
+     */
+    int countApproximate(Connection connection) throws SQLException, DAOException;
+
 }
@@ -13,8 +13,11 @@ package cs4347.jdbcGame.dao;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.GamesPlayedColumns;
 import cs4347.jdbcGame.util.DAOException;
 
 /**
@@ -29,11 +32,32 @@ public interface GamesPlayedDAO
      */
     GamesPlayed create(Connection connection, GamesPlayed gamesPlayed) throws SQLException, DAOException;
 
+    /**
+     * Inserts the given GamesPlayed using JDBC batches of at most batchSize
+     * rows. Every GamesPlayed must have a null ID and valid Player and Game
+     * IDs. The generated IDs are assigned to the GamesPlayed in list order.
+     * 
+     * @throws DAOException if any GamesPlayed has a non-null id.
+     */
+    List<GamesPlayed> createAll(Connection connection, List<GamesPlayed> gamesPlayed, int batchSize) throws SQLException, DAOException;
+
+    /**
+     * Same as createAll(connection, gamesPlayed, batchSize) using the default batch size.
+     */
+    List<GamesPlayed> createAll(Connection connection, List<GamesPlayed> gamesPlayed) throws SQLException, DAOException;
+
     /**
      * Return the single instance by ID. Return null if no GamesPlayed exist.
      */
     GamesPlayed retrieveID(Connection connection, Long gamePlayedID) throws SQLException, DAOException;
 
+    /**
+     * Same as retrieveID, but also locks the row until the transaction ends
+     * (SELECT ... FOR UPDATE), so the returned values stay current while the
+     * caller updates or deletes it.
+     */
+    GamesPlayed retrieveIDForUpdate(Connection connection, Long gamePlayedID) throws SQLException, DAOException;
+
     /**
      * Returns a list of GamesPlayed associated with the given Game ID
      */
@@ -45,11 +69,56 @@ public interface GamesPlayedDAO
      */
     List<GamesPlayed> retrieveByGame(Connection connection, Long gameID) throws SQLException, DAOException;
 
+    /**
+     * Returns one page of the GamesPlayed associated with the given Game ID,
+     * ordered by id. Pass a null pageToken for the first page.
+     */
+    Page<GamesPlayed> retrieveByGame(Connection connection, Long gameID, String pageToken, int pageSize)
+            throws SQLException, DAOException;
+
+    /**
+     * Streams the GamesPlayed of the given Game ID from a forward-only,
+     * read-only cursor that fetches fetchSize rows per round trip, so memory
+     * use does not grow with the number of rows. MySQL Connector/J only
+     * honors fetchSize on connections opened with useCursorFetch=true, and
+     * otherwise reads the whole result first. The stream must be closed,
+     * which closes the underlying statement; the connection stays open and
+     * is owned by the caller. SQL errors while reading rows are thrown as
+     * UncheckedSQLException.
+     */
+    Stream<GamesPlayed> streamByGame(Connection connection, Long gameID, int fetchSize)
+            throws SQLException, DAOException;
+
+    /**
+     * Columnar form of retrieveByGame for analytic scans: one primitive array
+     * per column instead of one GamesPlayed per row.
+     */
+    GamesPlayedColumns retrieveColumnsByGame(Connection connection, Long gameID) throws SQLException, DAOException;
+
+    /**
+     * Returns the best score of every player of the given Game ID, keyed by
+     * player ID: one row per player instead of one per session.
+     */
+    Map<Long, Integer> retrieveBestScoresByGame(Connection connection, Long gameID) throws SQLException, DAOException;
+
     /**
      * Returns a list of GamesPlayed associated with the given Player ID
      */
     List<GamesPlayed> retrieveByPlayer(Connection connection, Long playerID) throws SQLException, DAOException;
 
+    /**
+     * Returns one page of the GamesPlayed associated with the given Player ID,
+     * ordered by id. Pass a null pageToken for the first page.
+     */
+    Page<GamesPlayed> retrieveByPlayer(Connection connection, Long playerID, String pageToken, int pageSize)
+            throws SQLException, DAOException;
+
+    /**
+     * Columnar form of retrieveByPlayer, see retrieveColumnsByGame.
+     */
+    GamesPlayedColumns retrieveColumnsByPlayer(Connection connection, Long playerID)
+            throws SQLException, DAOException;
+
     /**
      * 
      */
@@ -65,4 +134,10 @@ public interface GamesPlayedDAO
      */
     int count(Connection connection) throws SQLException, DAOException;
 
+    /**
+     * Returns the row estimate of the table statistics. Does not scan the
+     * table, but on InnoDB the estimate can be well off the exact count.
+     */
+    int countApproximate(Connection connection) throws SQLException, DAOException;
+
 }
@@ -0,0 +1,137 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * One page of a keyset-paginated query. Rows are ordered by id, or by a sort
+ * key and then id, and the page token records the last key returned, so the
+ * next page seeks straight past it instead of skipping rows with OFFSET. Pass
+ * a null token for the first page.
+ */
+public class Page<T>
+{
+    /**
+     * Largest page size accepted by the paged DAO methods.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final List<T> items;
+    private final String nextPageToken;
+
+    public Page(List<T> items, String nextPageToken)
+    {
+        this.items = Collections.unmodifiableList(items);
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<T> getItems()
+    {
+        return items;
+    }
+
+    /**
+     * The token to pass for the following page, or null if this is the last
+     * page.
+     */
+    public String getNextPageToken()
+    {
+        return nextPageToken;
+    }
+
+    public boolean hasNextPage()
+    {
+        return nextPageToken != null;
+    }
+
+    /**
+     * Builds the token for a page that ended with the given id.
+     */
+    public static String encodeToken(long lastID)
+    {
+        return Long.toString(lastID, Character.MAX_RADIX);
+    }
+
+    /**
+     * Returns the id after which the page starts. A null or empty token
+     * denotes the first page.
+     * 
+     * @throws DAOException if the token was not produced by encodeToken.
+     */
+    public static long decodeToken(String pageToken) throws DAOException
+    {
+        if (pageToken == null || pageToken.isEmpty()) {
+            return 0;
+        }
+        try {
+            long lastID = Long.parseLong(pageToken, Character.MAX_RADIX);
+            if (lastID < 0) {
+                throw new DAOException("Invalid page token: " + pageToken);
+            }
+            return lastID;
+        } catch (NumberFormatException ex) {
+            throw new DAOException("Invalid page token: " + pageToken, ex);
+        }
+    }
+
+    /**
+     * Builds the token for a page ordered by (sortKey, id) that ended with the
+     * given row.
+     */
+    public static String encodeToken(long sortKey, long lastID)
+    {
+        return Long.toString(sortKey, Character.MAX_RADIX) + "." + Long.toString(lastID, Character.MAX_RADIX);
+    }
+
+    /**
+     * Returns the { sortKey, id } after which a page ordered by (sortKey, id)
+     * starts, or null for a null or empty token, which denotes the first page.
+     * 
+     * @throws DAOException if the token was not produced by
+     *         encodeToken(long, long).
+     */
+    public static long[] decodeKeyToken(String pageToken) throws DAOException
+    {
+        if (pageToken == null || pageToken.isEmpty()) {
+            return null;
+        }
+        int dot = pageToken.indexOf('.');
+        if (dot < 0) {
+            throw new DAOException("Invalid page token: " + pageToken);
+        }
+        try {
+            long sortKey = Long.parseLong(pageToken.substring(0, dot), Character.MAX_RADIX);
+            long lastID = Long.parseLong(pageToken.substring(dot + 1), Character.MAX_RADIX);
+            if (lastID < 0) {
+                throw new DAOException("Invalid page token: " + pageToken);
+            }
+            return new long[] { sortKey, lastID };
+        } catch (NumberFormatException ex) {
+            throw new DAOException("Invalid page token: " + pageToken, ex);
+        }
+    }
+
+    /**
+     * Validates a requested page size.
+     * 
+     * @throws DAOException if pageSize is not between 1 and MAX_PAGE_SIZE.
+     */
+    public static void checkPageSize(int pageSize) throws DAOException
+    {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new DAOException("Page size must be between 1 and " + MAX_PAGE_SIZE + ": " + pageSize);
+        }
+    }
+}
@@ -12,6 +12,7 @@ package cs4347.jdbcGame.dao;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -33,11 +34,35 @@ public interface PlayerDAO
      */
     Player create(Connection connection, Player player) throws SQLException, DAOException;
 
+    /**
+     * Inserts the given Players using JDBC batches of at most batchSize
+     * rows. Every Player must have a null ID. The generated IDs are assigned
+     * to the Players in list order. Credit cards are not inserted.
+     * 
+     * @throws DAOException if any Player has a non-null id.
+     */
+    List<Player> createAll(Connection connection, List<Player> players, int batchSize) throws SQLException, DAOException;
+
+    /**
+     * Same as createAll(connection, players, batchSize) using the default batch size.
+     */
+    List<Player> createAll(Connection connection, List<Player> players) throws SQLException, DAOException;
+
     /**
      * The update method must throw DAOException if the provided ID is null.
      */
     Player retrieve(Connection connection, Long playerID) throws SQLException, DAOException;
 
+    /**
+     * Retrieves the Players with the given IDs using a constant number of
+     * queries per few hundred IDs. IDs that do not exist are skipped and
+     * duplicates are returned once. The result is not in any particular
+     * order. Credit cards are not loaded.
+     * 
+     * @throws DAOException if any of the IDs is null.
+     */
+    List<Player> retrieveAll(Connection connection, Collection<Long> playerIDs) throws SQLException, DAOException;
+
     /**
      * The update method must throw DAOException if the provided Player has a NULL
      * id.
@@ -54,9 +79,22 @@ public interface PlayerDAO
      */
     int count(Connection connection) throws SQLException, DAOException;
 
+    /**
+     * Returns the row estimate of the table statistics. Does not scan the
+     * table, but on InnoDB the estimate can be well off the exact count.
+     */
+    int countApproximate(Connection connection) throws SQLException, DAOException;
+
     /**
      * Retrieve players in the given join date range
      */
     List<Player> retrieveByJoinDate(Connection connection, Date start, Date end) throws SQLException, DAOException;
 
+    /**
+     * Returns one page of the players in the given join date range, ordered by
+     * join date and then id. Pass a null pageToken for the first page.
+     */
+    Page<Player> retrieveByJoinDate(Connection connection, Date start, Date end, String pageToken, int pageSize)
+            throws SQLException, DAOException;
+
 }
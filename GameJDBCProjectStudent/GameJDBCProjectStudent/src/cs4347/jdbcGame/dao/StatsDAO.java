@@ -0,0 +1,115 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+
+import cs4347.jdbcGame.entity.GameStats;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.PlayerStats;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * The StatsDAO exclusively updates the PLAYER_STATS and GAME_STATS tables.
+ * The record and remove methods apply the change of a single GamesPlayed or
+ * GamesOwned row as a delta to both summary rows, and must run in the same
+ * transaction as that change. The refresh and rebuild methods recompute rows
+ * from GAMES_PLAYED and GAMES_OWNED.
+ */
+public interface StatsDAO
+{
+    /**
+     * Return the summary row of the player, or null if the player has no
+     * sessions or purchases.
+     */
+    PlayerStats retrievePlayerStats(Connection connection, Long playerID) throws SQLException, DAOException;
+
+    /**
+     * Return the summary row of the game, or null if the game has no sessions
+     * or purchases.
+     */
+    GameStats retrieveGameStats(Connection connection, Long gameID) throws SQLException, DAOException;
+
+    /**
+     * Adds a new session to the player and game totals.
+     */
+    void recordPlay(Connection connection, GamesPlayed gamesPlayed) throws SQLException, DAOException;
+
+    /**
+     * Takes a session out of the player and game totals. Must be called after
+     * the GAMES_PLAYED row is deleted or changed: when the session held the
+     * best score, the best score is recomputed from GAMES_PLAYED.
+     */
+    void removePlay(Connection connection, GamesPlayed gamesPlayed) throws SQLException, DAOException;
+
+    /**
+     * Adds a new purchase to the player and game totals.
+     */
+    void recordPurchase(Connection connection, GamesOwned gamesOwned) throws SQLException, DAOException;
+
+    /**
+     * Takes a purchase out of the player and game totals.
+     */
+    void removePurchase(Connection connection, GamesOwned gamesOwned) throws SQLException, DAOException;
+
+    /**
+     * Moves the spend totals of a purchase from the price of previous to that
+     * of current. Both must be for the same player and game.
+     */
+    void repricePurchase(Connection connection, GamesOwned previous, GamesOwned current)
+            throws SQLException, DAOException;
+
+    /**
+     * Recomputes the owned count and spend of the given players from
+     * GAMES_OWNED. Used after bulk purchase writes, where per-row deltas are
+     * not known. GAMES_PLAYED is not read.
+     */
+    void refreshPlayerPurchases(Connection connection, Collection<Long> playerIDs) throws SQLException, DAOException;
+
+    /**
+     * Recomputes the owned count and spend of the given games, see
+     * refreshPlayerPurchases.
+     */
+    void refreshGamePurchases(Connection connection, Collection<Long> gameIDs) throws SQLException, DAOException;
+
+    /**
+     * Replaces the summary rows of the players with fromID <= id < toID by
+     * rows computed from GAMES_PLAYED and GAMES_OWNED. Returns the number of
+     * rows written.
+     */
+    int rebuildPlayers(Connection connection, long fromID, long toID) throws SQLException, DAOException;
+
+    /**
+     * Replaces the summary rows of the games with fromID <= id < toID, see
+     * rebuildPlayers.
+     */
+    int rebuildGames(Connection connection, long fromID, long toID) throws SQLException, DAOException;
+
+    /**
+     * Returns the largest player id, or 0 if there are no players.
+     */
+    long retrieveMaxPlayerID(Connection connection) throws SQLException, DAOException;
+
+    /**
+     * Returns the largest game id, or 0 if there are no games.
+     */
+    long retrieveMaxGameID(Connection connection) throws SQLException, DAOException;
+
+    /**
+     * Returns the owned count of every game that has been purchased, keyed by
+     * game id, in one read of GAME_STATS.
+     */
+    Map<Long, Integer> retrieveOwnedCounts(Connection connection) throws SQLException, DAOException;
+}
@@ -0,0 +1,201 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
+
+/**
+ * Shared JDBC batching used by the bulk methods of the DAO implementations.
+ * createAll sends rows with addBatch/executeBatch in chunks of at most
+ * batchSize rows and copies the generated keys of each chunk back to the
+ * entities in insertion order. executeAll batches statements whose keys are
+ * not needed, such as upserts. The bulk retrieves look rows up by key with
+ * chunked IN lists.
+ */
+final class BatchSupport
+{
+    /**
+     * Chunk size used by the createAll(Connection, List) overloads.
+     */
+    static final int DEFAULT_BATCH_SIZE = 500;
+
+    /**
+     * Largest number of keys bound into one IN list.
+     */
+    static final int IN_LIST_CHUNK_SIZE = 256;
+
+    private static final StatementCache statementCache = StatementCache.getInstance();
+
+    /**
+     * Binds the insert parameters of a single entity.
+     */
+    interface Binder<T>
+    {
+        void bind(PreparedStatement ps, T item) throws SQLException;
+    }
+
+    /**
+     * Copies a generated key to a single entity.
+     */
+    interface KeyAssigner<T>
+    {
+        void assign(T item, Long key);
+    }
+
+    /**
+     * Consumes one row of a bulk select.
+     */
+    interface RowReader
+    {
+        void read(ResultSet rs) throws SQLException;
+    }
+
+    private BatchSupport()
+    {
+    }
+
+    static <T> List<T> insertAll(Connection connection, String insertSQL, List<T> items, int batchSize,
+            Binder<T> binder, KeyAssigner<T> keyAssigner) throws SQLException, DAOException
+    {
+        if (batchSize < 1) {
+            throw new DAOException("Batch size must be positive: " + batchSize);
+        }
+        if (items.isEmpty()) {
+            return items;
+        }
+
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, insertSQL, Statement.RETURN_GENERATED_KEYS);
+            int start = 0;
+            while (start < items.size()) {
+                int end = Math.min(start + batchSize, items.size());
+                for (int idx = start; idx < end; idx++) {
+                    binder.bind(ps, items.get(idx));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                // Copy the assigned IDs to the entities of this chunk.
+                ResultSet keyRS = ps.getGeneratedKeys();
+                for (int idx = start; idx < end; idx++) {
+                    if (!keyRS.next()) {
+                        throw new DAOException("Batch insert returned fewer generated keys than rows");
+                    }
+                    keyAssigner.assign(items.get(idx), keyRS.getLong(1));
+                }
+                keyRS.close();
+                start = end;
+            }
+            return items;
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+
+    /**
+     * Sends every item through sql with addBatch/executeBatch in chunks of at
+     * most batchSize rows. Generated keys are not read, so the driver is free
+     * to rewrite each chunk into a single multi-row statement.
+     */
+    static <T> void executeAll(Connection connection, String sql, List<T> items, int batchSize, Binder<T> binder)
+            throws SQLException, DAOException
+    {
+        if (batchSize < 1) {
+            throw new DAOException("Batch size must be positive: " + batchSize);
+        }
+        if (items.isEmpty()) {
+            return;
+        }
+
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, sql);
+            int start = 0;
+            while (start < items.size()) {
+                int end = Math.min(start + batchSize, items.size());
+                for (int idx = start; idx < end; idx++) {
+                    binder.bind(ps, items.get(idx));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                start = end;
+            }
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+
+    /**
+     * Runs selectPrefix + "?, ?, ..." + selectSuffix for every chunk of the
+     * distinct keys and hands each row to reader. The IN list is padded to a
+     * power of two by repeating the last key, so only a handful of distinct
+     * statements ever reach the statement cache. Rows come back in no
+     * particular order.
+     */
+    static void selectIn(Connection connection, String selectPrefix, String selectSuffix, Collection<Long> keys,
+            RowReader reader) throws SQLException
+    {
+        Long[] distinct = new LinkedHashSet<Long>(keys).toArray(new Long[0]);
+        int start = 0;
+        while (start < distinct.length) {
+            int end = Math.min(start + IN_LIST_CHUNK_SIZE, distinct.length);
+            int width = Math.min(Integer.highestOneBit(end - start - 1) << 1, IN_LIST_CHUNK_SIZE);
+            width = Math.max(width, end - start);
+
+            PreparedStatement ps = null;
+            try {
+                ps = statementCache.prepare(connection, selectPrefix + placeholders(width) + selectSuffix);
+                for (int idx = 0; idx < width; idx++) {
+                    ps.setLong(idx + 1, distinct[Math.min(start + idx, end - 1)]);
+                }
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    reader.read(rs);
+                }
+            }
+            finally {
+                if (ps != null) {
+                    statementCache.release(ps);
+                }
+            }
+            start = end;
+        }
+    }
+
+    private static String placeholders(int count)
+    {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int idx = 0; idx < count; idx++) {
+            if (idx > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,58 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps rows to entities by column index. The column names are resolved with
+ * findColumn once per ResultSet, on its first row, so later rows only do
+ * indexed gets instead of a name lookup per column per row. This does not
+ * change what a row allocates, and ResultSetMappingBenchmark measures it as
+ * neutral on H2. Keeps the last ResultSet it saw, so create one per query and
+ * do not share it between threads.
+ */
+final class ColumnMapper<T> implements PageSupport.RowMapper<T>
+{
+    /**
+     * Builds an entity from the current row. columns[i] is the index of the
+     * i-th name given to the ColumnMapper.
+     */
+    interface IndexedReader<T>
+    {
+        T read(ResultSet rs, int[] columns) throws SQLException;
+    }
+
+    private final IndexedReader<T> reader;
+    private final String[] names;
+    private final int[] columns;
+    private ResultSet resolvedFor;
+
+    ColumnMapper(IndexedReader<T> reader, String... names)
+    {
+        this.reader = reader;
+        this.names = names;
+        this.columns = new int[names.length];
+    }
+
+    @Override
+    public T map(ResultSet rs) throws SQLException
+    {
+        if (rs != resolvedFor) {
+            for (int idx = 0; idx < names.length; idx++) {
+                columns[idx] = rs.findColumn(names[idx]);
+            }
+            resolvedFor = rs;
+        }
+        return reader.read(rs, columns);
+    }
+}
@@ -0,0 +1,63 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import cs4347.jdbcGame.util.StatementCache;
+
+/**
+ * Shared row estimate used by the countApproximate methods of the DAO
+ * implementations. Reads TABLE_ROWS from information_schema, which InnoDB
+ * fills from its sampled index statistics, instead of scanning the table.
+ * MySQL 8 serves TABLE_ROWS from a cache for information_schema_stats_expiry
+ * seconds (default one day); dbconfig.properties sets it to 0 through the
+ * url's sessionVariables so the estimate follows the InnoDB statistics.
+ */
+final class CountSupport
+{
+    private static final StatementCache statementCache = StatementCache.getInstance();
+
+    // Table names are compared in lower case because the schema creates them
+    // in mixed case and the DAOs query them in lower case.
+    final static String approximateCountSQL = "SELECT TABLE_ROWS FROM information_schema.TABLES "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND LOWER(TABLE_NAME) = ?";
+
+    private CountSupport()
+    {
+    }
+
+    /**
+     * Returns the estimated row count of the table in the current schema, or
+     * 0 if the server has no estimate.
+     */
+    static int approximateCount(Connection connection, String table) throws SQLException
+    {
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, approximateCountSQL);
+            ps.setString(1, table);
+            ResultSet rs = ps.executeQuery();
+            if (!rs.next()) {
+                return 0;
+            }
+            return (int) Math.min(rs.getLong(1), Integer.MAX_VALUE);
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+}
@@ -16,15 +16,21 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import cs4347.jdbcGame.dao.CreditCardDAO;
 import cs4347.jdbcGame.entity.CreditCard;
 import cs4347.jdbcGame.entity.Game;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
 
 public class CreditCardDAOImpl implements CreditCardDAO
 {
+    private static final StatementCache statementCache = StatementCache.getInstance();
+
     private static final String insertSQL = "INSERT INTO creditcard(cc_name, cc_number, exp_date, security_code, player_id) "
             + "VALUES(?,?,?,?,?);";
 
@@ -38,7 +44,7 @@ public class CreditCardDAOImpl implements CreditCardDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS);
+            ps = statementCache.prepare(connection, insertSQL, Statement.RETURN_GENERATED_KEYS);
 
             creditCard.setPlayerID(playerID);
             
@@ -57,12 +63,41 @@ public class CreditCardDAOImpl implements CreditCardDAO
             return creditCard;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
 
+    @Override
+    public List<CreditCard> createAll(Connection connection, List<CreditCard> creditCards)
+            throws SQLException, DAOException
+    {
+        return createAll(connection, creditCards, BatchSupport.DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public List<CreditCard> createAll(Connection connection, List<CreditCard> creditCards, int batchSize)
+            throws SQLException, DAOException
+    {
+        for (CreditCard creditCard : creditCards) {
+            if (creditCard.getId() != null) {
+                throw new DAOException("Trying to insert CreditCard with NON-NULL ID");
+            }
+            if (creditCard.getPlayerID() == null) {
+                throw new DAOException("Trying to insert CreditCard with NULL playerID");
+            }
+        }
+
+        return BatchSupport.insertAll(connection, insertSQL, creditCards, batchSize, (ps, creditCard) -> {
+            ps.setString(1, creditCard.getCcName());
+            ps.setString(2, creditCard.getCcNumber());
+            ps.setString(3, creditCard.getExpDate());
+            ps.setInt(4, creditCard.getSecurityCode());
+            ps.setLong(5, creditCard.getPlayerID());
+        }, CreditCard::setId);
+    }
+
     final static String selectSQL = "SELECT id, player_id, cc_name, cc_number, security_code, exp_date FROM creditcard WHERE id=?;";
     
     @Override
@@ -74,19 +109,19 @@ public class CreditCardDAOImpl implements CreditCardDAO
     	
         PreparedStatement ps = null;
         try {
-        	ps = connection.prepareStatement(selectSQL);
+        	ps = statementCache.prepare(connection, selectSQL);
         	ps.setLong(1, ccID);
         	ResultSet rs = ps.executeQuery();
         	if (!rs.next()) {
         		return null;
         	}
         	
-        	CreditCard cc = extractFromRS(rs);
+        	CreditCard cc = newMapper().map(rs);
         	return cc;
         }
         finally {
-        	if (ps != null && !ps.isClosed()) {
-        		ps.close();
+        	if (ps != null) {
+        		statementCache.release(ps);
         	}
         }
     }
@@ -105,23 +140,45 @@ public class CreditCardDAOImpl implements CreditCardDAO
     	
         PreparedStatement ps = null;
         try {
-        	ps = connection.prepareStatement(retCcForPlayer);
+        	ps = statementCache.prepare(connection, retCcForPlayer);
         	ps.setLong(1, playerID);
         	ResultSet rs = ps.executeQuery();
         	
+        	ColumnMapper<CreditCard> mapper = newMapper();
         	while (rs.next()) {
-        		CreditCard cc = extractFromRS(rs);
+        		CreditCard cc = mapper.map(rs);
         		result.add(cc);
         	}
         	return result;
         }
     	finally {
-    		if (ps != null && !ps.isClosed()) {
-    			ps.close();
+    		if (ps != null) {
+    			statementCache.release(ps);
     		}
     	}
     }
 
+    final static String retCcForPlayersPrefix = "SELECT id, player_id, cc_name, cc_number, security_code, exp_date FROM creditcard WHERE player_id IN (";
+
+    @Override
+    public Map<Long, List<CreditCard>> retrieveCreditCardsForPlayers(Connection connection,
+            Collection<Long> playerIDs) throws SQLException, DAOException
+    {
+        for (Long playerID : playerIDs) {
+            if (playerID == null) {
+                throw new DAOException("Trying to retrieve CreditCard with NULL playerID");
+            }
+        }
+
+        Map<Long, List<CreditCard>> result = new HashMap<Long, List<CreditCard>>();
+        ColumnMapper<CreditCard> mapper = newMapper();
+        BatchSupport.selectIn(connection, retCcForPlayersPrefix, ") ORDER BY id", playerIDs, rs -> {
+            CreditCard cc = mapper.map(rs);
+            result.computeIfAbsent(cc.getPlayerID(), id -> new ArrayList<CreditCard>()).add(cc);
+        });
+        return result;
+    }
+
     final static String updateSQL = "UPDATE creditcard SET player_id=?, cc_name=?, cc_number=?, security_code=?, exp_date=? WHERE id=?;";
 
     @Override
@@ -135,7 +192,7 @@ public class CreditCardDAOImpl implements CreditCardDAO
         
         PreparedStatement ps = null;
         try {
-        	ps = connection.prepareStatement(updateSQL);
+        	ps = statementCache.prepare(connection, updateSQL);
         	
         	ps.setLong(1, creditCard.getPlayerID());
         	ps.setString(2, creditCard.getCcName());
@@ -149,8 +206,8 @@ public class CreditCardDAOImpl implements CreditCardDAO
             return rows;
         }
         finally {
-        	if (ps != null && !ps.isClosed()) {
-        		ps.close();
+        	if (ps != null) {
+        		statementCache.release(ps);
         	}
         }
     }
@@ -166,15 +223,15 @@ public class CreditCardDAOImpl implements CreditCardDAO
         
         PreparedStatement ps = null;
         try {
-        	ps = connection.prepareStatement(deleteSQL);
+        	ps = statementCache.prepare(connection, deleteSQL);
         	ps.setLong(1, ccID);
         	
         	int rows = ps.executeUpdate();
         	return rows;
         }
         finally {
-        	if (ps != null && !ps.isClosed()) {
-        		ps.close();
+        	if (ps != null) {
+        		statementCache.release(ps);
         	}
         }
     }
@@ -190,15 +247,15 @@ public class CreditCardDAOImpl implements CreditCardDAO
     	
     	PreparedStatement ps = null;
     	try {
-    		ps = connection.prepareStatement(deleteForPlayerSQL);
+    		ps = statementCache.prepare(connection, deleteForPlayerSQL);
     		ps.setLong(1, playerID);
     				
     		int rows = ps.executeUpdate();
     		return rows;
     	}
     	finally {
-    		if (ps != null && !ps.isClosed()) {
-    			ps.close();
+    		if (ps != null) {
+    			statementCache.release(ps);
     		}
     	}
     }
@@ -210,7 +267,7 @@ public class CreditCardDAOImpl implements CreditCardDAO
     {
     	PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(countSQL);
+            ps = statementCache.prepare(connection, countSQL);
             ResultSet rs = ps.executeQuery();
             if (!rs.next()) {
                 throw new DAOException("No Count Returned");
@@ -219,23 +276,37 @@ public class CreditCardDAOImpl implements CreditCardDAO
             return count;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
+
+    @Override
+    public int countApproximate(Connection connection) throws SQLException, DAOException
+    {
+        return CountSupport.approximateCount(connection, "creditcard");
+    }
     
-    private CreditCard extractFromRS(ResultSet rs) throws SQLException{
-    	
-    	CreditCard cc = new CreditCard();
-        cc.setId(rs.getLong("id"));
-        cc.setPlayerID(rs.getLong("player_id"));
-        cc.setCcName(rs.getString("cc_name"));
-        cc.setCcNumber(rs.getString("cc_number"));
-        cc.setSecurityCode(rs.getInt("security_code"));
-        cc.setExpDate(rs.getString("exp_date"));
-    	
-    	return cc;
+    // Column order expected by extractFromRS.
+    private static final String[] columns = { "id", "player_id", "cc_name", "cc_number", "security_code",
+            "exp_date" };
+
+    private static ColumnMapper<CreditCard> newMapper()
+    {
+        return new ColumnMapper<CreditCard>(CreditCardDAOImpl::extractFromRS, columns);
+    }
+
+    private static CreditCard extractFromRS(ResultSet rs, int[] col) throws SQLException
+    {
+        CreditCard cc = new CreditCard();
+        cc.setId(rs.getLong(col[0]));
+        cc.setPlayerID(rs.getLong(col[1]));
+        cc.setCcName(rs.getString(col[2]));
+        cc.setCcNumber(rs.getString(col[3]));
+        cc.setSecurityCode(rs.getInt(col[4]));
+        cc.setExpDate(rs.getString(col[5]));
+        return cc;
     }
 
 }
@@ -0,0 +1,237 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.impl;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.entity.GamesPlayedColumns;
+import cs4347.jdbcGame.util.LatencyHistogram;
+import cs4347.jdbcGame.util.StatementCache;
+
+/**
+ * Times every call made through a DAO returned by instrument(), keeping a
+ * latency histogram and call, error and row counts per method, readable with
+ * snapshot(). Calls slower than the slow threshold are logged at WARNING on
+ * the "cs4347.jdbcGame.dao.slow" logger with the SQL they prepared, recorded
+ * by StatementCache, and their arguments redacted: only the type of each
+ * value, and the size of collections, is written. The SQL carries ?
+ * placeholders, so parameter values never reach the log.
+ * 
+ * For streamByGame only opening the stream is timed, and its rows are not
+ * counted.
+ */
+public final class DAOInstrumentation
+{
+    public static final long DEFAULT_SLOW_THRESHOLD_MILLIS = 100;
+
+    private static final Logger slowLog = Logger.getLogger("cs4347.jdbcGame.dao.slow");
+
+    private static final Map<Method, MethodStats> stats = new ConcurrentHashMap<Method, MethodStats>();
+    private static volatile boolean enabled = true;
+    private static volatile long slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SLOW_THRESHOLD_MILLIS);
+
+    private DAOInstrumentation()
+    {
+    }
+
+    private static final class MethodStats
+    {
+        final String name;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder rows = new LongAdder();
+
+        MethodStats(String name)
+        {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Returns dao wrapped so that its calls are recorded.
+     */
+    public static <T> T instrument(Class<T> daoInterface, T dao)
+    {
+        Object proxy = Proxy.newProxyInstance(daoInterface.getClassLoader(), new Class<?>[] { daoInterface },
+                (self, method, args) -> invoke(daoInterface, dao, method, args));
+        return daoInterface.cast(proxy);
+    }
+
+    private static Object invoke(Class<?> daoInterface, Object dao, Method method, Object[] args) throws Throwable
+    {
+        if (!enabled || method.getDeclaringClass() == Object.class) {
+            try {
+                return method.invoke(dao, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        MethodStats methodStats = stats.computeIfAbsent(method, m -> new MethodStats(nameOf(daoInterface, m)));
+        List<String> outerRecording = StatementCache.startRecording();
+        long start = System.nanoTime();
+        Object result = null;
+        boolean failed = false;
+        try {
+            result = method.invoke(dao, args);
+            return result;
+        } catch (InvocationTargetException ex) {
+            failed = true;
+            throw ex.getCause();
+        }
+        finally {
+            long elapsed = System.nanoTime() - start;
+            List<String> sql = StatementCache.stopRecording(outerRecording);
+            long rows = failed ? 0 : rowsOf(method, result, args);
+            methodStats.latency.record(elapsed, TimeUnit.NANOSECONDS);
+            methodStats.rows.add(rows);
+            if (failed) {
+                methodStats.errors.increment();
+            }
+            if (elapsed >= slowThresholdNanos && slowLog.isLoggable(Level.WARNING)) {
+                slowLog.warning(String.format("%s took %d ms%s, %d rows, args %s, sql %s", methodStats.name,
+                        TimeUnit.NANOSECONDS.toMillis(elapsed), failed ? " and failed" : "", rows, redact(args),
+                        String.join("; ", sql)));
+            }
+        }
+    }
+
+    /**
+     * Statistics of every method called so far, sorted by name.
+     */
+    public static List<DAOMethodMetrics> snapshot()
+    {
+        List<DAOMethodMetrics> result = new ArrayList<DAOMethodMetrics>();
+        for (MethodStats s : stats.values()) {
+            LatencyHistogram h = s.latency;
+            result.add(new DAOMethodMetrics(s.name, h.getCount(), s.errors.sum(), s.rows.sum(), h.getMeanMicros(),
+                    h.getPercentileMicros(0.50), h.getPercentileMicros(0.99), h.getMaxMicros()));
+        }
+        result.sort(Comparator.comparing(DAOMethodMetrics::getMethod));
+        return result;
+    }
+
+    public static void reset()
+    {
+        stats.clear();
+    }
+
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * While disabled, instrumented DAOs pass calls straight through.
+     */
+    public static void setEnabled(boolean enabled)
+    {
+        DAOInstrumentation.enabled = enabled;
+    }
+
+    public static long getSlowThreshold(TimeUnit unit)
+    {
+        return unit.convert(slowThresholdNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void setSlowThreshold(long threshold, TimeUnit unit)
+    {
+        slowThresholdNanos = unit.toNanos(threshold);
+    }
+
+    private static String nameOf(Class<?> daoInterface, Method method)
+    {
+        StringJoiner params = new StringJoiner(",", "(", ")");
+        for (Class<?> type : method.getParameterTypes()) {
+            if (type != Connection.class) {
+                params.add(type.getSimpleName());
+            }
+        }
+        return daoInterface.getSimpleName() + "." + method.getName() + params;
+    }
+
+    /**
+     * Rows returned by a query, or affected by an update, delete or void
+     * batch method (the size of its collection argument).
+     */
+    private static long rowsOf(Method method, Object result, Object[] args)
+    {
+        if (method.getReturnType() == void.class) {
+            if (args != null) {
+                for (Object arg : args) {
+                    if (arg instanceof Collection) {
+                        return ((Collection<?>) arg).size();
+                    }
+                }
+            }
+            return 0;
+        }
+        if (result == null || result instanceof Stream) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            long rows = 0;
+            for (Object value : ((Map<?, ?>) result).values()) {
+                rows += value instanceof Collection ? ((Collection<?>) value).size() : 1;
+            }
+            return rows;
+        }
+        if (result instanceof Page) {
+            return ((Page<?>) result).getItems().size();
+        }
+        if (result instanceof GamesPlayedColumns) {
+            return ((GamesPlayedColumns) result).size();
+        }
+        if (result instanceof Integer && !method.getName().startsWith("count")) {
+            return (Integer) result;
+        }
+        return 1;
+    }
+
+    private static String redact(Object[] args)
+    {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        if (args != null) {
+            for (Object arg : args) {
+                if (arg instanceof Connection) {
+                    continue;
+                }
+                if (arg == null) {
+                    joiner.add("null");
+                } else if (arg instanceof Collection) {
+                    joiner.add(arg.getClass().getSimpleName() + "(" + ((Collection<?>) arg).size() + ")");
+                } else {
+                    joiner.add(arg.getClass().getSimpleName());
+                }
+            }
+        }
+        return joiner.toString();
+    }
+}
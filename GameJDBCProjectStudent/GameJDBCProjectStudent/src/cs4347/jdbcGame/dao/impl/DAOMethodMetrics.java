@@ -0,0 +1,97 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.impl;
+
+/**
+ * Snapshot of the statistics DAOInstrumentation keeps for one DAO method.
+ * Latencies are in microseconds.
+ */
+public class DAOMethodMetrics
+{
+    private final String method;
+    private final long calls;
+    private final long errors;
+    private final long rows;
+    private final double meanMicros;
+    private final long p50Micros;
+    private final long p99Micros;
+    private final long maxMicros;
+
+    public DAOMethodMetrics(String method, long calls, long errors, long rows, double meanMicros, long p50Micros,
+            long p99Micros, long maxMicros)
+    {
+        this.method = method;
+        this.calls = calls;
+        this.errors = errors;
+        this.rows = rows;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    /**
+     * Interface and method, with the parameter types after the connection,
+     * e.g. "GameDAO.retrieveByTitle(String)".
+     */
+    public String getMethod()
+    {
+        return method;
+    }
+
+    public long getCalls()
+    {
+        return calls;
+    }
+
+    /**
+     * Calls that threw.
+     */
+    public long getErrors()
+    {
+        return errors;
+    }
+
+    /**
+     * Rows returned, or affected for update, delete and batch methods.
+     */
+    public long getRows()
+    {
+        return rows;
+    }
+
+    public double getMeanMicros()
+    {
+        return meanMicros;
+    }
+
+    public long getP50Micros()
+    {
+        return p50Micros;
+    }
+
+    public long getP99Micros()
+    {
+        return p99Micros;
+    }
+
+    public long getMaxMicros()
+    {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s calls=%d errors=%d rows=%d mean=%.0fus p50=%dus p99=%dus max=%dus", method, calls,
+                errors, rows, meanMicros, p50Micros, p99Micros, maxMicros);
+    }
+}
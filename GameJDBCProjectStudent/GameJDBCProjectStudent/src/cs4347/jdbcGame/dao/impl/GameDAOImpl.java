@@ -20,11 +20,14 @@ import java.util.Date;
 import java.util.List;
 
 import cs4347.jdbcGame.dao.GameDAO;
+import cs4347.jdbcGame.dao.Page;
 import cs4347.jdbcGame.entity.Game;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
 
 public class GameDAOImpl implements GameDAO
 {
+    private static final StatementCache statementCache = StatementCache.getInstance();
 
     private static final String insertSQL = "INSERT INTO game (title, description, release_date, version) VALUES (?, ?, ?, ?);";
 
@@ -37,7 +40,7 @@ public class GameDAOImpl implements GameDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS);
+            ps = statementCache.prepare(connection, insertSQL, Statement.RETURN_GENERATED_KEYS);
             ps.setString(1, game.getTitle());
             ps.setString(2, game.getDescription());
             ps.setDate(3, new java.sql.Date(game.getReleaseDate().getTime()));
@@ -52,12 +55,36 @@ public class GameDAOImpl implements GameDAO
             return game;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
 
+    @Override
+    public List<Game> createAll(Connection connection, List<Game> games) throws SQLException, DAOException
+    {
+        return createAll(connection, games, BatchSupport.DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public List<Game> createAll(Connection connection, List<Game> games, int batchSize)
+            throws SQLException, DAOException
+    {
+        for (Game game : games) {
+            if (game.getId() != null) {
+                throw new DAOException("Trying to insert Game with NON-NULL ID");
+            }
+        }
+
+        return BatchSupport.insertAll(connection, insertSQL, games, batchSize, (ps, game) -> {
+            ps.setString(1, game.getTitle());
+            ps.setString(2, game.getDescription());
+            ps.setDate(3, new java.sql.Date(game.getReleaseDate().getTime()));
+            ps.setString(4, game.getVersion());
+        }, Game::setId);
+    }
+
     final static String selectSQL = "SELECT id, title, description, release_date, version FROM game where id = ?";
 
     @Override
@@ -69,19 +96,19 @@ public class GameDAOImpl implements GameDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(selectSQL);
+            ps = statementCache.prepare(connection, selectSQL);
             ps.setLong(1, gameID);
             ResultSet rs = ps.executeQuery();
             if (!rs.next()) {
                 return null;
             }
 
-            Game game = extractFromRS(rs);
+            Game game = newMapper().map(rs);
             return game;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
@@ -98,7 +125,7 @@ public class GameDAOImpl implements GameDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(updateSQL);
+            ps = statementCache.prepare(connection, updateSQL);
             ps.setString(1, game.getTitle());
             ps.setString(2, game.getDescription());
             ps.setDate(3, new java.sql.Date(game.getReleaseDate().getTime()));
@@ -109,8 +136,8 @@ public class GameDAOImpl implements GameDAO
             return rows;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
@@ -126,15 +153,15 @@ public class GameDAOImpl implements GameDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(deleteSQL);
+            ps = statementCache.prepare(connection, deleteSQL);
             ps.setLong(1, id);
 
             int rows = ps.executeUpdate();
             return rows;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
@@ -146,7 +173,7 @@ public class GameDAOImpl implements GameDAO
     {
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(countSQL);
+            ps = statementCache.prepare(connection, countSQL);
             ResultSet rs = ps.executeQuery();
             if (!rs.next()) {
                 throw new DAOException("No Count Returned");
@@ -155,12 +182,18 @@ public class GameDAOImpl implements GameDAO
             return count;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
 
+    @Override
+    public int countApproximate(Connection connection) throws SQLException, DAOException
+    {
+        return CountSupport.approximateCount(connection, "game");
+    }
+
     final static String retrieveByTitleSQL = "select id,title,description,release_date,version from game where title like ?";
 
     @Override
@@ -169,23 +202,36 @@ public class GameDAOImpl implements GameDAO
         List<Game> result = new ArrayList<Game>();
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(retrieveByTitleSQL);
+            ps = statementCache.prepare(connection, retrieveByTitleSQL);
             ps.setString(1, title);
             ResultSet rs = ps.executeQuery();
 
+            ColumnMapper<Game> mapper = newMapper();
             while (rs.next()) {
-                Game game = extractFromRS(rs);
+                Game game = mapper.map(rs);
                 result.add(game);
             }
             return result;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
 
+    final static String retrieveByTitlePageSQL = "select id,title,description,release_date,version from game where title like ? and id > ? order by id limit ?";
+
+    @Override
+    public Page<Game> retrieveByTitle(Connection connection, String title, String pageToken, int pageSize)
+            throws SQLException, DAOException
+    {
+        return PageSupport.selectPage(connection, retrieveByTitlePageSQL, ps -> {
+            ps.setString(1, title);
+            return 1;
+        }, pageToken, pageSize, newMapper(), Game::getId);
+    }
+
     final static String retrieveByRelDate = "select id,title,description,release_date,version from game where release_date between ? and ?";
 
     @Override
@@ -195,31 +241,50 @@ public class GameDAOImpl implements GameDAO
         List<Game> result = new ArrayList<Game>();
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(retrieveByRelDate);
+            ps = statementCache.prepare(connection, retrieveByRelDate);
             ps.setDate(1, new java.sql.Date(start.getTime()));
             ps.setDate(2, new java.sql.Date(end.getTime()));
             ResultSet rs = ps.executeQuery();
+            ColumnMapper<Game> mapper = newMapper();
             while (rs.next()) {
-                Game game = extractFromRS(rs);
+                Game game = mapper.map(rs);
                 result.add(game);
             }
             return result;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
 
-    private Game extractFromRS(ResultSet rs) throws SQLException
+    final static String retrieveByRelDatePage = "select id,title,description,release_date,version from game where release_date between ? and ? and (release_date, id) > (?, ?) order by release_date, id limit ?";
+
+    @Override
+    public Page<Game> retrieveByReleaseDate(Connection connection, Date start, Date end, String pageToken,
+            int pageSize) throws SQLException, DAOException
+    {
+        return PageSupport.selectDatePage(connection, retrieveByRelDatePage, start, end, pageToken, pageSize,
+                newMapper(), Game::getReleaseDate, Game::getId);
+    }
+
+    // Column order expected by extractFromRS.
+    private static final String[] columns = { "id", "title", "description", "release_date", "version" };
+
+    private static ColumnMapper<Game> newMapper()
+    {
+        return new ColumnMapper<Game>(GameDAOImpl::extractFromRS, columns);
+    }
+
+    private static Game extractFromRS(ResultSet rs, int[] col) throws SQLException
     {
         Game game = new Game();
-        game.setId(rs.getLong("id"));
-        game.setTitle(rs.getString("title"));
-        game.setDescription(rs.getString("description"));
-        game.setReleaseDate(rs.getDate("release_date"));
-        game.setVersion(rs.getString("version"));
+        game.setId(rs.getLong(col[0]));
+        game.setTitle(rs.getString(col[1]));
+        game.setDescription(rs.getString(col[2]));
+        game.setReleaseDate(rs.getDate(col[3]));
+        game.setVersion(rs.getString(col[4]));
         return game;
     }
 }
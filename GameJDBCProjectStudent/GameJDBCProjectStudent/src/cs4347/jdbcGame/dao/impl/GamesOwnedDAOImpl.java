@@ -19,11 +19,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 import cs4347.jdbcGame.dao.GamesOwnedDAO;
+import cs4347.jdbcGame.dao.Page;
 import cs4347.jdbcGame.entity.GamesOwned;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
 
 public class GamesOwnedDAOImpl implements GamesOwnedDAO
 {
+    private static final StatementCache statementCache = StatementCache.getInstance();
 
 	private static final String insertSQL = "INSERT INTO gamesowned (player_id, game_id, purchase_date, purchase_price) VALUES (?, ?, ?, ?);";
 	
@@ -36,7 +39,7 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS);
+            ps = statementCache.prepare(connection, insertSQL, Statement.RETURN_GENERATED_KEYS);
             ps.setLong(1, gamesOwned.getPlayerID());
             ps.setLong(2, gamesOwned.getGameID());
             ps.setDate(3, new java.sql.Date(gamesOwned.getPurchaseDate().getTime()));
@@ -51,12 +54,141 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
             return gamesOwned;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
     
+    @Override
+    public List<GamesOwned> createAll(Connection connection, List<GamesOwned> gamesOwned)
+            throws SQLException, DAOException
+    {
+        return createAll(connection, gamesOwned, BatchSupport.DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public List<GamesOwned> createAll(Connection connection, List<GamesOwned> gamesOwned, int batchSize)
+            throws SQLException, DAOException
+    {
+        for (GamesOwned go : gamesOwned) {
+            if (go.getId() != null) {
+                throw new DAOException("Trying to insert GamesOwned with NON-NULL ID");
+            }
+        }
+
+        return BatchSupport.insertAll(connection, insertSQL, gamesOwned, batchSize, (ps, go) -> {
+            ps.setLong(1, go.getPlayerID());
+            ps.setLong(2, go.getGameID());
+            ps.setDate(3, new java.sql.Date(go.getPurchaseDate().getTime()));
+            ps.setFloat(4, go.getPurchasePrice());
+        }, GamesOwned::setId);
+    }
+
+    // id = LAST_INSERT_ID(id) makes the generated key the existing row's id when
+    // the player/game pair is already owned.
+    final static String upsertSQL = "INSERT INTO gamesowned (player_id, game_id, purchase_date, purchase_price) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id), purchase_date = VALUES(purchase_date), purchase_price = VALUES(purchase_price);";
+
+    @Override
+    public GamesOwned upsert(Connection connection, GamesOwned gamesOwned) throws SQLException, DAOException
+    {
+        checkPlayerGameIDs(gamesOwned);
+
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, upsertSQL, Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, gamesOwned.getPlayerID());
+            ps.setLong(2, gamesOwned.getGameID());
+            ps.setDate(3, new java.sql.Date(gamesOwned.getPurchaseDate().getTime()));
+            ps.setFloat(4, gamesOwned.getPurchasePrice());
+            ps.executeUpdate();
+
+            // Copy the inserted or updated ID to the gamesOwned instance.
+            ResultSet keyRS = ps.getGeneratedKeys();
+            if (!keyRS.next()) {
+                throw new DAOException("Upsert of GamesOwned returned no key");
+            }
+            gamesOwned.setId(keyRS.getLong(1));
+            return gamesOwned;
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+
+    // The affected-rows value cannot tell an insert from a duplicate: with
+    // Connector/J's found-rows reporting both are 1. On a duplicate,
+    // LAST_INSERT_ID(0) leaves the row as it is (id + 0) and makes the
+    // generated key 0, which is never an inserted ID.
+    final static String insertIfAbsentSQL = "INSERT INTO gamesowned (player_id, game_id, purchase_date, purchase_price) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE id = id + LAST_INSERT_ID(0)";
+
+    @Override
+    public boolean insertIfAbsent(Connection connection, GamesOwned gamesOwned) throws SQLException, DAOException
+    {
+        checkPlayerGameIDs(gamesOwned);
+
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, insertIfAbsentSQL, Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, gamesOwned.getPlayerID());
+            ps.setLong(2, gamesOwned.getGameID());
+            ps.setDate(3, new java.sql.Date(gamesOwned.getPurchaseDate().getTime()));
+            ps.setFloat(4, gamesOwned.getPurchasePrice());
+            ps.executeUpdate();
+
+            ResultSet keyRS = ps.getGeneratedKeys();
+            if (!keyRS.next() || keyRS.getLong(1) == 0) {
+                return false;
+            }
+            gamesOwned.setId(keyRS.getLong(1));
+            return true;
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+
+    final static String upsertAllSQL = "INSERT INTO gamesowned (player_id, game_id, purchase_date, purchase_price) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE purchase_date = VALUES(purchase_date), purchase_price = VALUES(purchase_price)";
+
+    @Override
+    public void upsertAll(Connection connection, List<GamesOwned> gamesOwned) throws SQLException, DAOException
+    {
+        upsertAll(connection, gamesOwned, BatchSupport.DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public void upsertAll(Connection connection, List<GamesOwned> gamesOwned, int batchSize)
+            throws SQLException, DAOException
+    {
+        for (GamesOwned go : gamesOwned) {
+            checkPlayerGameIDs(go);
+        }
+
+        BatchSupport.executeAll(connection, upsertAllSQL, gamesOwned, batchSize, (ps, go) -> {
+            ps.setLong(1, go.getPlayerID());
+            ps.setLong(2, go.getGameID());
+            ps.setDate(3, new java.sql.Date(go.getPurchaseDate().getTime()));
+            ps.setFloat(4, go.getPurchasePrice());
+        });
+    }
+
+    private static void checkPlayerGameIDs(GamesOwned gamesOwned) throws DAOException
+    {
+        if (gamesOwned.getPlayerID() == null) {
+            throw new DAOException("Trying to upsert GamesOwned with NULL playerID");
+        }
+        if (gamesOwned.getGameID() == null) {
+            throw new DAOException("Trying to upsert GamesOwned with NULL gameID");
+        }
+    }
+
     final static String selectByPKSQL = "SELECT id, player_id, game_id, purchase_date, purchase_price FROM gamesowned where id = ?";
 
     @Override
@@ -68,19 +200,47 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(selectByPKSQL);
+            ps = statementCache.prepare(connection, selectByPKSQL);
             ps.setLong(1, gamesOwnedID);
             ResultSet rs = ps.executeQuery();
             if (!rs.next()) {
                 return null;
             }
 
-            GamesOwned gamesOwned = extractEntityFromRS(rs);
+            GamesOwned gamesOwned = newMapper().map(rs);
             return gamesOwned;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+
+    final static String selectByPKForUpdateSQL = "SELECT id, player_id, game_id, purchase_date, purchase_price FROM gamesowned WHERE id = ? FOR UPDATE";
+
+    @Override
+    public GamesOwned retrieveIDForUpdate(Connection connection, Long gamesOwnedID) throws SQLException, DAOException
+    {
+        if (gamesOwnedID == null) {
+            throw new DAOException("Trying to retrieve GamesOwned with NULL ID");
+        }
+
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, selectByPKForUpdateSQL);
+            ps.setLong(1, gamesOwnedID);
+            ResultSet rs = ps.executeQuery();
+            if (!rs.next()) {
+                return null;
+            }
+
+            GamesOwned gamesOwned = newMapper().map(rs);
+            return gamesOwned;
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
@@ -100,7 +260,7 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(selectByFKsSQL);
+            ps = statementCache.prepare(connection, selectByFKsSQL);
             ps.setLong(1, playerID);
             ps.setLong(2,  gameID);
             ResultSet rs = ps.executeQuery();
@@ -108,16 +268,49 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
                 return null;
             }
 
-            GamesOwned gamesOwned = extractEntityFromRS(rs);
+            GamesOwned gamesOwned = newMapper().map(rs);
             return gamesOwned;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
     
+    final static String selectByFKsForUpdateSQL = "SELECT id, player_id, game_id, purchase_date, purchase_price FROM gamesowned WHERE player_id = ? AND game_id = ? FOR UPDATE";
+
+    @Override
+    public GamesOwned retrievePlayerGameIDForUpdate(Connection connection, Long playerID, Long gameID)
+            throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            throw new DAOException("Trying to retrieve GamesOwned with NULL playerID");
+        }
+        else if (gameID == null) {
+            throw new DAOException("Trying to retrieve GamesOwned with NULL gameID");
+        }
+
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, selectByFKsForUpdateSQL);
+            ps.setLong(1, playerID);
+            ps.setLong(2, gameID);
+            ResultSet rs = ps.executeQuery();
+            if (!rs.next()) {
+                return null;
+            }
+
+            GamesOwned gamesOwned = newMapper().map(rs);
+            return gamesOwned;
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+
     final static String selectByGameSQL = "SELECT id, player_id, game_id, purchase_date, purchase_price FROM gamesowned WHERE game_id = ?";
 
     @Override
@@ -129,7 +322,7 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(selectByGameSQL);
+            ps = statementCache.prepare(connection, selectByGameSQL);
             ps.setLong(1,  gameID);
             ResultSet rs = ps.executeQuery();
 
@@ -137,12 +330,28 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
             return gamesOwnedList;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
     
+    final static String selectByGamePageSQL = "SELECT id, player_id, game_id, purchase_date, purchase_price FROM gamesowned WHERE game_id = ? AND id > ? ORDER BY id LIMIT ?";
+
+    @Override
+    public Page<GamesOwned> retrieveByGame(Connection connection, Long gameID, String pageToken, int pageSize)
+            throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            throw new DAOException("Trying to retrieve GamesOwned with NULL gameID");
+        }
+
+        return PageSupport.selectPage(connection, selectByGamePageSQL, ps -> {
+            ps.setLong(1, gameID);
+            return 1;
+        }, pageToken, pageSize, newMapper(), GamesOwned::getId);
+    }
+
     final static String selectByPlayerSQL = "SELECT id, player_id, game_id, purchase_date, purchase_price FROM gamesowned WHERE player_id = ?";
 
     @Override
@@ -154,7 +363,7 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(selectByPlayerSQL);
+            ps = statementCache.prepare(connection, selectByPlayerSQL);
             ps.setLong(1,  playerID);
             ResultSet rs = ps.executeQuery();
 
@@ -162,12 +371,28 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
             return gamesOwnedList;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
     
+    final static String selectByPlayerPageSQL = "SELECT id, player_id, game_id, purchase_date, purchase_price FROM gamesowned WHERE player_id = ? AND id > ? ORDER BY id LIMIT ?";
+
+    @Override
+    public Page<GamesOwned> retrieveByPlayer(Connection connection, Long playerID, String pageToken, int pageSize)
+            throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            throw new DAOException("Trying to retrieve GamesOwned with NULL playerID");
+        }
+
+        return PageSupport.selectPage(connection, selectByPlayerPageSQL, ps -> {
+            ps.setLong(1, playerID);
+            return 1;
+        }, pageToken, pageSize, newMapper(), GamesOwned::getId);
+    }
+
     final static String updateSQL = "UPDATE gamesowned SET player_id = ?, game_id = ?, purchase_date = ?, purchase_price = ? WHERE id = ?;";
 
     @Override
@@ -180,7 +405,7 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(updateSQL);
+            ps = statementCache.prepare(connection, updateSQL);
             ps.setLong(1, gamesOwned.getPlayerID());
             ps.setLong(2, gamesOwned.getGameID());
             ps.setDate(3, new java.sql.Date(gamesOwned.getPurchaseDate().getTime()));
@@ -191,8 +416,8 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
             return rows;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
@@ -208,15 +433,15 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(deleteSQL);
+            ps = statementCache.prepare(connection, deleteSQL);
             ps.setLong(1, gameOwnedID);
 
             int rows = ps.executeUpdate();
             return rows;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
@@ -228,7 +453,7 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
     {
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(countSQL);
+            ps = statementCache.prepare(connection, countSQL);
             ResultSet rs = ps.executeQuery();
             if (!rs.next()) {
                 throw new DAOException("No Count Returned");
@@ -237,39 +462,45 @@ public class GamesOwnedDAOImpl implements GamesOwnedDAO
             return count;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
+
+    @Override
+    public int countApproximate(Connection connection) throws SQLException, DAOException
+    {
+        return CountSupport.approximateCount(connection, "gamesowned");
+    }
     
-    private GamesOwned extractEntityFromRS(ResultSet rs) throws SQLException
+    // Column order expected by extractEntityFromRS.
+    private static final String[] columns = { "id", "player_id", "game_id", "purchase_date", "purchase_price" };
+
+    private static ColumnMapper<GamesOwned> newMapper()
+    {
+        return new ColumnMapper<GamesOwned>(GamesOwnedDAOImpl::extractEntityFromRS, columns);
+    }
+
+    private static GamesOwned extractEntityFromRS(ResultSet rs, int[] col) throws SQLException
     {
         GamesOwned gamesOwned = new GamesOwned();
-        gamesOwned.setId(rs.getLong("id"));
-        gamesOwned.setPlayerID(rs.getLong("player_id"));
-        gamesOwned.setGameID(rs.getLong("game_id"));
-        gamesOwned.setPurchaseDate(rs.getDate("purchase_date"));
-        gamesOwned.setPurchasePrice(rs.getFloat("purchase_price"));
+        gamesOwned.setId(rs.getLong(col[0]));
+        gamesOwned.setPlayerID(rs.getLong(col[1]));
+        gamesOwned.setGameID(rs.getLong(col[2]));
+        gamesOwned.setPurchaseDate(rs.getDate(col[3]));
+        gamesOwned.setPurchasePrice(rs.getFloat(col[4]));
         return gamesOwned;
     }
     
     private List<GamesOwned> extractListFromRS(ResultSet rs) throws SQLException
     {
-    	List<GamesOwned> gamesOwnedList = new ArrayList<GamesOwned>();
-    	
-    	while(rs.next()) {
-    		GamesOwned gamesOwned = new GamesOwned();
-            gamesOwned.setId(rs.getLong("id"));
-            gamesOwned.setPlayerID(rs.getLong("player_id"));
-            gamesOwned.setGameID(rs.getLong("game_id"));
-            gamesOwned.setPurchaseDate(rs.getDate("purchase_date"));
-            gamesOwned.setPurchasePrice(rs.getFloat("purchase_price"));
-            
-            gamesOwnedList.add(gamesOwned);
-    	}
-    	
-    	return gamesOwnedList;
+        List<GamesOwned> gamesOwnedList = new ArrayList<GamesOwned>();
+        ColumnMapper<GamesOwned> mapper = newMapper();
+        while (rs.next()) {
+            gamesOwnedList.add(mapper.map(rs));
+        }
+        return gamesOwnedList;
     }
 
 }
@@ -16,15 +16,27 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.Page;
 import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.GamesPlayedColumns;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
+import cs4347.jdbcGame.util.UncheckedSQLException;
 
 public class GamesPlayedDAOImpl implements GamesPlayedDAO
 {
-	
+    private static final StatementCache statementCache = StatementCache.getInstance();
+
 	private static final String insertSQL = "INSERT INTO gamesplayed (player_id, game_id, time_finished, score) VALUES (?, ?, ?, ?);";
 
     @Override
@@ -36,7 +48,7 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS);
+            ps = statementCache.prepare(connection, insertSQL, Statement.RETURN_GENERATED_KEYS);
             ps.setLong(1, gamesPlayed.getPlayerID());
             ps.setLong(2, gamesPlayed.getGameID());
             ps.setDate(3, new java.sql.Date(gamesPlayed.getTimeFinished().getTime()));
@@ -51,10 +63,35 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
             return gamesPlayed;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+
+    @Override
+    public List<GamesPlayed> createAll(Connection connection, List<GamesPlayed> gamesPlayed)
+            throws SQLException, DAOException
+    {
+        return createAll(connection, gamesPlayed, BatchSupport.DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public List<GamesPlayed> createAll(Connection connection, List<GamesPlayed> gamesPlayed, int batchSize)
+            throws SQLException, DAOException
+    {
+        for (GamesPlayed gp : gamesPlayed) {
+            if (gp.getId() != null) {
+                throw new DAOException("Trying to insert GamesPlayed with NON-NULL ID");
             }
         }
+
+        return BatchSupport.insertAll(connection, insertSQL, gamesPlayed, batchSize, (ps, gp) -> {
+            ps.setLong(1, gp.getPlayerID());
+            ps.setLong(2, gp.getGameID());
+            ps.setDate(3, new java.sql.Date(gp.getTimeFinished().getTime()));
+            ps.setInt(4, gp.getScore());
+        }, GamesPlayed::setId);
     }
 
     final static String selectSQL = "SELECT id, player_id, game_id, time_finished, score FROM gamesplayed where id = ?";
@@ -68,19 +105,47 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(selectSQL);
+            ps = statementCache.prepare(connection, selectSQL);
             ps.setLong(1, gamePlayedID);
             ResultSet rs = ps.executeQuery();
             if (!rs.next()) {
                 return null;
             }
 
-            GamesPlayed gamesPlayed = extractFromRS(rs);
+            GamesPlayed gamesPlayed = newMapper().map(rs);
             return gamesPlayed;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+
+    final static String selectForUpdateSQL = "SELECT id, player_id, game_id, time_finished, score FROM gamesplayed WHERE id = ? FOR UPDATE";
+
+    @Override
+    public GamesPlayed retrieveIDForUpdate(Connection connection, Long gamePlayedID) throws SQLException, DAOException
+    {
+        if (gamePlayedID == null) {
+            throw new DAOException("Trying to retrieve GamesPlayed with NULL ID");
+        }
+
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, selectForUpdateSQL);
+            ps.setLong(1, gamePlayedID);
+            ResultSet rs = ps.executeQuery();
+            if (!rs.next()) {
+                return null;
+            }
+
+            GamesPlayed gamesPlayed = newMapper().map(rs);
+            return gamesPlayed;
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
@@ -100,7 +165,7 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
     	
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(retrieveByPlayerGameID);
+            ps = statementCache.prepare(connection, retrieveByPlayerGameID);
             ps.setLong(1, playerID);
             ps.setLong(2, gameID);
             ResultSet rs = ps.executeQuery();
@@ -109,8 +174,8 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
             return gamesPlayed;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
@@ -126,7 +191,7 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(retrieveByPlayerSQL);
+            ps = statementCache.prepare(connection, retrieveByPlayerSQL);
             ps.setLong(1, playerID);
             ResultSet rs = ps.executeQuery();
 
@@ -134,12 +199,28 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
             return gamesPlayedList;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
     
+    final static String retrieveByPlayerPageSQL = "SELECT id, player_id, game_id, time_finished, score FROM gamesplayed WHERE player_id = ? AND id > ? ORDER BY id LIMIT ?";
+
+    @Override
+    public Page<GamesPlayed> retrieveByPlayer(Connection connection, Long playerID, String pageToken, int pageSize)
+            throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            throw new DAOException("Trying to retrieve GamesPlayed with NULL playerID");
+        }
+
+        return PageSupport.selectPage(connection, retrieveByPlayerPageSQL, ps -> {
+            ps.setLong(1, playerID);
+            return 1;
+        }, pageToken, pageSize, newMapper(), GamesPlayed::getId);
+    }
+
     final static String retrieveByGameSQL = "SELECT id, player_id, game_id, time_finished, score FROM gamesplayed WHERE game_id = ?";
 
     @Override
@@ -151,7 +232,7 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(retrieveByGameSQL);
+            ps = statementCache.prepare(connection, retrieveByGameSQL);
             ps.setLong(1, gameID);
             ResultSet rs = ps.executeQuery();
 
@@ -159,12 +240,115 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
             return gamesPlayedList;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+
+    final static String retrieveByGamePageSQL = "SELECT id, player_id, game_id, time_finished, score FROM gamesplayed WHERE game_id = ? AND id > ? ORDER BY id LIMIT ?";
+
+    @Override
+    public Page<GamesPlayed> retrieveByGame(Connection connection, Long gameID, String pageToken, int pageSize)
+            throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            throw new DAOException("Trying to retrieve GamesPlayed with NULL gameID");
+        }
+
+        return PageSupport.selectPage(connection, retrieveByGamePageSQL, ps -> {
+            ps.setLong(1, gameID);
+            return 1;
+        }, pageToken, pageSize, newMapper(), GamesPlayed::getId);
+    }
+
+    // TO_DAYS('1970-01-01') is 719528, so this yields days since the epoch
+    // without building a java.sql.Date per row.
+    final static String retrieveColumnsByGameSQL = "SELECT id, player_id, game_id, TO_DAYS(time_finished) - 719528 AS epoch_day, score FROM gamesplayed WHERE game_id = ?";
+
+    @Override
+    public GamesPlayedColumns retrieveColumnsByGame(Connection connection, Long gameID)
+            throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            throw new DAOException("Trying to retrieve GamesPlayed with NULL gameID");
+        }
+        return selectColumns(connection, retrieveColumnsByGameSQL, gameID);
+    }
+
+    final static String retrieveBestScoresByGameSQL = "SELECT player_id, MAX(score) FROM gamesplayed WHERE game_id = ? GROUP BY player_id";
+
+    @Override
+    public Map<Long, Integer> retrieveBestScoresByGame(Connection connection, Long gameID)
+            throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            throw new DAOException("Trying to retrieve GamesPlayed with NULL gameID");
+        }
+
+        Map<Long, Integer> result = new HashMap<Long, Integer>();
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, retrieveBestScoresByGameSQL);
+            ps.setLong(1, gameID);
+            ResultSet rs = ps.executeQuery();
+            while (rs.next()) {
+                result.put(rs.getLong(1), rs.getInt(2));
+            }
+            return result;
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
 
+    final static String retrieveColumnsByPlayerSQL = "SELECT id, player_id, game_id, TO_DAYS(time_finished) - 719528 AS epoch_day, score FROM gamesplayed WHERE player_id = ?";
+
+    @Override
+    public GamesPlayedColumns retrieveColumnsByPlayer(Connection connection, Long playerID)
+            throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            throw new DAOException("Trying to retrieve GamesPlayed with NULL playerID");
+        }
+        return selectColumns(connection, retrieveColumnsByPlayerSQL, playerID);
+    }
+
+    @Override
+    public Stream<GamesPlayed> streamByGame(Connection connection, Long gameID, int fetchSize)
+            throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            throw new DAOException("Trying to retrieve GamesPlayed with NULL gameID");
+        }
+        if (fetchSize < 1) {
+            throw new DAOException("Fetch size must be positive: " + fetchSize);
+        }
+
+        // The cursor stays open for the life of the stream, so this statement
+        // is not shared through the statement cache.
+        StatementCache.record(retrieveByGameSQL);
+        PreparedStatement ps = connection.prepareStatement(retrieveByGameSQL, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        try {
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, gameID);
+            ResultSet rs = ps.executeQuery();
+            return streamFromRS(rs).onClose(() -> {
+                try {
+                    ps.close();
+                } catch (SQLException ex) {
+                    throw new UncheckedSQLException(ex);
+                }
+            });
+        } catch (SQLException | RuntimeException ex) {
+            ps.close();
+            throw ex;
+        }
+    }
+
     final static String updateSQL = "UPDATE gamesplayed SET player_id = ?, game_id = ?, time_finished = ?, score = ? WHERE id = ?;";
     
     @Override
@@ -177,7 +361,7 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(updateSQL);
+            ps = statementCache.prepare(connection, updateSQL);
             ps.setLong(1, gamesPlayed.getPlayerID());
             ps.setLong(2, gamesPlayed.getGameID());
             ps.setDate(3, new java.sql.Date(gamesPlayed.getTimeFinished().getTime()));
@@ -188,8 +372,8 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
             return rows;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
@@ -205,15 +389,15 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(deleteSQL);
+            ps = statementCache.prepare(connection, deleteSQL);
             ps.setLong(1, gamePlayedID);
 
             int rows = ps.executeUpdate();
             return rows;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
@@ -225,7 +409,7 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
     {
     	PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(countSQL);
+            ps = statementCache.prepare(connection, countSQL);
             ResultSet rs = ps.executeQuery();
             if (!rs.next()) {
                 throw new DAOException("No Count Returned");
@@ -234,39 +418,99 @@ public class GamesPlayedDAOImpl implements GamesPlayedDAO
             return count;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
+
+    @Override
+    public int countApproximate(Connection connection) throws SQLException, DAOException
+    {
+        return CountSupport.approximateCount(connection, "gamesplayed");
+    }
     
-    private GamesPlayed extractFromRS(ResultSet rs) throws SQLException
+    // Column order expected by extractFromRS.
+    private static final String[] columns = { "id", "player_id", "game_id", "time_finished", "score" };
+
+    private static ColumnMapper<GamesPlayed> newMapper()
+    {
+        return new ColumnMapper<GamesPlayed>(GamesPlayedDAOImpl::extractFromRS, columns);
+    }
+
+    private static GamesPlayed extractFromRS(ResultSet rs, int[] col) throws SQLException
     {
         GamesPlayed gamesPlayed = new GamesPlayed();
-        gamesPlayed.setId(rs.getLong("id"));
-        gamesPlayed.setPlayerID(rs.getLong("player_id"));
-        gamesPlayed.setGameID(rs.getLong("game_id"));
-        gamesPlayed.setTimeFinished(rs.getDate("time_finished"));
-        gamesPlayed.setScore(rs.getInt("score"));
+        gamesPlayed.setId(rs.getLong(col[0]));
+        gamesPlayed.setPlayerID(rs.getLong(col[1]));
+        gamesPlayed.setGameID(rs.getLong(col[2]));
+        gamesPlayed.setTimeFinished(rs.getDate(col[3]));
+        gamesPlayed.setScore(rs.getInt(col[4]));
         return gamesPlayed;
     }
     
+    private GamesPlayedColumns selectColumns(Connection connection, String sql, Long key) throws SQLException
+    {
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, sql);
+            ps.setLong(1, key);
+            ResultSet rs = ps.executeQuery();
+
+            int idCol = rs.findColumn("id");
+            int playerCol = rs.findColumn("player_id");
+            int gameCol = rs.findColumn("game_id");
+            int dayCol = rs.findColumn("epoch_day");
+            int scoreCol = rs.findColumn("score");
+
+            GamesPlayedColumns result = new GamesPlayedColumns();
+            while (rs.next()) {
+                int epochDay = rs.getInt(dayCol);
+                if (rs.wasNull()) {
+                    epochDay = GamesPlayedColumns.NO_DATE;
+                }
+                result.add(rs.getLong(idCol), rs.getLong(playerCol), rs.getLong(gameCol), epochDay,
+                        rs.getInt(scoreCol));
+            }
+            return result;
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+
+    private Stream<GamesPlayed> streamFromRS(ResultSet rs)
+    {
+        ColumnMapper<GamesPlayed> mapper = newMapper();
+        Spliterator<GamesPlayed> rows = new Spliterators.AbstractSpliterator<GamesPlayed>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super GamesPlayed> action)
+            {
+                try {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    action.accept(mapper.map(rs));
+                    return true;
+                } catch (SQLException ex) {
+                    throw new UncheckedSQLException(ex);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false);
+    }
+
     private List<GamesPlayed> extractListFromRS(ResultSet rs) throws SQLException
     {
-    	List<GamesPlayed> gamesPlayedList = new ArrayList<GamesPlayed>();
-    	
-    	while(rs.next()) {
-    		GamesPlayed gamesPlayed = new GamesPlayed();
-    		gamesPlayed.setId(rs.getLong("id"));
-    		gamesPlayed.setPlayerID(rs.getLong("player_id"));
-    		gamesPlayed.setGameID(rs.getLong("game_id"));
-    		gamesPlayed.setTimeFinished(rs.getDate("time_finished"));
-    		gamesPlayed.setScore(rs.getInt("score"));
-            
-            gamesPlayedList.add(gamesPlayed);
-    	}
-    	
-    	return gamesPlayedList;
+        List<GamesPlayed> gamesPlayedList = new ArrayList<GamesPlayed>();
+        ColumnMapper<GamesPlayed> mapper = newMapper();
+        while (rs.next()) {
+            gamesPlayedList.add(mapper.map(rs));
+        }
+        return gamesPlayedList;
     }
 
 }
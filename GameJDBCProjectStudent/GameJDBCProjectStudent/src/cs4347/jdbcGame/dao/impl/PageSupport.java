@@ -0,0 +1,146 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
+
+/**
+ * Shared keyset pagination used by the paged retrieve methods of the DAO
+ * implementations. Page queries end with "AND id > ? ORDER BY id LIMIT ?";
+ * one extra row is fetched to tell whether another page follows.
+ * 
+ * Date range pages are keyed on (date, id) instead, so they seek on a
+ * composite (date, id) index rather than walking the primary key and
+ * filtering the range. Their queries end with "WHERE col BETWEEN ? AND ?
+ * AND (col, id) > (?, ?) ORDER BY col, id LIMIT ?". The lower bound repeats
+ * the date of the row constructor so that MySQL starts its range scan there.
+ */
+final class PageSupport
+{
+    private static final StatementCache statementCache = StatementCache.getInstance();
+
+    /**
+     * Binds the filter parameters of a page query, starting at index 1, and
+     * returns how many were bound.
+     */
+    interface FilterBinder
+    {
+        int bind(PreparedStatement ps) throws SQLException;
+    }
+
+    /**
+     * Builds an entity from the current row.
+     */
+    interface RowMapper<T>
+    {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private PageSupport()
+    {
+    }
+
+    static <T> Page<T> selectPage(Connection connection, String pageSQL, FilterBinder filter, String pageToken,
+            int pageSize, RowMapper<T> mapper, Function<T, Long> idOf) throws SQLException, DAOException
+    {
+        Page.checkPageSize(pageSize);
+        long afterID = Page.decodeToken(pageToken);
+
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, pageSQL);
+            int idx = filter.bind(ps);
+            ps.setLong(idx + 1, afterID);
+            ps.setInt(idx + 2, pageSize + 1);
+            ResultSet rs = ps.executeQuery();
+
+            List<T> items = new ArrayList<T>(pageSize);
+            boolean more = false;
+            while (rs.next()) {
+                if (items.size() == pageSize) {
+                    more = true;
+                    break;
+                }
+                items.add(mapper.map(rs));
+            }
+
+            String nextPageToken = more ? Page.encodeToken(idOf.apply(items.get(items.size() - 1))) : null;
+            return new Page<T>(items, nextPageToken);
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+
+    /**
+     * Selects one page of the rows whose date lies between start and end,
+     * ordered by (date, id). The token holds the epoch day and id of the last
+     * row returned.
+     */
+    static <T> Page<T> selectDatePage(Connection connection, String pageSQL, Date start, Date end,
+            String pageToken, int pageSize, RowMapper<T> mapper, Function<T, Date> dateOf, Function<T, Long> idOf)
+            throws SQLException, DAOException
+    {
+        Page.checkPageSize(pageSize);
+        long[] after = Page.decodeKeyToken(pageToken);
+        java.sql.Date afterDate = after == null ? new java.sql.Date(start.getTime())
+                : java.sql.Date.valueOf(LocalDate.ofEpochDay(after[0]));
+        long afterID = after == null ? 0 : after[1];
+
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, pageSQL);
+            ps.setDate(1, afterDate);
+            ps.setDate(2, new java.sql.Date(end.getTime()));
+            ps.setDate(3, afterDate);
+            ps.setLong(4, afterID);
+            ps.setInt(5, pageSize + 1);
+            ResultSet rs = ps.executeQuery();
+
+            List<T> items = new ArrayList<T>(pageSize);
+            boolean more = false;
+            while (rs.next()) {
+                if (items.size() == pageSize) {
+                    more = true;
+                    break;
+                }
+                items.add(mapper.map(rs));
+            }
+
+            String nextPageToken = null;
+            if (more) {
+                T last = items.get(items.size() - 1);
+                long epochDay = new java.sql.Date(dateOf.apply(last).getTime()).toLocalDate().toEpochDay();
+                nextPageToken = Page.encodeToken(epochDay, idOf.apply(last));
+            }
+            return new Page<T>(items, nextPageToken);
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+}
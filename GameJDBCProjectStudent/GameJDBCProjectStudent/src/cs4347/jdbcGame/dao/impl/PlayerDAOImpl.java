@@ -16,16 +16,20 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
 import cs4347.jdbcGame.dao.PlayerDAO;
+import cs4347.jdbcGame.dao.Page;
 import cs4347.jdbcGame.entity.Game;
 import cs4347.jdbcGame.entity.Player;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
 
 public class PlayerDAOImpl implements PlayerDAO
 {
+    private static final StatementCache statementCache = StatementCache.getInstance();
 
     private static final String insertSQL = "INSERT INTO player (first_name, last_name, join_date, email) VALUES (?, ?, ?, ?);";
 
@@ -38,7 +42,7 @@ public class PlayerDAOImpl implements PlayerDAO
 
         PreparedStatement ps = null;
         try {
-            ps = connection.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS);
+            ps = statementCache.prepare(connection, insertSQL, Statement.RETURN_GENERATED_KEYS);
             ps.setString(1, player.getFirstName());
             ps.setString(2, player.getLastName());
             ps.setDate(3, new java.sql.Date(player.getJoinDate().getTime()));
@@ -53,12 +57,36 @@ public class PlayerDAOImpl implements PlayerDAO
             return player;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
     
+    @Override
+    public List<Player> createAll(Connection connection, List<Player> players) throws SQLException, DAOException
+    {
+        return createAll(connection, players, BatchSupport.DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public List<Player> createAll(Connection connection, List<Player> players, int batchSize)
+            throws SQLException, DAOException
+    {
+        for (Player player : players) {
+            if (player.getId() != null) {
+                throw new DAOException("Trying to insert Player with NON-NULL ID");
+            }
+        }
+
+        return BatchSupport.insertAll(connection, insertSQL, players, batchSize, (ps, player) -> {
+            ps.setString(1, player.getFirstName());
+            ps.setString(2, player.getLastName());
+            ps.setDate(3, new java.sql.Date(player.getJoinDate().getTime()));
+            ps.setString(4, player.getEmail());
+        }, Player::setId);
+    }
+
     final static String selectSQL = "SELECT id, first_name, last_name, join_date, email FROM player WHERE id = ?";
 
     @Override
@@ -70,23 +98,41 @@ public class PlayerDAOImpl implements PlayerDAO
     	
     	PreparedStatement ps = null;
     	try {
-    		ps = connection.prepareStatement(selectSQL);
+    		ps = statementCache.prepare(connection, selectSQL);
     		ps.setLong(1, playerID);
     		ResultSet rs = ps.executeQuery();
     		if(!rs.next()) {
     			return null;
     		}
     		
-    		Player player = extractFromRS(rs);
+    		Player player = newMapper().map(rs);
     		return player;
     	}
     	finally {
-    		if (ps != null && !ps.isClosed()) {
-    			ps.close();
+    		if (ps != null) {
+    			statementCache.release(ps);
     		}
     	}
     }
     
+    final static String selectAllPrefixSQL = "SELECT id, first_name, last_name, join_date, email FROM player WHERE id IN (";
+
+    @Override
+    public List<Player> retrieveAll(Connection connection, Collection<Long> playerIDs)
+            throws SQLException, DAOException
+    {
+        for (Long playerID : playerIDs) {
+            if (playerID == null) {
+                throw new DAOException("Trying to retrieve Player with NULL ID");
+            }
+        }
+
+        List<Player> result = new ArrayList<Player>();
+        ColumnMapper<Player> mapper = newMapper();
+        BatchSupport.selectIn(connection, selectAllPrefixSQL, ")", playerIDs, rs -> result.add(mapper.map(rs)));
+        return result;
+    }
+
     final static String updateSQL = "UPDATE Player SET first_name = ?, last_name = ?, join_date = ?, email = ? WHERE id = ?;";
 
     @Override
@@ -99,7 +145,7 @@ public class PlayerDAOImpl implements PlayerDAO
         
         PreparedStatement ps = null;
         try {
-        	ps = connection.prepareStatement(updateSQL);
+        	ps = statementCache.prepare(connection, updateSQL);
         	ps.setString(1, player.getFirstName());
         	ps.setString(2, player.getLastName());
         	ps.setDate(3, new java.sql.Date(player.getJoinDate().getTime()));
@@ -110,8 +156,8 @@ public class PlayerDAOImpl implements PlayerDAO
         	return rows;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
@@ -127,15 +173,15 @@ public class PlayerDAOImpl implements PlayerDAO
     	
     	PreparedStatement ps = null;
     	try {
-    		ps = connection.prepareStatement(deleteSQL);
+    		ps = statementCache.prepare(connection, deleteSQL);
     		ps.setLong(1, playerID);
     		
     		int rows = ps.executeUpdate();
     		return rows;
     	}
     	finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
@@ -147,7 +193,7 @@ public class PlayerDAOImpl implements PlayerDAO
     {
         PreparedStatement ps = null;
         try {
-        	ps = connection.prepareStatement(countSQL);
+        	ps = statementCache.prepare(connection, countSQL);
         	ResultSet rs = ps.executeQuery();
         	if(!rs.next()) {
         		throw new DAOException("No Count Returned");
@@ -156,11 +202,17 @@ public class PlayerDAOImpl implements PlayerDAO
         	return count;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
+
+    @Override
+    public int countApproximate(Connection connection) throws SQLException, DAOException
+    {
+        return CountSupport.approximateCount(connection, "player");
+    }
     
     final static String retrieveByJoinDate = "SELECT id, first_name, last_name, join_date, email FROM player WHERE join_date BETWEEN ? AND ?";
 
@@ -171,31 +223,50 @@ public class PlayerDAOImpl implements PlayerDAO
         List<Player> result = new ArrayList<Player>();
         PreparedStatement ps = null;
         try {
-        	ps = connection.prepareStatement(retrieveByJoinDate);
+        	ps = statementCache.prepare(connection, retrieveByJoinDate);
         	ps.setDate(1, new java.sql.Date(start.getTime()));
         	ps.setDate(2, new java.sql.Date(end.getTime()));
         	ResultSet rs = ps.executeQuery();
+        	ColumnMapper<Player> mapper = newMapper();
         	while (rs.next()) {
-        		Player player = extractFromRS(rs);
+        		Player player = mapper.map(rs);
         		result.add(player);
         	}
         	return result;
         }
         finally {
-            if (ps != null && !ps.isClosed()) {
-                ps.close();
+            if (ps != null) {
+                statementCache.release(ps);
             }
         }
     }
     
-    private Player extractFromRS(ResultSet rs) throws SQLException
+    final static String retrieveByJoinDatePage = "SELECT id, first_name, last_name, join_date, email FROM player WHERE join_date BETWEEN ? AND ? AND (join_date, id) > (?, ?) ORDER BY join_date, id LIMIT ?";
+
+    @Override
+    public Page<Player> retrieveByJoinDate(Connection connection, Date start, Date end, String pageToken,
+            int pageSize) throws SQLException, DAOException
+    {
+        return PageSupport.selectDatePage(connection, retrieveByJoinDatePage, start, end, pageToken, pageSize,
+                newMapper(), Player::getJoinDate, Player::getId);
+    }
+
+    // Column order expected by extractFromRS.
+    private static final String[] columns = { "id", "first_name", "last_name", "join_date", "email" };
+
+    private static ColumnMapper<Player> newMapper()
+    {
+        return new ColumnMapper<Player>(PlayerDAOImpl::extractFromRS, columns);
+    }
+
+    private static Player extractFromRS(ResultSet rs, int[] col) throws SQLException
     {
         Player player = new Player();
-        player.setId(rs.getLong("id"));
-        player.setFirstName(rs.getString("first_name"));
-        player.setLastName(rs.getString("last_name"));
-        player.setJoinDate(rs.getDate("join_date"));
-        player.setEmail(rs.getString("email"));
+        player.setId(rs.getLong(col[0]));
+        player.setFirstName(rs.getString(col[1]));
+        player.setLastName(rs.getString(col[2]));
+        player.setJoinDate(rs.getDate(col[3]));
+        player.setEmail(rs.getString(col[4]));
         return player;
     }
 }
@@ -0,0 +1,402 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import cs4347.jdbcGame.dao.StatsDAO;
+import cs4347.jdbcGame.entity.GameStats;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.PlayerStats;
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
+
+/**
+ * Deltas are applied with INSERT ... ON DUPLICATE KEY UPDATE, so the first
+ * session or purchase of a player or game creates its summary row and
+ * concurrent changes to the same row serialize on its row lock instead of
+ * overwriting each other. Only removing the best session needs a read of
+ * GAMES_PLAYED, a MAX(score) that the (player_id, score) and (game_id, score)
+ * indexes answer from one index entry.
+ */
+public class StatsDAOImpl implements StatsDAO
+{
+    private static final StatementCache statementCache = StatementCache.getInstance();
+
+    final static String selectPlayerSQL = "SELECT player_id, play_count, score_total, best_score, owned_count, total_spend FROM playerstats WHERE player_id = ?";
+
+    @Override
+    public PlayerStats retrievePlayerStats(Connection connection, Long playerID) throws SQLException, DAOException
+    {
+        if (playerID == null) {
+            throw new DAOException("Trying to retrieve PlayerStats with NULL playerID");
+        }
+
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, selectPlayerSQL);
+            ps.setLong(1, playerID);
+            ResultSet rs = ps.executeQuery();
+            if (!rs.next()) {
+                return null;
+            }
+
+            PlayerStats stats = newPlayerMapper().map(rs);
+            return stats;
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+
+    final static String selectGameSQL = "SELECT game_id, play_count, score_total, best_score, owned_count, total_spend FROM gamestats WHERE game_id = ?";
+
+    @Override
+    public GameStats retrieveGameStats(Connection connection, Long gameID) throws SQLException, DAOException
+    {
+        if (gameID == null) {
+            throw new DAOException("Trying to retrieve GameStats with NULL gameID");
+        }
+
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, selectGameSQL);
+            ps.setLong(1, gameID);
+            ResultSet rs = ps.executeQuery();
+            if (!rs.next()) {
+                return null;
+            }
+
+            GameStats stats = newGameMapper().map(rs);
+            return stats;
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+
+    // GREATEST is NULL when either side is, and best_score is NULL on rows
+    // that so far only have purchases.
+    final static String recordPlayPlayerSQL = "INSERT INTO playerstats (player_id, play_count, score_total, best_score) VALUES (?, 1, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE play_count = play_count + 1, score_total = score_total + VALUES(score_total), "
+            + "best_score = GREATEST(COALESCE(best_score, VALUES(best_score)), VALUES(best_score))";
+    final static String recordPlayGameSQL = "INSERT INTO gamestats (game_id, play_count, score_total, best_score) VALUES (?, 1, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE play_count = play_count + 1, score_total = score_total + VALUES(score_total), "
+            + "best_score = GREATEST(COALESCE(best_score, VALUES(best_score)), VALUES(best_score))";
+
+    @Override
+    public void recordPlay(Connection connection, GamesPlayed gamesPlayed) throws SQLException, DAOException
+    {
+        checkIDs(gamesPlayed.getPlayerID(), gamesPlayed.getGameID());
+
+        BatchSupport.Binder<Long> binder = (ps, id) -> {
+            ps.setLong(1, id);
+            ps.setLong(2, gamesPlayed.getScore());
+            ps.setInt(3, gamesPlayed.getScore());
+        };
+        executeUpdate(connection, recordPlayPlayerSQL, gamesPlayed.getPlayerID(), binder);
+        executeUpdate(connection, recordPlayGameSQL, gamesPlayed.getGameID(), binder);
+    }
+
+    final static String removePlayPlayerSQL = "UPDATE playerstats SET play_count = play_count - 1, score_total = score_total - ?, "
+            + "best_score = CASE WHEN best_score > ? THEN best_score ELSE (SELECT MAX(score) FROM gamesplayed WHERE player_id = ?) END "
+            + "WHERE player_id = ?";
+    final static String removePlayGameSQL = "UPDATE gamestats SET play_count = play_count - 1, score_total = score_total - ?, "
+            + "best_score = CASE WHEN best_score > ? THEN best_score ELSE (SELECT MAX(score) FROM gamesplayed WHERE game_id = ?) END "
+            + "WHERE game_id = ?";
+
+    @Override
+    public void removePlay(Connection connection, GamesPlayed gamesPlayed) throws SQLException, DAOException
+    {
+        checkIDs(gamesPlayed.getPlayerID(), gamesPlayed.getGameID());
+
+        BatchSupport.Binder<Long> binder = (ps, id) -> {
+            ps.setLong(1, gamesPlayed.getScore());
+            ps.setInt(2, gamesPlayed.getScore());
+            ps.setLong(3, id);
+            ps.setLong(4, id);
+        };
+        executeUpdate(connection, removePlayPlayerSQL, gamesPlayed.getPlayerID(), binder);
+        executeUpdate(connection, removePlayGameSQL, gamesPlayed.getGameID(), binder);
+    }
+
+    final static String recordPurchasePlayerSQL = "INSERT INTO playerstats (player_id, owned_count, total_spend) VALUES (?, 1, ?) "
+            + "ON DUPLICATE KEY UPDATE owned_count = owned_count + 1, total_spend = total_spend + VALUES(total_spend)";
+    final static String recordPurchaseGameSQL = "INSERT INTO gamestats (game_id, owned_count, total_spend) VALUES (?, 1, ?) "
+            + "ON DUPLICATE KEY UPDATE owned_count = owned_count + 1, total_spend = total_spend + VALUES(total_spend)";
+
+    @Override
+    public void recordPurchase(Connection connection, GamesOwned gamesOwned) throws SQLException, DAOException
+    {
+        checkIDs(gamesOwned.getPlayerID(), gamesOwned.getGameID());
+
+        BatchSupport.Binder<Long> binder = (ps, id) -> {
+            ps.setLong(1, id);
+            ps.setDouble(2, gamesOwned.getPurchasePrice());
+        };
+        executeUpdate(connection, recordPurchasePlayerSQL, gamesOwned.getPlayerID(), binder);
+        executeUpdate(connection, recordPurchaseGameSQL, gamesOwned.getGameID(), binder);
+    }
+
+    final static String removePurchasePlayerSQL = "UPDATE playerstats SET owned_count = owned_count - 1, total_spend = total_spend - ? WHERE player_id = ?";
+    final static String removePurchaseGameSQL = "UPDATE gamestats SET owned_count = owned_count - 1, total_spend = total_spend - ? WHERE game_id = ?";
+
+    @Override
+    public void removePurchase(Connection connection, GamesOwned gamesOwned) throws SQLException, DAOException
+    {
+        checkIDs(gamesOwned.getPlayerID(), gamesOwned.getGameID());
+
+        BatchSupport.Binder<Long> binder = (ps, id) -> {
+            ps.setDouble(1, gamesOwned.getPurchasePrice());
+            ps.setLong(2, id);
+        };
+        executeUpdate(connection, removePurchasePlayerSQL, gamesOwned.getPlayerID(), binder);
+        executeUpdate(connection, removePurchaseGameSQL, gamesOwned.getGameID(), binder);
+    }
+
+    final static String repricePurchasePlayerSQL = "UPDATE playerstats SET total_spend = total_spend + ? WHERE player_id = ?";
+    final static String repricePurchaseGameSQL = "UPDATE gamestats SET total_spend = total_spend + ? WHERE game_id = ?";
+
+    @Override
+    public void repricePurchase(Connection connection, GamesOwned previous, GamesOwned current)
+            throws SQLException, DAOException
+    {
+        checkIDs(current.getPlayerID(), current.getGameID());
+
+        double delta = (double) current.getPurchasePrice() - previous.getPurchasePrice();
+        BatchSupport.Binder<Long> binder = (ps, id) -> {
+            ps.setDouble(1, delta);
+            ps.setLong(2, id);
+        };
+        executeUpdate(connection, repricePurchasePlayerSQL, current.getPlayerID(), binder);
+        executeUpdate(connection, repricePurchaseGameSQL, current.getGameID(), binder);
+    }
+
+    final static String refreshPlayerPurchasesSQL = "INSERT INTO playerstats (player_id, owned_count, total_spend) "
+            + "SELECT ?, COUNT(*), COALESCE(SUM(purchase_price), 0) FROM gamesowned WHERE player_id = ? "
+            + "ON DUPLICATE KEY UPDATE owned_count = VALUES(owned_count), total_spend = VALUES(total_spend)";
+
+    @Override
+    public void refreshPlayerPurchases(Connection connection, Collection<Long> playerIDs)
+            throws SQLException, DAOException
+    {
+        BatchSupport.executeAll(connection, refreshPlayerPurchasesSQL, sortedIDs(playerIDs),
+                BatchSupport.DEFAULT_BATCH_SIZE, StatsDAOImpl::bindRefresh);
+    }
+
+    final static String refreshGamePurchasesSQL = "INSERT INTO gamestats (game_id, owned_count, total_spend) "
+            + "SELECT ?, COUNT(*), COALESCE(SUM(purchase_price), 0) FROM gamesowned WHERE game_id = ? "
+            + "ON DUPLICATE KEY UPDATE owned_count = VALUES(owned_count), total_spend = VALUES(total_spend)";
+
+    @Override
+    public void refreshGamePurchases(Connection connection, Collection<Long> gameIDs) throws SQLException, DAOException
+    {
+        BatchSupport.executeAll(connection, refreshGamePurchasesSQL, sortedIDs(gameIDs),
+                BatchSupport.DEFAULT_BATCH_SIZE, StatsDAOImpl::bindRefresh);
+    }
+
+    final static String clearPlayersSQL = "DELETE FROM playerstats WHERE player_id >= ? AND player_id < ?";
+    final static String rebuildPlayersSQL = "INSERT INTO playerstats (player_id, play_count, score_total, best_score, owned_count, total_spend) "
+            + "SELECT p.id, COALESCE(pl.play_count, 0), COALESCE(pl.score_total, 0), pl.best_score, COALESCE(ow.owned_count, 0), COALESCE(ow.total_spend, 0) "
+            + "FROM player p "
+            + "LEFT JOIN (SELECT player_id, COUNT(*) AS play_count, SUM(score) AS score_total, MAX(score) AS best_score "
+            + "FROM gamesplayed WHERE player_id >= ? AND player_id < ? GROUP BY player_id) pl ON pl.player_id = p.id "
+            + "LEFT JOIN (SELECT player_id, COUNT(*) AS owned_count, SUM(purchase_price) AS total_spend "
+            + "FROM gamesowned WHERE player_id >= ? AND player_id < ? GROUP BY player_id) ow ON ow.player_id = p.id "
+            + "WHERE p.id >= ? AND p.id < ? AND (pl.player_id IS NOT NULL OR ow.player_id IS NOT NULL)";
+
+    @Override
+    public int rebuildPlayers(Connection connection, long fromID, long toID) throws SQLException, DAOException
+    {
+        return rebuild(connection, clearPlayersSQL, rebuildPlayersSQL, fromID, toID);
+    }
+
+    final static String clearGamesSQL = "DELETE FROM gamestats WHERE game_id >= ? AND game_id < ?";
+    final static String rebuildGamesSQL = "INSERT INTO gamestats (game_id, play_count, score_total, best_score, owned_count, total_spend) "
+            + "SELECT g.id, COALESCE(pl.play_count, 0), COALESCE(pl.score_total, 0), pl.best_score, COALESCE(ow.owned_count, 0), COALESCE(ow.total_spend, 0) "
+            + "FROM game g "
+            + "LEFT JOIN (SELECT game_id, COUNT(*) AS play_count, SUM(score) AS score_total, MAX(score) AS best_score "
+            + "FROM gamesplayed WHERE game_id >= ? AND game_id < ? GROUP BY game_id) pl ON pl.game_id = g.id "
+            + "LEFT JOIN (SELECT game_id, COUNT(*) AS owned_count, SUM(purchase_price) AS total_spend "
+            + "FROM gamesowned WHERE game_id >= ? AND game_id < ? GROUP BY game_id) ow ON ow.game_id = g.id "
+            + "WHERE g.id >= ? AND g.id < ? AND (pl.game_id IS NOT NULL OR ow.game_id IS NOT NULL)";
+
+    @Override
+    public int rebuildGames(Connection connection, long fromID, long toID) throws SQLException, DAOException
+    {
+        return rebuild(connection, clearGamesSQL, rebuildGamesSQL, fromID, toID);
+    }
+
+    final static String maxPlayerIDSQL = "SELECT COALESCE(MAX(id), 0) FROM player";
+
+    @Override
+    public long retrieveMaxPlayerID(Connection connection) throws SQLException, DAOException
+    {
+        return selectLong(connection, maxPlayerIDSQL);
+    }
+
+    final static String maxGameIDSQL = "SELECT COALESCE(MAX(id), 0) FROM game";
+
+    @Override
+    public long retrieveMaxGameID(Connection connection) throws SQLException, DAOException
+    {
+        return selectLong(connection, maxGameIDSQL);
+    }
+
+    final static String ownedCountsSQL = "SELECT game_id, owned_count FROM gamestats WHERE owned_count > 0";
+
+    @Override
+    public Map<Long, Integer> retrieveOwnedCounts(Connection connection) throws SQLException, DAOException
+    {
+        Map<Long, Integer> result = new HashMap<Long, Integer>();
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, ownedCountsSQL);
+            ResultSet rs = ps.executeQuery();
+            while (rs.next()) {
+                result.put(rs.getLong(1), rs.getInt(2));
+            }
+            return result;
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+
+    private static void checkIDs(Long playerID, Long gameID) throws DAOException
+    {
+        if (playerID == null || gameID == null) {
+            throw new DAOException("Stats need a player and game ID");
+        }
+    }
+
+    private static <T> int executeUpdate(Connection connection, String sql, T item, BatchSupport.Binder<T> binder)
+            throws SQLException
+    {
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, sql);
+            binder.bind(ps, item);
+            return ps.executeUpdate();
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+
+    private static int rebuild(Connection connection, String clearSQL, String rebuildSQL, long fromID, long toID)
+            throws SQLException
+    {
+        executeUpdate(connection, clearSQL, null, (ps, unused) -> {
+            ps.setLong(1, fromID);
+            ps.setLong(2, toID);
+        });
+        return executeUpdate(connection, rebuildSQL, null, (ps, unused) -> {
+            for (int idx = 1; idx <= 6; idx += 2) {
+                ps.setLong(idx, fromID);
+                ps.setLong(idx + 1, toID);
+            }
+        });
+    }
+
+    private static long selectLong(Connection connection, String sql) throws SQLException, DAOException
+    {
+        PreparedStatement ps = null;
+        try {
+            ps = statementCache.prepare(connection, sql);
+            ResultSet rs = ps.executeQuery();
+            if (!rs.next()) {
+                throw new DAOException("No Value Returned");
+            }
+            return rs.getLong(1);
+        }
+        finally {
+            if (ps != null) {
+                statementCache.release(ps);
+            }
+        }
+    }
+
+    // Ascending, so concurrent refreshes lock the summary rows in the same order.
+    private static List<Long> sortedIDs(Collection<Long> ids) throws DAOException
+    {
+        if (ids.contains(null)) {
+            throw new DAOException("Trying to refresh stats with NULL ID");
+        }
+        return new ArrayList<Long>(new TreeSet<Long>(ids));
+    }
+
+    private static void bindRefresh(PreparedStatement ps, Long id) throws SQLException
+    {
+        ps.setLong(1, id);
+        ps.setLong(2, id);
+    }
+
+    // Column order expected by extractPlayerFromRS and extractGameFromRS.
+    private static final String[] playerColumns = { "player_id", "play_count", "score_total", "best_score",
+            "owned_count", "total_spend" };
+    private static final String[] gameColumns = { "game_id", "play_count", "score_total", "best_score",
+            "owned_count", "total_spend" };
+
+    private static ColumnMapper<PlayerStats> newPlayerMapper()
+    {
+        return new ColumnMapper<PlayerStats>(StatsDAOImpl::extractPlayerFromRS, playerColumns);
+    }
+
+    private static ColumnMapper<GameStats> newGameMapper()
+    {
+        return new ColumnMapper<GameStats>(StatsDAOImpl::extractGameFromRS, gameColumns);
+    }
+
+    private static PlayerStats extractPlayerFromRS(ResultSet rs, int[] col) throws SQLException
+    {
+        PlayerStats stats = new PlayerStats();
+        stats.setPlayerID(rs.getLong(col[0]));
+        stats.setPlayCount(rs.getInt(col[1]));
+        stats.setScoreTotal(rs.getLong(col[2]));
+        int best = rs.getInt(col[3]);
+        stats.setBestScore(rs.wasNull() ? null : best);
+        stats.setOwnedCount(rs.getInt(col[4]));
+        stats.setTotalSpend(rs.getDouble(col[5]));
+        return stats;
+    }
+
+    private static GameStats extractGameFromRS(ResultSet rs, int[] col) throws SQLException
+    {
+        GameStats stats = new GameStats();
+        stats.setGameID(rs.getLong(col[0]));
+        stats.setPlayCount(rs.getInt(col[1]));
+        stats.setScoreTotal(rs.getLong(col[2]));
+        int best = rs.getInt(col[3]);
+        stats.setBestScore(rs.wasNull() ? null : best);
+        stats.setOwnedCount(rs.getInt(col[4]));
+        stats.setTotalSpend(rs.getDouble(col[5]));
+        return stats;
+    }
+}
@@ -0,0 +1,98 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.entity;
+
+/**
+ * Session and purchase totals of one game over all players; one row of the
+ * GAME_STATS table. The row is kept current by the GamesPlayed and
+ * GamesOwned services in the same transaction as each change.
+ */
+public class GameStats
+{
+    private Long gameID;
+    private int playCount;
+    private long scoreTotal;
+    private Integer bestScore;
+    private int ownedCount;
+    private double totalSpend;
+
+    public Long getGameID()
+    {
+        return gameID;
+    }
+
+    public void setGameID(Long gameID)
+    {
+        this.gameID = gameID;
+    }
+
+    public int getPlayCount()
+    {
+        return playCount;
+    }
+
+    public void setPlayCount(int playCount)
+    {
+        this.playCount = playCount;
+    }
+
+    public long getScoreTotal()
+    {
+        return scoreTotal;
+    }
+
+    public void setScoreTotal(long scoreTotal)
+    {
+        this.scoreTotal = scoreTotal;
+    }
+
+    /**
+     * Highest session score, or null if there are no sessions.
+     */
+    public Integer getBestScore()
+    {
+        return bestScore;
+    }
+
+    public void setBestScore(Integer bestScore)
+    {
+        this.bestScore = bestScore;
+    }
+
+    /**
+     * Mean session score, or 0 if there are no sessions.
+     */
+    public double getAverageScore()
+    {
+        return playCount == 0 ? 0.0 : (double) scoreTotal / playCount;
+    }
+
+    public int getOwnedCount()
+    {
+        return ownedCount;
+    }
+
+    public void setOwnedCount(int ownedCount)
+    {
+        this.ownedCount = ownedCount;
+    }
+
+    public double getTotalSpend()
+    {
+        return totalSpend;
+    }
+
+    public void setTotalSpend(double totalSpend)
+    {
+        this.totalSpend = totalSpend;
+    }
+
+}
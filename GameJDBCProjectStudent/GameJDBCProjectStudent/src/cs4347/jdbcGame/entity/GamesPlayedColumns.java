@@ -0,0 +1,134 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package cs4347.jdbcGame.entity;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Column-oriented form of a list of GamesPlayed, for analytic callers that
+ * scan many rows. Each column is a primitive array indexed by row, so a
+ * million rows cost five arrays instead of a million GamesPlayed with their
+ * boxed ids and Date. Finish dates are stored as days since 1970-01-01, with
+ * NO_DATE for a NULL time_finished.
+ * 
+ * The array getters return the backing arrays, trimmed to size(), without
+ * copying. Do not modify them.
+ */
+public class GamesPlayedColumns
+{
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    private long[] ids;
+    private long[] playerIDs;
+    private long[] gameIDs;
+    private int[] epochDays;
+    private int[] scores;
+    private int size;
+
+    public GamesPlayedColumns()
+    {
+        this(16);
+    }
+
+    public GamesPlayedColumns(int capacity)
+    {
+        capacity = Math.max(capacity, 1);
+        ids = new long[capacity];
+        playerIDs = new long[capacity];
+        gameIDs = new long[capacity];
+        epochDays = new int[capacity];
+        scores = new int[capacity];
+    }
+
+    public void add(long id, long playerID, long gameID, int epochDay, int score)
+    {
+        if (size == ids.length) {
+            resize(Math.max(16, size * 2));
+        }
+        ids[size] = id;
+        playerIDs[size] = playerID;
+        gameIDs[size] = gameID;
+        epochDays[size] = epochDay;
+        scores[size] = score;
+        size++;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public long[] getIds()
+    {
+        trimToSize();
+        return ids;
+    }
+
+    public long[] getPlayerIDs()
+    {
+        trimToSize();
+        return playerIDs;
+    }
+
+    public long[] getGameIDs()
+    {
+        trimToSize();
+        return gameIDs;
+    }
+
+    public int[] getEpochDays()
+    {
+        trimToSize();
+        return epochDays;
+    }
+
+    public int[] getScores()
+    {
+        trimToSize();
+        return scores;
+    }
+
+    /**
+     * Builds the GamesPlayed entity of one row.
+     */
+    public GamesPlayed toEntity(int row)
+    {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        }
+        GamesPlayed gamesPlayed = new GamesPlayed();
+        gamesPlayed.setId(ids[row]);
+        gamesPlayed.setPlayerID(playerIDs[row]);
+        gamesPlayed.setGameID(gameIDs[row]);
+        if (epochDays[row] != NO_DATE) {
+            gamesPlayed.setTimeFinished(java.sql.Date.valueOf(LocalDate.ofEpochDay(epochDays[row])));
+        }
+        gamesPlayed.setScore(scores[row]);
+        return gamesPlayed;
+    }
+
+    private void trimToSize()
+    {
+        if (size != ids.length) {
+            resize(size);
+        }
+    }
+
+    private void resize(int capacity)
+    {
+        ids = Arrays.copyOf(ids, capacity);
+        playerIDs = Arrays.copyOf(playerIDs, capacity);
+        gameIDs = Arrays.copyOf(gameIDs, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+    }
+}
@@ -0,0 +1,64 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.entity;
+
+/**
+ * A player's position on the leaderboard of one game. The score is the
+ * player's best GamesPlayed score for that game.
+ */
+public class LeaderboardEntry
+{
+    private int rank;
+    private Long gameID;
+    private Long playerID;
+    private int score;
+
+    public int getRank()
+    {
+        return rank;
+    }
+
+    public void setRank(int rank)
+    {
+        this.rank = rank;
+    }
+
+    public Long getGameID()
+    {
+        return gameID;
+    }
+
+    public void setGameID(Long gameID)
+    {
+        this.gameID = gameID;
+    }
+
+    public Long getPlayerID()
+    {
+        return playerID;
+    }
+
+    public void setPlayerID(Long playerID)
+    {
+        this.playerID = playerID;
+    }
+
+    public int getScore()
+    {
+        return score;
+    }
+
+    public void setScore(int score)
+    {
+        this.score = score;
+    }
+
+}
@@ -0,0 +1,46 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.entity.Game;
+
+/**
+ * Non-blocking form of GameService, so that independent lookups can run at
+ * the same time. Each call runs on the executor given to the implementation,
+ * never on the caller's thread, so it does not join a UnitOfWork active on
+ * the caller's thread. A failed call completes its future exceptionally with
+ * the DAOException or SQLException as the cause.
+ */
+public interface AsyncGameService
+{
+    CompletableFuture<Game> create(Game game);
+
+    CompletableFuture<Game> retrieve(long gameID);
+
+    CompletableFuture<Integer> update(Game game);
+
+    CompletableFuture<Integer> delete(long gameID);
+
+    CompletableFuture<Integer> count(CountMode mode);
+
+    CompletableFuture<List<Game>> retrieveByTitle(String titlePattern);
+
+    CompletableFuture<Page<Game>> retrieveByTitle(String titlePattern, String pageToken, int pageSize);
+
+    CompletableFuture<List<Game>> retrieveByReleaseDate(Date start, Date end);
+
+    CompletableFuture<Page<Game>> retrieveByReleaseDate(Date start, Date end, String pageToken, int pageSize);
+}
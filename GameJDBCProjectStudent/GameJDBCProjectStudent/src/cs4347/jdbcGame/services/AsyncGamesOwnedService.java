@@ -0,0 +1,48 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.entity.GamesOwned;
+
+/**
+ * Non-blocking form of GamesOwnedService. See AsyncGameService for how calls
+ * are run and how failures are reported.
+ */
+public interface AsyncGamesOwnedService
+{
+    CompletableFuture<GamesOwned> create(GamesOwned gamesOwned);
+
+    CompletableFuture<GamesOwned> upsert(GamesOwned gamesOwned);
+
+    CompletableFuture<Void> upsertAll(List<GamesOwned> gamesOwned);
+
+    CompletableFuture<GamesOwned> retrieveByID(long gamesOwnedID);
+
+    CompletableFuture<GamesOwned> retrievePlayerGameID(long playerID, long gameID);
+
+    CompletableFuture<List<GamesOwned>> retrieveByGame(long gameID);
+
+    CompletableFuture<Page<GamesOwned>> retrieveByGame(long gameID, String pageToken, int pageSize);
+
+    CompletableFuture<List<GamesOwned>> retrieveByPlayer(long playerID);
+
+    CompletableFuture<Page<GamesOwned>> retrieveByPlayer(long playerID, String pageToken, int pageSize);
+
+    CompletableFuture<Integer> update(GamesOwned gamesOwned);
+
+    CompletableFuture<Integer> delete(long gamesOwnedID);
+
+    CompletableFuture<Integer> count(CountMode mode);
+}
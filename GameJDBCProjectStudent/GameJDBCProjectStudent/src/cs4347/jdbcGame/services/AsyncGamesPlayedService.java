@@ -0,0 +1,50 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.GamesPlayedColumns;
+
+/**
+ * Non-blocking form of GamesPlayedService. See AsyncGameService for how calls
+ * are run and how failures are reported. streamByGame has no async form,
+ * since the stream holds a connection until the caller closes it.
+ */
+public interface AsyncGamesPlayedService
+{
+    CompletableFuture<GamesPlayed> create(GamesPlayed gamesPlayed);
+
+    CompletableFuture<GamesPlayed> retrieveByID(long gamePlayedID);
+
+    CompletableFuture<List<GamesPlayed>> retrieveByPlayerGameID(long playerID, long gameID);
+
+    CompletableFuture<List<GamesPlayed>> retrieveByGame(long gameID);
+
+    CompletableFuture<Page<GamesPlayed>> retrieveByGame(long gameID, String pageToken, int pageSize);
+
+    CompletableFuture<GamesPlayedColumns> retrieveColumnsByGame(long gameID);
+
+    CompletableFuture<List<GamesPlayed>> retrieveByPlayer(long playerID);
+
+    CompletableFuture<Page<GamesPlayed>> retrieveByPlayer(long playerID, String pageToken, int pageSize);
+
+    CompletableFuture<GamesPlayedColumns> retrieveColumnsByPlayer(long playerID);
+
+    CompletableFuture<Integer> update(GamesPlayed gamesPlayed);
+
+    CompletableFuture<Integer> delete(long gamePlayedID);
+
+    CompletableFuture<Integer> count(CountMode mode);
+}
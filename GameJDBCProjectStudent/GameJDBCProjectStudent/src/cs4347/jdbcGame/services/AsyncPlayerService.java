@@ -0,0 +1,44 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.entity.Player;
+
+/**
+ * Non-blocking form of PlayerService. See AsyncGameService for how calls are
+ * run and how failures are reported.
+ */
+public interface AsyncPlayerService
+{
+    CompletableFuture<Player> create(Player player);
+
+    CompletableFuture<Player> retrieve(Long playerID);
+
+    CompletableFuture<List<Player>> retrieveWithCreditCards(Collection<Long> playerIDs);
+
+    CompletableFuture<Integer> update(Player player);
+
+    CompletableFuture<Integer> delete(Long playerID);
+
+    CompletableFuture<Integer> count(CountMode mode);
+
+    CompletableFuture<Integer> countCreditCardsForPlayer(Long playerID);
+
+    CompletableFuture<List<Player>> retrieveByJoinDate(Date start, Date end);
+
+    CompletableFuture<Page<Player>> retrieveByJoinDate(Date start, Date end, String pageToken, int pageSize);
+}
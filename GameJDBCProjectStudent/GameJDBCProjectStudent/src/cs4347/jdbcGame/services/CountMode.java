@@ -0,0 +1,34 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services;
+
+/**
+ * How a service count(CountMode) is answered. Neither mode scans the table.
+ */
+public enum CountMode
+{
+    /**
+     * The in-process counter, loaded with COUNT(*) and then adjusted by every
+     * create and delete committed through the services. Not exact: a write
+     * committed while the counter reloads can be counted twice, and writes
+     * made elsewhere are missed, until the next reload. Build the service
+     * without a counter for a count that always runs COUNT(*).
+     */
+    TRACKED,
+
+    /**
+     * The row estimate of the table statistics (information_schema
+     * TABLE_ROWS). Free to read but on InnoDB can be off by tens of percent.
+     * MySQL 8 also caches it for information_schema_stats_expiry seconds
+     * (default 86400), so the connection url sets that to 0.
+     */
+    APPROXIMATE
+}
@@ -0,0 +1,35 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services;
+
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.List;
+
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Entities sliced by a DATE column, answered from memory for callers that
+ * query date ranges repeatedly. Ranges are inclusive and compared by day,
+ * like the BETWEEN queries of the DAOs.
+ */
+public interface DateRangeIndex<T>
+{
+    /**
+     * Entities dated from start to end, oldest first, then by id.
+     */
+    List<T> retrieveBetween(Date start, Date end) throws DAOException, SQLException;
+
+    /**
+     * Number of entities retrieveBetween would return.
+     */
+    int countBetween(Date start, Date end) throws DAOException, SQLException;
+}
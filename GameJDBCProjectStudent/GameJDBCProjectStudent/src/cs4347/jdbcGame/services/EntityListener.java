@@ -0,0 +1,43 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services;
+
+/**
+ * Notified by a service after a change to one of its entities has been
+ * committed. Callbacks run on the thread that made the change, so they should
+ * be quick and must not throw.
+ */
+public interface EntityListener<T>
+{
+    void created(T entity);
+
+    void updated(T entity);
+
+    void deleted(Long id);
+
+    /**
+     * Like updated(entity), from services that also pass the row as it was
+     * before the change. Defaults to updated(entity).
+     */
+    default void updated(T previous, T entity)
+    {
+        updated(entity);
+    }
+
+    /**
+     * Like deleted(id), from services that also pass the deleted row.
+     * Defaults to deleted(id).
+     */
+    default void deleted(Long id, T previous)
+    {
+        deleted(id);
+    }
+}
@@ -0,0 +1,31 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Title completions for a search box, answered from memory so that typing
+ * does not query the database on every keystroke.
+ */
+public interface GameAutocompleteService
+{
+    /**
+     * Games whose title starts with prefix, ignoring case, the most owned
+     * first. Returns at most limit games, and never more than the number of
+     * completions the service keeps per prefix.
+     */
+    List<Game> complete(String prefix, int limit) throws DAOException, SQLException;
+}
@@ -0,0 +1,42 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Title and description search that does not scan the game table, unlike
+ * GameService.retrieveByTitle with a leading wildcard. Matching ignores case.
+ * At most limit games are returned.
+ */
+public interface GameSearchService
+{
+    /**
+     * Games whose title starts with prefix, in title order.
+     */
+    List<Game> searchByTitlePrefix(String prefix, int limit) throws DAOException, SQLException;
+
+    /**
+     * Games whose title contains text anywhere, in title order.
+     */
+    List<Game> searchByTitleSubstring(String text, int limit) throws DAOException, SQLException;
+
+    /**
+     * Games matching any word of query, best first. Each query word matches
+     * the words of a title or description that start with it. A game scores
+     * more for matching rarer words and for matching them in the title.
+     */
+    List<Game> search(String query, int limit) throws DAOException, SQLException;
+}
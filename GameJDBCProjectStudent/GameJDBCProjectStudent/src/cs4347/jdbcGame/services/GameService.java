@@ -14,6 +14,7 @@ import java.sql.SQLException;
 import java.util.Date;
 import java.util.List;
 
+import cs4347.jdbcGame.dao.Page;
 import cs4347.jdbcGame.entity.Game;
 import cs4347.jdbcGame.util.DAOException;
 
@@ -27,10 +28,38 @@ public interface GameService
 
     int delete(long gameID) throws DAOException, SQLException;
 
+    /**
+     * Same as count(CountMode.TRACKED).
+     */
     int count() throws DAOException, SQLException;
 
+    /**
+     * Number of games, from the in-process counter or the table
+     * statistics depending on mode. Neither is exact; see CountMode.
+     */
+    int count(CountMode mode) throws DAOException, SQLException;
+
     List<Game> retrieveByTitle(String titlePattern) throws DAOException, SQLException;
 
+    /**
+     * Page-at-a-time form of retrieveByTitle. Pass the token of the previous
+     * page, or null for the first page.
+     */
+    Page<Game> retrieveByTitle(String titlePattern, String pageToken, int pageSize) throws DAOException, SQLException;
+
     List<Game> retrieveByReleaseDate(Date start, Date end) throws DAOException, SQLException;
 
+    /**
+     * Page-at-a-time form of retrieveByReleaseDate. Pass the token of the
+     * previous page, or null for the first page.
+     */
+    Page<Game> retrieveByReleaseDate(Date start, Date end, String pageToken, int pageSize)
+            throws DAOException, SQLException;
+
+    /**
+     * Registers a listener that is told about every Game created, updated or
+     * deleted through this service, after the change commits.
+     */
+    void addListener(EntityListener<Game> listener);
+
 }
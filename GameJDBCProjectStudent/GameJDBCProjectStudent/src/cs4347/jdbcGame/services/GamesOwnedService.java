@@ -13,6 +13,7 @@ package cs4347.jdbcGame.services;
 import java.sql.SQLException;
 import java.util.List;
 
+import cs4347.jdbcGame.dao.Page;
 import cs4347.jdbcGame.entity.GamesOwned;
 import cs4347.jdbcGame.util.DAOException;
 
@@ -20,18 +21,53 @@ public interface GamesOwnedService
 {
     GamesOwned create(GamesOwned gamesOwned) throws DAOException, SQLException;
 
+    /**
+     * Creates the GamesOwned, or updates the purchase of the same player and
+     * game, in a single round trip. Use this instead of retrievePlayerGameID
+     * followed by create or update.
+     */
+    GamesOwned upsert(GamesOwned gamesOwned) throws DAOException, SQLException;
+
+    /**
+     * Batched form of upsert for bulk purchase imports. Runs in one
+     * transaction and does not assign IDs.
+     */
+    void upsertAll(List<GamesOwned> gamesOwned) throws DAOException, SQLException;
+
     GamesOwned retrieveByID(long gamesOwnedID) throws DAOException, SQLException;
 
     GamesOwned retrievePlayerGameID(long playerID, long gameID) throws DAOException, SQLException;
 
     List<GamesOwned> retrieveByGame(long gameID) throws DAOException, SQLException;
 
+    /**
+     * Page-at-a-time form of retrieveByGame. Pass the token of the previous
+     * page, or null for the first page.
+     */
+    Page<GamesOwned> retrieveByGame(long gameID, String pageToken, int pageSize) throws DAOException, SQLException;
+
     List<GamesOwned> retrieveByPlayer(long playerID) throws DAOException, SQLException;
 
+    /**
+     * Page-at-a-time form of retrieveByPlayer. Pass the token of the previous
+     * page, or null for the first page.
+     */
+    Page<GamesOwned> retrieveByPlayer(long playerID, String pageToken, int pageSize)
+            throws DAOException, SQLException;
+
     int update(GamesOwned gamesOwned) throws DAOException, SQLException;
 
     int delete(long gamesOwnedID) throws DAOException, SQLException;
 
+    /**
+     * Same as count(CountMode.TRACKED).
+     */
     int count() throws DAOException, SQLException;
 
+    /**
+     * Number of owned games, from the in-process counter or the table
+     * statistics depending on mode. Neither is exact; see CountMode.
+     */
+    int count(CountMode mode) throws DAOException, SQLException;
+
 }
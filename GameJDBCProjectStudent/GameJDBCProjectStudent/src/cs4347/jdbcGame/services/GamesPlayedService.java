@@ -12,8 +12,11 @@ package cs4347.jdbcGame.services;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.stream.Stream;
 
+import cs4347.jdbcGame.dao.Page;
 import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.GamesPlayedColumns;
 import cs4347.jdbcGame.util.DAOException;
 
 public interface GamesPlayedService
@@ -26,11 +29,56 @@ public interface GamesPlayedService
 
     List<GamesPlayed> retrieveByGame(long gameID) throws DAOException, SQLException;
 
+    /**
+     * Page-at-a-time form of retrieveByGame. Pass the token of the previous
+     * page, or null for the first page.
+     */
+    Page<GamesPlayed> retrieveByGame(long gameID, String pageToken, int pageSize) throws DAOException, SQLException;
+
+    /**
+     * Streaming form of retrieveByGame for games with too many sessions to
+     * hold in memory. The stream holds a pooled connection until it is
+     * closed, so use it in a try-with-resources block.
+     */
+    Stream<GamesPlayed> streamByGame(long gameID) throws DAOException, SQLException;
+
+    /**
+     * Columnar form of retrieveByGame, for aggregations over many sessions.
+     */
+    GamesPlayedColumns retrieveColumnsByGame(long gameID) throws DAOException, SQLException;
+
     List<GamesPlayed> retrieveByPlayer(long playerID) throws DAOException, SQLException;
 
+    /**
+     * Page-at-a-time form of retrieveByPlayer. Pass the token of the previous
+     * page, or null for the first page.
+     */
+    Page<GamesPlayed> retrieveByPlayer(long playerID, String pageToken, int pageSize)
+            throws DAOException, SQLException;
+
+    /**
+     * Columnar form of retrieveByPlayer.
+     */
+    GamesPlayedColumns retrieveColumnsByPlayer(long playerID) throws DAOException, SQLException;
+
     int update(GamesPlayed gamesPlayed) throws DAOException, SQLException;
 
     int delete(long gamePlayedID) throws DAOException, SQLException;
 
+    /**
+     * Same as count(CountMode.TRACKED).
+     */
     int count() throws DAOException, SQLException;
+
+    /**
+     * Number of games played, from the in-process counter or the table
+     * statistics depending on mode. Neither is exact; see CountMode.
+     */
+    int count(CountMode mode) throws DAOException, SQLException;
+
+    /**
+     * Registers a listener that is told about every GamesPlayed created,
+     * updated or deleted through this service, after the change commits.
+     */
+    void addListener(EntityListener<GamesPlayed> listener);
 }
@@ -0,0 +1,46 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import cs4347.jdbcGame.entity.LeaderboardEntry;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Ranks the players of a game by their best score. Higher scores rank first
+ * and equal scores are ordered by player ID; ranks start at 1.
+ */
+public interface LeaderboardService
+{
+    /**
+     * Returns the best n players of the game, best first.
+     */
+    List<LeaderboardEntry> retrieveTop(long gameID, int n) throws DAOException, SQLException;
+
+    /**
+     * Returns the player's rank in the game, or null if the player has not
+     * played it.
+     */
+    Integer retrieveRank(long gameID, long playerID) throws DAOException, SQLException;
+
+    /**
+     * Returns the player's entry together with up to radius entries on either
+     * side of it. The list is empty if the player has not played the game.
+     */
+    List<LeaderboardEntry> retrieveAround(long gameID, long playerID, int radius) throws DAOException, SQLException;
+
+    /**
+     * Returns the number of ranked players of the game.
+     */
+    int countPlayers(long gameID) throws DAOException, SQLException;
+}
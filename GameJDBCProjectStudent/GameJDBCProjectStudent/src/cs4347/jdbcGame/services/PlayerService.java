@@ -11,9 +11,11 @@
 package cs4347.jdbcGame.services;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
+import cs4347.jdbcGame.dao.Page;
 import cs4347.jdbcGame.entity.Player;
 import cs4347.jdbcGame.util.DAOException;
 
@@ -23,12 +25,29 @@ public interface PlayerService
 
     Player retrieve(Long playerID) throws DAOException, SQLException;
 
+    /**
+     * Retrieves the given players together with their credit cards in a
+     * constant number of queries, instead of two queries per player. Players
+     * are returned in the order of playerIDs; unknown IDs are skipped and
+     * repeated IDs are returned once.
+     */
+    List<Player> retrieveWithCreditCards(Collection<Long> playerIDs) throws DAOException, SQLException;
+
     int update(Player player) throws DAOException, SQLException;
 
     int delete(Long playerID) throws DAOException, SQLException;
 
+    /**
+     * Same as count(CountMode.TRACKED).
+     */
     int count() throws DAOException, SQLException;
 
+    /**
+     * Number of players, from the in-process counter or the table
+     * statistics depending on mode. Neither is exact; see CountMode.
+     */
+    int count(CountMode mode) throws DAOException, SQLException;
+
     /**
      * Provided for testing and debugging.
      */
@@ -36,4 +55,17 @@ public interface PlayerService
 
     List<Player> retrieveByJoinDate(Date start, Date end) throws DAOException, SQLException;
 
+    /**
+     * Page-at-a-time form of retrieveByJoinDate. Pass the token of the
+     * previous page, or null for the first page. Credit cards are not loaded.
+     */
+    Page<Player> retrieveByJoinDate(Date start, Date end, String pageToken, int pageSize)
+            throws DAOException, SQLException;
+
+    /**
+     * Registers a listener that is told about every Player created, updated
+     * or deleted through this service, after the change commits.
+     */
+    void addListener(EntityListener<Player> listener);
+
 }
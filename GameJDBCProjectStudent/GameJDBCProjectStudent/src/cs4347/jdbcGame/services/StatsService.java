@@ -0,0 +1,48 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services;
+
+import java.sql.SQLException;
+
+import cs4347.jdbcGame.entity.GameStats;
+import cs4347.jdbcGame.entity.PlayerStats;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Play counts, scores and spend per player and per game, read from summary
+ * rows with a single primary key lookup instead of aggregating GamesPlayed
+ * and GamesOwned. The GamesPlayed and GamesOwned services keep the rows
+ * current; rebuild recomputes them after writes that bypassed those
+ * services, such as bulk loads through the DAOs.
+ */
+public interface StatsService
+{
+    /**
+     * Never null: a player without sessions or purchases has zero totals.
+     */
+    PlayerStats retrievePlayerStats(long playerID) throws DAOException, SQLException;
+
+    /**
+     * Never null: a game without sessions or purchases has zero totals.
+     */
+    GameStats retrieveGameStats(long gameID) throws DAOException, SQLException;
+
+    /**
+     * Recomputes every summary row from GAMES_PLAYED and GAMES_OWNED, one
+     * transaction per chunkSize ids, and returns the number of rows written.
+     */
+    int rebuild(int chunkSize) throws DAOException, SQLException;
+
+    /**
+     * Same as rebuild(chunkSize) using the default chunk size.
+     */
+    int rebuild() throws DAOException, SQLException;
+}
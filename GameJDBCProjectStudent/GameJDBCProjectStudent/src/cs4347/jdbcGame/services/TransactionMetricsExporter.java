@@ -0,0 +1,21 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services;
+
+/**
+ * Receives a TransactionSample for every service call once the call has
+ * returned its connection. Runs on the calling thread, so it should be quick
+ * and must not throw.
+ */
+public interface TransactionMetricsExporter
+{
+    void export(TransactionSample sample);
+}
@@ -0,0 +1,95 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services;
+
+/**
+ * Connection and transaction timings of one service call, handed to the
+ * TransactionMetricsExporter. A call that joined a UnitOfWork already active
+ * on its thread neither borrowed the connection nor committed, so its
+ * timings are zero.
+ */
+public class TransactionSample
+{
+    private final String method;
+    private final boolean readOnly;
+    private final boolean joined;
+    private final long acquireNanos;
+    private final long holdNanos;
+    private final long commitNanos;
+    private final boolean rolledBack;
+
+    public TransactionSample(String method, boolean readOnly, boolean joined, long acquireNanos, long holdNanos,
+            long commitNanos, boolean rolledBack)
+    {
+        this.method = method;
+        this.readOnly = readOnly;
+        this.joined = joined;
+        this.acquireNanos = acquireNanos;
+        this.holdNanos = holdNanos;
+        this.commitNanos = commitNanos;
+        this.rolledBack = rolledBack;
+    }
+
+    /**
+     * Service class and method, e.g. "GameServiceImpl.create".
+     */
+    public String getMethod()
+    {
+        return method;
+    }
+
+    /**
+     * True for reads, which run in auto-commit mode and never commit.
+     */
+    public boolean isReadOnly()
+    {
+        return readOnly;
+    }
+
+    public boolean isJoined()
+    {
+        return joined;
+    }
+
+    /**
+     * Time spent waiting for the connection, including switching off
+     * auto-commit for a transaction.
+     */
+    public long getAcquireNanos()
+    {
+        return acquireNanos;
+    }
+
+    /**
+     * Time from borrowing the connection to returning it to the pool.
+     */
+    public long getHoldNanos()
+    {
+        return holdNanos;
+    }
+
+    /**
+     * Time spent in commit, including the after-commit callbacks.
+     */
+    public long getCommitNanos()
+    {
+        return commitNanos;
+    }
+
+    /**
+     * True if the call failed, so that its transaction was rolled back, or
+     * the unit it joined was marked rollback-only.
+     */
+    public boolean isRolledBack()
+    {
+        return rolledBack;
+    }
+}
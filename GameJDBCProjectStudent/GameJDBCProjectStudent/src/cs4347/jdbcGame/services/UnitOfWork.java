@@ -0,0 +1,282 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
+
+/**
+ * Binds one connection and one transaction to the current thread, so that
+ * every service call made inside the unit shares the connection and the work
+ * commits once:
+ * 
+ * <pre>
+ * try (UnitOfWork uow = UnitOfWork.begin(dataSource)) {
+ *     playerService.create(player);
+ *     gamesOwnedService.create(gamesOwned);
+ *     uow.commit();
+ * }
+ * </pre>
+ * 
+ * Closing a unit that was not committed rolls it back. Calling begin() while a
+ * unit is already active on the same DataSource joins it: the inner commit
+ * does nothing and the outer unit decides, and an inner unit that ends
+ * without committing forces the outer one to roll back.
+ */
+public final class UnitOfWork implements AutoCloseable
+{
+    private static final ThreadLocal<Scope> current = new ThreadLocal<Scope>();
+
+    /**
+     * State shared by the outer unit and every unit that joined it.
+     */
+    private static final class Scope
+    {
+        final DataSource dataSource;
+        final Connection connection;
+        final boolean previousAutoCommit;
+        final List<Runnable> afterCommit = new ArrayList<Runnable>();
+        boolean rollbackOnly;
+        boolean written;
+
+        Scope(DataSource dataSource, Connection connection, boolean previousAutoCommit)
+        {
+            this.dataSource = dataSource;
+            this.connection = connection;
+            this.previousAutoCommit = previousAutoCommit;
+        }
+    }
+
+    private final Scope scope;
+    private final boolean outermost;
+    private boolean completed;
+    private boolean closed;
+
+    private UnitOfWork(Scope scope, boolean outermost)
+    {
+        this.scope = scope;
+        this.outermost = outermost;
+    }
+
+    /**
+     * Starts a unit of work on the current thread, or joins the one already
+     * active on the same DataSource.
+     * 
+     * @throws IllegalStateException if a unit on a different DataSource is
+     *         active on this thread.
+     */
+    public static UnitOfWork begin(DataSource dataSource) throws SQLException
+    {
+        Scope active = current.get();
+        if (active != null) {
+            if (active.dataSource != dataSource) {
+                throw new IllegalStateException("A unit of work on another DataSource is already active");
+            }
+            return new UnitOfWork(active, false);
+        }
+
+        Connection connection = dataSource.getConnection();
+        try {
+            boolean previousAutoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            Scope scope = new Scope(dataSource, connection, previousAutoCommit);
+            current.set(scope);
+            return new UnitOfWork(scope, true);
+        } catch (SQLException | RuntimeException ex) {
+            connection.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the connection of the unit active on this thread for the given
+     * DataSource, or null if there is none.
+     */
+    public static Connection currentConnection(DataSource dataSource)
+    {
+        Scope active = current.get();
+        return active != null && active.dataSource == dataSource ? active.connection : null;
+    }
+
+    /**
+     * True if a unit of work on the given DataSource is active on this thread.
+     */
+    public static boolean isActive(DataSource dataSource)
+    {
+        return currentConnection(dataSource) != null;
+    }
+
+    /**
+     * True if the active unit on the given DataSource has written through a
+     * service. Services skip their caches in that case, so the unit sees its
+     * own uncommitted changes and those changes are never cached.
+     */
+    public static boolean hasWritten(DataSource dataSource)
+    {
+        Scope active = current.get();
+        return active != null && active.dataSource == dataSource && active.written;
+    }
+
+    /**
+     * Records that the active unit on the given DataSource has written. Called
+     * by the services; does nothing if no unit is active.
+     */
+    public static void markWritten(DataSource dataSource)
+    {
+        Scope active = current.get();
+        if (active != null && active.dataSource == dataSource) {
+            active.written = true;
+        }
+    }
+
+    /**
+     * Forces the active unit on the given DataSource to roll back. Called by
+     * the services when a call inside the unit fails; does nothing if no unit
+     * is active.
+     */
+    public static void markRollbackOnly(DataSource dataSource)
+    {
+        Scope active = current.get();
+        if (active != null && active.dataSource == dataSource) {
+            active.rollbackOnly = true;
+        }
+    }
+
+    /**
+     * Runs callback once the active unit on the given DataSource commits, or
+     * right away if no unit is active. Callbacks of a unit that rolls back are
+     * discarded.
+     */
+    public static void afterCommit(DataSource dataSource, Runnable callback)
+    {
+        Scope active = current.get();
+        if (active != null && active.dataSource == dataSource) {
+            active.afterCommit.add(callback);
+        }
+        else {
+            callback.run();
+        }
+    }
+
+    public Connection getConnection()
+    {
+        return scope.connection;
+    }
+
+    /**
+     * Commits the unit. For a unit that joined an outer one this only marks
+     * it as completed.
+     * 
+     * @throws DAOException if a joined unit or failed service call marked the
+     *         unit rollback-only; the work is rolled back.
+     * @throws SQLException if the commit fails; the work is rolled back
+     *         before the connection can go back to the pool.
+     */
+    public void commit() throws SQLException, DAOException
+    {
+        checkOpen();
+        completed = true;
+        if (!outermost) {
+            return;
+        }
+        if (scope.rollbackOnly) {
+            rollbackScope();
+            throw new DAOException("Unit of work was marked rollback-only and has been rolled back");
+        }
+        try {
+            scope.connection.commit();
+        } catch (SQLException | RuntimeException ex) {
+            try {
+                rollbackScope();
+            } catch (SQLException rollbackEx) {
+                ex.addSuppressed(rollbackEx);
+            }
+            throw ex;
+        }
+
+        List<Runnable> callbacks = new ArrayList<Runnable>(scope.afterCommit);
+        scope.afterCommit.clear();
+        scope.written = false;
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+    }
+
+    /**
+     * Rolls the unit back. For a unit that joined an outer one this marks the
+     * outer unit rollback-only.
+     */
+    public void rollback() throws SQLException
+    {
+        checkOpen();
+        completed = true;
+        if (!outermost) {
+            scope.rollbackOnly = true;
+            return;
+        }
+        rollbackScope();
+    }
+
+    /**
+     * Ends the unit, rolling it back if it was neither committed nor rolled
+     * back. The outermost unit returns the connection to the pool.
+     */
+    @Override
+    public void close() throws SQLException
+    {
+        if (closed) {
+            return;
+        }
+        try {
+            if (!completed) {
+                rollback();
+            }
+        }
+        finally {
+            closed = true;
+            if (outermost) {
+                current.remove();
+                try {
+                    scope.connection.setAutoCommit(scope.previousAutoCommit);
+                }
+                finally {
+                    StatementCache.getInstance().closeAll(scope.connection);
+                    scope.connection.close();
+                }
+            }
+        }
+    }
+
+    private void rollbackScope() throws SQLException
+    {
+        scope.afterCommit.clear();
+        scope.written = false;
+        scope.rollbackOnly = false;
+        scope.connection.rollback();
+    }
+
+    private void checkOpen()
+    {
+        if (closed) {
+            throw new IllegalStateException("Unit of work is closed");
+        }
+        if (completed) {
+            throw new IllegalStateException("Unit of work already committed or rolled back");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.services.AsyncGameService;
+import cs4347.jdbcGame.services.CountMode;
+import cs4347.jdbcGame.services.GameService;
+
+public class AsyncGameServiceImpl implements AsyncGameService
+{
+    private GameService gameService;
+    private Executor executor;
+
+    /**
+     * Runs the calls of gameService on executor, normally one made by
+     * ServiceExecutors.newBoundedExecutor and shared by all async services.
+     */
+    public AsyncGameServiceImpl(GameService gameService, Executor executor)
+    {
+        this.gameService = gameService;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Game> create(Game game)
+    {
+        return AsyncSupport.supply(executor, () -> gameService.create(game));
+    }
+
+    @Override
+    public CompletableFuture<Game> retrieve(long gameID)
+    {
+        return AsyncSupport.supply(executor, () -> gameService.retrieve(gameID));
+    }
+
+    @Override
+    public CompletableFuture<Integer> update(Game game)
+    {
+        return AsyncSupport.supply(executor, () -> gameService.update(game));
+    }
+
+    @Override
+    public CompletableFuture<Integer> delete(long gameID)
+    {
+        return AsyncSupport.supply(executor, () -> gameService.delete(gameID));
+    }
+
+    @Override
+    public CompletableFuture<Integer> count(CountMode mode)
+    {
+        return AsyncSupport.supply(executor, () -> gameService.count(mode));
+    }
+
+    @Override
+    public CompletableFuture<List<Game>> retrieveByTitle(String titlePattern)
+    {
+        return AsyncSupport.supply(executor, () -> gameService.retrieveByTitle(titlePattern));
+    }
+
+    @Override
+    public CompletableFuture<Page<Game>> retrieveByTitle(String titlePattern, String pageToken, int pageSize)
+    {
+        return AsyncSupport.supply(executor, () -> gameService.retrieveByTitle(titlePattern, pageToken, pageSize));
+    }
+
+    @Override
+    public CompletableFuture<List<Game>> retrieveByReleaseDate(Date start, Date end)
+    {
+        return AsyncSupport.supply(executor, () -> gameService.retrieveByReleaseDate(start, end));
+    }
+
+    @Override
+    public CompletableFuture<Page<Game>> retrieveByReleaseDate(Date start, Date end, String pageToken, int pageSize)
+    {
+        return AsyncSupport.supply(executor,
+                () -> gameService.retrieveByReleaseDate(start, end, pageToken, pageSize));
+    }
+}
@@ -0,0 +1,109 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.services.AsyncGamesOwnedService;
+import cs4347.jdbcGame.services.CountMode;
+import cs4347.jdbcGame.services.GamesOwnedService;
+
+public class AsyncGamesOwnedServiceImpl implements AsyncGamesOwnedService
+{
+    private GamesOwnedService gamesOwnedService;
+    private Executor executor;
+
+    public AsyncGamesOwnedServiceImpl(GamesOwnedService gamesOwnedService, Executor executor)
+    {
+        this.gamesOwnedService = gamesOwnedService;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<GamesOwned> create(GamesOwned gamesOwned)
+    {
+        return AsyncSupport.supply(executor, () -> gamesOwnedService.create(gamesOwned));
+    }
+
+    @Override
+    public CompletableFuture<GamesOwned> upsert(GamesOwned gamesOwned)
+    {
+        return AsyncSupport.supply(executor, () -> gamesOwnedService.upsert(gamesOwned));
+    }
+
+    @Override
+    public CompletableFuture<Void> upsertAll(List<GamesOwned> gamesOwned)
+    {
+        return AsyncSupport.supply(executor, () -> {
+            gamesOwnedService.upsertAll(gamesOwned);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<GamesOwned> retrieveByID(long gamesOwnedID)
+    {
+        return AsyncSupport.supply(executor, () -> gamesOwnedService.retrieveByID(gamesOwnedID));
+    }
+
+    @Override
+    public CompletableFuture<GamesOwned> retrievePlayerGameID(long playerID, long gameID)
+    {
+        return AsyncSupport.supply(executor, () -> gamesOwnedService.retrievePlayerGameID(playerID, gameID));
+    }
+
+    @Override
+    public CompletableFuture<List<GamesOwned>> retrieveByGame(long gameID)
+    {
+        return AsyncSupport.supply(executor, () -> gamesOwnedService.retrieveByGame(gameID));
+    }
+
+    @Override
+    public CompletableFuture<Page<GamesOwned>> retrieveByGame(long gameID, String pageToken, int pageSize)
+    {
+        return AsyncSupport.supply(executor, () -> gamesOwnedService.retrieveByGame(gameID, pageToken, pageSize));
+    }
+
+    @Override
+    public CompletableFuture<List<GamesOwned>> retrieveByPlayer(long playerID)
+    {
+        return AsyncSupport.supply(executor, () -> gamesOwnedService.retrieveByPlayer(playerID));
+    }
+
+    @Override
+    public CompletableFuture<Page<GamesOwned>> retrieveByPlayer(long playerID, String pageToken, int pageSize)
+    {
+        return AsyncSupport.supply(executor,
+                () -> gamesOwnedService.retrieveByPlayer(playerID, pageToken, pageSize));
+    }
+
+    @Override
+    public CompletableFuture<Integer> update(GamesOwned gamesOwned)
+    {
+        return AsyncSupport.supply(executor, () -> gamesOwnedService.update(gamesOwned));
+    }
+
+    @Override
+    public CompletableFuture<Integer> delete(long gamesOwnedID)
+    {
+        return AsyncSupport.supply(executor, () -> gamesOwnedService.delete(gamesOwnedID));
+    }
+
+    @Override
+    public CompletableFuture<Integer> count(CountMode mode)
+    {
+        return AsyncSupport.supply(executor, () -> gamesOwnedService.count(mode));
+    }
+}
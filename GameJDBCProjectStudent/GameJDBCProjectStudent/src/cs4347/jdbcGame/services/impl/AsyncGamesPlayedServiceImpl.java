@@ -0,0 +1,107 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.GamesPlayedColumns;
+import cs4347.jdbcGame.services.AsyncGamesPlayedService;
+import cs4347.jdbcGame.services.CountMode;
+import cs4347.jdbcGame.services.GamesPlayedService;
+
+public class AsyncGamesPlayedServiceImpl implements AsyncGamesPlayedService
+{
+    private GamesPlayedService gamesPlayedService;
+    private Executor executor;
+
+    public AsyncGamesPlayedServiceImpl(GamesPlayedService gamesPlayedService, Executor executor)
+    {
+        this.gamesPlayedService = gamesPlayedService;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<GamesPlayed> create(GamesPlayed gamesPlayed)
+    {
+        return AsyncSupport.supply(executor, () -> gamesPlayedService.create(gamesPlayed));
+    }
+
+    @Override
+    public CompletableFuture<GamesPlayed> retrieveByID(long gamePlayedID)
+    {
+        return AsyncSupport.supply(executor, () -> gamesPlayedService.retrieveByID(gamePlayedID));
+    }
+
+    @Override
+    public CompletableFuture<List<GamesPlayed>> retrieveByPlayerGameID(long playerID, long gameID)
+    {
+        return AsyncSupport.supply(executor, () -> gamesPlayedService.retrieveByPlayerGameID(playerID, gameID));
+    }
+
+    @Override
+    public CompletableFuture<List<GamesPlayed>> retrieveByGame(long gameID)
+    {
+        return AsyncSupport.supply(executor, () -> gamesPlayedService.retrieveByGame(gameID));
+    }
+
+    @Override
+    public CompletableFuture<Page<GamesPlayed>> retrieveByGame(long gameID, String pageToken, int pageSize)
+    {
+        return AsyncSupport.supply(executor, () -> gamesPlayedService.retrieveByGame(gameID, pageToken, pageSize));
+    }
+
+    @Override
+    public CompletableFuture<GamesPlayedColumns> retrieveColumnsByGame(long gameID)
+    {
+        return AsyncSupport.supply(executor, () -> gamesPlayedService.retrieveColumnsByGame(gameID));
+    }
+
+    @Override
+    public CompletableFuture<List<GamesPlayed>> retrieveByPlayer(long playerID)
+    {
+        return AsyncSupport.supply(executor, () -> gamesPlayedService.retrieveByPlayer(playerID));
+    }
+
+    @Override
+    public CompletableFuture<Page<GamesPlayed>> retrieveByPlayer(long playerID, String pageToken, int pageSize)
+    {
+        return AsyncSupport.supply(executor,
+                () -> gamesPlayedService.retrieveByPlayer(playerID, pageToken, pageSize));
+    }
+
+    @Override
+    public CompletableFuture<GamesPlayedColumns> retrieveColumnsByPlayer(long playerID)
+    {
+        return AsyncSupport.supply(executor, () -> gamesPlayedService.retrieveColumnsByPlayer(playerID));
+    }
+
+    @Override
+    public CompletableFuture<Integer> update(GamesPlayed gamesPlayed)
+    {
+        return AsyncSupport.supply(executor, () -> gamesPlayedService.update(gamesPlayed));
+    }
+
+    @Override
+    public CompletableFuture<Integer> delete(long gamePlayedID)
+    {
+        return AsyncSupport.supply(executor, () -> gamesPlayedService.delete(gamePlayedID));
+    }
+
+    @Override
+    public CompletableFuture<Integer> count(CountMode mode)
+    {
+        return AsyncSupport.supply(executor, () -> gamesPlayedService.count(mode));
+    }
+}
@@ -0,0 +1,90 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.services.AsyncPlayerService;
+import cs4347.jdbcGame.services.CountMode;
+import cs4347.jdbcGame.services.PlayerService;
+
+public class AsyncPlayerServiceImpl implements AsyncPlayerService
+{
+    private PlayerService playerService;
+    private Executor executor;
+
+    public AsyncPlayerServiceImpl(PlayerService playerService, Executor executor)
+    {
+        this.playerService = playerService;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Player> create(Player player)
+    {
+        return AsyncSupport.supply(executor, () -> playerService.create(player));
+    }
+
+    @Override
+    public CompletableFuture<Player> retrieve(Long playerID)
+    {
+        return AsyncSupport.supply(executor, () -> playerService.retrieve(playerID));
+    }
+
+    @Override
+    public CompletableFuture<List<Player>> retrieveWithCreditCards(Collection<Long> playerIDs)
+    {
+        return AsyncSupport.supply(executor, () -> playerService.retrieveWithCreditCards(playerIDs));
+    }
+
+    @Override
+    public CompletableFuture<Integer> update(Player player)
+    {
+        return AsyncSupport.supply(executor, () -> playerService.update(player));
+    }
+
+    @Override
+    public CompletableFuture<Integer> delete(Long playerID)
+    {
+        return AsyncSupport.supply(executor, () -> playerService.delete(playerID));
+    }
+
+    @Override
+    public CompletableFuture<Integer> count(CountMode mode)
+    {
+        return AsyncSupport.supply(executor, () -> playerService.count(mode));
+    }
+
+    @Override
+    public CompletableFuture<Integer> countCreditCardsForPlayer(Long playerID)
+    {
+        return AsyncSupport.supply(executor, () -> playerService.countCreditCardsForPlayer(playerID));
+    }
+
+    @Override
+    public CompletableFuture<List<Player>> retrieveByJoinDate(Date start, Date end)
+    {
+        return AsyncSupport.supply(executor, () -> playerService.retrieveByJoinDate(start, end));
+    }
+
+    @Override
+    public CompletableFuture<Page<Player>> retrieveByJoinDate(Date start, Date end, String pageToken, int pageSize)
+    {
+        return AsyncSupport.supply(executor,
+                () -> playerService.retrieveByJoinDate(start, end, pageToken, pageSize));
+    }
+}
@@ -0,0 +1,58 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Runs blocking service calls on an executor for the async services.
+ */
+final class AsyncSupport
+{
+    /**
+     * One blocking service call.
+     */
+    interface Call<T>
+    {
+        T call() throws DAOException, SQLException;
+    }
+
+    private AsyncSupport()
+    {
+    }
+
+    /**
+     * Unlike CompletableFuture.supplyAsync, lets the call throw checked
+     * exceptions and completes the future with them unwrapped. A rejected
+     * submission fails the future instead of throwing.
+     */
+    static <T> CompletableFuture<T> supply(Executor executor, Call<T> call)
+    {
+        CompletableFuture<T> future = new CompletableFuture<T>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(call.call());
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+}
@@ -0,0 +1,76 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import cs4347.jdbcGame.dao.CreditCardDAO;
+import cs4347.jdbcGame.dao.GameDAO;
+import cs4347.jdbcGame.dao.GamesOwnedDAO;
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.PlayerDAO;
+import cs4347.jdbcGame.dao.StatsDAO;
+import cs4347.jdbcGame.dao.impl.CreditCardDAOImpl;
+import cs4347.jdbcGame.dao.impl.DAOInstrumentation;
+import cs4347.jdbcGame.dao.impl.GameDAOImpl;
+import cs4347.jdbcGame.dao.impl.GamesOwnedDAOImpl;
+import cs4347.jdbcGame.dao.impl.GamesPlayedDAOImpl;
+import cs4347.jdbcGame.dao.impl.PlayerDAOImpl;
+import cs4347.jdbcGame.dao.impl.StatsDAOImpl;
+
+/**
+ * The DAOs used by the services, wrapped by DAOInstrumentation. The DAO
+ * implementations keep no state, so one instance of each is shared.
+ */
+final class DAOs
+{
+    private static final GameDAO gameDAO = DAOInstrumentation.instrument(GameDAO.class, new GameDAOImpl());
+    private static final PlayerDAO playerDAO = DAOInstrumentation.instrument(PlayerDAO.class, new PlayerDAOImpl());
+    private static final CreditCardDAO creditCardDAO = DAOInstrumentation.instrument(CreditCardDAO.class,
+            new CreditCardDAOImpl());
+    private static final GamesOwnedDAO gamesOwnedDAO = DAOInstrumentation.instrument(GamesOwnedDAO.class,
+            new GamesOwnedDAOImpl());
+    private static final GamesPlayedDAO gamesPlayedDAO = DAOInstrumentation.instrument(GamesPlayedDAO.class,
+            new GamesPlayedDAOImpl());
+    private static final StatsDAO statsDAO = DAOInstrumentation.instrument(StatsDAO.class, new StatsDAOImpl());
+
+    private DAOs()
+    {
+    }
+
+    static GameDAO game()
+    {
+        return gameDAO;
+    }
+
+    static PlayerDAO player()
+    {
+        return playerDAO;
+    }
+
+    static CreditCardDAO creditCard()
+    {
+        return creditCardDAO;
+    }
+
+    static GamesOwnedDAO gamesOwned()
+    {
+        return gamesOwnedDAO;
+    }
+
+    static GamesPlayedDAO gamesPlayed()
+    {
+        return gamesPlayedDAO;
+    }
+
+    static StatsDAO stats()
+    {
+        return statsDAO;
+    }
+}
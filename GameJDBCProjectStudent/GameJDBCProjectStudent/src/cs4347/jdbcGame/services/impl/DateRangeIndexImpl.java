@@ -0,0 +1,314 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.services.DateRangeIndex;
+import cs4347.jdbcGame.services.EntityListener;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.PlayerService;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Sorted map from day to the entities dated that day. A range query is a
+ * sub-map view, so its cost depends on the days and rows in the range and
+ * not on the size of the table.
+ * 
+ * The index is loaded page by page the first time it is queried, and from
+ * then on is kept current by the create/update/delete notifications of the
+ * service it was built for. Entities without a date are not indexed, as
+ * BETWEEN never returns them. Changes made without going through that service
+ * are not seen until the index is dropped with evict().
+ */
+public class DateRangeIndexImpl<T> implements DateRangeIndex<T>, EntityListener<T>
+{
+    /**
+     * Rows read per query while loading the index.
+     */
+    public static final int LOAD_PAGE_SIZE = 1000;
+
+    // The range of the MySQL DATE type.
+    private static final Date LOAD_START = java.sql.Date.valueOf("1000-01-01");
+    private static final Date LOAD_END = java.sql.Date.valueOf("9999-12-31");
+
+    @FunctionalInterface
+    interface PageLoader<T>
+    {
+        Page<T> load(Connection connection, Date start, Date end, String pageToken, int pageSize)
+                throws SQLException, DAOException;
+    }
+
+    /**
+     * Games by release date, kept current through gameService.
+     */
+    public static DateRangeIndexImpl<Game> forReleaseDates(DataSource dataSource, GameService gameService)
+    {
+        DateRangeIndexImpl<Game> index = new DateRangeIndexImpl<Game>(dataSource, Game::getId,
+                Game::getReleaseDate, DateRangeIndexImpl::copyOf, (connection, start, end, pageToken,
+                        pageSize) -> DAOs.game().retrieveByReleaseDate(connection, start, end, pageToken, pageSize));
+        gameService.addListener(index);
+        return index;
+    }
+
+    /**
+     * Players by join date, kept current through playerService. As with
+     * PlayerService.retrieveByJoinDate, credit cards are not included.
+     */
+    public static DateRangeIndexImpl<Player> forJoinDates(DataSource dataSource, PlayerService playerService)
+    {
+        DateRangeIndexImpl<Player> index = new DateRangeIndexImpl<Player>(dataSource, Player::getId,
+                Player::getJoinDate, DateRangeIndexImpl::copyOf, (connection, start, end, pageToken,
+                        pageSize) -> DAOs.player().retrieveByJoinDate(connection, start, end, pageToken, pageSize));
+        playerService.addListener(index);
+        return index;
+    }
+
+    private final DataSource dataSource;
+    private final Function<T, Long> idOf;
+    private final Function<T, Date> dateOf;
+    private final UnaryOperator<T> copier;
+    private final PageLoader<T> loader;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock.
+    private boolean loaded;
+    private final TreeMap<LocalDate, TreeMap<Long, T>> byDay = new TreeMap<LocalDate, TreeMap<Long, T>>();
+    private final Map<Long, LocalDate> dayOf = new HashMap<Long, LocalDate>();
+
+    DateRangeIndexImpl(DataSource dataSource, Function<T, Long> idOf, Function<T, Date> dateOf,
+            UnaryOperator<T> copier, PageLoader<T> loader)
+    {
+        this.dataSource = dataSource;
+        this.idOf = idOf;
+        this.dateOf = dateOf;
+        this.copier = copier;
+        this.loader = loader;
+    }
+
+    @Override
+    public List<T> retrieveBetween(Date start, Date end) throws DAOException, SQLException
+    {
+        readLock();
+        try {
+            List<T> result = new ArrayList<T>();
+            for (TreeMap<Long, T> day : range(start, end).values()) {
+                for (T entity : day.values()) {
+                    result.add(copier.apply(entity));
+                }
+            }
+            return result;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int countBetween(Date start, Date end) throws DAOException, SQLException
+    {
+        readLock();
+        try {
+            int count = 0;
+            for (TreeMap<Long, T> day : range(start, end).values()) {
+                count += day.size();
+            }
+            return count;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the index; the next query reloads it.
+     */
+    public void evict()
+    {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            byDay.clear();
+            dayOf.clear();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void created(T entity)
+    {
+        updated(entity);
+    }
+
+    @Override
+    public void updated(T entity)
+    {
+        lock.writeLock().lock();
+        try {
+            // Before the load, the load itself will read the committed change.
+            if (loaded) {
+                remove(idOf.apply(entity));
+                put(copier.apply(entity));
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleted(Long id)
+    {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                remove(id);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Takes the read lock, loading the index first if needed. Notifications
+     * for commits that the load might miss wait on the write lock and are
+     * applied afterwards; they replace entities by id, so a change seen by
+     * both is applied once.
+     */
+    private void readLock() throws DAOException, SQLException
+    {
+        lock.readLock().lock();
+        if (loaded) {
+            return;
+        }
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                load();
+                loaded = true;
+            }
+            // Downgrade to the read lock.
+            lock.readLock().lock();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() throws DAOException, SQLException
+    {
+        Connection connection = dataSource.getConnection();
+        try {
+            String pageToken = null;
+            do {
+                Page<T> page = loader.load(connection, LOAD_START, LOAD_END, pageToken, LOAD_PAGE_SIZE);
+                for (T entity : page.getItems()) {
+                    put(entity);
+                }
+                pageToken = page.getNextPageToken();
+            } while (pageToken != null);
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    private NavigableMap<LocalDate, TreeMap<Long, T>> range(Date start, Date end)
+    {
+        LocalDate from = day(start);
+        LocalDate to = day(end);
+        if (from.isAfter(to)) {
+            return new TreeMap<LocalDate, TreeMap<Long, T>>();
+        }
+        return byDay.subMap(from, true, to, true);
+    }
+
+    private void put(T entity)
+    {
+        Date date = dateOf.apply(entity);
+        if (date == null) {
+            return;
+        }
+        LocalDate day = day(date);
+        Long id = idOf.apply(entity);
+        byDay.computeIfAbsent(day, d -> new TreeMap<Long, T>()).put(id, entity);
+        dayOf.put(id, day);
+    }
+
+    private void remove(Long id)
+    {
+        LocalDate day = dayOf.remove(id);
+        if (day == null) {
+            return;
+        }
+        TreeMap<Long, T> entities = byDay.get(day);
+        entities.remove(id);
+        if (entities.isEmpty()) {
+            byDay.remove(day);
+        }
+    }
+
+    /**
+     * The day the DAOs store for date: JDBC binds a java.sql.Date by its
+     * fields in the default time zone.
+     */
+    private static LocalDate day(Date date)
+    {
+        return new java.sql.Date(date.getTime()).toLocalDate();
+    }
+
+    private static Game copyOf(Game game)
+    {
+        Game copy = new Game();
+        copy.setId(game.getId());
+        copy.setTitle(game.getTitle());
+        copy.setDescription(game.getDescription());
+        if (game.getReleaseDate() != null) {
+            copy.setReleaseDate((Date) game.getReleaseDate().clone());
+        }
+        copy.setVersion(game.getVersion());
+        return copy;
+    }
+
+    private static Player copyOf(Player player)
+    {
+        Player copy = new Player();
+        copy.setId(player.getId());
+        copy.setFirstName(player.getFirstName());
+        copy.setLastName(player.getLastName());
+        if (player.getJoinDate() != null) {
+            copy.setJoinDate((Date) player.getJoinDate().clone());
+        }
+        copy.setEmail(player.getEmail());
+        return copy;
+    }
+}
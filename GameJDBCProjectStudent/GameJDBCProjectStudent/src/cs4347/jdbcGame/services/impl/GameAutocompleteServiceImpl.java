@@ -0,0 +1,509 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.dao.GameDAO;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.services.EntityListener;
+import cs4347.jdbcGame.services.GameAutocompleteService;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * Prefix trie over lower-cased game titles. Every node keeps the best
+ * completions of its subtree, so a query walks the prefix and copies that
+ * list, whatever the number of matching titles.
+ * 
+ * Titles are loaded the first time the service is queried and then follow
+ * the create/update/delete notifications of the GameService passed to the
+ * constructor. Popularity is the owned count kept in GAME_STATS. A daemon
+ * thread rereads it every reseed interval, builds a newly ranked trie
+ * without holding the lock and swaps it in, so new purchases move a game up
+ * with that much delay. Queries only take the read lock; close() stops the
+ * thread.
+ */
+public class GameAutocompleteServiceImpl implements GameAutocompleteService, EntityListener<Game>
+{
+    public static final int DEFAULT_MAX_COMPLETIONS = 10;
+    public static final long DEFAULT_POPULARITY_RESEED_SECONDS = 60;
+
+    /**
+     * Games read per query while loading the titles.
+     */
+    public static final int LOAD_PAGE_SIZE = 1000;
+
+    private static final Logger log = Logger.getLogger(GameAutocompleteServiceImpl.class.getName());
+
+    private final DataSource dataSource;
+    private final int maxCompletions;
+    private final long popularityReseed;
+    private final TimeUnit unit;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Held for a whole build, so that one runs at a time.
+    private final Object buildLock = new Object();
+
+    private volatile boolean loaded;
+    // Guarded by lock.
+    private Trie trie = new Trie(new HashMap<Long, Game>(), new HashMap<Long, Integer>());
+    // Changes committed while a build runs, replayed onto the built trie.
+    // A null Game is a delete.
+    private Map<Long, Game> pending;
+    private int generation;
+
+    // Guarded by buildLock.
+    private ScheduledExecutorService refresher;
+    private boolean closed;
+
+    public GameAutocompleteServiceImpl(DataSource dataSource, GameService gameService)
+    {
+        this(dataSource, gameService, DEFAULT_MAX_COMPLETIONS, DEFAULT_POPULARITY_RESEED_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * maxCompletions is the number of games kept per prefix, and so the
+     * largest useful limit.
+     */
+    public GameAutocompleteServiceImpl(DataSource dataSource, GameService gameService, int maxCompletions,
+            long popularityReseed, TimeUnit unit)
+    {
+        this.dataSource = dataSource;
+        this.maxCompletions = maxCompletions;
+        this.popularityReseed = popularityReseed;
+        this.unit = unit;
+        gameService.addListener(this);
+    }
+
+    @Override
+    public List<Game> complete(String prefix, int limit) throws DAOException, SQLException
+    {
+        String key = prefix == null ? "" : prefix.toLowerCase(Locale.ROOT);
+        if (!loaded) {
+            load();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = trie.root;
+            for (int idx = 0; idx < key.length() && node != null; idx++) {
+                node = node.children.get(key.charAt(idx));
+            }
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            List<Game> result = new ArrayList<Game>();
+            for (Long id : node.top) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                result.add(copyOf(trie.games.get(id)));
+            }
+            return result;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the titles and counts; the next query reloads them.
+     */
+    public void evict()
+    {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            trie = new Trie(new HashMap<Long, Game>(), new HashMap<Long, Integer>());
+            generation++;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stops the popularity refresh. Queries keep working on the last counts.
+     */
+    public void close()
+    {
+        synchronized (buildLock) {
+            closed = true;
+            if (refresher != null) {
+                refresher.shutdownNow();
+                refresher = null;
+            }
+        }
+    }
+
+    @Override
+    public void created(Game game)
+    {
+        updated(game);
+    }
+
+    @Override
+    public void updated(Game game)
+    {
+        Game copy = copyOf(game);
+        lock.writeLock().lock();
+        try {
+            // Before the load, the load itself will read the committed change.
+            if (loaded) {
+                trie.remove(copy.getId());
+                trie.put(copy);
+            }
+            if (pending != null) {
+                pending.put(copy.getId(), copy);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleted(Long gameID)
+    {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                trie.remove(gameID);
+            }
+            if (pending != null) {
+                pending.put(gameID, null);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the titles and counts and starts the refresh. Other first queries
+     * wait for it on buildLock.
+     */
+    private void load() throws DAOException, SQLException
+    {
+        synchronized (buildLock) {
+            while (!loaded) {
+                int started = startBuild();
+                Map<Long, Integer> ownedCounts;
+                Map<Long, Game> games;
+                try {
+                    // Counts first, so a purchase made meanwhile is at most
+                    // one reseed late.
+                    ownedCounts = readPopularity();
+                    games = readGames();
+                } catch (DAOException | SQLException | RuntimeException ex) {
+                    endBuild();
+                    throw ex;
+                }
+                finishBuild(build(games, ownedCounts), started);
+            }
+            if (refresher == null && !closed) {
+                refresher = Executors.newSingleThreadScheduledExecutor(task -> {
+                    Thread thread = new Thread(task, "autocomplete-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                refresher.scheduleWithFixedDelay(this::refresh, popularityReseed, popularityReseed, unit);
+            }
+        }
+    }
+
+    /**
+     * Rereads popularity and swaps in a trie ranked by it. Runs on the
+     * refresh thread; a failure keeps the current ranking until the next run.
+     */
+    private void refresh()
+    {
+        synchronized (buildLock) {
+            if (!loaded) {
+                return;
+            }
+            int started = startBuild();
+            try {
+                Map<Long, Integer> ownedCounts = readPopularity();
+                Map<Long, Game> games;
+                lock.readLock().lock();
+                try {
+                    games = new HashMap<Long, Game>(trie.games);
+                }
+                finally {
+                    lock.readLock().unlock();
+                }
+                finishBuild(build(games, ownedCounts), started);
+            } catch (DAOException | SQLException | RuntimeException ex) {
+                endBuild();
+                log.log(Level.WARNING, "Could not refresh autocomplete popularity", ex);
+            }
+        }
+    }
+
+    private int startBuild()
+    {
+        lock.writeLock().lock();
+        try {
+            pending = new HashMap<Long, Game>();
+            return generation;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void endBuild()
+    {
+        lock.writeLock().lock();
+        try {
+            pending = null;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replays the changes made during the build and swaps the trie in,
+     * unless evict() ran meanwhile.
+     */
+    private void finishBuild(Trie built, int started)
+    {
+        lock.writeLock().lock();
+        try {
+            if (generation == started) {
+                for (Map.Entry<Long, Game> change : pending.entrySet()) {
+                    built.remove(change.getKey());
+                    if (change.getValue() != null) {
+                        built.put(change.getValue());
+                    }
+                }
+                trie = built;
+                loaded = true;
+            }
+            pending = null;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Trie build(Map<Long, Game> games, Map<Long, Integer> ownedCounts)
+    {
+        Trie built = new Trie(games, ownedCounts);
+        for (Game game : games.values()) {
+            built.node(key(game)).ends.add(game.getId());
+        }
+        built.rank(built.root);
+        return built;
+    }
+
+    private Map<Long, Game> readGames() throws DAOException, SQLException
+    {
+        GameDAO gameDAO = DAOs.game();
+        Map<Long, Game> games = new HashMap<Long, Game>();
+        Connection connection = dataSource.getConnection();
+        try {
+            String pageToken = null;
+            do {
+                Page<Game> page = gameDAO.retrieveByTitle(connection, "%", pageToken, LOAD_PAGE_SIZE);
+                for (Game game : page.getItems()) {
+                    games.put(game.getId(), game);
+                }
+                pageToken = page.getNextPageToken();
+            } while (pageToken != null);
+        }
+        finally {
+            connection.close();
+        }
+        return games;
+    }
+
+    private Map<Long, Integer> readPopularity() throws DAOException, SQLException
+    {
+        Connection connection = dataSource.getConnection();
+        try {
+            return DAOs.stats().retrieveOwnedCounts(connection);
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    private static String key(Game game)
+    {
+        return game.getTitle() == null ? "" : game.getTitle().toLowerCase(Locale.ROOT);
+    }
+
+    private static Game copyOf(Game game)
+    {
+        Game copy = new Game();
+        copy.setId(game.getId());
+        copy.setTitle(game.getTitle());
+        copy.setDescription(game.getDescription());
+        if (game.getReleaseDate() != null) {
+            copy.setReleaseDate((Date) game.getReleaseDate().clone());
+        }
+        copy.setVersion(game.getVersion());
+        return copy;
+    }
+
+    /**
+     * The titles, the counts they are ranked by, and the trie over them. The
+     * Game instances are never modified, so a refresh shares them with the
+     * trie it replaces.
+     */
+    private final class Trie
+    {
+        final Node root = new Node();
+        final Map<Long, Game> games;
+        final Map<Long, Integer> ownedCounts;
+
+        // Most owned first, then by title.
+        final Comparator<Long> ranking;
+
+        Trie(Map<Long, Game> games, Map<Long, Integer> ownedCounts)
+        {
+            this.games = games;
+            this.ownedCounts = ownedCounts;
+            this.ranking = (a, b) -> {
+                int byOwned = Integer.compare(owned(b), owned(a));
+                if (byOwned != 0) {
+                    return byOwned;
+                }
+                int byTitle = key(games.get(a)).compareTo(key(games.get(b)));
+                return byTitle != 0 ? byTitle : Long.compare(a, b);
+            };
+        }
+
+        void put(Game game)
+        {
+            games.put(game.getId(), game);
+            String key = key(game);
+            node(key).ends.add(game.getId());
+            rerankPath(key);
+        }
+
+        void remove(Long gameID)
+        {
+            Game game = games.get(gameID);
+            if (game == null) {
+                return;
+            }
+            String key = key(game);
+            // Nodes left without titles are pruned on the way up.
+            List<Node> path = path(key);
+            path.get(path.size() - 1).ends.remove(gameID);
+            games.remove(gameID);
+            for (int idx = path.size() - 1; idx > 0; idx--) {
+                Node node = path.get(idx);
+                if (node.ends.isEmpty() && node.children.isEmpty()) {
+                    path.get(idx - 1).children.remove(key.charAt(idx - 1));
+                } else {
+                    rankNode(node);
+                }
+            }
+            rankNode(root);
+        }
+
+        /**
+         * Re-ranks the nodes from the end of key up to the root, after a
+         * change to a title ending there.
+         */
+        void rerankPath(String key)
+        {
+            List<Node> path = path(key);
+            for (int idx = path.size() - 1; idx >= 0; idx--) {
+                rankNode(path.get(idx));
+            }
+        }
+
+        /**
+         * Ranks every node below and including node, children first.
+         */
+        void rank(Node node)
+        {
+            for (Node child : node.children.values()) {
+                rank(child);
+            }
+            rankNode(node);
+        }
+
+        /**
+         * The best completions of a node are the best of the titles ending at
+         * it and of the best completions of its children.
+         */
+        void rankNode(Node node)
+        {
+            List<Long> candidates = new ArrayList<Long>(node.ends);
+            for (Node child : node.children.values()) {
+                candidates.addAll(child.top);
+            }
+            candidates.sort(ranking);
+            node.top = new ArrayList<Long>(candidates.subList(0, Math.min(maxCompletions, candidates.size())));
+        }
+
+        Node node(String key)
+        {
+            Node node = root;
+            for (int idx = 0; idx < key.length(); idx++) {
+                node = node.children.computeIfAbsent(key.charAt(idx), c -> new Node());
+            }
+            return node;
+        }
+
+        // root first; key is known to be in the trie.
+        List<Node> path(String key)
+        {
+            List<Node> path = new ArrayList<Node>(key.length() + 1);
+            Node node = root;
+            path.add(node);
+            for (int idx = 0; idx < key.length(); idx++) {
+                node = node.children.get(key.charAt(idx));
+                path.add(node);
+            }
+            return path;
+        }
+
+        int owned(Long gameID)
+        {
+            return ownedCounts.getOrDefault(gameID, 0);
+        }
+    }
+
+    private static final class Node
+    {
+        final Map<Character, Node> children = new HashMap<Character, Node>();
+        // Games whose whole title is the path to this node.
+        final Set<Long> ends = new HashSet<Long>();
+        List<Long> top = Collections.emptyList();
+    }
+}
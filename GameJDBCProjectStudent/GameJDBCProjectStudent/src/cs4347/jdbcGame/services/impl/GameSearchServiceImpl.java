@@ -0,0 +1,400 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.dao.GameDAO;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.services.EntityListener;
+import cs4347.jdbcGame.services.GameSearchService;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.util.DAOException;
+
+/**
+ * In-memory search index over GAME. It is loaded page by page the first time
+ * it is queried, and from then on is kept current by the create/update/delete
+ * notifications of the GameService passed to the constructor. Queries never
+ * touch the database.
+ * 
+ * Three structures are kept: lower-cased titles in a sorted map for prefix
+ * queries, the trigrams of each title for substring queries, and the words of
+ * titles and descriptions in sorted maps for ranked word-prefix queries.
+ * Substring queries shorter than a trigram scan the titles in memory.
+ * 
+ * Changes made to GAME without going through that service are not seen until
+ * the index is dropped with evict().
+ */
+public class GameSearchServiceImpl implements GameSearchService, EntityListener<Game>
+{
+    /**
+     * Games read per query while loading the index.
+     */
+    public static final int LOAD_PAGE_SIZE = 1000;
+
+    private static final int GRAM = 3;
+    private static final double TITLE_WEIGHT = 2.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+
+    private final DataSource dataSource;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock.
+    private boolean loaded;
+    private final Map<Long, Game> games = new HashMap<Long, Game>();
+    private final TreeMap<String, Set<Long>> titles = new TreeMap<String, Set<Long>>();
+    private final Map<String, Set<Long>> titleGrams = new HashMap<String, Set<Long>>();
+    private final TreeMap<String, Set<Long>> titleWords = new TreeMap<String, Set<Long>>();
+    private final TreeMap<String, Set<Long>> descriptionWords = new TreeMap<String, Set<Long>>();
+
+    public GameSearchServiceImpl(DataSource dataSource, GameService gameService)
+    {
+        this.dataSource = dataSource;
+        gameService.addListener(this);
+    }
+
+    @Override
+    public List<Game> searchByTitlePrefix(String prefix, int limit) throws DAOException, SQLException
+    {
+        String key = normalize(prefix);
+        readLock();
+        try {
+            List<Game> result = new ArrayList<Game>();
+            for (Set<Long> ids : prefixRange(titles, key).values()) {
+                for (Long id : sorted(ids)) {
+                    if (result.size() >= limit) {
+                        return result;
+                    }
+                    result.add(copyOf(games.get(id)));
+                }
+            }
+            return result;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Game> searchByTitleSubstring(String text, int limit) throws DAOException, SQLException
+    {
+        String key = normalize(text);
+        readLock();
+        try {
+            Collection<Long> candidates = key.length() < GRAM ? games.keySet() : gramCandidates(key);
+            List<Game> matches = new ArrayList<Game>();
+            for (Long id : candidates) {
+                Game game = games.get(id);
+                if (normalize(game.getTitle()).contains(key)) {
+                    matches.add(game);
+                }
+            }
+            matches.sort(TITLE_ORDER);
+            List<Game> result = new ArrayList<Game>();
+            for (Game game : matches.subList(0, Math.min(Math.max(limit, 0), matches.size()))) {
+                result.add(copyOf(game));
+            }
+            return result;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Game> search(String query, int limit) throws DAOException, SQLException
+    {
+        Set<String> terms = new LinkedHashSet<String>(words(query));
+        readLock();
+        try {
+            Map<Long, Double> scores = new HashMap<Long, Double>();
+            for (String term : terms) {
+                Set<Long> inTitle = union(prefixRange(titleWords, term).values());
+                Set<Long> inDescription = union(prefixRange(descriptionWords, term).values());
+                Set<Long> matched = new HashSet<Long>(inTitle);
+                matched.addAll(inDescription);
+                if (matched.isEmpty()) {
+                    continue;
+                }
+                // Rare words say more about a game than common ones.
+                double idf = Math.log(1.0 + (double) games.size() / matched.size());
+                for (Long id : matched) {
+                    double weight = inTitle.contains(id) ? TITLE_WEIGHT : DESCRIPTION_WEIGHT;
+                    scores.merge(id, weight * idf, Double::sum);
+                }
+            }
+
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<Map.Entry<Long, Double>>(scores.entrySet());
+            ranked.sort((a, b) -> {
+                int byScore = Double.compare(b.getValue(), a.getValue());
+                return byScore != 0 ? byScore : Long.compare(a.getKey(), b.getKey());
+            });
+            List<Game> result = new ArrayList<Game>();
+            for (Map.Entry<Long, Double> entry : ranked.subList(0, Math.min(Math.max(limit, 0), ranked.size()))) {
+                result.add(copyOf(games.get(entry.getKey())));
+            }
+            return result;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the index; the next query reloads it.
+     */
+    public void evict()
+    {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            games.clear();
+            titles.clear();
+            titleGrams.clear();
+            titleWords.clear();
+            descriptionWords.clear();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void created(Game game)
+    {
+        updated(game);
+    }
+
+    @Override
+    public void updated(Game game)
+    {
+        lock.writeLock().lock();
+        try {
+            // Before the load, the load itself will read the committed change.
+            if (loaded) {
+                put(copyOf(game));
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleted(Long gameID)
+    {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                remove(gameID);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Takes the read lock, loading the index first if needed. Notifications
+     * for commits that the load might miss wait on the write lock and are
+     * applied afterwards; they replace games by ID, so a change seen by both
+     * is applied once.
+     */
+    private void readLock() throws DAOException, SQLException
+    {
+        lock.readLock().lock();
+        if (loaded) {
+            return;
+        }
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                load();
+                loaded = true;
+            }
+            // Downgrade to the read lock.
+            lock.readLock().lock();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() throws DAOException, SQLException
+    {
+        GameDAO gameDAO = DAOs.game();
+        // A connection of its own, so the index never sees the uncommitted
+        // writes of a unit of work active on the calling thread.
+        Connection connection = dataSource.getConnection();
+        try {
+            String pageToken = null;
+            do {
+                Page<Game> page = gameDAO.retrieveByTitle(connection, "%", pageToken, LOAD_PAGE_SIZE);
+                for (Game game : page.getItems()) {
+                    put(game);
+                }
+                pageToken = page.getNextPageToken();
+            } while (pageToken != null);
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    private void put(Game game)
+    {
+        remove(game.getId());
+        Long id = game.getId();
+        games.put(id, game);
+        String title = normalize(game.getTitle());
+        titles.computeIfAbsent(title, t -> new HashSet<Long>()).add(id);
+        for (String gram : grams(title)) {
+            titleGrams.computeIfAbsent(gram, g -> new HashSet<Long>()).add(id);
+        }
+        for (String word : words(game.getTitle())) {
+            titleWords.computeIfAbsent(word, w -> new HashSet<Long>()).add(id);
+        }
+        for (String word : words(game.getDescription())) {
+            descriptionWords.computeIfAbsent(word, w -> new HashSet<Long>()).add(id);
+        }
+    }
+
+    private void remove(Long gameID)
+    {
+        Game game = games.remove(gameID);
+        if (game == null) {
+            return;
+        }
+        String title = normalize(game.getTitle());
+        removePosting(titles, title, gameID);
+        for (String gram : grams(title)) {
+            removePosting(titleGrams, gram, gameID);
+        }
+        for (String word : words(game.getTitle())) {
+            removePosting(titleWords, word, gameID);
+        }
+        for (String word : words(game.getDescription())) {
+            removePosting(descriptionWords, word, gameID);
+        }
+    }
+
+    private static void removePosting(Map<String, Set<Long>> index, String key, Long gameID)
+    {
+        Set<Long> ids = index.get(key);
+        if (ids != null && ids.remove(gameID) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * Games whose title holds every trigram of key, smallest posting first.
+     * They still have to be checked, since the trigrams may be apart.
+     */
+    private Collection<Long> gramCandidates(String key)
+    {
+        List<Set<Long>> postings = new ArrayList<Set<Long>>();
+        for (String gram : grams(key)) {
+            Set<Long> ids = titleGrams.get(gram);
+            if (ids == null) {
+                return Collections.emptyList();
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<Long>(postings.get(0));
+        for (int idx = 1; idx < postings.size() && !result.isEmpty(); idx++) {
+            result.retainAll(postings.get(idx));
+        }
+        return result;
+    }
+
+    private static SortedMap<String, Set<Long>> prefixRange(TreeMap<String, Set<Long>> index, String prefix)
+    {
+        return index.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    private static Set<Long> union(Collection<Set<Long>> postings)
+    {
+        Set<Long> result = new HashSet<Long>();
+        for (Set<Long> ids : postings) {
+            result.addAll(ids);
+        }
+        return result;
+    }
+
+    private static List<Long> sorted(Set<Long> ids)
+    {
+        List<Long> result = new ArrayList<Long>(ids);
+        Collections.sort(result);
+        return result;
+    }
+
+    private static Set<String> grams(String text)
+    {
+        Set<String> result = new HashSet<String>();
+        for (int idx = 0; idx + GRAM <= text.length(); idx++) {
+            result.add(text.substring(idx, idx + GRAM));
+        }
+        return result;
+    }
+
+    private static Set<String> words(String text)
+    {
+        Set<String> result = new HashSet<String>();
+        for (String word : normalize(text).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                result.add(word);
+            }
+        }
+        return result;
+    }
+
+    private static String normalize(String text)
+    {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static final Comparator<Game> TITLE_ORDER = Comparator
+            .comparing((Game game) -> normalize(game.getTitle())).thenComparing(Game::getId);
+
+    private static Game copyOf(Game game)
+    {
+        Game copy = new Game();
+        copy.setId(game.getId());
+        copy.setTitle(game.getTitle());
+        copy.setDescription(game.getDescription());
+        if (game.getReleaseDate() != null) {
+            copy.setReleaseDate((Date) game.getReleaseDate().clone());
+        }
+        copy.setVersion(game.getVersion());
+        return copy;
+    }
+}
@@ -10,145 +10,237 @@
  */
 package cs4347.jdbcGame.services.impl;
 
-import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
 
 import cs4347.jdbcGame.dao.GameDAO;
-import cs4347.jdbcGame.dao.impl.GameDAOImpl;
+import cs4347.jdbcGame.dao.Page;
 import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.services.CountMode;
+import cs4347.jdbcGame.services.EntityListener;
 import cs4347.jdbcGame.services.GameService;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.EntityCache;
+import cs4347.jdbcGame.util.RowCounter;
 
 public class GameServiceImpl implements GameService
 {
+    public static final int DEFAULT_CACHE_SIZE = 10000;
+    public static final long DEFAULT_CACHE_TTL_SECONDS = 300;
+    public static final long DEFAULT_COUNT_RESEED_SECONDS = 60;
 
     private DataSource dataSource;
+    private TransactionTemplate tx;
+    private EntityCache<Long, Game> gameCache;
+    private RowCounter gameCounter;
+    private final List<EntityListener<Game>> listeners = new CopyOnWriteArrayList<EntityListener<Game>>();
 
     public GameServiceImpl(DataSource dataSource)
+    {
+        this(dataSource, new EntityCache<Long, Game>(DEFAULT_CACHE_SIZE, DEFAULT_CACHE_TTL_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Services that share a database should share the cache, otherwise an
+     * update made through one service is not seen by the others until the
+     * entry expires. A null cache disables caching.
+     */
+    public GameServiceImpl(DataSource dataSource, EntityCache<Long, Game> gameCache)
+    {
+        this(dataSource, gameCache, new RowCounter(DEFAULT_COUNT_RESEED_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * As with the cache, services that share a database should share the
+     * counter. A null counter makes every tracked count run COUNT(*).
+     */
+    public GameServiceImpl(DataSource dataSource, EntityCache<Long, Game> gameCache, RowCounter gameCounter)
     {
         this.dataSource = dataSource;
+        this.tx = new TransactionTemplate(dataSource);
+        this.gameCache = gameCache;
+        this.gameCounter = gameCounter;
+    }
+
+    /**
+     * The read-through cache used by retrieve, for hit ratio and load latency
+     * reporting. Null if caching is disabled.
+     */
+    public EntityCache<Long, Game> getCache()
+    {
+        return gameCache;
     }
 
     @Override
     public Game create(Game game) throws DAOException, SQLException
     {
-    	if (game.getTitle() == null || game.getDescription() == null) {
+        if (game.getTitle() == null || game.getDescription() == null) {
             throw new DAOException("Game must have a title and description");
         }
 
-        GameDAO gameDAO = new GameDAOImpl();
-
-        Connection connection = dataSource.getConnection();
-        try {
-            connection.setAutoCommit(false);
-            Game g1 = gameDAO.create(connection, game);
-            connection.commit();
-            return g1;
-        } catch (Exception ex) {
-            connection.rollback();
-            throw ex;
-        }
-        finally {
-            if (connection != null) {
-                connection.setAutoCommit(true);
-            }
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-        }
+        GameDAO gameDAO = DAOs.game();
+        return tx.inTransaction(connection -> {
+            Game created = gameDAO.create(connection, game);
+            countAfterCommit(1);
+            tx.afterCommit(() -> {
+                for (EntityListener<Game> listener : listeners) {
+                    listener.created(created);
+                }
+            });
+            return created;
+        });
     }
 
     @Override
     public Game retrieve(long gameID) throws DAOException, SQLException
     {
-        Connection connection = dataSource.getConnection();
-        GameDAO gameDAO = new GameDAOImpl();
-        Game game = gameDAO.retrieve(connection, gameID);
-        connection.close();
-        return game;
+        if (gameCache == null || tx.hasUncommittedWrites()) {
+            return load(gameID);
+        }
+        // Hand out a copy so callers cannot modify the cached instance.
+        Game game = gameCache.get(gameID, this::load);
+        return game == null ? null : copyOf(game);
+    }
+
+    private Game load(Long gameID) throws DAOException, SQLException
+    {
+        GameDAO gameDAO = DAOs.game();
+        return tx.withConnection(connection -> gameDAO.retrieve(connection, gameID));
     }
 
     @Override
     public int update(Game game) throws DAOException, SQLException
     {
-        GameDAO gameDAO = new GameDAOImpl();
-        
-        Connection connection = dataSource.getConnection();
-        try {
-        	connection.setAutoCommit(false);
-        	int rowsAffected = gameDAO.update(connection, game);
-        	connection.commit();
-        	return rowsAffected;
-        } catch (Exception ex) {
-        	connection.rollback();
-        	throw ex;
-        }
-        finally {
-        	if (connection != null) {
-        		connection.setAutoCommit(true);
+        GameDAO gameDAO = DAOs.game();
+        return tx.inTransaction(connection -> {
+            int rowsAffected = gameDAO.update(connection, game);
+            invalidateAfterCommit(game.getId());
+            if (rowsAffected > 0) {
+                tx.afterCommit(() -> {
+                    for (EntityListener<Game> listener : listeners) {
+                        listener.updated(game);
+                    }
+                });
             }
-            if (connection != null && !connection.isClosed()) {
-            	connection.close();
-            }
-        }        
+            return rowsAffected;
+        });
     }
 
     @Override
     public int delete(long gameID) throws DAOException, SQLException
     {
-        GameDAO gameDAO = new GameDAOImpl();
-        
-        Connection connection = dataSource.getConnection();
-        try {
-        	connection.setAutoCommit(false);
-        	int rowsAffected = gameDAO.delete(connection, gameID);
-        	connection.commit();
-        	return rowsAffected;
-        } catch (Exception ex) {
-        	connection.rollback();
-        	throw ex;
-        }
-        finally {
-        	if (connection != null) {
-                connection.setAutoCommit(true);
-            }
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+        GameDAO gameDAO = DAOs.game();
+        return tx.inTransaction(connection -> {
+            int rowsAffected = gameDAO.delete(connection, gameID);
+            invalidateAfterCommit(gameID);
+            countAfterCommit(-rowsAffected);
+            if (rowsAffected > 0) {
+                tx.afterCommit(() -> {
+                    for (EntityListener<Game> listener : listeners) {
+                        listener.deleted(gameID);
+                    }
+                });
             }
-        }
+            return rowsAffected;
+        });
     }
 
     @Override
     public int count() throws DAOException, SQLException
     {
-        GameDAO gameDAO = new GameDAOImpl();
-        Connection connection = dataSource.getConnection();
-        int count = gameDAO.count(connection);
-        return count;
+        return count(CountMode.TRACKED);
+    }
+
+    @Override
+    public int count(CountMode mode) throws DAOException, SQLException
+    {
+        GameDAO gameDAO = DAOs.game();
+        if (mode == CountMode.APPROXIMATE) {
+            return tx.withConnection(connection -> gameDAO.countApproximate(connection));
+        }
+        // The counter only sees committed writes, so a unit of work that has
+        // written counts its own rows with COUNT(*).
+        if (gameCounter == null || tx.hasUncommittedWrites()) {
+            return tx.withConnection(connection -> gameDAO.count(connection));
+        }
+        return (int) gameCounter.get(() -> tx.withConnection(connection -> gameDAO.count(connection)));
     }
 
     @Override
     public List<Game> retrieveByTitle(String titlePattern) throws DAOException, SQLException
     {
-    	Connection connection = dataSource.getConnection();
-    	GameDAO gameDAO = new GameDAOImpl();
-    	List<Game> game = gameDAO.retrieveByTitle(connection, titlePattern);
-    	connection.close();
-    	return game;
+        GameDAO gameDAO = DAOs.game();
+        return tx.withConnection(connection -> gameDAO.retrieveByTitle(connection, titlePattern));
+    }
+
+    @Override
+    public Page<Game> retrieveByTitle(String titlePattern, String pageToken, int pageSize) throws DAOException, SQLException
+    {
+        GameDAO dao = DAOs.game();
+        return tx.withConnection(connection -> dao.retrieveByTitle(connection, titlePattern, pageToken, pageSize));
     }
 
     @Override
     public List<Game> retrieveByReleaseDate(Date start, Date end) throws DAOException, SQLException
     {
-    	Connection connection = dataSource.getConnection();
-    	GameDAO gameDAO = new GameDAOImpl();
-    	List<Game> game = gameDAO.retrieveByReleaseDate(connection, start, end);
-    	connection.close();
-    	return game;
+        GameDAO gameDAO = DAOs.game();
+        return tx.withConnection(connection -> gameDAO.retrieveByReleaseDate(connection, start, end));
+    }
+
+    @Override
+    public Page<Game> retrieveByReleaseDate(Date start, Date end, String pageToken, int pageSize) throws DAOException, SQLException
+    {
+        GameDAO dao = DAOs.game();
+        return tx.withConnection(connection -> dao.retrieveByReleaseDate(connection, start, end, pageToken, pageSize));
+    }
+
+    @Override
+    public void addListener(EntityListener<Game> listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Drops the cached game now, so the rest of the unit of work does not
+     * read it, and again after the commit, in case another thread re-cached
+     * the old row in between.
+     */
+    private void invalidateAfterCommit(Long gameID)
+    {
+        invalidate(gameID);
+        tx.afterCommit(() -> invalidate(gameID));
+    }
+
+    private void invalidate(Long gameID)
+    {
+        if (gameCache != null && gameID != null) {
+            gameCache.invalidate(gameID);
+        }
+    }
+
+    private void countAfterCommit(long delta)
+    {
+        if (gameCounter != null && delta != 0) {
+            tx.afterCommit(() -> gameCounter.add(delta));
+        }
+    }
+
+    private static Game copyOf(Game game)
+    {
+        Game copy = new Game();
+        copy.setId(game.getId());
+        copy.setTitle(game.getTitle());
+        copy.setDescription(game.getDescription());
+        if (game.getReleaseDate() != null) {
+            copy.setReleaseDate((Date) game.getReleaseDate().clone());
+        }
+        copy.setVersion(game.getVersion());
+        return copy;
     }
 
 }
@@ -10,25 +10,46 @@
  */
 package cs4347.jdbcGame.services.impl;
 
-import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
 
 import cs4347.jdbcGame.dao.GamesOwnedDAO;
-import cs4347.jdbcGame.dao.impl.GamesOwnedDAOImpl;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.StatsDAO;
 import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.services.CountMode;
 import cs4347.jdbcGame.services.GamesOwnedService;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.RowCounter;
 
 public class GamesOwnedServiceImpl implements GamesOwnedService
 {
+    public static final long DEFAULT_COUNT_RESEED_SECONDS = 60;
+
     private DataSource dataSource;
+    private TransactionTemplate tx;
+    private RowCounter gamesOwnedCounter;
 
     public GamesOwnedServiceImpl(DataSource dataSource)
+    {
+        this(dataSource, new RowCounter(DEFAULT_COUNT_RESEED_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Services that share a database should share the counter, otherwise
+     * count() misses the rows written through the others until it reseeds.
+     * A null counter makes every tracked count run COUNT(*).
+     */
+    public GamesOwnedServiceImpl(DataSource dataSource, RowCounter gamesOwnedCounter)
     {
         this.dataSource = dataSource;
+        this.tx = new TransactionTemplate(dataSource);
+        this.gamesOwnedCounter = gamesOwnedCounter;
     }
 
     @Override
@@ -38,127 +59,178 @@ public class GamesOwnedServiceImpl implements GamesOwnedService
             throw new DAOException("GamesOwned must have a player and game ID");
         }
 
-        GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
-
-        Connection connection = dataSource.getConnection();
-        try {
-            connection.setAutoCommit(false);
-            GamesOwned g1 = gamesOwnedDAO.create(connection, gamesOwned);
-            connection.commit();
-            return g1;
-        } catch (Exception ex) {
-            connection.rollback();
-            throw ex;
+        GamesOwnedDAO gamesOwnedDAO = DAOs.gamesOwned();
+        StatsDAO statsDAO = DAOs.stats();
+        return tx.inTransaction(connection -> {
+            GamesOwned go = gamesOwnedDAO.create(connection, gamesOwned);
+            statsDAO.recordPurchase(connection, go);
+            countAfterCommit(1);
+            return go;
+        });
+    }
+
+    @Override
+    public GamesOwned upsert(GamesOwned gamesOwned) throws DAOException, SQLException
+    {
+        if (gamesOwned.getPlayerID() == null || gamesOwned.getGameID() == null) {
+            throw new DAOException("GamesOwned must have a player and game ID");
         }
-        finally {
-            if (connection != null) {
-                connection.setAutoCommit(true);
+
+        GamesOwnedDAO gamesOwnedDAO = DAOs.gamesOwned();
+        StatsDAO statsDAO = DAOs.stats();
+        return tx.inTransaction(connection -> {
+            // No locking pre-read: under REPEATABLE READ a locking read of a
+            // missing pair takes a gap lock that deadlocks concurrent upserts.
+            if (gamesOwnedDAO.insertIfAbsent(connection, gamesOwned)) {
+                statsDAO.recordPurchase(connection, gamesOwned);
+                countAfterCommit(1);
+                return gamesOwned;
             }
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+
+            // The insert attempt locked the existing row, so this read only
+            // fetches the old price.
+            GamesOwned previous = gamesOwnedDAO.retrievePlayerGameIDForUpdate(connection,
+                    gamesOwned.getPlayerID(), gamesOwned.getGameID());
+            if (previous == null) {
+                throw new DAOException("GamesOwned to upsert disappeared");
             }
+            gamesOwned.setId(previous.getId());
+            gamesOwnedDAO.update(connection, gamesOwned);
+            statsDAO.repricePurchase(connection, previous, gamesOwned);
+            return gamesOwned;
+        });
+    }
+
+    @Override
+    public void upsertAll(List<GamesOwned> gamesOwned) throws DAOException, SQLException
+    {
+        Set<Long> playerIDs = new HashSet<Long>();
+        Set<Long> gameIDs = new HashSet<Long>();
+        for (GamesOwned go : gamesOwned) {
+            playerIDs.add(go.getPlayerID());
+            gameIDs.add(go.getGameID());
         }
+
+        GamesOwnedDAO gamesOwnedDAO = DAOs.gamesOwned();
+        StatsDAO statsDAO = DAOs.stats();
+        tx.inTransaction(connection -> {
+            gamesOwnedDAO.upsertAll(connection, gamesOwned);
+            // Per-row deltas are unknown for a batch, so recompute the
+            // purchase totals it touched from GAMES_OWNED.
+            statsDAO.refreshPlayerPurchases(connection, playerIDs);
+            statsDAO.refreshGamePurchases(connection, gameIDs);
+            // Nor is it known how many rows were new.
+            if (gamesOwnedCounter != null) {
+                tx.afterCommit(() -> gamesOwnedCounter.reset());
+            }
+            return null;
+        });
     }
 
     @Override
     public GamesOwned retrieveByID(long gamesOwnedID) throws DAOException, SQLException
     {
-        Connection connection = dataSource.getConnection();
-        GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
-		GamesOwned g1 = gamesOwnedDAO.retrieveID(connection, gamesOwnedID);
-        connection.close();
-        return g1;
+        GamesOwnedDAO gamesOwnedDAO = DAOs.gamesOwned();
+        return tx.withConnection(connection -> gamesOwnedDAO.retrieveID(connection, gamesOwnedID));
     }
 
     @Override
     public GamesOwned retrievePlayerGameID(long playerID, long gameID) throws DAOException, SQLException
     {
-        Connection connection = dataSource.getConnection();
-        GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
-		GamesOwned g1 = gamesOwnedDAO.retrievePlayerGameID(connection, playerID, gameID);
-        connection.close();
-        return g1;
+        GamesOwnedDAO gamesOwnedDAO = DAOs.gamesOwned();
+        return tx.withConnection(connection -> gamesOwnedDAO.retrievePlayerGameID(connection, playerID, gameID));
     }
 
     @Override
     public List<GamesOwned> retrieveByGame(long gameID) throws DAOException, SQLException
     {
-        Connection connection = dataSource.getConnection();
-        GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
-		List<GamesOwned> g1 = gamesOwnedDAO.retrieveByGame(connection, gameID);
-        connection.close();
-        return g1;
+        GamesOwnedDAO gamesOwnedDAO = DAOs.gamesOwned();
+        return tx.withConnection(connection -> gamesOwnedDAO.retrieveByGame(connection, gameID));
     }
 
     @Override
-    public List<GamesOwned> retrieveByPlayer(long playerID) throws DAOException, SQLException
+    public Page<GamesOwned> retrieveByGame(long gameID, String pageToken, int pageSize) throws DAOException, SQLException
     {
-        Connection connection = dataSource.getConnection();
-        GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
-		List<GamesOwned> g1 = gamesOwnedDAO.retrieveByPlayer(connection, playerID);
-        connection.close();
-        return g1;
+        GamesOwnedDAO dao = DAOs.gamesOwned();
+        return tx.withConnection(connection -> dao.retrieveByGame(connection, gameID, pageToken, pageSize));
     }
 
     @Override
-    public int update(GamesOwned gamesOwned) throws DAOException, SQLException
+    public List<GamesOwned> retrieveByPlayer(long playerID) throws DAOException, SQLException
     {
+        GamesOwnedDAO gamesOwnedDAO = DAOs.gamesOwned();
+        return tx.withConnection(connection -> gamesOwnedDAO.retrieveByPlayer(connection, playerID));
+    }
 
-        GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
+    @Override
+    public Page<GamesOwned> retrieveByPlayer(long playerID, String pageToken, int pageSize) throws DAOException, SQLException
+    {
+        GamesOwnedDAO dao = DAOs.gamesOwned();
+        return tx.withConnection(connection -> dao.retrieveByPlayer(connection, playerID, pageToken, pageSize));
+    }
 
-        Connection connection = dataSource.getConnection();
-        try {
-            connection.setAutoCommit(false);
-            int rowsAffected = gamesOwnedDAO.update(connection, gamesOwned);
-            connection.commit();
-            return rowsAffected;
-        } catch (Exception ex) {
-            connection.rollback();
-            throw ex;
-        }
-        finally {
-            if (connection != null) {
-                connection.setAutoCommit(true);
+    @Override
+    public int update(GamesOwned gamesOwned) throws DAOException, SQLException
+    {
+        GamesOwnedDAO gamesOwnedDAO = DAOs.gamesOwned();
+        StatsDAO statsDAO = DAOs.stats();
+        return tx.inTransaction(connection -> {
+            // Lock the row so its old price can be taken out of the stats.
+            GamesOwned previous = null;
+            if (gamesOwned.getId() != null) {
+                previous = gamesOwnedDAO.retrieveIDForUpdate(connection, gamesOwned.getId());
             }
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            int rows = gamesOwnedDAO.update(connection, gamesOwned);
+            if (rows > 0) {
+                statsDAO.removePurchase(connection, previous);
+                statsDAO.recordPurchase(connection, gamesOwned);
             }
-        }
+            return rows;
+        });
     }
 
     @Override
     public int delete(long gameOwnedID) throws DAOException, SQLException
     {
-        GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
-
-        Connection connection = dataSource.getConnection();
-        try {
-            connection.setAutoCommit(false);
-            int rowsAffected = gamesOwnedDAO.delete(connection, gameOwnedID);
-            connection.commit();
-            return rowsAffected;
-        } catch (Exception ex) {
-            connection.rollback();
-            throw ex;
-        }
-        finally {
-            if (connection != null) {
-                connection.setAutoCommit(true);
+        GamesOwnedDAO gamesOwnedDAO = DAOs.gamesOwned();
+        StatsDAO statsDAO = DAOs.stats();
+        return tx.inTransaction(connection -> {
+            GamesOwned previous = gamesOwnedDAO.retrieveIDForUpdate(connection, gameOwnedID);
+            int rows = gamesOwnedDAO.delete(connection, gameOwnedID);
+            if (rows > 0) {
+                statsDAO.removePurchase(connection, previous);
             }
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-        }
+            countAfterCommit(-rows);
+            return rows;
+        });
     }
 
     @Override
     public int count() throws DAOException, SQLException
     {
-    	GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
-    	
-    	Connection connection = dataSource.getConnection();
-    	int count = gamesOwnedDAO.count(connection);
-    	return count;
+        return count(CountMode.TRACKED);
+    }
+
+    @Override
+    public int count(CountMode mode) throws DAOException, SQLException
+    {
+        GamesOwnedDAO gamesOwnedDAO = DAOs.gamesOwned();
+        if (mode == CountMode.APPROXIMATE) {
+            return tx.withConnection(connection -> gamesOwnedDAO.countApproximate(connection));
+        }
+        // The counter only sees committed writes, so a unit of work that has
+        // written counts its own rows with COUNT(*).
+        if (gamesOwnedCounter == null || tx.hasUncommittedWrites()) {
+            return tx.withConnection(connection -> gamesOwnedDAO.count(connection));
+        }
+        return (int) gamesOwnedCounter.get(() -> tx.withConnection(connection -> gamesOwnedDAO.count(connection)));
+    }
+
+    private void countAfterCommit(long delta)
+    {
+        if (gamesOwnedCounter != null && delta != 0) {
+            tx.afterCommit(() -> gamesOwnedCounter.add(delta));
+        }
     }
 
 }
@@ -1,162 +1,266 @@
 /* NOTICE: All materials provided by this project, and materials derived 
- * from the project, are the property of the University of Texas. 
- * Project materials, or those derived from the materials, cannot be placed 
- * into publicly accessible locations on the web. Project materials cannot 
- * be shared with other project teams. Making project materials publicly 
- * accessible, or sharing with other project teams will result in the 
- * failure of the team responsible and any team that uses the shared materials. 
- * Sharing project materials or using shared materials will also result 
- * in the reporting of all team members for academic dishonesty. 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
  */
 package cs4347.jdbcGame.services.impl;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 import java.sql.Connection;
 
 import javax.sql.DataSource;
 
 import cs4347.jdbcGame.dao.GamesPlayedDAO;
-import cs4347.jdbcGame.dao.impl.GamesPlayedDAOImpl;
+import cs4347.jdbcGame.dao.Page;
+import cs4347.jdbcGame.dao.StatsDAO;
 import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.GamesPlayedColumns;
+import cs4347.jdbcGame.services.CountMode;
+import cs4347.jdbcGame.services.EntityListener;
 import cs4347.jdbcGame.services.GamesPlayedService;
+import cs4347.jdbcGame.services.UnitOfWork;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.RowCounter;
+import cs4347.jdbcGame.util.UncheckedSQLException;
 
 public class GamesPlayedServiceImpl implements GamesPlayedService
 {
+    /**
+     * Rows fetched per round trip by streamByGame.
+     */
+    public static final int STREAM_FETCH_SIZE = 1000;
+    public static final long DEFAULT_COUNT_RESEED_SECONDS = 60;
+
     private DataSource dataSource;
+    private DataSource streamingDataSource;
+    private TransactionTemplate tx;
+    private RowCounter gamesPlayedCounter;
+    private final List<EntityListener<GamesPlayed>> listeners = new CopyOnWriteArrayList<EntityListener<GamesPlayed>>();
 
     public GamesPlayedServiceImpl(DataSource dataSource)
+    {
+        this(dataSource, new RowCounter(DEFAULT_COUNT_RESEED_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Services that share a database should share the counter, otherwise
+     * count() misses the rows written through the others until it reseeds.
+     * A null counter makes every tracked count run COUNT(*).
+     */
+    public GamesPlayedServiceImpl(DataSource dataSource, RowCounter gamesPlayedCounter)
+    {
+        this(dataSource, gamesPlayedCounter, dataSource);
+    }
+
+    /**
+     * streamByGame borrows its connections from streamingDataSource, which
+     * should have server-side cursors enabled (useCursorFetch=true for
+     * MySQL) so a stream does not buffer the whole result. Keeping that
+     * option off dataSource leaves every other statement unaffected.
+     */
+    public GamesPlayedServiceImpl(DataSource dataSource, RowCounter gamesPlayedCounter,
+            DataSource streamingDataSource)
     {
         this.dataSource = dataSource;
+        this.streamingDataSource = streamingDataSource;
+        this.tx = new TransactionTemplate(dataSource);
+        this.gamesPlayedCounter = gamesPlayedCounter;
     }
 
     @Override
     public GamesPlayed create(GamesPlayed gamesPlayed) throws DAOException, SQLException
     {
-    	if(gamesPlayed.getPlayerID() == null || gamesPlayed.getGameID() == null) {
-    		throw new DAOException("GamesPlayed must have a player and game ID");
-    	}
-    	
-    	GamesPlayedDAO gpDAO = new GamesPlayedDAOImpl();
-    	Connection con = dataSource.getConnection();
-    	
-    	try {
-            con.setAutoCommit(false);
+        if(gamesPlayed.getPlayerID() == null || gamesPlayed.getGameID() == null) {
+            throw new DAOException("GamesPlayed must have a player and game ID");
+        }
+        
+        GamesPlayedDAO gpDAO = DAOs.gamesPlayed();
+        StatsDAO statsDAO = DAOs.stats();
+        return tx.inTransaction(con -> {
             GamesPlayed gp = gpDAO.create(con, gamesPlayed);
-            con.commit();
+            statsDAO.recordPlay(con, gp);
+            countAfterCommit(1);
+            tx.afterCommit(() -> {
+                for (EntityListener<GamesPlayed> listener : listeners) {
+                    listener.created(gp);
+                }
+            });
             return gp;
-        } catch (Exception ex) {
-            con.rollback();
-            throw ex;
-        }
-        finally {
-            if (con != null) {
-                con.setAutoCommit(true);
-            }
-            if (con != null && !con.isClosed()) {
-                con.close();
-            }
-        }
+        });
     }
 
     @Override
     public GamesPlayed retrieveByID(long gamePlayedID) throws DAOException, SQLException
     {
-    	Connection con = dataSource.getConnection();
-        GamesPlayedDAO gpDAO = new GamesPlayedDAOImpl();
-		GamesPlayed gp = gpDAO.retrieveID(con, gamePlayedID);
-        con.close();
-        return gp;
+        GamesPlayedDAO gpDAO = DAOs.gamesPlayed();
+        return tx.withConnection(con -> gpDAO.retrieveID(con, gamePlayedID));
     }
 
     @Override
     public List<GamesPlayed> retrieveByPlayerGameID(long playerID, long gameID) throws DAOException, SQLException
     {
-    	Connection con = dataSource.getConnection();
-        GamesPlayedDAO gpDAO = new GamesPlayedDAOImpl();
-		List<GamesPlayed> gp = gpDAO.retrieveByPlayerGameID(con, playerID, gameID);
-        con.close();
-        return gp;
+        GamesPlayedDAO gpDAO = DAOs.gamesPlayed();
+        return tx.withConnection(con -> gpDAO.retrieveByPlayerGameID(con, playerID, gameID));
     }
 
     @Override
     public List<GamesPlayed> retrieveByGame(long gameID) throws DAOException, SQLException
     {
-    	Connection con = dataSource.getConnection();
-        GamesPlayedDAO gpDAO = new GamesPlayedDAOImpl();
-		List<GamesPlayed> gp = gpDAO.retrieveByGame(con, gameID);
-        con.close();
-        return gp;
+        GamesPlayedDAO gpDAO = DAOs.gamesPlayed();
+        return tx.withConnection(con -> gpDAO.retrieveByGame(con, gameID));
     }
 
     @Override
-    public List<GamesPlayed> retrieveByPlayer(long playerID) throws DAOException, SQLException
+    public Page<GamesPlayed> retrieveByGame(long gameID, String pageToken, int pageSize) throws DAOException, SQLException
     {
-    	Connection con = dataSource.getConnection();
-        GamesPlayedDAO gpDAO = new GamesPlayedDAOImpl();
-		List<GamesPlayed> gp = gpDAO.retrieveByPlayer(con, playerID);
-        con.close();
-        return gp;
+        GamesPlayedDAO dao = DAOs.gamesPlayed();
+        return tx.withConnection(connection -> dao.retrieveByGame(connection, gameID, pageToken, pageSize));
     }
 
     @Override
-    public int update(GamesPlayed gamesPlayed) throws DAOException, SQLException
+    public Stream<GamesPlayed> streamByGame(long gameID) throws DAOException, SQLException
     {
-    	GamesPlayedDAO gpDAO = new GamesPlayedDAOImpl();
+        GamesPlayedDAO gpDAO = DAOs.gamesPlayed();
 
-        Connection con = dataSource.getConnection();
+        // Inside a unit of work the stream reads on the unit's connection,
+        // which the unit closes, so it sees the unit's writes but is not
+        // fetched through a server-side cursor.
+        Connection shared = UnitOfWork.currentConnection(dataSource);
+        if (shared != null) {
+            return gpDAO.streamByGame(shared, gameID, STREAM_FETCH_SIZE);
+        }
+
+        Connection con = streamingDataSource.getConnection();
         try {
-            con.setAutoCommit(false);
-            int rowsAffected = gpDAO.update(con, gamesPlayed);
-            con.commit();
-            return rowsAffected;
+            return gpDAO.streamByGame(con, gameID, STREAM_FETCH_SIZE).onClose(() -> {
+                try {
+                    con.close();
+                } catch (SQLException ex) {
+                    throw new UncheckedSQLException(ex);
+                }
+            });
         } catch (Exception ex) {
-            con.rollback();
+            con.close();
             throw ex;
         }
-        finally {
-            if (con != null) {
-                con.setAutoCommit(true);
+    }
+
+    @Override
+    public GamesPlayedColumns retrieveColumnsByGame(long gameID) throws DAOException, SQLException
+    {
+        GamesPlayedDAO gpDAO = DAOs.gamesPlayed();
+        return tx.withConnection(con -> gpDAO.retrieveColumnsByGame(con, gameID));
+    }
+
+    @Override
+    public List<GamesPlayed> retrieveByPlayer(long playerID) throws DAOException, SQLException
+    {
+        GamesPlayedDAO gpDAO = DAOs.gamesPlayed();
+        return tx.withConnection(con -> gpDAO.retrieveByPlayer(con, playerID));
+    }
+
+    @Override
+    public Page<GamesPlayed> retrieveByPlayer(long playerID, String pageToken, int pageSize) throws DAOException, SQLException
+    {
+        GamesPlayedDAO dao = DAOs.gamesPlayed();
+        return tx.withConnection(connection -> dao.retrieveByPlayer(connection, playerID, pageToken, pageSize));
+    }
+
+    @Override
+    public GamesPlayedColumns retrieveColumnsByPlayer(long playerID) throws DAOException, SQLException
+    {
+        GamesPlayedDAO gpDAO = DAOs.gamesPlayed();
+        return tx.withConnection(con -> gpDAO.retrieveColumnsByPlayer(con, playerID));
+    }
+
+    @Override
+    public int update(GamesPlayed gamesPlayed) throws DAOException, SQLException
+    {
+        GamesPlayedDAO gpDAO = DAOs.gamesPlayed();
+        StatsDAO statsDAO = DAOs.stats();
+        return tx.inTransaction(con -> {
+            // Lock the row so its old score can be taken out of the stats.
+            GamesPlayed previous = null;
+            if (gamesPlayed.getId() != null) {
+                previous = gpDAO.retrieveIDForUpdate(con, gamesPlayed.getId());
             }
-            if (con != null && !con.isClosed()) {
-                con.close();
+            int rowsAffected = gpDAO.update(con, gamesPlayed);
+            if (rowsAffected > 0) {
+                statsDAO.removePlay(con, previous);
+                statsDAO.recordPlay(con, gamesPlayed);
+                GamesPlayed before = previous;
+                tx.afterCommit(() -> {
+                    for (EntityListener<GamesPlayed> listener : listeners) {
+                        listener.updated(before, gamesPlayed);
+                    }
+                });
             }
-        }
+            return rowsAffected;
+        });
     }
 
     @Override
     public int delete(long gamePlayedID) throws DAOException, SQLException
     {
-    	 GamesPlayedDAO gpDAO = new GamesPlayedDAOImpl();
-
-         Connection con = dataSource.getConnection();
-         try {
-             con.setAutoCommit(false);
-             int rowsAffected = gpDAO.delete(con, gamePlayedID);
-             con.commit();
-             return rowsAffected;
-         } catch (Exception ex) {
-             con.rollback();
-             throw ex;
-         }
-         finally {
-             if (con != null) {
-                 con.setAutoCommit(true);
-             }
-             if (con != null && !con.isClosed()) {
-                 con.close();
-             }
-         }
+        GamesPlayedDAO gpDAO = DAOs.gamesPlayed();
+        StatsDAO statsDAO = DAOs.stats();
+        return tx.inTransaction(con -> {
+            GamesPlayed previous = gpDAO.retrieveIDForUpdate(con, gamePlayedID);
+            int rowsAffected = gpDAO.delete(con, gamePlayedID);
+            if (rowsAffected > 0) {
+                statsDAO.removePlay(con, previous);
+                countAfterCommit(-rowsAffected);
+                tx.afterCommit(() -> {
+                    for (EntityListener<GamesPlayed> listener : listeners) {
+                        listener.deleted(gamePlayedID, previous);
+                    }
+                });
+            }
+            return rowsAffected;
+        });
     }
 
     @Override
     public int count() throws DAOException, SQLException
     {
-    	GamesPlayedDAO gpDAO = new GamesPlayedDAOImpl();
-    	Connection con = dataSource.getConnection();
-    	int count = gpDAO.count(con);
-    	return count;
+        return count(CountMode.TRACKED);
+    }
+
+    @Override
+    public int count(CountMode mode) throws DAOException, SQLException
+    {
+        GamesPlayedDAO gpDAO = DAOs.gamesPlayed();
+        if (mode == CountMode.APPROXIMATE) {
+            return tx.withConnection(con -> gpDAO.countApproximate(con));
+        }
+        // The counter only sees committed writes, so a unit of work that has
+        // written counts its own rows with COUNT(*).
+        if (gamesPlayedCounter == null || tx.hasUncommittedWrites()) {
+            return tx.withConnection(con -> gpDAO.count(con));
+        }
+        return (int) gamesPlayedCounter.get(() -> tx.withConnection(con -> gpDAO.count(con)));
+    }
+
+    private void countAfterCommit(long delta)
+    {
+        if (gamesPlayedCounter != null && delta != 0) {
+            tx.afterCommit(() -> gamesPlayedCounter.add(delta));
+        }
+    }
+
+    @Override
+    public void addListener(EntityListener<GamesPlayed> listener)
+    {
+        listeners.add(listener);
     }
 
 }
@@ -0,0 +1,99 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import cs4347.jdbcGame.services.TransactionMetricsExporter;
+import cs4347.jdbcGame.services.TransactionSample;
+import cs4347.jdbcGame.util.LatencyHistogram;
+
+/**
+ * Exporter that keeps per-method totals in memory, for tests and for
+ * applications that read them with snapshot().
+ */
+public class InMemoryTransactionMetrics implements TransactionMetricsExporter
+{
+    private static final class MethodStats
+    {
+        final LongAdder calls = new LongAdder();
+        final LongAdder rollbacks = new LongAdder();
+        final LatencyHistogram acquire = new LatencyHistogram();
+        final LatencyHistogram hold = new LatencyHistogram();
+        final LatencyHistogram commit = new LatencyHistogram();
+    }
+
+    private final Map<String, MethodStats> stats = new ConcurrentHashMap<String, MethodStats>();
+
+    @Override
+    public void export(TransactionSample sample)
+    {
+        MethodStats methodStats = stats.computeIfAbsent(sample.getMethod(), m -> new MethodStats());
+        methodStats.calls.increment();
+        if (sample.isRolledBack()) {
+            methodStats.rollbacks.increment();
+        }
+        if (sample.isJoined()) {
+            return;
+        }
+        methodStats.acquire.record(sample.getAcquireNanos(), TimeUnit.NANOSECONDS);
+        methodStats.hold.record(sample.getHoldNanos(), TimeUnit.NANOSECONDS);
+        if (!sample.isReadOnly() && !sample.isRolledBack()) {
+            methodStats.commit.record(sample.getCommitNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Totals of the given method, e.g. "GameServiceImpl.create", or null if
+     * it was not called.
+     */
+    public TransactionMethodMetrics get(String method)
+    {
+        MethodStats methodStats = stats.get(method);
+        return methodStats == null ? null : toMetrics(method, methodStats);
+    }
+
+    /**
+     * Totals of every method called so far, sorted by name.
+     */
+    public List<TransactionMethodMetrics> snapshot()
+    {
+        List<TransactionMethodMetrics> result = new ArrayList<TransactionMethodMetrics>();
+        for (Map.Entry<String, MethodStats> entry : stats.entrySet()) {
+            result.add(toMetrics(entry.getKey(), entry.getValue()));
+        }
+        result.sort(Comparator.comparing(TransactionMethodMetrics::getMethod));
+        return result;
+    }
+
+    public void reset()
+    {
+        stats.clear();
+    }
+
+    private static TransactionMethodMetrics toMetrics(String method, MethodStats s)
+    {
+        return new TransactionMethodMetrics(method, s.calls.sum(), s.rollbacks.sum(), toLatency(s.acquire),
+                toLatency(s.hold), toLatency(s.commit));
+    }
+
+    private static TransactionMethodMetrics.Latency toLatency(LatencyHistogram h)
+    {
+        return new TransactionMethodMetrics.Latency(h.getCount(), h.getPercentileMicros(0.50),
+                h.getPercentileMicros(0.99), h.getMaxMicros());
+    }
+}
@@ -0,0 +1,360 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.LeaderboardEntry;
+import cs4347.jdbcGame.services.EntityListener;
+import cs4347.jdbcGame.services.GamesPlayedService;
+import cs4347.jdbcGame.services.LeaderboardService;
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.RankedSet;
+
+/**
+ * In-memory leaderboards built from GAMES_PLAYED. A board holds only the
+ * best score of each player, read with one aggregate query the first time
+ * the game is asked for. Rank lookups use an order-statistic tree and run in
+ * O(log n) without touching the database.
+ * 
+ * Boards follow the create/update/delete notifications of the
+ * GamesPlayedService passed to the constructor. A new or raised score is
+ * applied in place. A change that may lower a player's best score marks the
+ * board stale; the next query reloads it while the others keep reading the
+ * current board.
+ * 
+ * Changes made to GAMES_PLAYED without going through that service are not
+ * seen until the board is dropped with evict().
+ */
+public class LeaderboardServiceImpl implements LeaderboardService, EntityListener<GamesPlayed>
+{
+    private final DataSource dataSource;
+    private final ConcurrentHashMap<Long, Board> boards = new ConcurrentHashMap<Long, Board>();
+
+    public LeaderboardServiceImpl(DataSource dataSource, GamesPlayedService gamesPlayedService)
+    {
+        this.dataSource = dataSource;
+        gamesPlayedService.addListener(this);
+    }
+
+    @Override
+    public List<LeaderboardEntry> retrieveTop(long gameID, int n) throws DAOException, SQLException
+    {
+        Board board = board(gameID);
+        synchronized (board) {
+            int count = Math.min(Math.max(n, 0), board.ranking.ranked.size());
+            List<LeaderboardEntry> result = new ArrayList<LeaderboardEntry>(count);
+            for (int idx = 0; idx < count; idx++) {
+                result.add(toEntry(gameID, idx, board.ranking.ranked.get(idx)));
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public Integer retrieveRank(long gameID, long playerID) throws DAOException, SQLException
+    {
+        Board board = board(gameID);
+        synchronized (board) {
+            Standing standing = board.ranking.best.get(playerID);
+            if (standing == null) {
+                return null;
+            }
+            return board.ranking.ranked.rank(standing) + 1;
+        }
+    }
+
+    @Override
+    public List<LeaderboardEntry> retrieveAround(long gameID, long playerID, int radius)
+            throws DAOException, SQLException
+    {
+        Board board = board(gameID);
+        synchronized (board) {
+            List<LeaderboardEntry> result = new ArrayList<LeaderboardEntry>();
+            Standing standing = board.ranking.best.get(playerID);
+            if (standing == null) {
+                return result;
+            }
+            RankedSet<Standing> ranked = board.ranking.ranked;
+            int rank = ranked.rank(standing);
+            int from = Math.max(0, rank - Math.max(radius, 0));
+            int to = Math.min(ranked.size() - 1, rank + Math.max(radius, 0));
+            for (int idx = from; idx <= to; idx++) {
+                result.add(toEntry(gameID, idx, ranked.get(idx)));
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public int countPlayers(long gameID) throws DAOException, SQLException
+    {
+        Board board = board(gameID);
+        synchronized (board) {
+            return board.ranking.ranked.size();
+        }
+    }
+
+    /**
+     * Drops the in-memory board of the game; the next query reloads it.
+     */
+    public void evict(long gameID)
+    {
+        boards.remove(gameID);
+    }
+
+    @Override
+    public void created(GamesPlayed gamesPlayed)
+    {
+        Board board = boards.get(gamesPlayed.getGameID());
+        if (board != null) {
+            synchronized (board) {
+                board.raise(gamesPlayed.getPlayerID(), gamesPlayed.getScore());
+            }
+        }
+    }
+
+    @Override
+    public void updated(GamesPlayed gamesPlayed)
+    {
+        // Without the old row any board may hold the old score.
+        for (Board board : boards.values()) {
+            synchronized (board) {
+                board.stale = true;
+            }
+        }
+        created(gamesPlayed);
+    }
+
+    @Override
+    public void updated(GamesPlayed previous, GamesPlayed gamesPlayed)
+    {
+        if (previous == null) {
+            updated(gamesPlayed);
+            return;
+        }
+        boolean samePlayer = previous.getGameID().equals(gamesPlayed.getGameID())
+                && previous.getPlayerID().equals(gamesPlayed.getPlayerID());
+        if (!samePlayer || gamesPlayed.getScore() < previous.getScore()) {
+            lowered(previous);
+        }
+        created(gamesPlayed);
+    }
+
+    @Override
+    public void deleted(Long gamesPlayedID)
+    {
+        for (Board board : boards.values()) {
+            synchronized (board) {
+                board.stale = true;
+            }
+        }
+    }
+
+    @Override
+    public void deleted(Long gamesPlayedID, GamesPlayed previous)
+    {
+        if (previous == null) {
+            deleted(gamesPlayedID);
+            return;
+        }
+        lowered(previous);
+    }
+
+    /**
+     * A session with the given old values has gone. If it held its player's
+     * best score, the next best is not known here.
+     */
+    private void lowered(GamesPlayed previous)
+    {
+        Board board = boards.get(previous.getGameID());
+        if (board != null) {
+            synchronized (board) {
+                Standing standing = board.ranking.best.get(previous.getPlayerID());
+                if (standing != null && standing.score <= previous.getScore()) {
+                    board.stale = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the board of the game, loading it first if it has never been
+     * loaded, or reloading it if it is stale and no other thread is. The
+     * query runs outside the board's monitor. Scores raised while it runs
+     * are kept aside and applied to the new ranking before it is published;
+     * raising is idempotent, so a score seen by both is counted once.
+     */
+    private Board board(long gameID) throws DAOException, SQLException
+    {
+        Board board = boards.computeIfAbsent(gameID, Board::new);
+        synchronized (board) {
+            while (true) {
+                if (board.loading) {
+                    if (board.loaded) {
+                        // Serve the current ranking while another thread reloads.
+                        return board;
+                    }
+                    waitForLoad(board);
+                    continue;
+                }
+                if (board.loaded && !board.stale) {
+                    return board;
+                }
+                board.loading = true;
+                board.stale = false;
+                board.raised = new ArrayList<Standing>();
+                break;
+            }
+        }
+
+        Ranking ranking = null;
+        try {
+            ranking = load(gameID);
+        }
+        finally {
+            synchronized (board) {
+                if (ranking != null) {
+                    for (Standing standing : board.raised) {
+                        ranking.raise(standing.playerID, standing.score);
+                    }
+                    board.ranking = ranking;
+                    board.loaded = true;
+                } else {
+                    board.stale = true;
+                }
+                board.raised = null;
+                board.loading = false;
+                board.notifyAll();
+            }
+        }
+        return board;
+    }
+
+    private static void waitForLoad(Board board) throws DAOException
+    {
+        try {
+            board.wait();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DAOException("Interrupted while waiting for the leaderboard of game " + board.gameID, ex);
+        }
+    }
+
+    private Ranking load(long gameID) throws DAOException, SQLException
+    {
+        GamesPlayedDAO gpDAO = DAOs.gamesPlayed();
+        Map<Long, Integer> bestScores;
+        Connection connection = dataSource.getConnection();
+        try {
+            bestScores = gpDAO.retrieveBestScoresByGame(connection, gameID);
+        }
+        finally {
+            connection.close();
+        }
+
+        Ranking ranking = new Ranking();
+        for (Map.Entry<Long, Integer> entry : bestScores.entrySet()) {
+            ranking.raise(entry.getKey(), entry.getValue());
+        }
+        return ranking;
+    }
+
+    private static LeaderboardEntry toEntry(long gameID, int index, Standing standing)
+    {
+        LeaderboardEntry entry = new LeaderboardEntry();
+        entry.setRank(index + 1);
+        entry.setGameID(gameID);
+        entry.setPlayerID(standing.playerID);
+        entry.setScore(standing.score);
+        return entry;
+    }
+
+    /**
+     * A player's best score; the elements of the ranked set.
+     */
+    private static final class Standing
+    {
+        final long playerID;
+        final int score;
+
+        Standing(long playerID, int score)
+        {
+            this.playerID = playerID;
+            this.score = score;
+        }
+    }
+
+    private static final Comparator<Standing> BEST_FIRST = (a, b) -> {
+        if (a.score != b.score) {
+            return Integer.compare(b.score, a.score);
+        }
+        return Long.compare(a.playerID, b.playerID);
+    };
+
+    private static final class Ranking
+    {
+        final Map<Long, Standing> best = new HashMap<Long, Standing>();
+        final RankedSet<Standing> ranked = new RankedSet<Standing>(BEST_FIRST);
+
+        void raise(long playerID, int score)
+        {
+            Standing current = best.get(playerID);
+            if (current != null) {
+                if (current.score >= score) {
+                    return;
+                }
+                ranked.remove(current);
+            }
+            Standing standing = new Standing(playerID, score);
+            best.put(playerID, standing);
+            ranked.add(standing);
+        }
+    }
+
+    /**
+     * Guarded by its own monitor.
+     */
+    private static final class Board
+    {
+        final long gameID;
+        Ranking ranking = new Ranking();
+        boolean loaded;
+        boolean loading;
+        boolean stale;
+        // Scores raised while loading, null otherwise.
+        List<Standing> raised;
+
+        Board(long gameID)
+        {
+            this.gameID = gameID;
+        }
+
+        void raise(long playerID, int score)
+        {
+            ranking.raise(playerID, score);
+            if (raised != null) {
+                raised.add(new Standing(playerID, score));
+            }
+        }
+    }
+}
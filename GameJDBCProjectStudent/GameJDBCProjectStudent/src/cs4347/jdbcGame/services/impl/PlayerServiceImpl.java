@@ -10,29 +10,79 @@
  */
 package cs4347.jdbcGame.services.impl;
 
-import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
 
 import cs4347.jdbcGame.dao.CreditCardDAO;
 import cs4347.jdbcGame.dao.PlayerDAO;
-import cs4347.jdbcGame.dao.impl.CreditCardDAOImpl;
-import cs4347.jdbcGame.dao.impl.PlayerDAOImpl;
+import cs4347.jdbcGame.dao.Page;
 import cs4347.jdbcGame.entity.CreditCard;
 import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.services.CountMode;
+import cs4347.jdbcGame.services.EntityListener;
 import cs4347.jdbcGame.services.PlayerService;
 import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.EntityCache;
+import cs4347.jdbcGame.util.RowCounter;
 
 public class PlayerServiceImpl implements PlayerService
 {
+    public static final int DEFAULT_CACHE_SIZE = 10000;
+    public static final long DEFAULT_CACHE_TTL_SECONDS = 300;
+    public static final long DEFAULT_COUNT_RESEED_SECONDS = 60;
+
     private DataSource dataSource;
+    private TransactionTemplate tx;
+    private EntityCache<Long, Player> playerCache;
+    private RowCounter playerCounter;
+    private final List<EntityListener<Player>> listeners = new CopyOnWriteArrayList<EntityListener<Player>>();
 
     public PlayerServiceImpl(DataSource dataSource)
+    {
+        this(dataSource,
+                new EntityCache<Long, Player>(DEFAULT_CACHE_SIZE, DEFAULT_CACHE_TTL_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Services that share a database should share the cache, otherwise an
+     * update made through one service is not seen by the others until the
+     * entry expires. A null cache disables caching. Cached players include
+     * their credit cards.
+     */
+    public PlayerServiceImpl(DataSource dataSource, EntityCache<Long, Player> playerCache)
+    {
+        this(dataSource, playerCache, new RowCounter(DEFAULT_COUNT_RESEED_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * As with the cache, services that share a database should share the
+     * counter. A null counter makes every tracked count run COUNT(*).
+     */
+    public PlayerServiceImpl(DataSource dataSource, EntityCache<Long, Player> playerCache, RowCounter playerCounter)
     {
         this.dataSource = dataSource;
+        this.tx = new TransactionTemplate(dataSource);
+        this.playerCache = playerCache;
+        this.playerCounter = playerCounter;
+    }
+
+    /**
+     * The read-through cache used by retrieve, for hit ratio and load latency
+     * reporting. Null if caching is disabled.
+     */
+    public EntityCache<Long, Player> getCache()
+    {
+        return playerCache;
     }
 
     @Override
@@ -42,144 +92,164 @@ public class PlayerServiceImpl implements PlayerService
             throw new DAOException("Player must have at lease one CreditCard");
         }
 
-        PlayerDAO playerDAO = new PlayerDAOImpl();
-        CreditCardDAO ccDAO = new CreditCardDAOImpl();
-
-        Connection connection = dataSource.getConnection();
-        try {
-            connection.setAutoCommit(false);
+        PlayerDAO playerDAO = DAOs.player();
+        CreditCardDAO ccDAO = DAOs.creditCard();
+        return tx.inTransaction(connection -> {
             Player p1 = playerDAO.create(connection, player);
             Long playerID = p1.getId();
             for (CreditCard creditCard : player.getCreditCards()) {
                 creditCard.setPlayerID(playerID);
                 ccDAO.create(connection, creditCard, playerID);
             }
-            connection.commit();
+            countAfterCommit(1);
+            tx.afterCommit(() -> {
+                for (EntityListener<Player> listener : listeners) {
+                    listener.created(p1);
+                }
+            });
             return p1;
-        } catch (Exception ex) {
-            connection.rollback();
-            throw ex;
+        });
+    }
+
+    @Override
+    public Player retrieve(Long playerID) throws DAOException, SQLException
+    {
+        if (playerCache == null || playerID == null || tx.hasUncommittedWrites()) {
+            return load(playerID);
         }
-        finally {
-            if (connection != null) {
-                connection.setAutoCommit(true);
-            }
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+        // Hand out a copy so callers cannot modify the cached instance.
+        Player player = playerCache.get(playerID, this::load);
+        return player == null ? null : copyOf(player);
+    }
+
+    private Player load(Long playerID) throws DAOException, SQLException
+    {
+        PlayerDAO playerDAO = DAOs.player();
+        CreditCardDAO ccDAO = DAOs.creditCard();
+        return tx.withConnection(connection -> {
+            Player p1 = playerDAO.retrieve(connection, playerID);
+            if(p1 != null) {
+                p1.setCreditCards(ccDAO.retrieveCreditCardsForPlayer(connection, playerID));
             }
-        }
+            return p1;
+        });
     }
 
     @Override
-    public Player retrieve(Long playerID) throws DAOException, SQLException
+    public List<Player> retrieveWithCreditCards(Collection<Long> playerIDs) throws DAOException, SQLException
     {
-        Connection connection = dataSource.getConnection();
-        
-        PlayerDAO playerDAO = new PlayerDAOImpl();
-        CreditCardDAO ccDAO = new CreditCardDAOImpl();
-        Player p1 = playerDAO.retrieve(connection, playerID);
-        if(p1 != null) {
-        	p1.setCreditCards(ccDAO.retrieveCreditCardsForPlayer(connection, playerID));
+        if (playerIDs.isEmpty()) {
+            return new ArrayList<Player>();
         }
-        
-        connection.close();
-        return p1;
+
+        PlayerDAO playerDAO = DAOs.player();
+        CreditCardDAO ccDAO = DAOs.creditCard();
+        return tx.withConnection(connection -> {
+            List<Player> players = playerDAO.retrieveAll(connection, playerIDs);
+            Map<Long, Player> byID = new HashMap<Long, Player>();
+            for (Player player : players) {
+                byID.put(player.getId(), player);
+            }
+
+            Map<Long, List<CreditCard>> creditCards = ccDAO.retrieveCreditCardsForPlayers(connection, byID.keySet());
+            List<Player> result = new ArrayList<Player>();
+            for (Long playerID : new LinkedHashSet<Long>(playerIDs)) {
+                Player player = byID.get(playerID);
+                if (player != null) {
+                    List<CreditCard> ccList = creditCards.get(playerID);
+                    player.setCreditCards(ccList != null ? ccList : new ArrayList<CreditCard>());
+                    result.add(player);
+                }
+            }
+            return result;
+        });
     }
 
     @Override
     public int update(Player player) throws DAOException, SQLException
     {
-    	Connection connection = dataSource.getConnection();
-        
-        PlayerDAO playerDAO = new PlayerDAOImpl();
-        CreditCardDAO ccDAO = new CreditCardDAOImpl();
-        int playerRowsAffected = 0;
-        try {
-        	connection.setAutoCommit(false);
-        	playerRowsAffected = playerDAO.update(connection, player);
-        	connection.commit();
-        	
-        	@SuppressWarnings("unused")
-			int ccRowsAffected = 0;
-        	for (CreditCard creditCard : player.getCreditCards()) {
-        		if(creditCard.getId() == null)
-        			creditCard.setId((long)123);
+        PlayerDAO playerDAO = DAOs.player();
+        CreditCardDAO ccDAO = DAOs.creditCard();
+        return tx.inTransaction(connection -> {
+            int playerRowsAffected = playerDAO.update(connection, player);
+
+            @SuppressWarnings("unused")
+            int ccRowsAffected = 0;
+            for (CreditCard creditCard : player.getCreditCards()) {
+                if(creditCard.getId() == null)
+                    creditCard.setId((long)123);
                 if(creditCard.getId() != null) {
-                	creditCard.setPlayerID(player.getId());
-                	ccRowsAffected += ccDAO.update(connection, creditCard);
-                	
+                    creditCard.setPlayerID(player.getId());
+                    ccRowsAffected += ccDAO.update(connection, creditCard);
                 }
             }
-        	/*for (CreditCard creditCard : player.getCreditCards()) {
-                creditCard.setPlayerID(playerID);
-                ccDAO.create(connection, creditCard, playerID);
-            }*/
-        	connection.commit();
-        	return playerRowsAffected;
-        }
-        catch (Exception ex) {
-            connection.rollback();
-            throw ex;
-        }
-        finally {
-            if (connection != null) {
-                connection.setAutoCommit(true);
-            }
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            invalidateAfterCommit(player.getId());
+            if (playerRowsAffected > 0) {
+                tx.afterCommit(() -> {
+                    for (EntityListener<Player> listener : listeners) {
+                        listener.updated(player);
+                    }
+                });
             }
-        }
+            return playerRowsAffected;
+        });
     }
 
     @Override
     public int delete(Long playerID) throws DAOException, SQLException
     {
-        Connection connection = dataSource.getConnection();
-        
-        PlayerDAO playerDAO = new PlayerDAOImpl();
-        CreditCardDAO ccDAO = new CreditCardDAOImpl();
-        try {
-        	connection.setAutoCommit(false);
-        	@SuppressWarnings("unused")
-			int ccRowsAffected = ccDAO.deleteForPlayer(connection, playerID);
-        	int playerRowsAffected = playerDAO.delete(connection, playerID);
-        	connection.commit();
-        	return playerRowsAffected;
-        }
-        catch (Exception ex) {
-            connection.rollback();
-            throw ex;
-        }
-        finally {
-            if (connection != null) {
-                connection.setAutoCommit(true);
+        PlayerDAO playerDAO = DAOs.player();
+        CreditCardDAO ccDAO = DAOs.creditCard();
+        return tx.inTransaction(connection -> {
+            @SuppressWarnings("unused")
+            int ccRowsAffected = ccDAO.deleteForPlayer(connection, playerID);
+            int playerRowsAffected = playerDAO.delete(connection, playerID);
+            invalidateAfterCommit(playerID);
+            countAfterCommit(-playerRowsAffected);
+            if (playerRowsAffected > 0) {
+                tx.afterCommit(() -> {
+                    for (EntityListener<Player> listener : listeners) {
+                        listener.deleted(playerID);
+                    }
+                });
             }
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-        }
+            return playerRowsAffected;
+        });
     }
 
     @Override
     public int count() throws DAOException, SQLException
     {
-        Connection connection = dataSource.getConnection();
-        
-        PlayerDAO playerDAO = new PlayerDAOImpl();
-        int count = playerDAO.count(connection);
-        return count;
+        return count(CountMode.TRACKED);
+    }
+
+    @Override
+    public int count(CountMode mode) throws DAOException, SQLException
+    {
+        PlayerDAO playerDAO = DAOs.player();
+        if (mode == CountMode.APPROXIMATE) {
+            return tx.withConnection(connection -> playerDAO.countApproximate(connection));
+        }
+        // The counter only sees committed writes, so a unit of work that has
+        // written counts its own rows with COUNT(*).
+        if (playerCounter == null || tx.hasUncommittedWrites()) {
+            return tx.withConnection(connection -> playerDAO.count(connection));
+        }
+        return (int) playerCounter.get(() -> tx.withConnection(connection -> playerDAO.count(connection)));
     }
 
     @Override
     public List<Player> retrieveByJoinDate(Date start, Date end) throws DAOException, SQLException
     {
-    	Connection connection = dataSource.getConnection();
-        
-        PlayerDAO playerDAO = new PlayerDAOImpl();
-        List<Player> playerList = playerDAO.retrieveByJoinDate(connection, start, end);
-        
-        connection.close();
-        return playerList;
+        PlayerDAO playerDAO = DAOs.player();
+        return tx.withConnection(connection -> playerDAO.retrieveByJoinDate(connection, start, end));
+    }
+
+    @Override
+    public Page<Player> retrieveByJoinDate(Date start, Date end, String pageToken, int pageSize) throws DAOException, SQLException
+    {
+        PlayerDAO dao = DAOs.player();
+        return tx.withConnection(connection -> dao.retrieveByJoinDate(connection, start, end, pageToken, pageSize));
     }
 
     /**
@@ -188,11 +258,65 @@ public class PlayerServiceImpl implements PlayerService
     @Override
     public int countCreditCardsForPlayer(Long playerID) throws DAOException, SQLException
     {
-        Connection connection = dataSource.getConnection();
-        
-        CreditCardDAO ccDAO = new CreditCardDAOImpl();
-        List<CreditCard> ccList = ccDAO.retrieveCreditCardsForPlayer(connection, playerID);
-        return ccList.size();
+        CreditCardDAO ccDAO = DAOs.creditCard();
+        return tx.withConnection(connection -> ccDAO.retrieveCreditCardsForPlayer(connection, playerID).size());
+    }
+
+    @Override
+    public void addListener(EntityListener<Player> listener)
+    {
+        listeners.add(listener);
+    }
+
+    /**
+     * Drops the cached player now, so the rest of the unit of work does not
+     * read it, and again after the commit, in case another thread re-cached
+     * the old row in between.
+     */
+    private void invalidateAfterCommit(Long playerID)
+    {
+        invalidate(playerID);
+        tx.afterCommit(() -> invalidate(playerID));
+    }
+
+    private void invalidate(Long playerID)
+    {
+        if (playerCache != null && playerID != null) {
+            playerCache.invalidate(playerID);
+        }
+    }
+
+    private void countAfterCommit(long delta)
+    {
+        if (playerCounter != null && delta != 0) {
+            tx.afterCommit(() -> playerCounter.add(delta));
+        }
+    }
+
+    private static Player copyOf(Player player)
+    {
+        Player copy = new Player();
+        copy.setId(player.getId());
+        copy.setFirstName(player.getFirstName());
+        copy.setLastName(player.getLastName());
+        if (player.getJoinDate() != null) {
+            copy.setJoinDate((Date) player.getJoinDate().clone());
+        }
+        copy.setEmail(player.getEmail());
+
+        List<CreditCard> creditCards = new ArrayList<CreditCard>();
+        for (CreditCard cc : player.getCreditCards()) {
+            CreditCard ccCopy = new CreditCard();
+            ccCopy.setId(cc.getId());
+            ccCopy.setPlayerID(cc.getPlayerID());
+            ccCopy.setCcName(cc.getCcName());
+            ccCopy.setCcNumber(cc.getCcNumber());
+            ccCopy.setSecurityCode(cc.getSecurityCode());
+            ccCopy.setExpDate(cc.getExpDate());
+            creditCards.add(ccCopy);
+        }
+        copy.setCreditCards(creditCards);
+        return copy;
     }
 
 }
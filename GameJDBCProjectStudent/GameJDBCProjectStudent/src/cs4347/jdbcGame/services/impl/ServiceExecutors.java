@@ -0,0 +1,120 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for the async services, and for running blocking service calls
+ * one thread per request.
+ * 
+ * mysql-connector-java 8.0.12 does its socket I/O inside synchronized blocks.
+ * Before Java 24 a virtual thread blocked there pins its carrier thread, so
+ * virtual threads gain nothing over platform threads until the driver is
+ * upgraded to a release that uses ReentrantLock (8.0.33 or later).
+ */
+public final class ServiceExecutors
+{
+    /**
+     * Calls that may wait in the queue, per thread, when no capacity is given.
+     */
+    public static final int DEFAULT_QUEUE_PER_THREAD = 64;
+
+    private ServiceExecutors()
+    {
+    }
+
+    /**
+     * Same as newBoundedExecutor(threads, threads * DEFAULT_QUEUE_PER_THREAD).
+     */
+    public static ExecutorService newBoundedExecutor(int threads)
+    {
+        return newBoundedExecutor(threads, threads * DEFAULT_QUEUE_PER_THREAD);
+    }
+
+    /**
+     * A fixed pool of daemon threads with a bounded queue. Every service call
+     * holds a connection while it runs, so threads should match the maxTotal
+     * of the connection pool: more threads would only wait inside DBCP. Once
+     * the queue is full, further calls are rejected, and the async services
+     * report that through the returned future. The calls are never run on the
+     * submitting thread, where they would join its UnitOfWork.
+     */
+    public static ExecutorService newBoundedExecutor(int threads, int queueCapacity)
+    {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("threads and queueCapacity must be positive");
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, "service-async-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), factory, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * True if the running JVM has virtual threads (Java 21 and later).
+     */
+    public static boolean isVirtualThreadsAvailable()
+    {
+        return virtualThreadFactory() != null;
+    }
+
+    /**
+     * An executor that starts a virtual thread per task. It is not bounded,
+     * so the connections the tasks use must be: pair it with an
+     * AdmissionControlledDataSource sized to the connection pool, which parks
+     * the excess tasks cheaply instead of letting them queue inside DBCP. On
+     * JVMs without virtual threads it returns
+     * newBoundedExecutor(fallbackThreads) instead, which should likewise be
+     * the maxTotal of the connection pool; check isVirtualThreadsAvailable()
+     * when the difference matters.
+     */
+    public static ExecutorService newVirtualThreadExecutor(int fallbackThreads)
+    {
+        Method factory = virtualThreadFactory();
+        if (factory != null) {
+            try {
+                return (ExecutorService) factory.invoke(null);
+            } catch (IllegalAccessException | InvocationTargetException ex) {
+                // Fall through to platform threads.
+            }
+        }
+        return newBoundedExecutor(fallbackThreads);
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor, looked up reflectively since
+     * the project is compiled for Java 10. Null if it does not exist.
+     */
+    private static Method virtualThreadFactory()
+    {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.dao.StatsDAO;
+import cs4347.jdbcGame.entity.GameStats;
+import cs4347.jdbcGame.entity.PlayerStats;
+import cs4347.jdbcGame.services.StatsService;
+import cs4347.jdbcGame.util.DAOException;
+
+public class StatsServiceImpl implements StatsService
+{
+    /**
+     * Player or game ids per rebuild transaction.
+     */
+    public static final int DEFAULT_REBUILD_CHUNK_SIZE = 1000;
+
+    private TransactionTemplate tx;
+
+    public StatsServiceImpl(DataSource dataSource)
+    {
+        this.tx = new TransactionTemplate(dataSource);
+    }
+
+    @Override
+    public PlayerStats retrievePlayerStats(long playerID) throws DAOException, SQLException
+    {
+        StatsDAO statsDAO = DAOs.stats();
+        PlayerStats stats = tx.withConnection(connection -> statsDAO.retrievePlayerStats(connection, playerID));
+        if (stats == null) {
+            stats = new PlayerStats();
+            stats.setPlayerID(playerID);
+        }
+        return stats;
+    }
+
+    @Override
+    public GameStats retrieveGameStats(long gameID) throws DAOException, SQLException
+    {
+        StatsDAO statsDAO = DAOs.stats();
+        GameStats stats = tx.withConnection(connection -> statsDAO.retrieveGameStats(connection, gameID));
+        if (stats == null) {
+            stats = new GameStats();
+            stats.setGameID(gameID);
+        }
+        return stats;
+    }
+
+    @Override
+    public int rebuild() throws DAOException, SQLException
+    {
+        return rebuild(DEFAULT_REBUILD_CHUNK_SIZE);
+    }
+
+    @Override
+    public int rebuild(int chunkSize) throws DAOException, SQLException
+    {
+        if (chunkSize < 1) {
+            throw new DAOException("Chunk size must be positive: " + chunkSize);
+        }
+
+        // Short transactions keep the row locks of each chunk brief, so the
+        // job can run next to live traffic.
+        StatsDAO statsDAO = DAOs.stats();
+        int rows = 0;
+        long maxPlayerID = tx.withConnection(connection -> statsDAO.retrieveMaxPlayerID(connection));
+        for (long from = 0; from <= maxPlayerID; from += chunkSize) {
+            long fromID = from;
+            rows += tx.inTransaction(connection -> statsDAO.rebuildPlayers(connection, fromID, fromID + chunkSize));
+        }
+        long maxGameID = tx.withConnection(connection -> statsDAO.retrieveMaxGameID(connection));
+        for (long from = 0; from <= maxGameID; from += chunkSize) {
+            long fromID = from;
+            rows += tx.inTransaction(connection -> statsDAO.rebuildGames(connection, fromID, fromID + chunkSize));
+        }
+        return rows;
+    }
+}
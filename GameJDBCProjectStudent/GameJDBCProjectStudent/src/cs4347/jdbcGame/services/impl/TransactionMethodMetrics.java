@@ -0,0 +1,127 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+/**
+ * Totals kept by InMemoryTransactionMetrics for one service method.
+ * Latencies are in microseconds and cover only the calls that borrowed
+ * their own connection.
+ */
+public class TransactionMethodMetrics
+{
+    /**
+     * Distribution of one timing.
+     */
+    public static class Latency
+    {
+        private final long count;
+        private final long p50Micros;
+        private final long p99Micros;
+        private final long maxMicros;
+
+        public Latency(long count, long p50Micros, long p99Micros, long maxMicros)
+        {
+            this.count = count;
+            this.p50Micros = p50Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getCount()
+        {
+            return count;
+        }
+
+        public long getP50Micros()
+        {
+            return p50Micros;
+        }
+
+        public long getP99Micros()
+        {
+            return p99Micros;
+        }
+
+        public long getMaxMicros()
+        {
+            return maxMicros;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("p50=%dus p99=%dus max=%dus", p50Micros, p99Micros, maxMicros);
+        }
+    }
+
+    private final String method;
+    private final long calls;
+    private final long rollbacks;
+    private final Latency acquire;
+    private final Latency hold;
+    private final Latency commit;
+
+    public TransactionMethodMetrics(String method, long calls, long rollbacks, Latency acquire, Latency hold,
+            Latency commit)
+    {
+        this.method = method;
+        this.calls = calls;
+        this.rollbacks = rollbacks;
+        this.acquire = acquire;
+        this.hold = hold;
+        this.commit = commit;
+    }
+
+    public String getMethod()
+    {
+        return method;
+    }
+
+    public long getCalls()
+    {
+        return calls;
+    }
+
+    public long getRollbacks()
+    {
+        return rollbacks;
+    }
+
+    /**
+     * Fraction of calls rolled back, 0 if there were none.
+     */
+    public double getRollbackRate()
+    {
+        return calls == 0 ? 0.0 : (double) rollbacks / calls;
+    }
+
+    public Latency getAcquire()
+    {
+        return acquire;
+    }
+
+    public Latency getHold()
+    {
+        return hold;
+    }
+
+    public Latency getCommit()
+    {
+        return commit;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s calls=%d rollbacks=%d acquire[%s] hold[%s] commit[%s]", method, calls, rollbacks,
+                acquire, hold, commit);
+    }
+}
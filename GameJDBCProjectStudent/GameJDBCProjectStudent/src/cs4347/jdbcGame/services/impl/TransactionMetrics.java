@@ -0,0 +1,39 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import cs4347.jdbcGame.services.TransactionMetricsExporter;
+
+/**
+ * Where the services send their TransactionSamples. Nothing is measured
+ * while no exporter is set, which is the default.
+ */
+public final class TransactionMetrics
+{
+    private static volatile TransactionMetricsExporter exporter;
+
+    private TransactionMetrics()
+    {
+    }
+
+    public static TransactionMetricsExporter getExporter()
+    {
+        return exporter;
+    }
+
+    /**
+     * Sets the exporter used by every service; null turns measuring off.
+     */
+    public static void setExporter(TransactionMetricsExporter exporter)
+    {
+        TransactionMetrics.exporter = exporter;
+    }
+}
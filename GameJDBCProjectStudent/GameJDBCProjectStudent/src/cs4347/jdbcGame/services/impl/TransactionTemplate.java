@@ -0,0 +1,191 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.services.impl;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.services.TransactionMetricsExporter;
+import cs4347.jdbcGame.services.TransactionSample;
+import cs4347.jdbcGame.services.UnitOfWork;
+import cs4347.jdbcGame.util.DAOException;
+import cs4347.jdbcGame.util.StatementCache;
+
+/**
+ * Connection and transaction handling shared by the service implementations.
+ * Work runs on the connection of the UnitOfWork active on the calling thread,
+ * if there is one, and otherwise on a connection borrowed for the call.
+ * While a TransactionMetrics exporter is set, every call is timed and
+ * reported under the name of the service method that made it.
+ */
+final class TransactionTemplate
+{
+    /**
+     * The DAO calls of one service method.
+     */
+    interface Work<T>
+    {
+        T run(Connection connection) throws DAOException, SQLException;
+    }
+
+    private final DataSource dataSource;
+
+    TransactionTemplate(DataSource dataSource)
+    {
+        this.dataSource = dataSource;
+    }
+
+    DataSource getDataSource()
+    {
+        return dataSource;
+    }
+
+    /**
+     * Runs work in a transaction. Inside an active unit of work the work joins
+     * it, and a failure marks the unit rollback-only; otherwise the work gets
+     * its own unit that commits when work returns.
+     */
+    <T> T inTransaction(Work<T> work) throws DAOException, SQLException
+    {
+        Timing timing = new Timing(false);
+        try (UnitOfWork uow = UnitOfWork.begin(dataSource)) {
+            timing.acquired = System.nanoTime();
+            UnitOfWork.markWritten(dataSource);
+            T result;
+            try {
+                result = work.run(uow.getConnection());
+            } catch (DAOException | SQLException | RuntimeException ex) {
+                try {
+                    uow.rollback();
+                } catch (SQLException rollbackEx) {
+                    ex.addSuppressed(rollbackEx);
+                }
+                throw ex;
+            }
+            timing.commitStart = System.nanoTime();
+            uow.commit();
+            timing.committed = System.nanoTime();
+            timing.failed = false;
+            return result;
+        }
+        finally {
+            timing.export();
+        }
+    }
+
+    /**
+     * Runs read-only work on the active unit's connection, or on a borrowed
+     * connection in auto-commit mode.
+     */
+    <T> T withConnection(Work<T> work) throws DAOException, SQLException
+    {
+        Timing timing = new Timing(true);
+        try {
+            Connection shared = UnitOfWork.currentConnection(dataSource);
+            if (shared != null) {
+                return work.run(shared);
+            }
+            Connection connection = dataSource.getConnection();
+            timing.acquired = System.nanoTime();
+            try {
+                return work.run(connection);
+            }
+            finally {
+                StatementCache.getInstance().closeAll(connection);
+                connection.close();
+            }
+        }
+        finally {
+            timing.export();
+        }
+    }
+
+    /**
+     * Runs callback after the surrounding transaction commits. Must be called
+     * from inside inTransaction work to be tied to that transaction.
+     */
+    void afterCommit(Runnable callback)
+    {
+        UnitOfWork.afterCommit(dataSource, callback);
+    }
+
+    /**
+     * True if the calling thread's unit of work has uncommitted writes, in
+     * which case caches must be bypassed.
+     */
+    boolean hasUncommittedWrites()
+    {
+        return UnitOfWork.hasWritten(dataSource);
+    }
+
+    /**
+     * Timestamps of one call, exported when it has returned its connection.
+     */
+    private final class Timing
+    {
+        final TransactionMetricsExporter exporter = TransactionMetrics.getExporter();
+        final boolean readOnly;
+        final boolean joined;
+        final long start = System.nanoTime();
+        long acquired;
+        long commitStart;
+        long committed;
+        boolean failed = true;
+
+        Timing(boolean readOnly)
+        {
+            this.readOnly = readOnly;
+            this.joined = UnitOfWork.isActive(dataSource);
+        }
+
+        void export()
+        {
+            if (exporter == null) {
+                return;
+            }
+            long end = System.nanoTime();
+            // A read that failed rolled nothing back.
+            boolean rolledBack = failed && !readOnly;
+            TransactionSample sample;
+            if (joined) {
+                sample = new TransactionSample(callerName(), readOnly, true, 0, 0, 0, rolledBack);
+            } else {
+                long borrowed = acquired != 0 ? acquired : end;
+                sample = new TransactionSample(callerName(), readOnly, false, borrowed - start, end - borrowed,
+                        committed - commitStart, rolledBack);
+            }
+            exporter.export(sample);
+        }
+    }
+
+    private static final StackWalker stackWalker = StackWalker.getInstance();
+
+    /**
+     * The innermost service method on the stack, e.g.
+     * "GameServiceImpl.create". Lambdas and helpers such as the caches are
+     * skipped, so a count loaded through a RowCounter is reported as count.
+     */
+    private static String callerName()
+    {
+        Optional<StackWalker.StackFrame> caller = stackWalker.walk(frames -> frames
+                .filter(frame -> frame.getClassName().endsWith("ServiceImpl")
+                        && !frame.getMethodName().startsWith("lambda$"))
+                .findFirst());
+        if (!caller.isPresent()) {
+            return "unknown";
+        }
+        String className = caller.get().getClassName();
+        return className.substring(className.lastIndexOf('.') + 1) + "." + caller.get().getMethodName();
+    }
+}
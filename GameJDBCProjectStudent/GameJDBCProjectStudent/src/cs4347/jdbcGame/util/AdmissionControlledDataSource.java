@@ -0,0 +1,200 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.util;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * DataSource that lets at most maxConcurrent connections be open at once,
+ * handing out permits first come, first served. With one thread per request,
+ * and especially with virtual threads, far more callers can ask for a
+ * connection than the pool holds. Sizing maxConcurrent to the pool's maxTotal
+ * makes the excess wait here, where a caller that cannot be served within
+ * maxWait, or that finds maxWaiters callers already waiting, fails at once
+ * with SQLTransientConnectionException instead of piling up inside the pool.
+ * 
+ * The permit is returned when the connection is closed. Services inside a
+ * UnitOfWork share its connection, so a unit holds one permit.
+ */
+public class AdmissionControlledDataSource implements DataSource
+{
+    private final DataSource target;
+    private final Semaphore permits;
+    private final int maxWaiters;
+    private final long maxWaitNanos;
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AdmissionControlledDataSource(DataSource target, int maxConcurrent, int maxWaiters, long maxWait,
+            TimeUnit unit)
+    {
+        if (maxConcurrent < 1 || maxWaiters < 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive and maxWaiters non-negative");
+        }
+        this.target = target;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxWaiters = maxWaiters;
+        this.maxWaitNanos = unit.toNanos(maxWait);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        admit();
+        try {
+            return track(target.getConnection());
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException
+    {
+        admit();
+        try {
+            return track(target.getConnection(username, password));
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private void admit() throws SQLException
+    {
+        // The queue length is an estimate, which is good enough for shedding.
+        if (permits.getQueueLength() >= maxWaiters) {
+            if (!permits.tryAcquire()) {
+                rejected.incrementAndGet();
+                throw new SQLTransientConnectionException("Admission queue full: " + maxWaiters + " callers waiting");
+            }
+        } else {
+            try {
+                if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                    rejected.incrementAndGet();
+                    throw new SQLTransientConnectionException("Timed out waiting for a connection permit");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted waiting for a connection permit", ex);
+            }
+        }
+        admitted.incrementAndGet();
+    }
+
+    /**
+     * Wraps connection so that its first close() returns the permit.
+     */
+    private Connection track(Connection connection)
+    {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    boolean closing = method.getName().equals("close") && method.getParameterCount() == 0;
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                    finally {
+                        if (closing && closed.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Connections that may still be opened without waiting.
+     */
+    public int getAvailablePermits()
+    {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Callers currently waiting for a permit (an estimate).
+     */
+    public int getWaiting()
+    {
+        return permits.getQueueLength();
+    }
+
+    public long getAdmittedCount()
+    {
+        return admitted.get();
+    }
+
+    public long getRejectedCount()
+    {
+        return rejected.get();
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException
+    {
+        return target.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException
+    {
+        target.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException
+    {
+        target.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException
+    {
+        return target.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException
+    {
+        return target.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException
+    {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return target.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException
+    {
+        return iface.isInstance(this) || target.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,210 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.util;
+
+import java.sql.SQLException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe read-through cache for entities. Entries expire ttl
+ * after they were loaded; once the cache holds more than maxSize entries the
+ * oldest loaded entries are evicted first. Null results are not cached, so a
+ * missing row is looked up again on the next call.
+ * 
+ * A load that overlaps an invalidate() does not store its result, which keeps
+ * a reader from re-caching a row that a concurrent update has just changed.
+ * The result is checked and stored inside entries.compute, and invalidate()
+ * bumps the version under the same key lock, so an invalidate either fails
+ * the check or removes the stored entry.
+ */
+public class EntityCache<K, V>
+{
+    /**
+     * Loads the value for a key that is not cached.
+     */
+    public interface Loader<K, V>
+    {
+        V load(K key) throws DAOException, SQLException;
+    }
+
+    private final ConcurrentHashMap<K, CacheEntry<K, V>> entries = new ConcurrentHashMap<K, CacheEntry<K, V>>();
+    private final Queue<CacheEntry<K, V>> loadOrder = new ConcurrentLinkedQueue<CacheEntry<K, V>>();
+    private final AtomicInteger loadOrderSize = new AtomicInteger();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public EntityCache(int maxSize, long ttl, TimeUnit unit)
+    {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * Returns the cached value for key, calling loader on a miss or after the
+     * cached value expired.
+     */
+    public V get(K key, Loader<K, V> loader) throws DAOException, SQLException
+    {
+        CacheEntry<K, V> entry = entries.get(key);
+        if (entry != null) {
+            if (System.nanoTime() - entry.loadedAt < ttlNanos) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entries.remove(key, entry)) {
+                expirations.increment();
+            }
+        }
+
+        misses.increment();
+        long version = invalidations.get();
+        long start = System.nanoTime();
+        V value = loader.load(key);
+        long now = System.nanoTime();
+        loadNanos.add(now - start);
+
+        if (value == null) {
+            return null;
+        }
+        CacheEntry<K, V> loaded = new CacheEntry<K, V>(key, value, now);
+        CacheEntry<K, V> stored = entries.compute(key,
+                (k, current) -> invalidations.get() == version ? loaded : current);
+        if (stored == loaded) {
+            loadOrder.add(loaded);
+            loadOrderSize.incrementAndGet();
+            trim();
+        }
+        return value;
+    }
+
+    public void invalidate(K key)
+    {
+        entries.compute(key, (k, current) -> {
+            invalidations.incrementAndGet();
+            return null;
+        });
+    }
+
+    public void invalidateAll()
+    {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    public long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    public long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    public long getEvictionCount()
+    {
+        return evictions.sum();
+    }
+
+    public long getExpirationCount()
+    {
+        return expirations.sum();
+    }
+
+    /**
+     * Fraction of get() calls answered from the cache, 0 if none were made.
+     */
+    public double getHitRatio()
+    {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * Mean time spent in the loader per miss, in milliseconds.
+     */
+    public double getAverageLoadMillis()
+    {
+        long loads = misses.sum();
+        return loads == 0 ? 0.0 : loadNanos.sum() / 1_000_000.0 / loads;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("EntityCache[size=%d, hits=%d, misses=%d, hitRatio=%.3f, avgLoadMillis=%.3f, "
+                + "evictions=%d, expirations=%d]", size(), getHitCount(), getMissCount(), getHitRatio(),
+                getAverageLoadMillis(), getEvictionCount(), getExpirationCount());
+    }
+
+    // Evicts the oldest entries while over capacity, and drops queue records of
+    // entries that were invalidated or replaced so the queue stays bounded.
+    private void trim()
+    {
+        int attempts = loadOrderSize.get();
+        while (attempts-- > 0 && (entries.size() > maxSize || loadOrderSize.get() > 2 * maxSize)) {
+            CacheEntry<K, V> oldest = loadOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            loadOrderSize.decrementAndGet();
+            if (entries.get(oldest.key) != oldest) {
+                continue;
+            }
+            if (entries.size() > maxSize) {
+                if (entries.remove(oldest.key, oldest)) {
+                    evictions.increment();
+                }
+            }
+            else {
+                loadOrder.add(oldest);
+                loadOrderSize.incrementAndGet();
+            }
+        }
+    }
+
+    private static final class CacheEntry<K, V>
+    {
+        final K key;
+        final V value;
+        final long loadedAt;
+
+        CacheEntry(K key, V value, long loadedAt)
+        {
+            this.key = key;
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
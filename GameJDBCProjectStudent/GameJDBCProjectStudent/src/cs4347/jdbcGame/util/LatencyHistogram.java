@@ -0,0 +1,118 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies in microseconds. Values below 16 get a
+ * bucket each; above that every power of two is split into 8 buckets, so a
+ * percentile is reported within 12.5% of the true value using a few KB per
+ * histogram whatever the number of samples.
+ */
+public class LatencyHistogram
+{
+    private static final int LINEAR_BUCKETS = 16;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = LINEAR_BUCKETS + (64 - 4) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long duration, TimeUnit unit)
+    {
+        long micros = Math.max(0, unit.toMicros(duration));
+        counts.incrementAndGet(bucketOf(micros));
+        count.incrementAndGet();
+        total.addAndGet(micros);
+        max.accumulateAndGet(micros, Math::max);
+    }
+
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    public long getMaxMicros()
+    {
+        return max.get();
+    }
+
+    /**
+     * Mean latency, 0 if nothing was recorded.
+     */
+    public double getMeanMicros()
+    {
+        long n = count.get();
+        return n == 0 ? 0.0 : (double) total.get() / n;
+    }
+
+    /**
+     * Latency below which the given fraction (0 to 1) of the samples fall,
+     * reported as the upper edge of its bucket. 0 if nothing was recorded.
+     */
+    public long getPercentileMicros(double fraction)
+    {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * n));
+        long seen = 0;
+        for (int idx = 0; idx < BUCKETS; idx++) {
+            seen += counts.get(idx);
+            if (seen >= rank) {
+                return Math.min(upperEdgeOf(idx), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Drops every sample. Samples recorded while resetting may be kept in
+     * part, which is acceptable for monitoring.
+     */
+    public void reset()
+    {
+        for (int idx = 0; idx < BUCKETS; idx++) {
+            counts.set(idx, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    static int bucketOf(long micros)
+    {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - 4) * SUB_BUCKETS + sub;
+    }
+
+    static long upperEdgeOf(int bucket)
+    {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 4;
+        int sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (sub + 1) * width - 1;
+    }
+}
@@ -0,0 +1,248 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.util;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Sorted set with order statistics, implemented as a treap whose nodes track
+ * their subtree size. add, remove, contains, rank and get all run in expected
+ * O(log n). Elements are ordered by the given comparator, and two elements
+ * that compare equal are the same element. Not thread-safe.
+ */
+public class RankedSet<T>
+{
+    private static final class Node<T>
+    {
+        final T value;
+        final int priority;
+        int size = 1;
+        Node<T> left;
+        Node<T> right;
+
+        Node(T value, int priority)
+        {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    private final Comparator<? super T> comparator;
+    private final Random random = new Random();
+    private Node<T> root;
+
+    public RankedSet(Comparator<? super T> comparator)
+    {
+        this.comparator = comparator;
+    }
+
+    public int size()
+    {
+        return size(root);
+    }
+
+    public boolean isEmpty()
+    {
+        return root == null;
+    }
+
+    public boolean contains(T value)
+    {
+        Node<T> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(value, node.value);
+            if (cmp == 0) {
+                return true;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Adds value unless an equal element is already present.
+     * 
+     * @return true if the set changed.
+     */
+    public boolean add(T value)
+    {
+        if (contains(value)) {
+            return false;
+        }
+        root = insert(root, new Node<T>(value, random.nextInt()));
+        return true;
+    }
+
+    /**
+     * Removes the element equal to value, if any.
+     * 
+     * @return true if the set changed.
+     */
+    public boolean remove(T value)
+    {
+        int before = size(root);
+        root = delete(root, value);
+        return size(root) != before;
+    }
+
+    /**
+     * Returns the number of elements that sort before value, which is the
+     * zero-based position value has, or would have, in the set.
+     */
+    public int rank(T value)
+    {
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(value, node.value);
+            if (cmp <= 0) {
+                if (cmp == 0) {
+                    return rank + size(node.left);
+                }
+                node = node.left;
+            }
+            else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the element at the given zero-based position.
+     * 
+     * @throws NoSuchElementException if index is out of range.
+     */
+    public T get(int index)
+    {
+        if (index < 0 || index >= size(root)) {
+            throw new NoSuchElementException("index " + index + " of " + size(root));
+        }
+        Node<T> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            }
+            else if (index == leftSize) {
+                return node.value;
+            }
+            else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    public void clear()
+    {
+        root = null;
+    }
+
+    private Node<T> insert(Node<T> node, Node<T> added)
+    {
+        if (node == null) {
+            return added;
+        }
+        if (added.priority > node.priority) {
+            // The new node becomes the root of this subtree.
+            Node<T>[] parts = split(node, added.value);
+            added.left = parts[0];
+            added.right = parts[1];
+            update(added);
+            return added;
+        }
+        if (comparator.compare(added.value, node.value) < 0) {
+            node.left = insert(node.left, added);
+        }
+        else {
+            node.right = insert(node.right, added);
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<T> delete(Node<T> node, T value)
+    {
+        if (node == null) {
+            return null;
+        }
+        int cmp = comparator.compare(value, node.value);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = delete(node.left, value);
+        }
+        else {
+            node.right = delete(node.right, value);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Splits the subtree into the elements before value and the rest.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Node<T>[] split(Node<T> node, T value)
+    {
+        if (node == null) {
+            return new Node[] { null, null };
+        }
+        if (comparator.compare(node.value, value) < 0) {
+            Node<T>[] parts = split(node.right, value);
+            node.right = parts[0];
+            update(node);
+            parts[0] = node;
+            return parts;
+        }
+        Node<T>[] parts = split(node.left, value);
+        node.left = parts[1];
+        update(node);
+        parts[1] = node;
+        return parts;
+    }
+
+    /**
+     * Joins two subtrees where every element of left sorts before right.
+     */
+    private Node<T> merge(Node<T> left, Node<T> right)
+    {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static int size(Node<?> node)
+    {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node<?> node)
+    {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+}
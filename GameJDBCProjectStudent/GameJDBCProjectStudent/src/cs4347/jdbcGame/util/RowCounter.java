@@ -0,0 +1,99 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.util;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process row count of one table. The count is loaded once with the
+ * caller's exact query and then adjusted by add() as the services commit
+ * inserts and deletes, so reading it does not touch the database. It is
+ * reloaded once it is older than the reseed interval, which bounds the drift
+ * caused by writes that do not go through services sharing this counter.
+ * 
+ * The count is not exact. The deltas added while a load runs are applied to
+ * the loaded count, which is then kept, so a change committed just before the
+ * load's snapshot but added after the load started is counted twice until the
+ * next reseed. Making it exact would mean holding writers out of their commits
+ * for the whole load. A load that overlaps a reset() is returned but not
+ * kept, since the size of that change is unknown.
+ */
+public class RowCounter
+{
+    /**
+     * Counts the rows of the table.
+     */
+    public interface Loader
+    {
+        long load() throws DAOException, SQLException;
+    }
+
+    private final long reseedNanos;
+
+    private boolean seeded;
+    private long count;
+    private long seededAt;
+    private long deltas;
+    private long resets;
+
+    public RowCounter(long reseedInterval, TimeUnit unit)
+    {
+        this.reseedNanos = unit.toNanos(reseedInterval);
+    }
+
+    /**
+     * Returns the tracked count, calling loader first if the count was never
+     * loaded, was reset, or is older than the reseed interval.
+     */
+    public long get(Loader loader) throws DAOException, SQLException
+    {
+        long deltasBefore;
+        long resetsBefore;
+        synchronized (this) {
+            if (seeded && System.nanoTime() - seededAt < reseedNanos) {
+                return count;
+            }
+            deltasBefore = deltas;
+            resetsBefore = resets;
+        }
+
+        long loaded = loader.load();
+        synchronized (this) {
+            long current = loaded + deltas - deltasBefore;
+            if (resets == resetsBefore) {
+                count = current;
+                seededAt = System.nanoTime();
+                seeded = true;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Applies a committed change of delta rows.
+     */
+    public synchronized void add(long delta)
+    {
+        deltas += delta;
+        count += delta;
+    }
+
+    /**
+     * Forgets the count, e.g. after a bulk write whose row delta is unknown.
+     * The next get() reloads it.
+     */
+    public synchronized void reset()
+    {
+        resets++;
+        seeded = false;
+    }
+}
@@ -0,0 +1,372 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package cs4347.jdbcGame.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches PreparedStatements per Connection so that repeated calls with the same
+ * SQL constant reuse the statement instead of preparing it again. Each
+ * connection holds at most maxStatementsPerConnection statements; the least
+ * recently used statement is closed when the bound is exceeded.
+ * 
+ * Statements are obtained with prepare() and must be handed back with
+ * release() instead of being closed. A statement is never shared by two
+ * callers at the same time: if the cached statement is still checked out, an
+ * uncached statement is prepared and closed on release.
+ * 
+ * Pooled DataSources hand out a new Connection wrapper on every borrow, so
+ * this cache only reuses statements within one borrow, e.g. a unit of work
+ * or a batch. Reuse across borrows is left to the pool's statement pooling,
+ * which is keyed on the physical connection (poolPreparedStatements in
+ * DBCP). Whoever closes a connection should call closeAll() first, which
+ * hands its statements back to that pool. Entries of connections closed
+ * without it are swept once the number of tracked connections has doubled.
+ * 
+ * startRecording() collects the SQL prepared on the current thread, so that
+ * DAOInstrumentation can log the statements of a slow call.
+ */
+public class StatementCache
+{
+    public static final int DEFAULT_MAX_STATEMENTS_PER_CONNECTION = 64;
+
+    // Tracked connections that trigger the first sweep for closed ones.
+    private static final int MIN_SWEEP_THRESHOLD = 64;
+
+    private static final StatementCache instance = new StatementCache(DEFAULT_MAX_STATEMENTS_PER_CONNECTION);
+
+    // SQL prepared on each thread since its recording started, or null.
+    private static final ThreadLocal<List<String>> recording = new ThreadLocal<List<String>>();
+
+    /**
+     * The cache shared by the DAO implementations.
+     */
+    public static StatementCache getInstance()
+    {
+        return instance;
+    }
+
+    private final Map<Connection, ConnectionStatements> connections = new IdentityHashMap<Connection, ConnectionStatements>();
+    private final Map<PreparedStatement, CachedStatement> checkedOut = new IdentityHashMap<PreparedStatement, CachedStatement>();
+    private volatile int maxStatementsPerConnection;
+    // Guarded by the lock on this.
+    private int sweepThreshold = MIN_SWEEP_THRESHOLD;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public StatementCache(int maxStatementsPerConnection)
+    {
+        setMaxStatementsPerConnection(maxStatementsPerConnection);
+    }
+
+    public PreparedStatement prepare(Connection connection, String sql) throws SQLException
+    {
+        return prepare(connection, sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    /**
+     * Returns a statement for the given SQL on the given connection.
+     * autoGeneratedKeys is Statement.RETURN_GENERATED_KEYS or
+     * Statement.NO_GENERATED_KEYS and is part of the cache key.
+     */
+    public PreparedStatement prepare(Connection connection, String sql, int autoGeneratedKeys) throws SQLException
+    {
+        record(sql);
+        Key key = new Key(sql, autoGeneratedKeys);
+        synchronized (this) {
+            ConnectionStatements statements = connections.get(connection);
+            CachedStatement entry = statements == null ? null : statements.get(key);
+            if (entry != null && !entry.inUse && !entry.ps.isClosed()) {
+                entry.inUse = true;
+                checkedOut.put(entry.ps, entry);
+                hits.incrementAndGet();
+                return entry.ps;
+            }
+        }
+
+        misses.incrementAndGet();
+        PreparedStatement ps = connection.prepareStatement(sql, autoGeneratedKeys);
+
+        synchronized (this) {
+            ConnectionStatements statements = connections.get(connection);
+            if (statements == null) {
+                if (connections.size() >= sweepThreshold) {
+                    removeClosedConnections();
+                    sweepThreshold = Math.max(MIN_SWEEP_THRESHOLD, 2 * connections.size());
+                }
+                statements = new ConnectionStatements();
+                connections.put(connection, statements);
+            }
+            CachedStatement current = statements.get(key);
+            if (current != null && current.inUse) {
+                // The cached statement is busy; hand out an uncached one.
+                return ps;
+            }
+            if (current != null) {
+                closeQuietly(current.ps);
+            }
+            CachedStatement entry = new CachedStatement(ps);
+            entry.inUse = true;
+            statements.put(key, entry);
+            checkedOut.put(ps, entry);
+            return ps;
+        }
+    }
+
+    /**
+     * Hands a statement obtained from prepare() back to the cache. Uncached and
+     * evicted statements are closed; cached statements have their parameters,
+     * batch and current result set cleared.
+     */
+    public void release(PreparedStatement ps) throws SQLException
+    {
+        CachedStatement entry;
+        synchronized (this) {
+            entry = checkedOut.remove(ps);
+            if (entry != null) {
+                entry.inUse = false;
+            }
+        }
+
+        if (ps.isClosed()) {
+            return;
+        }
+        if (entry == null || entry.evicted) {
+            ps.close();
+            return;
+        }
+
+        ResultSet rs = ps.getResultSet();
+        if (rs != null) {
+            rs.close();
+        }
+        ps.clearParameters();
+        ps.clearBatch();
+    }
+
+    /**
+     * Closes and forgets every cached statement of the given connection. Call
+     * it before closing the connection.
+     */
+    public void closeAll(Connection connection)
+    {
+        ConnectionStatements statements;
+        synchronized (this) {
+            statements = connections.remove(connection);
+            if (statements == null) {
+                return;
+            }
+            for (CachedStatement entry : statements.values()) {
+                entry.evicted = true;
+                if (!entry.inUse) {
+                    closeQuietly(entry.ps);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts collecting the distinct SQL prepared on the current thread,
+     * through any StatementCache or record(). Returns the recording this one
+     * nests in, which must be passed to stopRecording().
+     */
+    public static List<String> startRecording()
+    {
+        List<String> outer = recording.get();
+        recording.set(new ArrayList<String>());
+        return outer;
+    }
+
+    /**
+     * Ends the current thread's recording, adds its SQL to the outer one and
+     * returns it.
+     */
+    public static List<String> stopRecording(List<String> outer)
+    {
+        List<String> recorded = recording.get();
+        if (outer == null) {
+            recording.remove();
+        } else {
+            for (String sql : recorded) {
+                if (!outer.contains(sql)) {
+                    outer.add(sql);
+                }
+            }
+            recording.set(outer);
+        }
+        return recorded;
+    }
+
+    /**
+     * Adds the SQL of a statement prepared without the cache to the current
+     * thread's recording, if there is one.
+     */
+    public static void record(String sql)
+    {
+        List<String> recorded = recording.get();
+        if (recorded != null && !recorded.contains(sql)) {
+            recorded.add(sql);
+        }
+    }
+
+    public int getMaxStatementsPerConnection()
+    {
+        return maxStatementsPerConnection;
+    }
+
+    public void setMaxStatementsPerConnection(int maxStatementsPerConnection)
+    {
+        if (maxStatementsPerConnection < 1) {
+            throw new IllegalArgumentException("maxStatementsPerConnection must be positive");
+        }
+        this.maxStatementsPerConnection = maxStatementsPerConnection;
+    }
+
+    public long getHitCount()
+    {
+        return hits.get();
+    }
+
+    public long getMissCount()
+    {
+        return misses.get();
+    }
+
+    public long getEvictionCount()
+    {
+        return evictions.get();
+    }
+
+    /**
+     * Fraction of prepare() calls served from the cache, 0 if none were made.
+     */
+    public double getHitRatio()
+    {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public void resetStatistics()
+    {
+        hits.set(0);
+        misses.set(0);
+        evictions.set(0);
+    }
+
+    // Caller must hold the lock on this.
+    private void removeClosedConnections()
+    {
+        Iterator<Map.Entry<Connection, ConnectionStatements>> it = connections.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Connection, ConnectionStatements> e = it.next();
+            boolean closed;
+            try {
+                closed = e.getKey().isClosed();
+            } catch (SQLException ex) {
+                closed = true;
+            }
+            if (closed) {
+                for (CachedStatement entry : e.getValue().values()) {
+                    entry.evicted = true;
+                    checkedOut.remove(entry.ps);
+                }
+                it.remove();
+            }
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement ps)
+    {
+        try {
+            ps.close();
+        } catch (SQLException ex) {
+            // The statement is discarded either way.
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private class ConnectionStatements extends LinkedHashMap<Key, CachedStatement>
+    {
+        ConnectionStatements()
+        {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CachedStatement> eldest)
+        {
+            if (size() <= maxStatementsPerConnection) {
+                return false;
+            }
+            CachedStatement entry = eldest.getValue();
+            entry.evicted = true;
+            if (!entry.inUse) {
+                closeQuietly(entry.ps);
+            }
+            evictions.incrementAndGet();
+            return true;
+        }
+    }
+
+    private static class CachedStatement
+    {
+        final PreparedStatement ps;
+        boolean inUse;
+        boolean evicted;
+
+        CachedStatement(PreparedStatement ps)
+        {
+            this.ps = ps;
+        }
+    }
+
+    private static final class Key
+    {
+        final String sql;
+        final int autoGeneratedKeys;
+
+        Key(String sql, int autoGeneratedKeys)
+        {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return autoGeneratedKeys == other.autoGeneratedKeys && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * sql.hashCode() + autoGeneratedKeys;
+        }
+    }
+}
@@ -150,4 +150,36 @@ public class TestingUtil
             connection.close();
         }
     }
+
+    // This query will return the game IDs NOT owned by the given player ID.
+    // e.g. "select id from game where id not in (select game_id from games_owned where player_id = ?)"
+    static String selectUnownedGameIDs = "select id from game where id not in (select game_id from gamesowned where player_id = ?)";
+
+    /**
+     * Return N Game IDs the given player does not own yet, so new GamesOwned
+     * rows do not collide with the unique player and game constraint.
+     */
+    static public List<Long> getUnownedGameIDs(DataSource ds, Long playerID, int count) throws Exception
+    {
+        Connection connection = ds.getConnection();
+        try {
+            PreparedStatement ps = connection.prepareStatement(selectUnownedGameIDs);
+            ps.setLong(1, playerID);
+            ResultSet rs = ps.executeQuery();
+
+            List<Long> result = new ArrayList<Long>();
+            while (result.size() < count && rs.next()) {
+                Long id = rs.getLong(1);
+                result.add(id);
+            }
+            ps.close();
+            if (result.size() < count) {
+                throw new DAOException("Player " + playerID + " owns all but " + result.size() + " games");
+            }
+            return result;
+        }
+        finally {
+            connection.close();
+        }
+    }
 }
@@ -0,0 +1,40 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+
+package cs4347.jdbcGame.util;
+
+import java.sql.SQLException;
+
+/**
+ * Carries a SQLException out of code that cannot throw checked exceptions,
+ * such as the Stream returned by the streaming DAO methods.
+ */
+@SuppressWarnings("serial")
+public class UncheckedSQLException extends RuntimeException
+{
+
+    public UncheckedSQLException(SQLException ex)
+    {
+        super(ex);
+    }
+
+    public UncheckedSQLException(String msg, SQLException ex)
+    {
+        super(msg, ex);
+    }
+
+    @Override
+    public SQLException getCause()
+    {
+        return (SQLException) super.getCause();
+    }
+
+}
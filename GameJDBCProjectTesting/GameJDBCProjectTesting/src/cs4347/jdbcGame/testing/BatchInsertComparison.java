@@ -0,0 +1,113 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+
+package cs4347.jdbcGame.testing;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.impl.GamesPlayedDAOImpl;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.util.TestingUtil;
+
+/**
+ * Compares the throughput of GamesPlayedDAO.create (one round trip per row)
+ * against GamesPlayedDAO.createAll (JDBC batches). Every run is rolled back, so
+ * the database is left unchanged. Usage: BatchInsertComparison [rows]
+ * [batchSize]
+ */
+public class BatchInsertComparison
+{
+    public static void main(String args[])
+    {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        try {
+            DataSource ds = DataSourceManager.getDataSource();
+            Long playerID = TestingUtil.getPlayerID(ds);
+            Long gameID = TestingUtil.getGameID(ds);
+
+            // Warm up the connection and server caches before measuring.
+            runRowAtATime(ds, buildGamesPlayed(playerID, gameID, Math.min(rows, 1000)));
+
+            double rowRate = runRowAtATime(ds, buildGamesPlayed(playerID, gameID, rows));
+            System.out.printf("create    : %,10.0f rows/sec%n", rowRate);
+
+            double batchRate = runBatched(ds, buildGamesPlayed(playerID, gameID, rows), batchSize);
+            System.out.printf("createAll : %,10.0f rows/sec (batch size %d)%n", batchRate, batchSize);
+            System.out.printf("speedup   : %10.1fx%n", batchRate / rowRate);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private static double runRowAtATime(DataSource ds, List<GamesPlayed> gamesPlayed) throws Exception
+    {
+        GamesPlayedDAO dao = new GamesPlayedDAOImpl();
+        Connection connection = ds.getConnection();
+        connection.setAutoCommit(false);
+        try {
+            long start = System.nanoTime();
+            for (GamesPlayed gp : gamesPlayed) {
+                dao.create(connection, gp);
+            }
+            return rowsPerSecond(gamesPlayed.size(), System.nanoTime() - start);
+        }
+        finally {
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    private static double runBatched(DataSource ds, List<GamesPlayed> gamesPlayed, int batchSize) throws Exception
+    {
+        GamesPlayedDAO dao = new GamesPlayedDAOImpl();
+        Connection connection = ds.getConnection();
+        connection.setAutoCommit(false);
+        try {
+            long start = System.nanoTime();
+            dao.createAll(connection, gamesPlayed, batchSize);
+            return rowsPerSecond(gamesPlayed.size(), System.nanoTime() - start);
+        }
+        finally {
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    private static double rowsPerSecond(int rows, long elapsedNanos)
+    {
+        return rows / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    private static List<GamesPlayed> buildGamesPlayed(Long playerID, Long gameID, int rows)
+    {
+        List<GamesPlayed> result = new ArrayList<GamesPlayed>(rows);
+        Date now = new Date();
+        for (int idx = 0; idx < rows; idx++) {
+            GamesPlayed gp = new GamesPlayed();
+            gp.setPlayerID(playerID);
+            gp.setGameID(gameID);
+            gp.setTimeFinished(now);
+            gp.setScore(idx % 100);
+            result.add(gp);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,161 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+
+package cs4347.jdbcGame.testing;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams a csv file through three stages: a reader thread that cuts the file
+ * into batches of lines, a parser thread that turns each batch into entities,
+ * and the calling thread, which hands every parsed batch to a BatchHandler
+ * (typically a createAll). The stages are joined by bounded queues, so a slow
+ * handler stalls the reader instead of letting parsed rows pile up. At most
+ * about 2 * (queueCapacity + 1) batches are in memory at any time, whatever
+ * the file size.
+ */
+public class CsvPipeline<T>
+{
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    public interface LineParser<T>
+    {
+        T parse(String line) throws Exception;
+    }
+
+    public interface BatchHandler<T>
+    {
+        void handle(List<T> batch) throws Exception;
+    }
+
+    private final int batchSize;
+    private final int queueCapacity;
+
+    public CsvPipeline()
+    {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public CsvPipeline(int batchSize, int queueCapacity)
+    {
+        if (batchSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("batchSize and queueCapacity must be positive");
+        }
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Runs the pipeline over file and returns the number of rows handled. The
+     * first failure of any stage stops the other two and is rethrown here.
+     */
+    public long run(File file, LineParser<T> parser, BatchHandler<T> handler) throws Exception
+    {
+        BlockingQueue<List<String>> lineQueue = new ArrayBlockingQueue<List<String>>(queueCapacity);
+        BlockingQueue<List<T>> rowQueue = new ArrayBlockingQueue<List<T>>(queueCapacity);
+        List<String> endOfLines = new ArrayList<String>(0);
+        List<T> endOfRows = new ArrayList<T>(0);
+        AtomicReference<Exception> failure = new AtomicReference<Exception>();
+
+        Thread reader = new Thread(() -> {
+            try {
+                BufferedReader br = new BufferedReader(new FileReader(file));
+                try {
+                    List<String> lines = new ArrayList<String>(batchSize);
+                    String line = null;
+                    while ((line = br.readLine()) != null) {
+                        lines.add(line);
+                        if (lines.size() == batchSize) {
+                            lineQueue.put(lines);
+                            lines = new ArrayList<String>(batchSize);
+                        }
+                    }
+                    if (!lines.isEmpty()) {
+                        lineQueue.put(lines);
+                    }
+                }
+                finally {
+                    br.close();
+                }
+            } catch (InterruptedException ex) {
+                return;
+            } catch (Exception ex) {
+                failure.compareAndSet(null, ex);
+            }
+            putQuietly(lineQueue, endOfLines);
+        }, "csv-reader-" + file.getName());
+
+        Thread parserThread = new Thread(() -> {
+            try {
+                List<String> lines;
+                while ((lines = lineQueue.take()) != endOfLines) {
+                    List<T> rows = new ArrayList<T>(lines.size());
+                    for (String line : lines) {
+                        rows.add(parser.parse(line));
+                    }
+                    rowQueue.put(rows);
+                }
+            } catch (InterruptedException ex) {
+                return;
+            } catch (Exception ex) {
+                failure.compareAndSet(null, ex);
+            }
+            putQuietly(rowQueue, endOfRows);
+        }, "csv-parser-" + file.getName());
+
+        reader.setDaemon(true);
+        parserThread.setDaemon(true);
+        reader.start();
+        parserThread.start();
+
+        long count = 0;
+        try {
+            List<T> rows;
+            while ((rows = rowQueue.take()) != endOfRows) {
+                handler.handle(rows);
+                count += rows.size();
+            }
+        }
+        finally {
+            reader.interrupt();
+            parserThread.interrupt();
+            reader.join();
+            parserThread.join();
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return count;
+    }
+
+    /**
+     * Passes the end marker downstream. Gives up if interrupted, which only
+     * happens when the consumer has already stopped.
+     */
+    private static <E> void putQuietly(BlockingQueue<E> queue, E marker)
+    {
+        try {
+            queue.put(marker);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -22,8 +22,6 @@ import java.util.Properties;
 
 import javax.sql.DataSource;
 
-import org.apache.commons.dbcp2.BasicDataSource;
-
 /**
  * Application use the static method getDataSource() to obtain the singleton
  * DataSource. Data sources are used to open connections to the MySQL server.
@@ -31,11 +29,17 @@ import org.apache.commons.dbcp2.BasicDataSource;
  * property file 'dbconfig.properties'. The property file must be located on the
  * application's CLASSPATH. See the configuration property file is loaded by the
  * method getPropertiesFromClasspath().
+ * 
+ * The same file may also carry the connection pool settings (maxTotal,
+ * minIdle, maxWaitMillis, validationQuery, ...), named after the matching
+ * BasicDataSource setters. Any setting left out keeps the DBCP default. Live
+ * pool statistics are available from getPoolMetrics().
  */
 public class DataSourceManager
 {
 
-    private static BasicDataSource singletonDS = null;
+    private static MonitoredDataSource singletonDS = null;
+    private static MonitoredDataSource streamingDS = null;
 
     public synchronized static DataSource getDataSource() throws IOException
     {
@@ -58,14 +62,208 @@ public class DataSourceManager
                 throw new RuntimeException("property 'passwd' not found in configuration file");
             }
 
-            singletonDS = new BasicDataSource();
+            singletonDS = new MonitoredDataSource();
             singletonDS.setUrl(url);
             singletonDS.setUsername(id);
             singletonDS.setPassword(passwd);
+            configurePool(singletonDS, props);
         }
         return singletonDS;
     }
 
+    /**
+     * Returns the DataSource for long-running streaming reads, such as
+     * GamesPlayedServiceImpl.streamByGame. It connects like getDataSource(),
+     * with 'streamingUrlParameters' appended to the url, so options like
+     * useCursorFetch apply only to these connections. Its pool has the same
+     * settings except that 'streamingMaxTotal', if present, sizes it.
+     */
+    public synchronized static DataSource getStreamingDataSource() throws IOException
+    {
+        if (streamingDS == null) {
+            Properties props = getPropertiesFromClasspath();
+            String url = props.getProperty("url");
+            String parameters = getTrimmedProperty(props, "streamingUrlParameters");
+            if (parameters != null) {
+                url = url + (url.indexOf('?') < 0 ? "?" : "&") + parameters;
+            }
+
+            streamingDS = new MonitoredDataSource();
+            streamingDS.setUrl(url);
+            streamingDS.setUsername(props.getProperty("id"));
+            streamingDS.setPassword(props.getProperty("passwd"));
+            configurePool(streamingDS, props);
+            Integer maxTotal = getIntProperty(props, "streamingMaxTotal");
+            if (maxTotal != null) {
+                streamingDS.setMaxTotal(maxTotal);
+                streamingDS.setMaxIdle(maxTotal);
+                streamingDS.setMinIdle(Math.min(streamingDS.getMinIdle(), maxTotal));
+                streamingDS.setInitialSize(Math.min(streamingDS.getInitialSize(), maxTotal));
+            }
+        }
+        return streamingDS;
+    }
+
+    /**
+     * Returns the current statistics of the singleton pool, creating the
+     * DataSource first if needed.
+     */
+    public synchronized static PoolMetrics getPoolMetrics() throws IOException
+    {
+        getDataSource();
+        return singletonDS.getPoolMetrics();
+    }
+
+    /**
+     * Applies the optional pool settings found in props. Must run before the
+     * first connection is borrowed, since DBCP builds the pool at that point.
+     */
+    public static void configurePool(MonitoredDataSource ds, Properties props)
+    {
+        // Sizing
+        Integer maxTotal = getIntProperty(props, "maxTotal");
+        if (maxTotal != null) {
+            ds.setMaxTotal(maxTotal);
+        }
+        Integer maxIdle = getIntProperty(props, "maxIdle");
+        if (maxIdle != null) {
+            ds.setMaxIdle(maxIdle);
+        }
+        Integer minIdle = getIntProperty(props, "minIdle");
+        if (minIdle != null) {
+            ds.setMinIdle(minIdle);
+        }
+        Integer initialSize = getIntProperty(props, "initialSize");
+        if (initialSize != null) {
+            ds.setInitialSize(initialSize);
+        }
+        Long maxWaitMillis = getLongProperty(props, "maxWaitMillis");
+        if (maxWaitMillis != null) {
+            ds.setMaxWaitMillis(maxWaitMillis);
+        }
+        Long maxConnLifetimeMillis = getLongProperty(props, "maxConnLifetimeMillis");
+        if (maxConnLifetimeMillis != null) {
+            ds.setMaxConnLifetimeMillis(maxConnLifetimeMillis);
+        }
+
+        // Validation
+        String validationQuery = props.getProperty("validationQuery");
+        if (validationQuery != null && !validationQuery.isEmpty()) {
+            ds.setValidationQuery(validationQuery);
+        }
+        Integer validationQueryTimeout = getIntProperty(props, "validationQueryTimeout");
+        if (validationQueryTimeout != null) {
+            ds.setValidationQueryTimeout(validationQueryTimeout);
+        }
+        Boolean testOnCreate = getBooleanProperty(props, "testOnCreate");
+        if (testOnCreate != null) {
+            ds.setTestOnCreate(testOnCreate);
+        }
+        Boolean testOnBorrow = getBooleanProperty(props, "testOnBorrow");
+        if (testOnBorrow != null) {
+            ds.setTestOnBorrow(testOnBorrow);
+        }
+        Boolean testOnReturn = getBooleanProperty(props, "testOnReturn");
+        if (testOnReturn != null) {
+            ds.setTestOnReturn(testOnReturn);
+        }
+        Boolean testWhileIdle = getBooleanProperty(props, "testWhileIdle");
+        if (testWhileIdle != null) {
+            ds.setTestWhileIdle(testWhileIdle);
+        }
+
+        // Idle eviction
+        Long timeBetweenEvictionRunsMillis = getLongProperty(props, "timeBetweenEvictionRunsMillis");
+        if (timeBetweenEvictionRunsMillis != null) {
+            ds.setTimeBetweenEvictionRunsMillis(timeBetweenEvictionRunsMillis);
+        }
+        Integer numTestsPerEvictionRun = getIntProperty(props, "numTestsPerEvictionRun");
+        if (numTestsPerEvictionRun != null) {
+            ds.setNumTestsPerEvictionRun(numTestsPerEvictionRun);
+        }
+        Long minEvictableIdleTimeMillis = getLongProperty(props, "minEvictableIdleTimeMillis");
+        if (minEvictableIdleTimeMillis != null) {
+            ds.setMinEvictableIdleTimeMillis(minEvictableIdleTimeMillis);
+        }
+
+        // Statement pooling, per physical connection. StatementCache only
+        // reuses statements within one borrow, so this is what saves the
+        // prepare across service calls.
+        Boolean poolPreparedStatements = getBooleanProperty(props, "poolPreparedStatements");
+        if (poolPreparedStatements != null) {
+            ds.setPoolPreparedStatements(poolPreparedStatements);
+        }
+        Integer maxOpenPreparedStatements = getIntProperty(props, "maxOpenPreparedStatements");
+        if (maxOpenPreparedStatements != null) {
+            ds.setMaxOpenPreparedStatements(maxOpenPreparedStatements);
+        }
+
+        // Leak detection
+        Boolean removeAbandonedOnBorrow = getBooleanProperty(props, "removeAbandonedOnBorrow");
+        if (removeAbandonedOnBorrow != null) {
+            ds.setRemoveAbandonedOnBorrow(removeAbandonedOnBorrow);
+        }
+        Boolean removeAbandonedOnMaintenance = getBooleanProperty(props, "removeAbandonedOnMaintenance");
+        if (removeAbandonedOnMaintenance != null) {
+            ds.setRemoveAbandonedOnMaintenance(removeAbandonedOnMaintenance);
+        }
+        Integer removeAbandonedTimeout = getIntProperty(props, "removeAbandonedTimeout");
+        if (removeAbandonedTimeout != null) {
+            ds.setRemoveAbandonedTimeout(removeAbandonedTimeout);
+        }
+        Boolean logAbandoned = getBooleanProperty(props, "logAbandoned");
+        if (logAbandoned != null) {
+            ds.setLogAbandoned(logAbandoned);
+        }
+    }
+
+    private static String getTrimmedProperty(Properties props, String name)
+    {
+        String value = props.getProperty(name);
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    private static Integer getIntProperty(Properties props, String name)
+    {
+        String value = getTrimmedProperty(props, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new RuntimeException("property '" + name + "' is not a valid integer: " + value);
+        }
+    }
+
+    private static Long getLongProperty(Properties props, String name)
+    {
+        String value = getTrimmedProperty(props, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new RuntimeException("property '" + name + "' is not a valid integer: " + value);
+        }
+    }
+
+    private static Boolean getBooleanProperty(Properties props, String name)
+    {
+        String value = getTrimmedProperty(props, name);
+        if (value == null) {
+            return null;
+        }
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new RuntimeException("property '" + name + "' is not 'true' or 'false': " + value);
+        }
+        return Boolean.valueOf(value);
+    }
+
     private static final String propFileName = "dbconfig.properties";
 
     public static Properties getPropertiesFromClasspath() throws IOException
@@ -99,6 +297,7 @@ public class DataSourceManager
                 con.close();
             }
             System.out.println("Finished " + (System.currentTimeMillis() - startTime));
+            System.out.println(DataSourceManager.getPoolMetrics());
         } catch (Exception ex) {
             ex.printStackTrace();
         }
@@ -0,0 +1,157 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+
+package cs4347.jdbcGame.testing;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from long to long, without boxing. Used by the
+ * loaders to translate csv ids into database ids, at 16 bytes per slot
+ * instead of roughly 80 bytes per entry for a HashMap<Long, Long>. Not thread
+ * safe.
+ */
+public class LongLongHashMap
+{
+    private static final long freeKey = 0L;
+    private static final float loadFactor = 0.6f;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    // Key 0 marks an empty slot, so its mapping is kept outside the table.
+    private boolean hasFreeKey;
+    private long freeKeyValue;
+
+    public LongLongHashMap()
+    {
+        this(16);
+    }
+
+    public LongLongHashMap(int expectedSize)
+    {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative");
+        }
+        int capacity = Integer.highestOneBit(Math.max(2, (int) Math.ceil(expectedSize / loadFactor)) * 2 - 1);
+        allocate(capacity);
+    }
+
+    /**
+     * Returns the value mapped to key, or defaultValue if there is none.
+     */
+    public long get(long key, long defaultValue)
+    {
+        if (key == freeKey) {
+            return hasFreeKey ? freeKeyValue : defaultValue;
+        }
+        int slot = slot(key);
+        while (keys[slot] != freeKey) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    public boolean containsKey(long key)
+    {
+        if (key == freeKey) {
+            return hasFreeKey;
+        }
+        int slot = slot(key);
+        while (keys[slot] != freeKey) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Maps key to value, replacing any previous mapping.
+     */
+    public void put(long key, long value)
+    {
+        if (key == freeKey) {
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            freeKeyValue = value;
+            return;
+        }
+        int slot = slot(key);
+        while (keys[slot] != freeKey) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(keys, freeKey);
+        hasFreeKey = false;
+        size = 0;
+    }
+
+    private int slot(long key)
+    {
+        // Fibonacci hashing spreads sequential ids over the whole table.
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity)
+    {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    private void rehash(int capacity)
+    {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int idx = 0; idx < oldKeys.length; idx++) {
+            long key = oldKeys[idx];
+            if (key != freeKey) {
+                int slot = slot(key);
+                while (keys[slot] != freeKey) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[idx];
+            }
+        }
+    }
+}
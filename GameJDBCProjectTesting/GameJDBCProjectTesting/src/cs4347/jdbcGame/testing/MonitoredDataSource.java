@@ -0,0 +1,40 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+
+package cs4347.jdbcGame.testing;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.dbcp2.PoolableConnection;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+
+/**
+ * BasicDataSource that exposes the statistics of its underlying object pool.
+ * DBCP only publishes those through JMX, so this subclass reads them directly
+ * from the pool for callers that want to log or assert on them.
+ */
+public class MonitoredDataSource extends BasicDataSource
+{
+    /**
+     * Returns a snapshot of the pool. Before the first connection is
+     * requested the pool does not exist yet and every counter is zero.
+     */
+    public PoolMetrics getPoolMetrics()
+    {
+        GenericObjectPool<PoolableConnection> pool = getConnectionPool();
+        if (pool == null) {
+            return new PoolMetrics(getMaxTotal(), 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        }
+        return new PoolMetrics(pool.getMaxTotal(), pool.getNumActive(), pool.getNumIdle(), pool.getNumWaiters(),
+                pool.getBorrowedCount(), pool.getReturnedCount(), pool.getCreatedCount(), pool.getDestroyedCount(),
+                pool.getMeanBorrowWaitTimeMillis(), pool.getMaxBorrowWaitTimeMillis());
+    }
+}
@@ -0,0 +1,508 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+
+package cs4347.jdbcGame.testing;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.dao.CreditCardDAO;
+import cs4347.jdbcGame.dao.GameDAO;
+import cs4347.jdbcGame.dao.GamesOwnedDAO;
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.PlayerDAO;
+import cs4347.jdbcGame.dao.impl.CreditCardDAOImpl;
+import cs4347.jdbcGame.dao.impl.GameDAOImpl;
+import cs4347.jdbcGame.dao.impl.GamesOwnedDAOImpl;
+import cs4347.jdbcGame.dao.impl.GamesPlayedDAOImpl;
+import cs4347.jdbcGame.dao.impl.PlayerDAOImpl;
+import cs4347.jdbcGame.entity.CreditCard;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.services.impl.StatsServiceImpl;
+import cs4347.jdbcGame.util.StatementCache;
+
+/**
+ * Multi-threaded version of PopulateTables. The csv files are cut into
+ * chunks that a pool of workers inserts with createAll. Each worker owns one
+ * connection and commits every commitInterval rows.
+ * 
+ * Loading runs in two phases to respect the foreign keys: players and games
+ * first, then credit cards, games owned and games played. The second phase
+ * only starts once every worker of the first phase has committed. Unlike
+ * PopulateTables the load is not atomic. If a worker fails, the other workers
+ * stop and roll back their open transaction, but chunks that were already
+ * committed stay in the database.
+ * 
+ * Usage: ParallelPopulateTables [workers] [chunkSize] [commitInterval]
+ */
+public class ParallelPopulateTables
+{
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    public static final int DEFAULT_COMMIT_INTERVAL = 10000;
+
+    private static final int gamesPerPlayer = 3;
+
+    private final DataSource dataSource;
+    private final int workers;
+    private final int chunkSize;
+    private final int commitInterval;
+
+    // Inserted rows, players and gamesByCsv keyed by their csv id.
+    private final Map<Long, Player> players = new ConcurrentHashMap<Long, Player>();
+    private final Map<Long, Game> gamesByCsv = new ConcurrentHashMap<Long, Game>();
+    private final List<Game> games = Collections.synchronizedList(new ArrayList<Game>());
+
+    public ParallelPopulateTables(DataSource dataSource, int workers, int chunkSize, int commitInterval)
+    {
+        if (workers < 1 || chunkSize < 1 || commitInterval < 1) {
+            throw new IllegalArgumentException("workers, chunkSize and commitInterval must be positive");
+        }
+        this.dataSource = dataSource;
+        this.workers = workers;
+        this.chunkSize = chunkSize;
+        this.commitInterval = commitInterval;
+    }
+
+    public static void main(String args[])
+    {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int chunkSize = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CHUNK_SIZE;
+        int commitInterval = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_COMMIT_INTERVAL;
+        try {
+            DataSource dataSource = DataSourceManager.getDataSource();
+            ParallelPopulateTables app = new ParallelPopulateTables(dataSource, workers, chunkSize, commitInterval);
+            List<TableStats> stats = app.populate(new File("csvData"));
+            for (TableStats table : stats) {
+                System.out.println(table);
+            }
+            System.out.println("Finished Initializing Database");
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Loads players.csv, creditCards.csv and games.csv from csvDir, then the
+     * ownership and play rows from gamesOwned.csv and gamesPlayed.csv. If
+     * either of those two files is missing, random rows are generated for
+     * that table instead. Returns the statistics of each table in load order.
+     */
+    public List<TableStats> populate(File csvDir) throws Exception
+    {
+        TableStats playerStats = new TableStats("player");
+        TableStats gameStats = new TableStats("game");
+        TableStats ccardStats = new TableStats("creditcard");
+        TableStats ownedStats = new TableStats("gamesowned");
+        TableStats playedStats = new TableStats("gamesplayed");
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            // Phase 1: players and games reference nothing.
+            Queue<Chunk> chunks = new ConcurrentLinkedQueue<Chunk>();
+            for (List<String> lines : readChunks(new File(csvDir, "players.csv"))) {
+                chunks.add(new Chunk(playerStats, (connection, worker) -> insertPlayers(connection, worker, lines)));
+            }
+            for (List<String> lines : readChunks(new File(csvDir, "games.csv"))) {
+                chunks.add(new Chunk(gameStats, (connection, worker) -> insertGames(connection, worker, lines)));
+            }
+            runPhase(pool, chunks);
+
+            // Phase 2: everything that points at a player or a game.
+            for (List<String> lines : readChunks(new File(csvDir, "creditCards.csv"))) {
+                chunks.add(new Chunk(ccardStats, (connection, worker) -> insertCreditCards(connection, worker, lines)));
+            }
+            File ownedFile = new File(csvDir, "gamesOwned.csv");
+            File playedFile = new File(csvDir, "gamesPlayed.csv");
+            if (ownedFile.exists()) {
+                for (List<String> lines : readChunks(ownedFile)) {
+                    chunks.add(new Chunk(ownedStats, (connection, worker) -> loadGamesOwned(connection, worker, lines)));
+                }
+            }
+            if (playedFile.exists()) {
+                for (List<String> lines : readChunks(playedFile)) {
+                    chunks.add(new Chunk(playedStats, (connection, worker) -> loadGamesPlayed(connection, worker, lines)));
+                }
+            }
+            List<Player> playerList = new ArrayList<Player>(players.values());
+            for (int from = 0; from < playerList.size(); from += chunkSize) {
+                List<Player> slice = playerList.subList(from, Math.min(from + chunkSize, playerList.size()));
+                if (!ownedFile.exists()) {
+                    chunks.add(new Chunk(ownedStats, (connection, worker) -> insertGamesOwned(connection, worker, slice)));
+                }
+                if (!playedFile.exists()) {
+                    chunks.add(new Chunk(playedStats, (connection, worker) -> insertGamesPlayed(connection, worker, slice)));
+                }
+            }
+            runPhase(pool, chunks);
+        }
+        finally {
+            pool.shutdownNow();
+        }
+
+        // The DAOs do not maintain the summary tables; backfill them.
+        new StatsServiceImpl(dataSource).rebuild(chunkSize);
+
+        List<TableStats> result = new ArrayList<TableStats>();
+        Collections.addAll(result, playerStats, gameStats, ccardStats, ownedStats, playedStats);
+        return result;
+    }
+
+    private void runPhase(ExecutorService pool, Queue<Chunk> chunks) throws Exception
+    {
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+        for (int idx = 0; idx < workers; idx++) {
+            futures.add(pool.submit(new Worker(chunks, failed)));
+        }
+
+        Exception failure = null;
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                Exception cause = ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+                if (failure == null) {
+                    failure = cause;
+                }
+                else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private List<List<String>> readChunks(File file) throws Exception
+    {
+        List<List<String>> chunks = new ArrayList<List<String>>();
+        List<String> lines = new ArrayList<String>(chunkSize);
+        BufferedReader br = new BufferedReader(new FileReader(file));
+        try {
+            String line = null;
+            while ((line = br.readLine()) != null) {
+                lines.add(line);
+                if (lines.size() == chunkSize) {
+                    chunks.add(lines);
+                    lines = new ArrayList<String>(chunkSize);
+                }
+            }
+        }
+        finally {
+            br.close();
+        }
+        if (!lines.isEmpty()) {
+            chunks.add(lines);
+        }
+        return chunks;
+    }
+
+    private int insertPlayers(Connection connection, Worker worker, List<String> lines) throws Exception
+    {
+        List<Long> csvIDs = new ArrayList<Long>(lines.size());
+        List<Player> chunk = new ArrayList<Player>(lines.size());
+        for (String line : lines) {
+            Object item[] = worker.parser.parsePlayer(line);
+            csvIDs.add((Long) item[0]);
+            chunk.add((Player) item[1]);
+        }
+
+        worker.playerDAO.createAll(connection, chunk);
+        for (int idx = 0; idx < chunk.size(); idx++) {
+            players.put(csvIDs.get(idx), chunk.get(idx));
+        }
+        return chunk.size();
+    }
+
+    private int insertGames(Connection connection, Worker worker, List<String> lines) throws Exception
+    {
+        List<Long> csvIDs = new ArrayList<Long>(lines.size());
+        List<Game> chunk = new ArrayList<Game>(lines.size());
+        for (String line : lines) {
+            Object item[] = worker.parser.parseGame(line);
+            csvIDs.add((Long) item[0]);
+            chunk.add((Game) item[1]);
+        }
+
+        worker.gameDAO.createAll(connection, chunk);
+        for (int idx = 0; idx < chunk.size(); idx++) {
+            gamesByCsv.put(csvIDs.get(idx), chunk.get(idx));
+        }
+        games.addAll(chunk);
+        return chunk.size();
+    }
+
+    private int insertCreditCards(Connection connection, Worker worker, List<String> lines) throws Exception
+    {
+        List<CreditCard> ccards = new ArrayList<CreditCard>(lines.size());
+        for (String line : lines) {
+            Object items[] = worker.parser.parseCreditCard(line);
+            Player player = players.get(items[0]);
+            if (player == null) {
+                throw new RuntimeException("credit card refers to unknown player " + items[0]);
+            }
+            CreditCard ccard = (CreditCard) items[1];
+            ccard.setPlayerID(player.getId());
+            ccards.add(ccard);
+        }
+
+        worker.ccDAO.createAll(connection, ccards);
+        return ccards.size();
+    }
+
+    private int loadGamesOwned(Connection connection, Worker worker, List<String> lines) throws Exception
+    {
+        List<GamesOwned> gamesOwned = new ArrayList<GamesOwned>(lines.size());
+        for (String line : lines) {
+            Object items[] = worker.parser.parseGamesOwned(line);
+            GamesOwned go = (GamesOwned) items[1];
+            go.setPlayerID(player((Long) items[0]).getId());
+            go.setGameID(game(go.getGameID()).getId());
+            gamesOwned.add(go);
+        }
+
+        worker.gamesOwnedDAO.createAll(connection, gamesOwned);
+        return gamesOwned.size();
+    }
+
+    private int loadGamesPlayed(Connection connection, Worker worker, List<String> lines) throws Exception
+    {
+        List<GamesPlayed> gamesPlayed = new ArrayList<GamesPlayed>(lines.size());
+        for (String line : lines) {
+            Object items[] = worker.parser.parseGamesPlayed(line);
+            GamesPlayed gp = (GamesPlayed) items[1];
+            gp.setPlayerID(player((Long) items[0]).getId());
+            gp.setGameID(game(gp.getGameID()).getId());
+            gamesPlayed.add(gp);
+        }
+
+        worker.gamesPlayedDAO.createAll(connection, gamesPlayed);
+        return gamesPlayed.size();
+    }
+
+    private Player player(Long csvID)
+    {
+        Player player = players.get(csvID);
+        if (player == null) {
+            throw new RuntimeException("row refers to unknown player " + csvID);
+        }
+        return player;
+    }
+
+    private Game game(Long csvID)
+    {
+        Game game = gamesByCsv.get(csvID);
+        if (game == null) {
+            throw new RuntimeException("row refers to unknown game " + csvID);
+        }
+        return game;
+    }
+
+    private int insertGamesOwned(Connection connection, Worker worker, List<Player> slice) throws Exception
+    {
+        List<GamesOwned> gamesOwned = new ArrayList<GamesOwned>(slice.size() * gamesPerPlayer);
+        Set<Game> owned = new HashSet<Game>();
+        for (Player player : slice) {
+            // A player owns each game at most once (unique player_id, game_id).
+            owned.clear();
+            while (owned.size() < Math.min(gamesPerPlayer, games.size())) {
+                Game game = worker.randomGame();
+                if (!owned.add(game)) {
+                    continue;
+                }
+                GamesOwned go = new GamesOwned();
+                go.setPlayerID(player.getId());
+                go.setGameID(game.getId());
+                go.setPurchaseDate(game.getReleaseDate());
+                go.setPurchasePrice(worker.random.nextFloat() * 100f);
+                gamesOwned.add(go);
+            }
+        }
+
+        worker.gamesOwnedDAO.createAll(connection, gamesOwned);
+        return gamesOwned.size();
+    }
+
+    private int insertGamesPlayed(Connection connection, Worker worker, List<Player> slice) throws Exception
+    {
+        List<GamesPlayed> gamesPlayed = new ArrayList<GamesPlayed>(slice.size() * gamesPerPlayer);
+        for (Player player : slice) {
+            for (int idx = 0; idx < gamesPerPlayer; idx++) {
+                GamesPlayed gp = new GamesPlayed();
+                gp.setPlayerID(player.getId());
+                gp.setGameID(worker.randomGame().getId());
+                gp.setScore(worker.random.nextInt(100));
+                gp.setTimeFinished(player.getJoinDate());
+                gamesPlayed.add(gp);
+            }
+        }
+
+        worker.gamesPlayedDAO.createAll(connection, gamesPlayed);
+        return gamesPlayed.size();
+    }
+
+    private interface ChunkLoader
+    {
+        /**
+         * Inserts one chunk and returns the number of rows written.
+         */
+        int load(Connection connection, Worker worker) throws Exception;
+    }
+
+    private static class Chunk
+    {
+        private final TableStats stats;
+        private final ChunkLoader loader;
+
+        private Chunk(TableStats stats, ChunkLoader loader)
+        {
+            this.stats = stats;
+            this.loader = loader;
+        }
+    }
+
+    /**
+     * Drains the shared chunk queue on its own connection. Parsers and random
+     * generators are not thread safe, so every worker has its own.
+     */
+    private class Worker implements Callable<Void>
+    {
+        private final Queue<Chunk> chunks;
+        private final AtomicBoolean failed;
+        private final PopulateTables parser = new PopulateTables();
+        private final Random random = new Random();
+        private final PlayerDAO playerDAO = new PlayerDAOImpl();
+        private final CreditCardDAO ccDAO = new CreditCardDAOImpl();
+        private final GameDAO gameDAO = new GameDAOImpl();
+        private final GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
+        private final GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+
+        private Worker(Queue<Chunk> chunks, AtomicBoolean failed)
+        {
+            this.chunks = chunks;
+            this.failed = failed;
+        }
+
+        private Game randomGame()
+        {
+            return games.get(random.nextInt(games.size()));
+        }
+
+        @Override
+        public Void call() throws Exception
+        {
+            Connection connection = dataSource.getConnection();
+            try {
+                connection.setAutoCommit(false);
+                int uncommitted = 0;
+                Chunk chunk = null;
+                while (!failed.get() && (chunk = chunks.poll()) != null) {
+                    long start = System.nanoTime();
+                    int rows = chunk.loader.load(connection, this);
+                    uncommitted += rows;
+                    if (uncommitted >= commitInterval) {
+                        connection.commit();
+                        uncommitted = 0;
+                    }
+                    chunk.stats.record(rows, start, System.nanoTime());
+                }
+                connection.commit();
+                return null;
+            } catch (Exception ex) {
+                failed.set(true);
+                connection.rollback();
+                throw ex;
+            }
+            finally {
+                StatementCache.getInstance().closeAll(connection);
+                connection.setAutoCommit(true);
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Rows written to one table and the wall clock time between the start of
+     * its first chunk and the end of its last one.
+     */
+    public static class TableStats
+    {
+        private final String table;
+        private long rows;
+        private long firstStart = Long.MAX_VALUE;
+        private long lastEnd = Long.MIN_VALUE;
+
+        TableStats(String table)
+        {
+            this.table = table;
+        }
+
+        synchronized void record(int rows, long start, long end)
+        {
+            this.rows += rows;
+            firstStart = Math.min(firstStart, start);
+            lastEnd = Math.max(lastEnd, end);
+        }
+
+        public String getTable()
+        {
+            return table;
+        }
+
+        public synchronized long getRows()
+        {
+            return rows;
+        }
+
+        public synchronized long getElapsedNanos()
+        {
+            return rows == 0 ? 0 : lastEnd - firstStart;
+        }
+
+        public synchronized double getRowsPerSecond()
+        {
+            long elapsed = getElapsedNanos();
+            return elapsed == 0 ? 0 : rows * 1e9 / elapsed;
+        }
+
+        @Override
+        public synchronized String toString()
+        {
+            return String.format("%-12s: %,10d rows in %,8d ms, %,10.0f rows/sec", table, rows,
+                    getElapsedNanos() / 1000000, getRowsPerSecond());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+
+package cs4347.jdbcGame.testing;
+
+/**
+ * Point-in-time snapshot of the connection pool behind a MonitoredDataSource.
+ * Counters are cumulative since the pool was created; wait times are in
+ * milliseconds and cover every borrow, including ones that did not block.
+ */
+public class PoolMetrics
+{
+    private final int maxTotal;
+    private final int numActive;
+    private final int numIdle;
+    private final int numWaiters;
+    private final long borrowedCount;
+    private final long returnedCount;
+    private final long createdCount;
+    private final long destroyedCount;
+    private final long meanBorrowWaitMillis;
+    private final long maxBorrowWaitMillis;
+
+    public PoolMetrics(int maxTotal, int numActive, int numIdle, int numWaiters, long borrowedCount,
+            long returnedCount, long createdCount, long destroyedCount, long meanBorrowWaitMillis,
+            long maxBorrowWaitMillis)
+    {
+        this.maxTotal = maxTotal;
+        this.numActive = numActive;
+        this.numIdle = numIdle;
+        this.numWaiters = numWaiters;
+        this.borrowedCount = borrowedCount;
+        this.returnedCount = returnedCount;
+        this.createdCount = createdCount;
+        this.destroyedCount = destroyedCount;
+        this.meanBorrowWaitMillis = meanBorrowWaitMillis;
+        this.maxBorrowWaitMillis = maxBorrowWaitMillis;
+    }
+
+    public int getMaxTotal()
+    {
+        return maxTotal;
+    }
+
+    public int getNumActive()
+    {
+        return numActive;
+    }
+
+    public int getNumIdle()
+    {
+        return numIdle;
+    }
+
+    public int getNumWaiters()
+    {
+        return numWaiters;
+    }
+
+    public long getBorrowedCount()
+    {
+        return borrowedCount;
+    }
+
+    public long getReturnedCount()
+    {
+        return returnedCount;
+    }
+
+    public long getCreatedCount()
+    {
+        return createdCount;
+    }
+
+    public long getDestroyedCount()
+    {
+        return destroyedCount;
+    }
+
+    public long getMeanBorrowWaitMillis()
+    {
+        return meanBorrowWaitMillis;
+    }
+
+    public long getMaxBorrowWaitMillis()
+    {
+        return maxBorrowWaitMillis;
+    }
+
+    /**
+     * Fraction of maxTotal currently checked out. A pool that sits near 1.0
+     * while getNumWaiters() is non-zero is undersized for its callers.
+     */
+    public double getUtilization()
+    {
+        return maxTotal <= 0 ? 0.0 : (double) numActive / maxTotal;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format(
+                "PoolMetrics[active=%d/%d, idle=%d, waiters=%d, borrowed=%d, returned=%d, created=%d, destroyed=%d, meanWait=%dms, maxWait=%dms]",
+                numActive, maxTotal, numIdle, numWaiters, borrowedCount, returnedCount, createdCount, destroyedCount,
+                meanBorrowWaitMillis, maxBorrowWaitMillis);
+    }
+}
@@ -12,17 +12,14 @@
 
 package cs4347.jdbcGame.testing;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.sql.Connection;
 import java.sql.Date;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 import java.util.StringTokenizer;
 
@@ -33,11 +30,13 @@ import cs4347.jdbcGame.dao.GameDAO;
 import cs4347.jdbcGame.dao.GamesOwnedDAO;
 import cs4347.jdbcGame.dao.GamesPlayedDAO;
 import cs4347.jdbcGame.dao.PlayerDAO;
+import cs4347.jdbcGame.dao.StatsDAO;
 import cs4347.jdbcGame.dao.impl.CreditCardDAOImpl;
 import cs4347.jdbcGame.dao.impl.GameDAOImpl;
 import cs4347.jdbcGame.dao.impl.GamesOwnedDAOImpl;
 import cs4347.jdbcGame.dao.impl.GamesPlayedDAOImpl;
 import cs4347.jdbcGame.dao.impl.PlayerDAOImpl;
+import cs4347.jdbcGame.dao.impl.StatsDAOImpl;
 import cs4347.jdbcGame.entity.CreditCard;
 import cs4347.jdbcGame.entity.Game;
 import cs4347.jdbcGame.entity.GamesOwned;
@@ -46,15 +45,34 @@ import cs4347.jdbcGame.entity.Player;
 
 public class PopulateTables
 {
+    private static final int gamesPerPlayer = 3;
+
     private File playerFile;
     private File ccardFile;
     private File gameFile;
+    private File ownedFile;
+    private File playedFile;
+
+    private CsvPipeline<Object[]> pipeline = new CsvPipeline<Object[]>();
+
+    // Database ids of the inserted players, keyed by csv id.
+    private LongLongHashMap playerIDs = new LongLongHashMap();
 
-    private void initialize()
+    // Database ids of the inserted games, keyed by csv id.
+    private LongLongHashMap gameIDsByCsv = new LongLongHashMap();
+
+    // Database id and release date of every inserted game.
+    private long[] gameIDs = new long[256];
+    private long[] gameReleaseDates = new long[256];
+    private int gameCount;
+
+    private void initialize(File csvDir)
     {
-        playerFile = new File("csvData/players.csv");
-        ccardFile = new File("csvData/creditCards.csv");
-        gameFile = new File("csvData/games.csv");
+        playerFile = new File(csvDir, "players.csv");
+        ccardFile = new File(csvDir, "creditCards.csv");
+        gameFile = new File(csvDir, "games.csv");
+        ownedFile = new File(csvDir, "gamesOwned.csv");
+        playedFile = new File(csvDir, "gamesPlayed.csv");
     }
 
     public static void main(String args[])
@@ -64,107 +82,221 @@ public class PopulateTables
             Connection connection = dataSource.getConnection();
             connection.setAutoCommit(false);
 
-            PopulateTables app = new PopulateTables();
-            app.initialize();
+            populate(connection, new File("csvData"));
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
 
-            Map<Long, Player> playersMap = app.buildPlayers();
-            app.addCreditCards(playersMap);
-            System.out.println("Finished building players: " + playersMap.size());
-            app.insertPlayers(connection, playersMap);
-            System.out.println("Finished inserting players");
+    /**
+     * Loads players.csv, creditCards.csv and games.csv from csvDir, then the
+     * ownership and play rows from gamesOwned.csv and gamesPlayed.csv, and
+     * commits. If either of those two files is missing, random rows are
+     * generated for that table instead. The connection must have auto-commit
+     * turned off. Every file is streamed through a CsvPipeline,
+     * so the heap needed does not grow with the number of rows, apart from
+     * the compact csv-id to database-id map of the players and the id array
+     * of the games.
+     */
+    public static void populate(Connection connection, File csvDir) throws Exception
+    {
+        PopulateTables app = new PopulateTables();
+        app.initialize(csvDir);
 
-            Map<Long, Game> gamesMap = app.buildGames();
-            System.out.println("Finished building games: " + gamesMap.size());
-            app.insertGames(connection, gamesMap);
-            System.out.println("Finished inserting games");
+        // Games go first, the ownership and play rows of each player batch
+        // are drawn from them.
+        long games = app.loadGames(connection);
+        System.out.println("Finished inserting games: " + games);
 
-            Player[] players = (Player[]) playersMap.values().toArray(new Player[0]);
-            Game[] games = (Game[]) gamesMap.values().toArray(new Game[0]);
+        long players = app.loadPlayers(connection);
+        System.out.println("Finished inserting players: " + players);
 
-            List<GamesOwned> gamesOwned = app.buildGamesOwned(players, games);
-            app.insertGamesOwned(connection, gamesOwned);
-            System.out.println("Finished inserting gamesOwned");
+        if (app.ownedFile.exists()) {
+            long owned = app.loadGamesOwned(connection);
+            System.out.println("Finished inserting gamesOwned: " + owned);
+        }
+        if (app.playedFile.exists()) {
+            long played = app.loadGamesPlayed(connection);
+            System.out.println("Finished inserting gamesPlayed: " + played);
+        }
 
-            List<GamesPlayed> gamesPlayed = app.buildGamesPlayed(players, games);
-            app.insertGamesPlayed(connection, gamesPlayed);
-            System.out.println("Finished inserting gamesPlayed");
+        long ccards = app.loadCreditCards(connection);
+        System.out.println("Finished inserting credit cards: " + ccards);
 
-            connection.commit();
-            System.out.println("Finished Initializing Database");
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+        // The DAOs do not maintain the summary tables; backfill them in the
+        // same transaction.
+        StatsDAO statsDAO = new StatsDAOImpl();
+        int stats = statsDAO.rebuildPlayers(connection, 0, Long.MAX_VALUE)
+                + statsDAO.rebuildGames(connection, 0, Long.MAX_VALUE);
+        System.out.println("Finished rebuilding stats: " + stats);
+
+        connection.commit();
+        System.out.println("Finished Initializing Database");
     }
 
     Random rnGen = new Random();
 
-    private List<GamesOwned> buildGamesOwned(Player[] players, Game[] games)
+    private long loadGames(Connection connection) throws Exception
     {
+        GameDAO gameDAO = new GameDAOImpl();
+        return pipeline.run(gameFile, this::parseGame, batch -> {
+            List<Game> games = new ArrayList<Game>(batch.size());
+            for (Object[] item : batch) {
+                games.add((Game) item[1]);
+            }
+            gameDAO.createAll(connection, games);
+
+            for (int idx = 0; idx < games.size(); idx++) {
+                Game game = games.get(idx);
+                gameIDsByCsv.put((Long) batch.get(idx)[0], game.getId());
+                if (gameCount == gameIDs.length) {
+                    gameIDs = Arrays.copyOf(gameIDs, gameCount * 2);
+                    gameReleaseDates = Arrays.copyOf(gameReleaseDates, gameCount * 2);
+                }
+                gameIDs[gameCount] = game.getId();
+                gameReleaseDates[gameCount] = game.getReleaseDate().getTime();
+                gameCount++;
+            }
+        });
+    }
 
-        List<GamesOwned> gamesOwned = new ArrayList<GamesOwned>();
+    private long loadPlayers(Connection connection) throws Exception
+    {
+        if (gameCount == 0) {
+            throw new RuntimeException("games must be loaded before players");
+        }
+
+        PlayerDAO playerDAO = new PlayerDAOImpl();
+        GamesOwnedDAO gamesownedDAO = new GamesOwnedDAOImpl();
+        GamesPlayedDAO gamesplayedDAO = new GamesPlayedDAOImpl();
+        boolean randomOwned = !ownedFile.exists();
+        boolean randomPlayed = !playedFile.exists();
+        return pipeline.run(playerFile, this::parsePlayer, batch -> {
+            List<Player> players = new ArrayList<Player>(batch.size());
+            for (Object[] item : batch) {
+                players.add((Player) item[1]);
+            }
+            playerDAO.createAll(connection, players);
+
+            List<GamesOwned> gamesOwned = new ArrayList<GamesOwned>(players.size() * gamesPerPlayer);
+            List<GamesPlayed> gamesPlayed = new ArrayList<GamesPlayed>(players.size() * gamesPerPlayer);
+            int[] owned = new int[Math.min(gamesPerPlayer, gameCount)];
+            for (int idx = 0; idx < players.size(); idx++) {
+                Player player = players.get(idx);
+                playerIDs.put((Long) batch.get(idx)[0], player.getId());
+                // A player owns each game at most once (unique player_id, game_id).
+                for (int idx2 = 0; randomOwned && idx2 < owned.length; idx2++) {
+                    owned[idx2] = distinctGameIdx(owned, idx2);
+                    gamesOwned.add(buildGamesOwned(player, owned[idx2]));
+                }
+                for (int idx2 = 0; randomPlayed && idx2 < gamesPerPlayer; idx2++) {
+                    gamesPlayed.add(buildGamesPlayed(player, rnGen.nextInt(gameCount)));
+                }
+            }
+            if (randomOwned) {
+                gamesownedDAO.createAll(connection, gamesOwned);
+            }
+            if (randomPlayed) {
+                gamesplayedDAO.createAll(connection, gamesPlayed);
+            }
+        });
+    }
 
-        for (Player player : players) {
-            for (int idx2 = 0; idx2 < 3; idx2++) {
-                Game game = games[rnGen.nextInt(games.length)];
-                GamesOwned go = buildGamesOwned(player, game);
+    private long loadGamesOwned(Connection connection) throws Exception
+    {
+        GamesOwnedDAO gamesownedDAO = new GamesOwnedDAOImpl();
+        return pipeline.run(ownedFile, this::parseGamesOwned, batch -> {
+            List<GamesOwned> gamesOwned = new ArrayList<GamesOwned>(batch.size());
+            for (Object[] item : batch) {
+                GamesOwned go = (GamesOwned) item[1];
+                go.setPlayerID(databaseID(playerIDs, (Long) item[0], "player"));
+                go.setGameID(databaseID(gameIDsByCsv, go.getGameID(), "game"));
                 gamesOwned.add(go);
             }
-        }
-        return gamesOwned;
+            gamesownedDAO.createAll(connection, gamesOwned);
+        });
     }
 
-    private List<GamesPlayed> buildGamesPlayed(Player[] players, Game[] games)
+    private long loadGamesPlayed(Connection connection) throws Exception
     {
+        GamesPlayedDAO gamesplayedDAO = new GamesPlayedDAOImpl();
+        return pipeline.run(playedFile, this::parseGamesPlayed, batch -> {
+            List<GamesPlayed> gamesPlayed = new ArrayList<GamesPlayed>(batch.size());
+            for (Object[] item : batch) {
+                GamesPlayed gp = (GamesPlayed) item[1];
+                gp.setPlayerID(databaseID(playerIDs, (Long) item[0], "player"));
+                gp.setGameID(databaseID(gameIDsByCsv, gp.getGameID(), "game"));
+                gamesPlayed.add(gp);
+            }
+            gamesplayedDAO.createAll(connection, gamesPlayed);
+        });
+    }
 
-        List<GamesPlayed> gamesPlayed = new ArrayList<GamesPlayed>();
+    private static long databaseID(LongLongHashMap ids, long csvID, String table)
+    {
+        long id = ids.get(csvID, -1L);
+        if (id < 0) {
+            throw new RuntimeException("row refers to unknown " + table + " " + csvID);
+        }
+        return id;
+    }
 
-        for (Player player : players) {
-            for (int idx2 = 0; idx2 < 3; idx2++) {
-                Game game = games[rnGen.nextInt(games.length)];
-                GamesPlayed gp = buildGamesPlayed(player, game);
-                gamesPlayed.add(gp);
+    private long loadCreditCards(Connection connection) throws Exception
+    {
+        CreditCardDAO ccDAO = new CreditCardDAOImpl();
+        return pipeline.run(ccardFile, this::parseCreditCard, batch -> {
+            List<CreditCard> ccards = new ArrayList<CreditCard>(batch.size());
+            for (Object[] item : batch) {
+                long playerID = playerIDs.get((Long) item[0], -1L);
+                if (playerID < 0) {
+                    throw new RuntimeException("credit card refers to unknown player " + item[0]);
+                }
+                CreditCard ccard = (CreditCard) item[1];
+                ccard.setPlayerID(playerID);
+                ccards.add(ccard);
+            }
+            ccDAO.createAll(connection, ccards);
+        });
+    }
+
+    // Random game index not among the first count entries of chosen.
+    private int distinctGameIdx(int[] chosen, int count)
+    {
+        while (true) {
+            int gameIdx = rnGen.nextInt(gameCount);
+            boolean taken = false;
+            for (int idx = 0; idx < count && !taken; idx++) {
+                taken = chosen[idx] == gameIdx;
+            }
+            if (!taken) {
+                return gameIdx;
             }
         }
-        return gamesPlayed;
     }
 
-    private GamesPlayed buildGamesPlayed(Player player, Game game)
+    private GamesPlayed buildGamesPlayed(Player player, int gameIdx)
     {
         GamesPlayed gp = new GamesPlayed();
-        gp.setGameID(game.getId());
+        gp.setGameID(gameIDs[gameIdx]);
         gp.setPlayerID(player.getId());
         gp.setScore(rnGen.nextInt(100));
         gp.setTimeFinished(player.getJoinDate());
         return gp;
     }
 
-    private GamesOwned buildGamesOwned(Player player, Game game)
+    private GamesOwned buildGamesOwned(Player player, int gameIdx)
     {
         GamesOwned go = new GamesOwned();
-        go.setGameID(game.getId());
+        go.setGameID(gameIDs[gameIdx]);
         go.setPlayerID(player.getId());
-        go.setPurchaseDate(game.getReleaseDate());
+        go.setPurchaseDate(new Date(gameReleaseDates[gameIdx]));
         go.setPurchasePrice(rnGen.nextFloat() * 100f);
         return go;
     }
 
-    private Map<Long, Game> buildGames() throws Exception
-    {
-        Map<Long, Game> gameMap = new HashMap<Long, Game>();
-        FileReader fr = new FileReader(gameFile);
-        BufferedReader br = new BufferedReader(fr);
-        String line = null;
-        while ((line = br.readLine()) != null) {
-            Object item[] = parseGame(line);
-            gameMap.put((Long) item[0], (Game) item[1]);
-        }
-        br.close();
-        return gameMap;
-    }
-
     SimpleDateFormat gameSDF = new SimpleDateFormat("MM/dd/yyyy");
 
-    private Object[] parseGame(String line) throws ParseException
+    Object[] parseGame(String line) throws ParseException
     {
         StringTokenizer st = new StringTokenizer(line, ",");
 
@@ -179,36 +311,9 @@ public class PopulateTables
         return result;
     }
 
-    private Map<Long, Player> buildPlayers() throws Exception
-    {
-        Map<Long, Player> playerMap = new HashMap<Long, Player>();
-        FileReader fr = new FileReader(playerFile);
-        BufferedReader br = new BufferedReader(fr);
-        String line = null;
-        while ((line = br.readLine()) != null) {
-            Object item[] = parsePlayer(line);
-            playerMap.put((Long) item[0], (Player) item[1]);
-        }
-        br.close();
-        return playerMap;
-    }
-
-    private void addCreditCards(Map<Long, Player> playerMap) throws Exception
-    {
-        FileReader fr = new FileReader(ccardFile);
-        BufferedReader br = new BufferedReader(fr);
-        String line = null;
-        while ((line = br.readLine()) != null) {
-            Object items[] = parseCreditCard(line);
-            Player player = playerMap.get(items[0]);
-            player.getCreditCards().add((CreditCard) items[1]);
-        }
-        br.close();
-    }
-
     SimpleDateFormat playerSDF = new SimpleDateFormat("MM/dd/yyyy");
 
-    private Object[] parsePlayer(String line) throws ParseException
+    Object[] parsePlayer(String line) throws ParseException
     {
         StringTokenizer st = new StringTokenizer(line, ",");
         Player player = new Player();
@@ -223,7 +328,7 @@ public class PopulateTables
         return result;
     }
 
-    private Object[] parseCreditCard(String line) throws Exception
+    Object[] parseCreditCard(String line) throws Exception
     {
         StringTokenizer st = new StringTokenizer(line, ",");
 
@@ -238,40 +343,40 @@ public class PopulateTables
         return new Object[] { id, ccard };
     }
 
-    private void insertPlayers(Connection connection, Map<Long, Player> playerMap) throws Exception
+    SimpleDateFormat activitySDF = new SimpleDateFormat("MM/dd/yyyy");
+
+    /**
+     * Parses a gamesOwned.csv line (player_id, game_id, purchase_date,
+     * purchase_price). Both ids are csv ids; the game id is left in the
+     * entity for the caller to translate.
+     */
+    Object[] parseGamesOwned(String line) throws ParseException
     {
-        PlayerDAO playerDAO = new PlayerDAOImpl();
-        CreditCardDAO ccDAO = new CreditCardDAOImpl();
-        for (Player player : playerMap.values()) {
-            playerDAO.create(connection, player);
+        StringTokenizer st = new StringTokenizer(line, ",");
 
-            for (CreditCard ccard : player.getCreditCards()) {
-                ccDAO.create(connection, ccard, player.getId());
-            }
-        }
-    }
+        GamesOwned go = new GamesOwned();
+        Long playerID = Long.parseLong(st.nextToken());
+        go.setGameID(Long.parseLong(st.nextToken()));
+        go.setPurchaseDate(new Date(activitySDF.parse(st.nextToken()).getTime()));
+        go.setPurchasePrice(Float.parseFloat(st.nextToken()));
 
-    private void insertGames(Connection connection, Map<Long, Game> gameMap) throws Exception
-    {
-        GameDAO gameDAO = new GameDAOImpl();
-        for (Game game : gameMap.values()) {
-            gameDAO.create(connection, game);
-        }
+        return new Object[] { playerID, go };
     }
 
-    private void insertGamesPlayed(Connection connection, List<GamesPlayed> gamesPlayed) throws Exception
+    /**
+     * Parses a gamesPlayed.csv line (player_id, game_id, time_finished,
+     * score), with csv ids like parseGamesOwned.
+     */
+    Object[] parseGamesPlayed(String line) throws ParseException
     {
-        GamesPlayedDAO gamesplayedDAO = new GamesPlayedDAOImpl();
-        for (GamesPlayed gp : gamesPlayed) {
-            gamesplayedDAO.create(connection, gp);
-        }
-    }
+        StringTokenizer st = new StringTokenizer(line, ",");
 
-    private void insertGamesOwned(Connection connection, List<GamesOwned> gamesOwned) throws Exception
-    {
-        GamesOwnedDAO gamesownedDAO = new GamesOwnedDAOImpl();
-        for (GamesOwned go : gamesOwned) {
-            gamesownedDAO.create(connection, go);
-        }
+        GamesPlayed gp = new GamesPlayed();
+        Long playerID = Long.parseLong(st.nextToken());
+        gp.setGameID(Long.parseLong(st.nextToken()));
+        gp.setTimeFinished(new Date(activitySDF.parse(st.nextToken()).getTime()));
+        gp.setScore(Integer.parseInt(st.nextToken()));
+
+        return new Object[] { playerID, gp };
     }
 }
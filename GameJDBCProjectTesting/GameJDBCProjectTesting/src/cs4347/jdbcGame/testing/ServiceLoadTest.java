@@ -0,0 +1,150 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+package cs4347.jdbcGame.testing;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.GamesOwnedService;
+import cs4347.jdbcGame.services.PlayerService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+import cs4347.jdbcGame.services.impl.PlayerServiceImpl;
+import cs4347.jdbcGame.services.impl.ServiceExecutors;
+import cs4347.jdbcGame.util.AdmissionControlledDataSource;
+import cs4347.jdbcGame.util.TestingUtil;
+
+/**
+ * Compares thread-per-request throughput on a fixed pool of platform threads
+ * against a virtual thread per request behind an
+ * AdmissionControlledDataSource sized to the connection pool. Each request
+ * reads a game, a player and the player's owned games with the entity caches
+ * off, so every call reaches the database. Nothing is written. On JVMs
+ * without virtual threads only the platform run is made. With
+ * mysql-connector-java 8.0.12 the virtual threads pin their carriers during
+ * socket I/O (see ServiceExecutors), so the comparison means little until
+ * the driver is upgraded.
+ * Usage: ServiceLoadTest [requests] [platformThreads]
+ */
+public class ServiceLoadTest
+{
+    private static final int DEFAULT_POOL_SIZE = 8;
+    private static final int SAMPLE_IDS = 100;
+
+    public static void main(String args[])
+    {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int platformThreads = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        try {
+            DataSource ds = DataSourceManager.getDataSource();
+            int maxTotal = DataSourceManager.getPoolMetrics().getMaxTotal();
+            int poolSize = maxTotal > 0 ? maxTotal : DEFAULT_POOL_SIZE;
+            List<Long> playerIDs = TestingUtil.getPlayerIDs(ds, SAMPLE_IDS);
+            List<Long> gameIDs = TestingUtil.getGameIDs(ds, SAMPLE_IDS);
+
+            // Warm up the pool, the statement cache and the JIT before measuring.
+            run(Executors.newFixedThreadPool(platformThreads), ds, playerIDs, gameIDs, Math.min(requests, 2000));
+
+            Result platform = run(Executors.newFixedThreadPool(platformThreads), ds, playerIDs, gameIDs, requests);
+            System.out.printf("platform (%d threads) : %s%n", platformThreads, platform);
+            if (!ServiceExecutors.isVirtualThreadsAvailable()) {
+                System.out.println("virtual threads are not available on this JVM, skipping that run");
+                return;
+            }
+
+            AdmissionControlledDataSource admitted = new AdmissionControlledDataSource(ds, poolSize, requests, 30,
+                    TimeUnit.SECONDS);
+            Result virtual = run(ServiceExecutors.newVirtualThreadExecutor(poolSize), admitted, playerIDs, gameIDs,
+                    requests);
+            System.out.printf("virtual (%d permits) : %s%n", poolSize, virtual);
+            System.out.printf("speedup : %.2fx, rejected by admission: %d%n",
+                    virtual.requestsPerSecond / platform.requestsPerSecond, admitted.getRejectedCount());
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Submits all requests to executor at once and waits for them to finish.
+     */
+    private static Result run(ExecutorService executor, DataSource ds, List<Long> playerIDs, List<Long> gameIDs,
+            int requests) throws Exception
+    {
+        GameService gameService = new GameServiceImpl(ds, null);
+        PlayerService playerService = new PlayerServiceImpl(ds, null);
+        GamesOwnedService gamesOwnedService = new GamesOwnedServiceImpl(ds);
+
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(requests);
+        long start = System.nanoTime();
+        try {
+            for (int idx = 0; idx < requests; idx++) {
+                int request = idx;
+                long playerID = playerIDs.get(idx % playerIDs.size());
+                long gameID = gameIDs.get(idx % gameIDs.size());
+                long submitted = System.nanoTime();
+                executor.execute(() -> {
+                    try {
+                        gameService.retrieve(gameID);
+                        playerService.retrieve(playerID);
+                        gamesOwnedService.retrieveByPlayer(playerID);
+                    } catch (Exception ex) {
+                        errors.incrementAndGet();
+                    }
+                    finally {
+                        latencies[request] = System.nanoTime() - submitted;
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        return new Result(requests, System.nanoTime() - start, latencies, errors.get());
+    }
+
+    private static class Result
+    {
+        final double requestsPerSecond;
+        final long p50Millis;
+        final long p99Millis;
+        final int errors;
+
+        Result(int requests, long elapsedNanos, long[] latencies, int errors)
+        {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            this.requestsPerSecond = requests / (elapsedNanos / 1_000_000_000.0);
+            this.p50Millis = TimeUnit.NANOSECONDS.toMillis(sorted[(int) (sorted.length * 0.50)]);
+            this.p99Millis = TimeUnit.NANOSECONDS.toMillis(sorted[Math.min(sorted.length - 1, (int) (sorted.length * 0.99))]);
+            this.errors = errors;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%,10.0f requests/sec, p50 %d ms, p99 %d ms, %d errors", requestsPerSecond,
+                    p50Millis, p99Millis, errors);
+        }
+    }
+}
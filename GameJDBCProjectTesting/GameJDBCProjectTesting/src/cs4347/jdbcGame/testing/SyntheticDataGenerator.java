@@ -0,0 +1,579 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+
+package cs4347.jdbcGame.testing;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.sql.Connection;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import javax.sql.DataSource;
+
+import cs4347.jdbcGame.dao.CreditCardDAO;
+import cs4347.jdbcGame.dao.GameDAO;
+import cs4347.jdbcGame.dao.GamesOwnedDAO;
+import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.PlayerDAO;
+import cs4347.jdbcGame.dao.StatsDAO;
+import cs4347.jdbcGame.dao.impl.CreditCardDAOImpl;
+import cs4347.jdbcGame.dao.impl.GameDAOImpl;
+import cs4347.jdbcGame.dao.impl.GamesOwnedDAOImpl;
+import cs4347.jdbcGame.dao.impl.GamesPlayedDAOImpl;
+import cs4347.jdbcGame.dao.impl.PlayerDAOImpl;
+import cs4347.jdbcGame.dao.impl.StatsDAOImpl;
+import cs4347.jdbcGame.entity.CreditCard;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.Player;
+
+/**
+ * Deterministic generator of production-sized data sets. The same seed and
+ * settings always produce the same rows.
+ * 
+ * Game popularity follows a Zipf distribution, so a few games hold most of
+ * the ownership and play rows, as in production. Player join dates grow
+ * linearly towards the end of the date window (more recent sign-ups), games
+ * are released uniformly over the window, purchases happen after both the
+ * join and the release date and sessions after the purchase, mostly soon
+ * after. The number of
+ * owned games and of sessions per player is geometric around the configured
+ * mean, and every player plays games they own.
+ * 
+ * Rows go to a Sink, either the database (DatabaseSink, batched createAll)
+ * or csv files (CsvSink). Players are generated and written batchSize at a
+ * time, so only the games are held in memory.
+ * 
+ * Usage: SyntheticDataGenerator players games [seed] [csvDir]. Without csvDir
+ * the rows are inserted into the database from dbconfig.properties.
+ */
+public class SyntheticDataGenerator
+{
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * Receives the generated rows batch by batch. players must assign the
+     * ids of the players (and their credit cards) before it returns, since
+     * the ownership and play rows refer to them.
+     */
+    public interface Sink
+    {
+        void games(List<Game> games) throws Exception;
+
+        void players(List<Player> players) throws Exception;
+
+        void gamesOwned(List<GamesOwned> gamesOwned) throws Exception;
+
+        void gamesPlayed(List<GamesPlayed> gamesPlayed) throws Exception;
+
+        void finish() throws Exception;
+    }
+
+    private static final String[] firstNames = { "Ava", "Ben", "Chloe", "Diego", "Emma", "Farid", "Grace", "Hiro",
+            "Isla", "Jamal", "Kira", "Liam", "Maya", "Noah", "Olga", "Priya", "Quinn", "Ravi", "Sofia", "Tariq",
+            "Uma", "Victor", "Wen", "Ximena", "Yusuf", "Zoe" };
+    private static final String[] lastNames = { "Anders", "Brown", "Chen", "Dubois", "Evans", "Fischer", "Garcia",
+            "Haddad", "Ivanov", "Johnson", "Kim", "Lopez", "Miller", "Nguyen", "Okafor", "Patel", "Rossi", "Smith",
+            "Tanaka", "Urban", "Varga", "Walsh", "Xu", "Young", "Zimmer" };
+    private static final String[] titleWords = { "ALIEN", "IRON", "MOON", "RIDGEMONT", "SUBMARINE", "DRAGON",
+            "SHADOW", "CRYSTAL", "THUNDER", "EMPIRE", "GHOST", "HARBOR", "JUNGLE", "KINGDOM", "LEGEND", "MIRROR",
+            "NEBULA", "OCEAN", "PHANTOM", "QUEST", "ROCKET", "SPIRIT", "TITAN", "VOYAGE", "WIZARD" };
+    private static final String[] months = { "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct",
+            "Nov", "Dec" };
+
+    private long seed = 4347;
+    private int players = 100000;
+    private int games = 1000;
+    private double ownedPerPlayer = 3;
+    private double sessionsPerPlayer = 10;
+    private double zipfExponent = 1.0;
+    private LocalDate startDate = LocalDate.of(2010, 1, 1);
+    private LocalDate endDate = LocalDate.of(2021, 12, 31);
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    public static void main(String args[])
+    {
+        if (args.length < 2) {
+            System.out.println("Usage: SyntheticDataGenerator players games [seed] [csvDir]");
+            return;
+        }
+        try {
+            SyntheticDataGenerator generator = new SyntheticDataGenerator();
+            generator.setPlayers(Integer.parseInt(args[0]));
+            generator.setGames(Integer.parseInt(args[1]));
+            if (args.length > 2) {
+                generator.setSeed(Long.parseLong(args[2]));
+            }
+
+            long start = System.currentTimeMillis();
+            if (args.length > 3) {
+                generator.generate(new CsvSink(new File(args[3])));
+            }
+            else {
+                DataSource dataSource = DataSourceManager.getDataSource();
+                Connection connection = dataSource.getConnection();
+                try {
+                    connection.setAutoCommit(false);
+                    generator.generate(new DatabaseSink(connection));
+                }
+                finally {
+                    connection.close();
+                }
+            }
+            System.out.println("Finished generating in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    public void generate(Sink sink) throws Exception
+    {
+        if (!endDate.isAfter(startDate)) {
+            throw new IllegalStateException("endDate must be after startDate");
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int firstDay = (int) startDate.toEpochDay();
+        int lastDay = (int) endDate.toEpochDay();
+
+        // Games, in batches. Only their ids and release days are kept.
+        long[] gameIDs = new long[games];
+        int[] releaseDays = new int[games];
+        for (int from = 0; from < games; from += batchSize) {
+            List<Game> batch = new ArrayList<Game>();
+            for (int idx = from; idx < Math.min(from + batchSize, games); idx++) {
+                batch.add(buildGame(random, idx, firstDay + random.nextInt(lastDay - firstDay + 1)));
+            }
+            sink.games(batch);
+            for (int idx = 0; idx < batch.size(); idx++) {
+                gameIDs[from + idx] = batch.get(idx).getId();
+                releaseDays[from + idx] = (int) toEpochDay(batch.get(idx).getReleaseDate());
+            }
+        }
+
+        // Popularity rank -> game, shuffled so popular games are spread over
+        // the id and release date range.
+        int[] byRank = new int[games];
+        for (int idx = 0; idx < games; idx++) {
+            byRank[idx] = idx;
+        }
+        for (int idx = games - 1; idx > 0; idx--) {
+            int other = random.nextInt(idx + 1);
+            int tmp = byRank[idx];
+            byRank[idx] = byRank[other];
+            byRank[other] = tmp;
+        }
+        ZipfDistribution popularity = new ZipfDistribution(games, zipfExponent);
+
+        for (int from = 0; from < players; from += batchSize) {
+            List<Player> batch = new ArrayList<Player>();
+            for (int idx = from; idx < Math.min(from + batchSize, players); idx++) {
+                // sqrt of a uniform value skews join dates towards lastDay.
+                int joinDay = firstDay + (int) (Math.sqrt(random.nextDouble()) * (lastDay - firstDay));
+                batch.add(buildPlayer(random, idx, joinDay));
+            }
+            sink.players(batch);
+
+            List<GamesOwned> gamesOwned = new ArrayList<GamesOwned>();
+            List<GamesPlayed> gamesPlayed = new ArrayList<GamesPlayed>();
+            for (Player player : batch) {
+                int joinDay = (int) toEpochDay(player.getJoinDate());
+                int[] owned = pickOwnedGames(random, popularity, byRank);
+                int[] purchaseDays = new int[owned.length];
+                for (int idx = 0; idx < owned.length; idx++) {
+                    int game = owned[idx];
+                    purchaseDays[idx] = afterDay(random, Math.max(joinDay, releaseDays[game]), lastDay);
+                    GamesOwned go = new GamesOwned();
+                    go.setPlayerID(player.getId());
+                    go.setGameID(gameIDs[game]);
+                    go.setPurchaseDate(toDate(purchaseDays[idx]));
+                    go.setPurchasePrice(Math.round((4.99f + random.nextInt(56)) * 100f) / 100f);
+                    gamesOwned.add(go);
+                }
+
+                int sessions = owned.length == 0 ? 0 : geometric(random, sessionsPerPlayer);
+                for (int idx = 0; idx < sessions; idx++) {
+                    int pick = random.nextInt(owned.length);
+                    GamesPlayed gp = new GamesPlayed();
+                    gp.setPlayerID(player.getId());
+                    gp.setGameID(gameIDs[owned[pick]]);
+                    gp.setTimeFinished(toDate(afterDay(random, purchaseDays[pick], lastDay)));
+                    gp.setScore(score(random));
+                    gamesPlayed.add(gp);
+                }
+            }
+            sink.gamesOwned(gamesOwned);
+            sink.gamesPlayed(gamesPlayed);
+        }
+        sink.finish();
+    }
+
+    /**
+     * Distinct games owned by one player, drawn by popularity.
+     */
+    private int[] pickOwnedGames(SplittableRandom random, ZipfDistribution popularity, int[] byRank)
+    {
+        int count = Math.min(geometric(random, ownedPerPlayer), games);
+        int[] owned = new int[count];
+        int found = 0;
+        int attempts = 0;
+        while (found < count) {
+            int game = attempts++ < count * 20 ? byRank[popularity.sample(random)] : random.nextInt(games);
+            boolean duplicate = false;
+            for (int idx = 0; idx < found; idx++) {
+                duplicate |= owned[idx] == game;
+            }
+            if (!duplicate) {
+                owned[found++] = game;
+            }
+        }
+        return owned;
+    }
+
+    /**
+     * Geometric number of rows with the given mean, at least 1 when the mean
+     * is at least 1.
+     */
+    private static int geometric(SplittableRandom random, double mean)
+    {
+        if (mean <= 0) {
+            return 0;
+        }
+        if (mean < 1) {
+            return random.nextDouble() < mean ? 1 : 0;
+        }
+        double p = 1.0 / mean;
+        if (p >= 1) {
+            return 1;
+        }
+        return 1 + (int) (Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+    }
+
+    /**
+     * A day between since and lastDay, exponentially distributed with a mean
+     * of 90 days, so most activity happens soon after since.
+     */
+    private static int afterDay(SplittableRandom random, int since, int lastDay)
+    {
+        int offset = (int) (-90 * Math.log(1 - random.nextDouble()));
+        return Math.min(lastDay, since + offset);
+    }
+
+    private static int score(SplittableRandom random)
+    {
+        // Bell shaped around 50, summing three uniform values.
+        return random.nextInt(34) + random.nextInt(34) + random.nextInt(34);
+    }
+
+    private Game buildGame(SplittableRandom random, int idx, int releaseDay)
+    {
+        Game game = new Game();
+        game.setTitle(titleWords[random.nextInt(titleWords.length)] + " "
+                + titleWords[random.nextInt(titleWords.length)] + " " + (idx + 1));
+        game.setDescription("Synthetic game number " + (idx + 1) + " for scale testing");
+        game.setReleaseDate(toDate(releaseDay));
+        game.setVersion(random.nextInt(10) + "." + random.nextInt(10) + "." + random.nextInt(10));
+        return game;
+    }
+
+    private Player buildPlayer(SplittableRandom random, int idx, int joinDay)
+    {
+        Player player = new Player();
+        String firstName = firstNames[random.nextInt(firstNames.length)];
+        String lastName = lastNames[random.nextInt(lastNames.length)];
+        player.setFirstName(firstName);
+        player.setLastName(lastName);
+        player.setJoinDate(toDate(joinDay));
+        player.setEmail(firstName + "." + lastName + (idx + 1) + "@example.com");
+
+        int cards = 1 + random.nextInt(2);
+        for (int card = 0; card < cards; card++) {
+            CreditCard ccard = new CreditCard();
+            ccard.setCcName(firstName + " " + lastName);
+            ccard.setCcNumber(String.format("4%015d", random.nextLong(1000000000000000L)));
+            ccard.setExpDate((20 + random.nextInt(10)) + "-" + months[random.nextInt(months.length)]);
+            ccard.setSecurityCode(100 + random.nextInt(900));
+            player.getCreditCards().add(ccard);
+        }
+        return player;
+    }
+
+    private static java.sql.Date toDate(int epochDay)
+    {
+        return java.sql.Date.valueOf(LocalDate.ofEpochDay(epochDay));
+    }
+
+    private static long toEpochDay(Date date)
+    {
+        return new java.sql.Date(date.getTime()).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Inserts the rows with createAll and commits after every player batch.
+     */
+    public static class DatabaseSink implements Sink
+    {
+        private final Connection connection;
+        private final PlayerDAO playerDAO = new PlayerDAOImpl();
+        private final CreditCardDAO ccDAO = new CreditCardDAOImpl();
+        private final GameDAO gameDAO = new GameDAOImpl();
+        private final GamesOwnedDAO gamesOwnedDAO = new GamesOwnedDAOImpl();
+        private final GamesPlayedDAO gamesPlayedDAO = new GamesPlayedDAOImpl();
+        private final StatsDAO statsDAO = new StatsDAOImpl();
+
+        public DatabaseSink(Connection connection)
+        {
+            this.connection = connection;
+        }
+
+        @Override
+        public void games(List<Game> games) throws Exception
+        {
+            gameDAO.createAll(connection, games);
+            connection.commit();
+        }
+
+        @Override
+        public void players(List<Player> players) throws Exception
+        {
+            playerDAO.createAll(connection, players);
+            List<CreditCard> ccards = new ArrayList<CreditCard>();
+            for (Player player : players) {
+                for (CreditCard ccard : player.getCreditCards()) {
+                    ccard.setPlayerID(player.getId());
+                    ccards.add(ccard);
+                }
+            }
+            ccDAO.createAll(connection, ccards);
+        }
+
+        @Override
+        public void gamesOwned(List<GamesOwned> gamesOwned) throws Exception
+        {
+            gamesOwnedDAO.createAll(connection, gamesOwned);
+        }
+
+        @Override
+        public void gamesPlayed(List<GamesPlayed> gamesPlayed) throws Exception
+        {
+            gamesPlayedDAO.createAll(connection, gamesPlayed);
+            connection.commit();
+        }
+
+        @Override
+        public void finish() throws Exception
+        {
+            // The DAOs do not maintain the summary tables; backfill them.
+            statsDAO.rebuildPlayers(connection, 0, Long.MAX_VALUE);
+            statsDAO.rebuildGames(connection, 0, Long.MAX_VALUE);
+            connection.commit();
+        }
+    }
+
+    /**
+     * Writes players.csv, creditCards.csv, games.csv, gamesOwned.csv
+     * (player_id, game_id, purchase_date, purchase_price) and gamesPlayed.csv
+     * (player_id, game_id, time_finished, score) in the format read by
+     * PopulateTables and ParallelPopulateTables. Ids are assigned sequentially
+     * from 1.
+     */
+    public static class CsvSink implements Sink
+    {
+        private final SimpleDateFormat sdf = new SimpleDateFormat("MM/dd/yyyy");
+        private final BufferedWriter playerOut;
+        private final BufferedWriter ccardOut;
+        private final BufferedWriter gameOut;
+        private final BufferedWriter ownedOut;
+        private final BufferedWriter playedOut;
+        private long nextPlayerID = 1;
+        private long nextCardID = 1;
+        private long nextGameID = 1;
+
+        public CsvSink(File dir) throws IOException
+        {
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("cannot create directory " + dir);
+            }
+            playerOut = new BufferedWriter(new FileWriter(new File(dir, "players.csv")));
+            ccardOut = new BufferedWriter(new FileWriter(new File(dir, "creditCards.csv")));
+            gameOut = new BufferedWriter(new FileWriter(new File(dir, "games.csv")));
+            ownedOut = new BufferedWriter(new FileWriter(new File(dir, "gamesOwned.csv")));
+            playedOut = new BufferedWriter(new FileWriter(new File(dir, "gamesPlayed.csv")));
+        }
+
+        @Override
+        public void games(List<Game> games) throws Exception
+        {
+            for (Game game : games) {
+                game.setId(nextGameID++);
+                gameOut.write(game.getId() + "," + game.getTitle() + "," + game.getDescription() + ","
+                        + sdf.format(game.getReleaseDate()) + "," + game.getVersion());
+                gameOut.newLine();
+            }
+        }
+
+        @Override
+        public void players(List<Player> players) throws Exception
+        {
+            for (Player player : players) {
+                player.setId(nextPlayerID++);
+                playerOut.write(player.getId() + "," + player.getFirstName() + "," + player.getLastName() + ","
+                        + sdf.format(player.getJoinDate()) + "," + player.getEmail());
+                playerOut.newLine();
+                for (CreditCard ccard : player.getCreditCards()) {
+                    ccard.setId(nextCardID++);
+                    ccard.setPlayerID(player.getId());
+                    ccardOut.write(ccard.getCcName() + "," + ccard.getCcNumber() + "," + ccard.getExpDate() + ","
+                            + ccard.getSecurityCode() + "," + player.getId());
+                    ccardOut.newLine();
+                }
+            }
+        }
+
+        @Override
+        public void gamesOwned(List<GamesOwned> gamesOwned) throws Exception
+        {
+            for (GamesOwned go : gamesOwned) {
+                ownedOut.write(go.getPlayerID() + "," + go.getGameID() + "," + sdf.format(go.getPurchaseDate())
+                        + "," + go.getPurchasePrice());
+                ownedOut.newLine();
+            }
+        }
+
+        @Override
+        public void gamesPlayed(List<GamesPlayed> gamesPlayed) throws Exception
+        {
+            for (GamesPlayed gp : gamesPlayed) {
+                playedOut.write(gp.getPlayerID() + "," + gp.getGameID() + "," + sdf.format(gp.getTimeFinished())
+                        + "," + gp.getScore());
+                playedOut.newLine();
+            }
+        }
+
+        @Override
+        public void finish() throws Exception
+        {
+            playerOut.close();
+            ccardOut.close();
+            gameOut.close();
+            ownedOut.close();
+            playedOut.close();
+        }
+    }
+
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    public void setSeed(long seed)
+    {
+        this.seed = seed;
+    }
+
+    public int getPlayers()
+    {
+        return players;
+    }
+
+    public void setPlayers(int players)
+    {
+        if (players < 1) {
+            throw new IllegalArgumentException("players must be positive");
+        }
+        this.players = players;
+    }
+
+    public int getGames()
+    {
+        return games;
+    }
+
+    public void setGames(int games)
+    {
+        if (games < 1) {
+            throw new IllegalArgumentException("games must be positive");
+        }
+        this.games = games;
+    }
+
+    public double getOwnedPerPlayer()
+    {
+        return ownedPerPlayer;
+    }
+
+    public void setOwnedPerPlayer(double ownedPerPlayer)
+    {
+        this.ownedPerPlayer = ownedPerPlayer;
+    }
+
+    public double getSessionsPerPlayer()
+    {
+        return sessionsPerPlayer;
+    }
+
+    public void setSessionsPerPlayer(double sessionsPerPlayer)
+    {
+        this.sessionsPerPlayer = sessionsPerPlayer;
+    }
+
+    public double getZipfExponent()
+    {
+        return zipfExponent;
+    }
+
+    public void setZipfExponent(double zipfExponent)
+    {
+        this.zipfExponent = zipfExponent;
+    }
+
+    public LocalDate getStartDate()
+    {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate)
+    {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate()
+    {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate)
+    {
+        this.endDate = endDate;
+    }
+
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize)
+    {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+}
@@ -0,0 +1,64 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of every team member to the Provost Office for academic 
+ * dishonesty. 
+ */
+
+package cs4347.jdbcGame.testing;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Zipf distribution over the ranks 0..size-1: rank k is drawn with
+ * probability proportional to 1 / (k + 1)^exponent. Sampling is a binary
+ * search over the precomputed cumulative distribution, so a draw is
+ * O(log size) and allocation free.
+ */
+public class ZipfDistribution
+{
+    private final double[] cdf;
+
+    public ZipfDistribution(int size, double exponent)
+    {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        if (exponent < 0) {
+            throw new IllegalArgumentException("exponent must not be negative");
+        }
+
+        cdf = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cdf[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cdf[rank] /= total;
+        }
+        cdf[size - 1] = 1.0;
+    }
+
+    public int size()
+    {
+        return cdf.length;
+    }
+
+    public double probability(int rank)
+    {
+        return rank == 0 ? cdf[0] : cdf[rank] - cdf[rank - 1];
+    }
+
+    public int sample(SplittableRandom random)
+    {
+        int idx = Arrays.binarySearch(cdf, random.nextDouble());
+        return idx >= 0 ? idx : -idx - 1;
+    }
+}
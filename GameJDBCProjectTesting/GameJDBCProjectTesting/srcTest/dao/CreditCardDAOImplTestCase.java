@@ -15,7 +15,9 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -88,6 +90,38 @@ public class CreditCardDAOImplTestCase
         }
     }
 
+    @Test
+    public void testCreateAll() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            CreditCardDAO dao = new CreditCardDAOImpl();
+
+            Long playerID = TestingUtil.getPlayerID(ds);
+            List<CreditCard> items = new ArrayList<CreditCard>();
+            for (int idx = 0; idx < 5; idx++) {
+                CreditCard cc = buildCreditCard();
+                cc.setPlayerID(playerID);
+                items.add(cc);
+            }
+            List<CreditCard> created = dao.createAll(connection, items, 2);
+            assertEquals(5, created.size());
+            for (CreditCard item : created) {
+                assertNotNull(item.getId());
+                assertNotNull(dao.retrieve(connection, item.getId()));
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     final static String selectSQL = "SELECT player_id, cc_name, cc_number, exp_date, security_code FROM creditcard where id = ?";
 
     @Test
@@ -173,6 +207,35 @@ public class CreditCardDAOImplTestCase
         }
     }
 
+    @Test
+    public void testRetrieveCreditCardsForPlayers() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            CreditCardDAO dao = new CreditCardDAOImpl();
+
+            List<Long> playerIDs = TestingUtil.getPlayerIDs(ds, 3);
+            Map<Long, List<CreditCard>> ccMap = dao.retrieveCreditCardsForPlayers(connection, playerIDs);
+            for (Long playerID : playerIDs) {
+                List<CreditCard> ccList = ccMap.get(playerID);
+                assertNotNull(ccList);
+                assertEquals(dao.retrieveCreditCardsForPlayer(connection, playerID).size(), ccList.size());
+                for (CreditCard cc : ccList) {
+                    assertEquals(playerID, cc.getPlayerID());
+                }
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     @Test
     public void testUpdate() throws Exception
     {
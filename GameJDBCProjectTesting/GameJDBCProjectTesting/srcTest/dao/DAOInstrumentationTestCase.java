@@ -0,0 +1,142 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.dao.GameDAO;
+import cs4347.jdbcGame.dao.impl.DAOInstrumentation;
+import cs4347.jdbcGame.dao.impl.DAOMethodMetrics;
+import cs4347.jdbcGame.dao.impl.GameDAOImpl;
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.DAOException;
+
+public class DAOInstrumentationTestCase
+{
+    @Test
+    public void testCallsRecorded() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            DAOInstrumentation.reset();
+            GameDAO dao = DAOInstrumentation.instrument(GameDAO.class, new GameDAOImpl());
+
+            Game game = dao.create(connection, buildGame());
+            dao.retrieve(connection, game.getId());
+            dao.retrieve(connection, game.getId());
+            try {
+                dao.update(connection, buildGame());
+                fail("update without an ID should fail");
+            } catch (DAOException ex) {
+                // The original exception reaches the caller.
+            }
+
+            DAOMethodMetrics retrieve = find("GameDAO.retrieve(Long)");
+            assertEquals(2, retrieve.getCalls());
+            assertEquals(2, retrieve.getRows());
+            assertEquals(0, retrieve.getErrors());
+            assertTrue(retrieve.getMaxMicros() >= retrieve.getP50Micros());
+
+            DAOMethodMetrics update = find("GameDAO.update(Game)");
+            assertEquals(1, update.getCalls());
+            assertEquals(1, update.getErrors());
+        }
+        finally {
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testSlowCallLogsSql() throws Exception
+    {
+        List<String> messages = new ArrayList<String>();
+        Handler handler = new Handler()
+        {
+            @Override
+            public void publish(LogRecord record)
+            {
+                messages.add(record.getMessage());
+            }
+
+            @Override
+            public void flush()
+            {
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+        Logger slowLog = Logger.getLogger("cs4347.jdbcGame.dao.slow");
+        long threshold = DAOInstrumentation.getSlowThreshold(TimeUnit.NANOSECONDS);
+
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        slowLog.addHandler(handler);
+        DAOInstrumentation.setSlowThreshold(0, TimeUnit.NANOSECONDS);
+        try {
+            GameDAO dao = DAOInstrumentation.instrument(GameDAO.class, new GameDAOImpl());
+            dao.retrieve(connection, 1L);
+
+            assertEquals(1, messages.size());
+            // Placeholders only: the ID passed in is not logged.
+            assertTrue(messages.get(0).contains("sql SELECT id, title, description, release_date, version FROM game where id = ?"));
+        }
+        finally {
+            DAOInstrumentation.setSlowThreshold(threshold, TimeUnit.NANOSECONDS);
+            slowLog.removeHandler(handler);
+            connection.close();
+        }
+    }
+
+    private static DAOMethodMetrics find(String method)
+    {
+        for (DAOMethodMetrics metrics : DAOInstrumentation.snapshot()) {
+            if (metrics.getMethod().equals(method)) {
+                return metrics;
+            }
+        }
+        fail("no metrics for " + method);
+        return null;
+    }
+
+    private Game buildGame()
+    {
+        Game result = new Game();
+        result.setTitle("Test Title");
+        result.setDescription("Test Description");
+        result.setReleaseDate(new Date());
+        result.setVersion("1.2.3");
+        return result;
+    }
+}
@@ -16,6 +16,7 @@ import static org.junit.Assert.assertNull;
 
 import java.sql.Connection;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -82,6 +83,35 @@ public class GameDAOImplTestCase
         }
     }
 
+    @Test
+    public void testCreateAll() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GameDAO dao = new GameDAOImpl();
+
+            List<Game> items = new ArrayList<Game>();
+            for (int idx = 0; idx < 5; idx++) {
+                items.add(buildGame());
+            }
+            List<Game> created = dao.createAll(connection, items, 2);
+            assertEquals(5, created.size());
+            for (Game item : created) {
+                assertNotNull(item.getId());
+                assertNotNull(dao.retrieve(connection, item.getId()));
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     @Test
     public void testRetrieve() throws Exception
     {
@@ -11,11 +11,13 @@
 package dao;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -79,6 +81,138 @@ public class GamesOwnedDAOImplTestCase
         }
     }
 
+    @Test
+    public void testCreateAll() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesOwnedDAO dao = new GamesOwnedDAOImpl();
+
+            Long playerID = TestingUtil.getPlayerID(ds);
+            List<GamesOwned> items = new ArrayList<GamesOwned>();
+            for (Long gameID : TestingUtil.getUnownedGameIDs(ds, playerID, 5)) {
+                items.add(buildGamesOwned(playerID, gameID));
+            }
+            List<GamesOwned> created = dao.createAll(connection, items, 2);
+            assertEquals(5, created.size());
+            for (GamesOwned item : created) {
+                assertNotNull(item.getId());
+                assertNotNull(dao.retrieveID(connection, item.getId()));
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testUpsert() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesOwnedDAO dao = new GamesOwnedDAOImpl();
+            int count = dao.count(connection);
+
+            GamesOwned go1 = dao.upsert(connection, buildGamesOwned(ds));
+            assertNotNull(go1.getId());
+            assertEquals(count + 1, dao.count(connection));
+
+            // Same player and game: the existing row is updated in place.
+            GamesOwned go2 = buildGamesOwned(go1.getPlayerID(), go1.getGameID());
+            go2.setPurchasePrice(42.0f);
+            dao.upsert(connection, go2);
+            assertEquals(go1.getId(), go2.getId());
+            assertEquals(count + 1, dao.count(connection));
+
+            GamesOwned go3 = dao.retrieveID(connection, go1.getId());
+            assertEquals(42.0f, go3.getPurchasePrice(), 0.001f);
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testInsertIfAbsent() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesOwnedDAO dao = new GamesOwnedDAOImpl();
+            int count = dao.count(connection);
+
+            GamesOwned go1 = buildGamesOwned(ds);
+            assertTrue(dao.insertIfAbsent(connection, go1));
+            assertNotNull(go1.getId());
+            assertEquals(count + 1, dao.count(connection));
+
+            // The same values again: found-rows reporting would call this an insert.
+            GamesOwned go2 = buildGamesOwned(go1.getPlayerID(), go1.getGameID());
+            assertFalse(dao.insertIfAbsent(connection, go2));
+            assertNull(go2.getId());
+
+            GamesOwned go3 = buildGamesOwned(go1.getPlayerID(), go1.getGameID());
+            go3.setPurchasePrice(go1.getPurchasePrice() + 1.0f);
+            assertFalse(dao.insertIfAbsent(connection, go3));
+            assertEquals(count + 1, dao.count(connection));
+            assertEquals(go1.getPurchasePrice(), dao.retrieveID(connection, go1.getId()).getPurchasePrice(), 0.001f);
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testUpsertAll() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesOwnedDAO dao = new GamesOwnedDAOImpl();
+            int count = dao.count(connection);
+
+            Long playerID = TestingUtil.getPlayerID(ds);
+            List<Long> gameIDs = TestingUtil.getUnownedGameIDs(ds, playerID, 2);
+            List<GamesOwned> items = new ArrayList<GamesOwned>();
+            items.add(buildGamesOwned(playerID, gameIDs.get(0)));
+            items.add(buildGamesOwned(playerID, gameIDs.get(1)));
+            GamesOwned repeat = buildGamesOwned(playerID, gameIDs.get(0));
+            repeat.setPurchasePrice(7.0f);
+            items.add(repeat);
+
+            dao.upsertAll(connection, items, 2);
+            assertEquals(count + 2, dao.count(connection));
+
+            GamesOwned go1 = dao.retrievePlayerGameID(connection, playerID, gameIDs.get(0));
+            assertEquals(7.0f, go1.getPurchasePrice(), 0.001f);
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     @Test
     public void testRetrieveID() throws Exception
     {
@@ -286,8 +420,6 @@ public class GamesOwnedDAOImplTestCase
             GamesOwnedDAO dao = new GamesOwnedDAOImpl();
 
             GamesOwned go1 = buildGamesOwned(ds);
-            go1.setPlayerID(TestingUtil.getPlayerID(ds));
-            go1.setGameID(TestingUtil.getGameID(ds));
 
             GamesOwned go2 = dao.create(connection, go1);
             Long id = go2.getId();
@@ -324,8 +456,6 @@ public class GamesOwnedDAOImplTestCase
         try {
             GamesOwnedDAO dao = new GamesOwnedDAOImpl();
             GamesOwned go1 = buildGamesOwned(ds);
-            go1.setPlayerID(TestingUtil.getPlayerID(ds));
-            go1.setGameID(TestingUtil.getGameID(ds));
 
             GamesOwned go2 = dao.create(connection, go1);
             Long id = go2.getId();
@@ -361,12 +491,16 @@ public class GamesOwnedDAOImplTestCase
         }
     }
 
-    // Initializes a new GameOwned include valid player and game ids.
+    // Initializes a new GameOwned for a game the player does not own yet.
     private GamesOwned buildGamesOwned(DataSource ds) throws Exception
     {
         Long playerID = TestingUtil.getPlayerID(ds);
-        Long gameID = TestingUtil.getGameID(ds);
+        Long gameID = TestingUtil.getUnownedGameIDs(ds, playerID, 1).get(0);
+        return buildGamesOwned(playerID, gameID);
+    }
 
+    private GamesOwned buildGamesOwned(Long playerID, Long gameID)
+    {
         GamesOwned go = new GamesOwned();
         go.setGameID(gameID);
         go.setPlayerID(playerID);
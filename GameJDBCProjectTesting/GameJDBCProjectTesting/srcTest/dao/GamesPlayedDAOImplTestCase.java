@@ -16,16 +16,24 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
 import org.junit.Test;
 
 import cs4347.jdbcGame.dao.GamesPlayedDAO;
+import cs4347.jdbcGame.dao.Page;
 import cs4347.jdbcGame.dao.impl.GamesPlayedDAOImpl;
 import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.GamesPlayedColumns;
 import cs4347.jdbcGame.testing.DataSourceManager;
 import cs4347.jdbcGame.util.DAOException;
 import cs4347.jdbcGame.util.TestingUtil;
@@ -80,6 +88,35 @@ public class GamesPlayedDAOImplTestCase
         }
     }
 
+    @Test
+    public void testCreateAll() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesPlayedDAO dao = new GamesPlayedDAOImpl();
+
+            List<GamesPlayed> items = new ArrayList<GamesPlayed>();
+            for (int idx = 0; idx < 5; idx++) {
+                items.add(buildGamesPlayed(ds));
+            }
+            List<GamesPlayed> created = dao.createAll(connection, items, 2);
+            assertEquals(5, created.size());
+            for (GamesPlayed item : created) {
+                assertNotNull(item.getId());
+                assertNotNull(dao.retrieveID(connection, item.getId()));
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     @Test
     public void testRetrieveID() throws Exception
     {
@@ -208,6 +245,59 @@ public class GamesPlayedDAOImplTestCase
 
     }
 
+    @Test
+    public void testRetrieveByPlayerPaged() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            GamesPlayedDAO dao = new GamesPlayedDAOImpl();
+            Long playerID = TestingUtil.getPlayerID(ds);
+            for (int idx = 0; idx < 5; idx++) {
+                dao.create(connection, buildGamesPlayed(ds));
+            }
+            int expected = dao.retrieveByPlayer(connection, playerID).size();
+
+            Set<Long> seen = new HashSet<Long>();
+            long lastID = 0;
+            String pageToken = null;
+            do {
+                Page<GamesPlayed> page = dao.retrieveByPlayer(connection, playerID, pageToken, 2);
+                assertTrue(page.getItems().size() <= 2);
+                for (GamesPlayed gp : page.getItems()) {
+                    assertEquals(playerID, gp.getPlayerID());
+                    assertTrue(gp.getId() > lastID);
+                    lastID = gp.getId();
+                    seen.add(gp.getId());
+                }
+                pageToken = page.getNextPageToken();
+            } while (pageToken != null);
+            assertEquals(expected, seen.size());
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
+    @Test(expected = DAOException.class)
+    public void testRetrieveByPlayerPagedBadToken() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        try {
+            GamesPlayedDAO dao = new GamesPlayedDAOImpl();
+            dao.retrieveByPlayer(connection, TestingUtil.getPlayerID(ds), "not a token!", 10);
+        }
+        finally {
+            connection.close();
+        }
+    }
+
     @Test
     public void testRetrieveByPlayerFailed() throws Exception
     {
@@ -257,6 +347,38 @@ public class GamesPlayedDAOImplTestCase
         }
     }
 
+    @Test
+    public void testRetrieveColumnsByGame() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        try {
+            GamesPlayedDAO dao = new GamesPlayedDAOImpl();
+            Long playerID = TestingUtil.getPlayerID(ds);
+            Long gameID = TestingUtil.retrieveGamesPlayedForPlayer(ds, playerID).get(0);
+
+            List<GamesPlayed> expected = dao.retrieveByGame(connection, gameID);
+            GamesPlayedColumns columns = dao.retrieveColumnsByGame(connection, gameID);
+            assertEquals(expected.size(), columns.size());
+            assertEquals(expected.size(), columns.getIds().length);
+
+            Map<Long, Integer> rowOf = new HashMap<Long, Integer>();
+            for (int row = 0; row < columns.size(); row++) {
+                assertEquals(gameID.longValue(), columns.getGameIDs()[row]);
+                rowOf.put(columns.getIds()[row], row);
+            }
+            for (GamesPlayed gp : expected) {
+                GamesPlayed actual = columns.toEntity(rowOf.get(gp.getId()));
+                assertEquals(gp.getPlayerID(), actual.getPlayerID());
+                assertEquals(gp.getScore(), actual.getScore());
+                assertEquals(String.valueOf(gp.getTimeFinished()), String.valueOf(actual.getTimeFinished()));
+            }
+        }
+        finally {
+            connection.close();
+        }
+    }
+
     @Test
     public void testRetrieveByGameFailed() throws Exception
     {
@@ -280,6 +402,35 @@ public class GamesPlayedDAOImplTestCase
         }
     }
 
+    @Test
+    public void testStreamByGame() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        // Cursor fetch is only enabled on the streaming pool.
+        Connection connection = DataSourceManager.getStreamingDataSource().getConnection();
+        try {
+            GamesPlayedDAO dao = new GamesPlayedDAOImpl();
+            Long playerID = TestingUtil.getPlayerID(ds);
+            Long gameID = TestingUtil.retrieveGamesPlayedForPlayer(ds, playerID).get(0);
+
+            List<GamesPlayed> expected = dao.retrieveByGame(connection, gameID);
+            // A fetch size of 1 forces a round trip per row.
+            try (Stream<GamesPlayed> stream = dao.streamByGame(connection, gameID, 1)) {
+                List<GamesPlayed> streamed = new ArrayList<GamesPlayed>();
+                stream.forEach(streamed::add);
+                assertEquals(expected.size(), streamed.size());
+                for (GamesPlayed gp : streamed) {
+                    assertEquals(gameID, gp.getGameID());
+                }
+            }
+            // The connection remains usable after the stream is closed.
+            assertTrue(dao.count(connection) > 0);
+        }
+        finally {
+            connection.close();
+        }
+    }
+
     @Test
     public void testUpdate() throws Exception
     {
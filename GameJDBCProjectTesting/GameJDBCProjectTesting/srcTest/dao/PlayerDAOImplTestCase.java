@@ -17,6 +17,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.sql.Connection;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -24,6 +25,7 @@ import javax.sql.DataSource;
 
 import org.junit.Test;
 
+import cs4347.jdbcGame.dao.Page;
 import cs4347.jdbcGame.dao.PlayerDAO;
 import cs4347.jdbcGame.dao.impl.PlayerDAOImpl;
 import cs4347.jdbcGame.entity.Player;
@@ -79,6 +81,35 @@ public class PlayerDAOImplTestCase
         }
     }
 
+    @Test
+    public void testCreateAll() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            PlayerDAO dao = new PlayerDAOImpl();
+
+            List<Player> items = new ArrayList<Player>();
+            for (int idx = 0; idx < 5; idx++) {
+                items.add(buildPlayer());
+            }
+            List<Player> created = dao.createAll(connection, items, 2);
+            assertEquals(5, created.size());
+            for (Player item : created) {
+                assertNotNull(item.getId());
+                assertNotNull(dao.retrieve(connection, item.getId()));
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     @Test
     public void testRetrieve() throws Exception
     {
@@ -110,6 +141,38 @@ public class PlayerDAOImplTestCase
         }
     }
 
+    @Test
+    public void testRetrieveAll() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        // Do not commit any changes made by this test.
+        connection.setAutoCommit(false);
+        try {
+            PlayerDAO dao = new PlayerDAOImpl();
+
+            List<Long> ids = new ArrayList<Long>();
+            for (int idx = 0; idx < 3; idx++) {
+                ids.add(dao.create(connection, buildPlayer()).getId());
+            }
+            // Duplicate and unknown IDs are ignored.
+            ids.add(ids.get(0));
+            ids.add(-1L);
+
+            List<Player> players = dao.retrieveAll(connection, ids);
+            assertEquals(3, players.size());
+            for (Player player : players) {
+                assertTrue(ids.contains(player.getId()));
+            }
+        }
+        finally {
+            // Do not commit changes made by this test.
+            connection.rollback();
+            connection.setAutoCommit(true);
+            connection.close();
+        }
+    }
+
     @Test
     public void testRetrieveFail() throws Exception
     {
@@ -247,6 +310,40 @@ public class PlayerDAOImplTestCase
         }
     }
 
+    @Test
+    public void testRetrieveByJoinDatePaged() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        try {
+            PlayerDAO dao = new PlayerDAOImpl();
+            Date startDate = sdf.parse("1/1/2017");
+            Date endDate = sdf.parse("1/1/2019");
+            int expected = dao.retrieveByJoinDate(connection, startDate, endDate).size();
+
+            int total = 0;
+            Player previous = null;
+            String pageToken = null;
+            do {
+                Page<Player> page = dao.retrieveByJoinDate(connection, startDate, endDate, pageToken, 50);
+                for (Player player : page.getItems()) {
+                    // Ordered by (join_date, id) across page boundaries.
+                    if (previous != null) {
+                        int byDate = player.getJoinDate().compareTo(previous.getJoinDate());
+                        assertTrue(byDate > 0 || (byDate == 0 && player.getId() > previous.getId()));
+                    }
+                    previous = player;
+                }
+                total += page.getItems().size();
+                pageToken = page.getNextPageToken();
+            } while (pageToken != null);
+            assertEquals(expected, total);
+        }
+        finally {
+            connection.close();
+        }
+    }
+
     private Player buildPlayer()
     {
         Player p = new Player();
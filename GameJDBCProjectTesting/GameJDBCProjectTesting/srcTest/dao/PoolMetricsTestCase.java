@@ -0,0 +1,78 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.testing.MonitoredDataSource;
+import cs4347.jdbcGame.testing.PoolMetrics;
+
+public class PoolMetricsTestCase
+{
+    @Test
+    public void testConfigurePool() throws Exception
+    {
+        Properties props = new Properties();
+        props.setProperty("maxTotal", "12");
+        props.setProperty("minIdle", " 3 ");
+        props.setProperty("maxWaitMillis", "2500");
+        props.setProperty("testWhileIdle", "true");
+        props.setProperty("validationQuery", "SELECT 1");
+
+        MonitoredDataSource ds = new MonitoredDataSource();
+        DataSourceManager.configurePool(ds, props);
+        try {
+            assertEquals(12, ds.getMaxTotal());
+            assertEquals(3, ds.getMinIdle());
+            assertEquals(2500L, ds.getMaxWaitMillis());
+            assertTrue(ds.getTestWhileIdle());
+            assertEquals("SELECT 1", ds.getValidationQuery());
+        }
+        finally {
+            ds.close();
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testConfigurePoolRejectsBadValue() throws Exception
+    {
+        Properties props = new Properties();
+        props.setProperty("maxTotal", "many");
+        DataSourceManager.configurePool(new MonitoredDataSource(), props);
+    }
+
+    @Test
+    public void testBorrowIsCounted() throws Exception
+    {
+        DataSourceManager.getDataSource();
+        PoolMetrics before = DataSourceManager.getPoolMetrics();
+
+        Connection connection = DataSourceManager.getDataSource().getConnection();
+        try {
+            PoolMetrics during = DataSourceManager.getPoolMetrics();
+            assertTrue(during.getNumActive() >= 1);
+            assertEquals(before.getBorrowedCount() + 1, during.getBorrowedCount());
+        }
+        finally {
+            connection.close();
+        }
+
+        PoolMetrics after = DataSourceManager.getPoolMetrics();
+        assertTrue(after.getReturnedCount() > before.getReturnedCount());
+    }
+}
@@ -0,0 +1,126 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.StatementCache;
+
+public class StatementCacheTestCase
+{
+    final static String selectGameSQL = "select id from game where id = ?";
+    final static String selectPlayerSQL = "select id from player where id = ?";
+    final static String countGameSQL = "select count(*) from game";
+
+    @Test
+    public void testReuseOnSameConnection() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        try {
+            StatementCache cache = new StatementCache(8);
+
+            PreparedStatement ps1 = cache.prepare(connection, selectGameSQL);
+            cache.release(ps1);
+            PreparedStatement ps2 = cache.prepare(connection, selectGameSQL);
+            cache.release(ps2);
+
+            assertSame(ps1, ps2);
+            assertEquals(1, cache.getHitCount());
+            assertEquals(1, cache.getMissCount());
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testBusyStatementNotShared() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        try {
+            StatementCache cache = new StatementCache(8);
+
+            PreparedStatement ps1 = cache.prepare(connection, selectGameSQL);
+            PreparedStatement ps2 = cache.prepare(connection, selectGameSQL);
+            assertNotSame(ps1, ps2);
+
+            // The uncached statement is closed on release, the cached one is kept.
+            cache.release(ps2);
+            assertTrue(ps2.isClosed());
+            cache.release(ps1);
+            assertTrue(!ps1.isClosed());
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        try {
+            StatementCache cache = new StatementCache(2);
+
+            PreparedStatement ps1 = cache.prepare(connection, selectGameSQL);
+            cache.release(ps1);
+            PreparedStatement ps2 = cache.prepare(connection, selectPlayerSQL);
+            cache.release(ps2);
+            PreparedStatement ps3 = cache.prepare(connection, countGameSQL);
+            cache.release(ps3);
+
+            assertEquals(1, cache.getEvictionCount());
+            assertTrue(ps1.isClosed());
+            assertTrue(!ps3.isClosed());
+        }
+        finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void testCloseAllBeforeReturningConnection() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        Connection connection = ds.getConnection();
+        try {
+            StatementCache cache = new StatementCache(8);
+
+            PreparedStatement ps1 = cache.prepare(connection, selectGameSQL);
+            cache.release(ps1);
+            cache.closeAll(connection);
+            assertTrue(ps1.isClosed());
+
+            // The connection starts over with an empty cache.
+            PreparedStatement ps2 = cache.prepare(connection, selectGameSQL);
+            cache.release(ps2);
+            assertNotSame(ps1, ps2);
+            assertEquals(2, cache.getMissCount());
+        }
+        finally {
+            connection.close();
+        }
+    }
+}
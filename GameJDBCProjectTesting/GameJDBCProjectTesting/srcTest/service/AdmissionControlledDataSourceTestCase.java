@@ -0,0 +1,69 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.AdmissionControlledDataSource;
+
+public class AdmissionControlledDataSourceTestCase
+{
+    @Test
+    public void testPermitReturnedOnClose() throws Exception
+    {
+        AdmissionControlledDataSource ds = new AdmissionControlledDataSource(DataSourceManager.getDataSource(), 1,
+                0, 1, TimeUnit.SECONDS);
+
+        Connection c1 = ds.getConnection();
+        assertEquals(0, ds.getAvailablePermits());
+        try {
+            // With no waiters allowed the second caller is turned away at once.
+            ds.getConnection().close();
+            fail("second connection should be rejected");
+        } catch (SQLTransientConnectionException ex) {
+            assertEquals(1, ds.getRejectedCount());
+        }
+
+        c1.close();
+        c1.close();
+        assertEquals(1, ds.getAvailablePermits());
+        ds.getConnection().close();
+        assertEquals(2, ds.getAdmittedCount());
+    }
+
+    @Test
+    public void testWaitTimesOut() throws Exception
+    {
+        AdmissionControlledDataSource ds = new AdmissionControlledDataSource(DataSourceManager.getDataSource(), 1,
+                10, 50, TimeUnit.MILLISECONDS);
+
+        try (Connection c1 = ds.getConnection()) {
+            long start = System.nanoTime();
+            try {
+                ds.getConnection().close();
+                fail("second connection should time out");
+            } catch (SQLTransientConnectionException ex) {
+                assertEquals(1, ds.getRejectedCount());
+            }
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        }
+        assertEquals(1, ds.getAvailablePermits());
+    }
+}
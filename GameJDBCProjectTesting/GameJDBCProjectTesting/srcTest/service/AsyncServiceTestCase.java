@@ -0,0 +1,129 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.services.AsyncGameService;
+import cs4347.jdbcGame.services.AsyncPlayerService;
+import cs4347.jdbcGame.services.CountMode;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.impl.AsyncGameServiceImpl;
+import cs4347.jdbcGame.services.impl.AsyncPlayerServiceImpl;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.services.impl.PlayerServiceImpl;
+import cs4347.jdbcGame.services.impl.ServiceExecutors;
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.DAOException;
+
+public class AsyncServiceTestCase
+{
+    @Test
+    public void testFanOut() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        GameService gameService = new GameServiceImpl(dataSource);
+        ExecutorService executor = ServiceExecutors.newBoundedExecutor(4);
+        try {
+            AsyncGameService asyncGames = new AsyncGameServiceImpl(gameService, executor);
+            AsyncPlayerService asyncPlayers = new AsyncPlayerServiceImpl(new PlayerServiceImpl(dataSource), executor);
+
+            Game g1 = gameService.create(buildGame());
+            CompletableFuture<Game> game = asyncGames.retrieve(g1.getId());
+            CompletableFuture<Integer> games = asyncGames.count(CountMode.TRACKED);
+            CompletableFuture<Integer> players = asyncPlayers.count(CountMode.TRACKED);
+            CompletableFuture.allOf(game, games, players).join();
+
+            assertEquals(g1.getTitle(), game.join().getTitle());
+            assertTrue(games.join() > 0);
+            assertTrue(players.join() >= 0);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailure() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        ExecutorService executor = ServiceExecutors.newBoundedExecutor(1);
+        try {
+            AsyncGameService asyncGames = new AsyncGameServiceImpl(new GameServiceImpl(dataSource), executor);
+            try {
+                // Update requires an ID.
+                asyncGames.update(buildGame()).get();
+                fail("update without an ID should fail");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof DAOException);
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectedWhenQueueFull() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        ExecutorService executor = ServiceExecutors.newBoundedExecutor(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // Occupy the only thread and the only queue slot.
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            executor.execute(() -> {
+            });
+
+            AsyncGameService asyncGames = new AsyncGameServiceImpl(new GameServiceImpl(dataSource), executor);
+            try {
+                asyncGames.retrieve(1L).get();
+                fail("a full queue should reject the call");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof RejectedExecutionException);
+            }
+        }
+        finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private Game buildGame()
+    {
+        Game result = new Game();
+        result.setTitle("Test Title");
+        result.setDescription("Test Description");
+        result.setReleaseDate(new Date());
+        result.setVersion("1.2.3");
+        return result;
+    }
+}
@@ -0,0 +1,104 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.testing.CsvPipeline;
+
+public class CsvPipelineTestCase
+{
+    @Test
+    public void testStreamsInOrder() throws Exception
+    {
+        File file = writeLines(2500);
+        try {
+            List<Long> seen = new ArrayList<Long>();
+            List<Integer> batchSizes = new ArrayList<Integer>();
+            CsvPipeline<Long> pipeline = new CsvPipeline<Long>(1000, 1);
+            long count = pipeline.run(file, line -> Long.valueOf(line), batch -> {
+                batchSizes.add(batch.size());
+                seen.addAll(batch);
+            });
+
+            assertEquals(2500, count);
+            assertEquals(2500, seen.size());
+            for (int idx = 0; idx < seen.size(); idx++) {
+                assertEquals(Long.valueOf(idx), seen.get(idx));
+            }
+            assertEquals(3, batchSizes.size());
+            assertEquals(Integer.valueOf(500), batchSizes.get(2));
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testParserFailureStopsPipeline() throws Exception
+    {
+        File file = writeLines(10000);
+        try {
+            CsvPipeline<Long> pipeline = new CsvPipeline<Long>(100, 2);
+            pipeline.run(file, line -> {
+                if (line.equals("5000")) {
+                    throw new IllegalStateException("bad line " + line);
+                }
+                return Long.valueOf(line);
+            }, batch -> {
+            });
+            fail("parser failure was not reported");
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage().contains("5000"));
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testHandlerFailureStopsPipeline() throws Exception
+    {
+        File file = writeLines(10000);
+        try {
+            CsvPipeline<Long> pipeline = new CsvPipeline<Long>(100, 2);
+            pipeline.run(file, line -> Long.valueOf(line), batch -> {
+                throw new IllegalStateException("insert failed");
+            });
+            fail("handler failure was not reported");
+        } catch (IllegalStateException ex) {
+            assertEquals("insert failed", ex.getMessage());
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    private File writeLines(int count) throws Exception
+    {
+        File file = File.createTempFile("pipeline", ".csv");
+        PrintWriter out = new PrintWriter(file);
+        for (int idx = 0; idx < count; idx++) {
+            out.println(idx);
+        }
+        out.close();
+        return file;
+    }
+}
@@ -0,0 +1,81 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.impl.DateRangeIndexImpl;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.testing.DataSourceManager;
+
+public class DateRangeIndexTestCase
+{
+    @Test
+    public void testReleaseDateRangeFollowsChanges() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GameService gameService = new GameServiceImpl(ds);
+        DateRangeIndexImpl<Game> index = DateRangeIndexImpl.forReleaseDates(ds, gameService);
+
+        // Dates far enough out that no other game is released in between.
+        Date start = java.sql.Date.valueOf("2991-03-01");
+        Date end = java.sql.Date.valueOf("2991-03-31");
+        Game first = gameService.create(buildGame(java.sql.Date.valueOf("2991-03-10")));
+        Game second = null;
+        try {
+            // The first query loads the index, and agrees with the DAO.
+            List<Game> found = index.retrieveBetween(start, end);
+            assertEquals(gameService.retrieveByReleaseDate(start, end).size(), found.size());
+            assertEquals(1, found.size());
+            assertEquals(first.getId(), found.get(0).getId());
+
+            // Later changes are applied incrementally, oldest first.
+            second = gameService.create(buildGame(java.sql.Date.valueOf("2991-03-02")));
+            found = index.retrieveBetween(start, end);
+            assertEquals(2, found.size());
+            assertEquals(second.getId(), found.get(0).getId());
+
+            first.setReleaseDate(java.sql.Date.valueOf("2991-04-01"));
+            gameService.update(first);
+            assertEquals(1, index.countBetween(start, end));
+
+            gameService.delete(second.getId());
+            second = null;
+            assertEquals(0, index.countBetween(start, end));
+            assertEquals(1, index.countBetween(start, java.sql.Date.valueOf("2991-04-01")));
+        }
+        finally {
+            if (second != null) {
+                gameService.delete(second.getId());
+            }
+            gameService.delete(first.getId());
+        }
+    }
+
+    private Game buildGame(Date releaseDate)
+    {
+        Game game = new Game();
+        game.setTitle("Date Index Test Game");
+        game.setDescription("Date Index Test Description");
+        game.setReleaseDate(releaseDate);
+        game.setVersion("1.0");
+        return game;
+    }
+}
@@ -0,0 +1,174 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.util.EntityCache;
+
+public class EntityCacheTestCase
+{
+    @Test
+    public void testReadThrough() throws Exception
+    {
+        EntityCache<Long, String> cache = new EntityCache<Long, String>(10, 1, TimeUnit.MINUTES);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("1", cache.get(1L, key -> load(key, loads)));
+        assertEquals("1", cache.get(1L, key -> load(key, loads)));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    public void testNullNotCached() throws Exception
+    {
+        EntityCache<Long, String> cache = new EntityCache<Long, String>(10, 1, TimeUnit.MINUTES);
+
+        assertNull(cache.get(1L, key -> null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidate() throws Exception
+    {
+        EntityCache<Long, String> cache = new EntityCache<Long, String>(10, 1, TimeUnit.MINUTES);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, key -> load(key, loads));
+        cache.invalidate(1L);
+        cache.get(1L, key -> load(key, loads));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testLoadOverlappingInvalidateNotCached() throws Exception
+    {
+        EntityCache<Long, String> cache = new EntityCache<Long, String>(10, 1, TimeUnit.MINUTES);
+
+        cache.get(1L, key -> {
+            // Simulates an update committed while the row was being read.
+            cache.invalidate(key);
+            return "stale";
+        });
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidateBetweenLoadAndPublish() throws Exception
+    {
+        EntityCache<PausingKey, Integer> cache = new EntityCache<PausingKey, Integer>(10, 1, TimeUnit.MINUTES);
+        AtomicInteger row = new AtomicInteger(1);
+        PausingKey key = new PausingKey();
+
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> read = reader.submit(() -> cache.get(key, k -> {
+                // Pause the reader when it next hashes the key, i.e. when it
+                // publishes the value it has just loaded.
+                k.pauseNextHash();
+                return row.get();
+            }));
+            assertTrue(key.paused.await(10, TimeUnit.SECONDS));
+
+            // An update committed after the read but before the publish.
+            row.set(2);
+            cache.invalidate(key);
+            key.resume.countDown();
+
+            assertEquals(1, (int) read.get(10, TimeUnit.SECONDS));
+            assertEquals(0, cache.size());
+            assertEquals(2, (int) cache.get(key, k -> row.get()));
+        }
+        finally {
+            reader.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExpiration() throws Exception
+    {
+        EntityCache<Long, String> cache = new EntityCache<Long, String>(10, 1, TimeUnit.MILLISECONDS);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, key -> load(key, loads));
+        Thread.sleep(5);
+        cache.get(1L, key -> load(key, loads));
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getExpirationCount());
+    }
+
+    @Test
+    public void testSizeBound() throws Exception
+    {
+        EntityCache<Long, String> cache = new EntityCache<Long, String>(3, 1, TimeUnit.MINUTES);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (long id = 1; id <= 5; id++) {
+            cache.get(id, key -> load(key, loads));
+        }
+        assertEquals(3, cache.size());
+        assertEquals(2, cache.getEvictionCount());
+
+        // The oldest entries were evicted first.
+        cache.get(5L, key -> load(key, loads));
+        assertEquals(5, loads.get());
+        cache.get(1L, key -> load(key, loads));
+        assertEquals(6, loads.get());
+    }
+
+    // Key whose hashCode blocks once in the thread that armed it.
+    private static class PausingKey
+    {
+        private final CountDownLatch paused = new CountDownLatch(1);
+        private final CountDownLatch resume = new CountDownLatch(1);
+        private volatile Thread armed;
+
+        void pauseNextHash()
+        {
+            armed = Thread.currentThread();
+        }
+
+        @Override
+        public int hashCode()
+        {
+            if (armed == Thread.currentThread()) {
+                armed = null;
+                paused.countDown();
+                try {
+                    resume.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return 1;
+        }
+    }
+
+    private static String load(Long key, AtomicInteger loads)
+    {
+        loads.incrementAndGet();
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,109 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.GamesOwnedService;
+import cs4347.jdbcGame.services.impl.GameAutocompleteServiceImpl;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.TestingUtil;
+
+public class GameAutocompleteServiceImplTestCase
+{
+    @Test
+    public void testCompletionsFollowPopularityAndChanges() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GameService gameService = new GameServiceImpl(ds);
+        GamesOwnedService goService = new GamesOwnedServiceImpl(ds);
+        GameAutocompleteServiceImpl autocomplete = new GameAutocompleteServiceImpl(ds, gameService);
+
+        // A prefix unlikely to start any other title.
+        String tag = "Zq" + System.nanoTime();
+        Game rare = gameService.create(buildGame(tag + " Alpha"));
+        Game popular = gameService.create(buildGame(tag + " Beta"));
+        List<Long> playerIDs = TestingUtil.getPlayerIDs(ds, 2);
+        List<GamesOwned> purchases = new ArrayList<GamesOwned>();
+        Game added = null;
+        try {
+            for (Long playerID : playerIDs) {
+                purchases.add(goService.create(buildGamesOwned(playerID, popular.getId())));
+            }
+
+            // The first query loads titles and owned counts.
+            List<Game> found = autocomplete.complete(tag.toLowerCase(), 10);
+            assertEquals(2, found.size());
+            assertEquals(popular.getId(), found.get(0).getId());
+            assertEquals(rare.getId(), found.get(1).getId());
+            assertEquals(1, autocomplete.complete(tag, 1).size());
+            assertEquals(rare.getId(), autocomplete.complete(tag + " a", 10).get(0).getId());
+
+            // Later title changes are applied incrementally.
+            added = gameService.create(buildGame(tag + " Gamma"));
+            assertEquals(3, autocomplete.complete(tag, 10).size());
+
+            rare.setTitle(tag + " Renamed");
+            gameService.update(rare);
+            assertTrue(autocomplete.complete(tag + " a", 10).isEmpty());
+            assertEquals(rare.getId(), autocomplete.complete(tag + " r", 10).get(0).getId());
+
+            gameService.delete(added.getId());
+            added = null;
+            assertEquals(2, autocomplete.complete(tag, 10).size());
+        }
+        finally {
+            autocomplete.close();
+            for (GamesOwned go : purchases) {
+                goService.delete(go.getId());
+            }
+            if (added != null) {
+                gameService.delete(added.getId());
+            }
+            gameService.delete(rare.getId());
+            gameService.delete(popular.getId());
+        }
+    }
+
+    private Game buildGame(String title)
+    {
+        Game game = new Game();
+        game.setTitle(title);
+        game.setDescription("Autocomplete Test Description");
+        game.setReleaseDate(new Date());
+        game.setVersion("1.0");
+        return game;
+    }
+
+    private GamesOwned buildGamesOwned(Long playerID, Long gameID)
+    {
+        GamesOwned go = new GamesOwned();
+        go.setPlayerID(playerID);
+        go.setGameID(gameID);
+        go.setPurchaseDate(new Date());
+        go.setPurchasePrice(9.99f);
+        return go;
+    }
+}
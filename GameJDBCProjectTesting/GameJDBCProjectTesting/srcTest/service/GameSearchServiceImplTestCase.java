@@ -0,0 +1,86 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.impl.GameSearchServiceImpl;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.testing.DataSourceManager;
+
+public class GameSearchServiceImplTestCase
+{
+    @Test
+    public void testSearchFollowsChanges() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GameService gameService = new GameServiceImpl(ds);
+        GameSearchServiceImpl search = new GameSearchServiceImpl(ds, gameService);
+
+        // Words unlikely to appear in any other game.
+        String tag = "Zq" + System.nanoTime();
+        Game first = gameService.create(buildGame(tag + " Quarxel Odyssey", "A voyage past Vrelnik"));
+        Game second = null;
+        try {
+            // The first query loads the index from the database.
+            List<Game> found = search.searchByTitlePrefix(tag.toLowerCase() + " quar", 10);
+            assertEquals(1, found.size());
+            assertEquals(first.getId(), found.get(0).getId());
+            found = search.searchByTitleSubstring("arxel odys", 10);
+            assertEquals(first.getId(), found.get(0).getId());
+
+            // Later changes are applied incrementally. A title match
+            // outranks a description match.
+            second = gameService.create(buildGame(tag + " Vrelnik Tactics", "Not a Quarxel story"));
+            found = search.search("vrelnik", 10);
+            assertEquals(2, found.size());
+            assertEquals(second.getId(), found.get(0).getId());
+            assertEquals(first.getId(), found.get(1).getId());
+
+            first.setTitle(tag + " Renamed");
+            gameService.update(first);
+            assertTrue(search.searchByTitleSubstring("arxel odys", 10).isEmpty());
+            assertEquals(2, search.searchByTitlePrefix(tag, 10).size());
+
+            gameService.delete(second.getId());
+            second = null;
+            found = search.search(tag, 10);
+            assertEquals(1, found.size());
+            assertEquals(first.getId(), found.get(0).getId());
+        }
+        finally {
+            if (second != null) {
+                gameService.delete(second.getId());
+            }
+            gameService.delete(first.getId());
+        }
+    }
+
+    private Game buildGame(String title, String description)
+    {
+        Game game = new Game();
+        game.setTitle(title);
+        game.setDescription(description);
+        game.setReleaseDate(new Date());
+        game.setVersion("1.0");
+        return game;
+    }
+}
@@ -23,7 +23,9 @@ import javax.sql.DataSource;
 
 import org.junit.Test;
 
+import cs4347.jdbcGame.dao.Page;
 import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.services.CountMode;
 import cs4347.jdbcGame.services.GameService;
 import cs4347.jdbcGame.services.impl.GameServiceImpl;
 import cs4347.jdbcGame.testing.DataSourceManager;
@@ -105,6 +107,29 @@ public class GameServiceImplTestCase
         // Note: This number is tied to the data generated by populateTables. 
         assertEquals(36, gameList.size());
     }
+
+    @Test
+    public void testRetrieveByReleaseDatePaged() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        GameService gameService = new GameServiceImpl(dataSource);
+
+        Date startDate = sdf.parse("1/1/2005");
+        Date endDate = sdf.parse("1/1/2010");
+
+        int total = 0;
+        int pages = 0;
+        String pageToken = null;
+        do {
+            Page<Game> page = gameService.retrieveByReleaseDate(startDate, endDate, pageToken, 10);
+            total += page.getItems().size();
+            pages++;
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null);
+        // Note: This number is tied to the data generated by populateTables.
+        assertEquals(36, total);
+        assertEquals(4, pages);
+    }
     
     @Test
     public void testUpdate() throws Exception
@@ -158,6 +183,50 @@ public class GameServiceImplTestCase
         assertTrue(count > 0);
     }
 
+    @Test
+    public void testCountTracksWrites() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        GameService gameService = new GameServiceImpl(dataSource);
+
+        int before = gameService.count(CountMode.TRACKED);
+        Game g1 = gameService.create(buildGame());
+        assertEquals(before + 1, gameService.count(CountMode.TRACKED));
+        gameService.delete(g1.getId());
+        assertEquals(before, gameService.count(CountMode.TRACKED));
+        assertTrue(gameService.count(CountMode.APPROXIMATE) >= 0);
+    }
+
+    @Test
+    public void testRetrieveCached() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        GameServiceImpl gameService = new GameServiceImpl(dataSource);
+
+        Game g1 = gameService.create(buildGame());
+        Game g2 = gameService.retrieve(g1.getId());
+        Game g3 = gameService.retrieve(g1.getId());
+        assertEquals(1, gameService.getCache().getMissCount());
+        assertEquals(1, gameService.getCache().getHitCount());
+        assertEquals(g2.getTitle(), g3.getTitle());
+
+        // Callers get copies, so modifying a result does not touch the cache.
+        g3.setTitle("Changed Title");
+        assertEquals(g2.getTitle(), gameService.retrieve(g1.getId()).getTitle());
+    }
+
+    @Test
+    public void testDeleteInvalidatesCache() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        GameService gameService = new GameServiceImpl(dataSource);
+
+        Game g1 = gameService.create(buildGame());
+        assertNotNull(gameService.retrieve(g1.getId()));
+        gameService.delete(g1.getId());
+        assertNull(gameService.retrieve(g1.getId()));
+    }
+
     private Game buildGame()
     {
         Game result = new Game();
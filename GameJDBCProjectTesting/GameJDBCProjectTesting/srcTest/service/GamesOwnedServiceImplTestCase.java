@@ -43,6 +43,51 @@ public class GamesOwnedServiceImplTestCase
         assertNotNull(go2.getId());
     }
 
+    @Test
+    public void testUpsert() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GamesOwnedService goService = new GamesOwnedServiceImpl(ds);
+
+        GamesOwned go1 = goService.upsert(buildGamesOwned(ds));
+        assertNotNull(go1.getId());
+
+        GamesOwned go2 = new GamesOwned();
+        go2.setPlayerID(go1.getPlayerID());
+        go2.setGameID(go1.getGameID());
+        go2.setPurchaseDate(new Date());
+        go2.setPurchasePrice(333.0f);
+        goService.upsert(go2);
+        assertEquals(go1.getId(), go2.getId());
+
+        GamesOwned go3 = goService.retrievePlayerGameID(go1.getPlayerID(), go1.getGameID());
+        assertEquals(333.0f, go3.getPurchasePrice(), 0.01f);
+    }
+
+    @Test
+    public void testUpsertSameValuesKeepsCount() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GamesOwnedService goService = new GamesOwnedServiceImpl(ds);
+
+        GamesOwned go1 = goService.upsert(buildGamesOwned(ds));
+        try {
+            int count = goService.count();
+
+            GamesOwned go2 = new GamesOwned();
+            go2.setPlayerID(go1.getPlayerID());
+            go2.setGameID(go1.getGameID());
+            go2.setPurchaseDate(go1.getPurchaseDate());
+            go2.setPurchasePrice(go1.getPurchasePrice());
+            goService.upsert(go2);
+            goService.upsert(go2);
+            assertEquals(count, goService.count());
+        }
+        finally {
+            goService.delete(go1.getId());
+        }
+    }
+
     @Test
     public void testRetrieveByID() throws Exception
     {
@@ -124,8 +169,6 @@ public class GamesOwnedServiceImplTestCase
         GamesOwnedService goService = new GamesOwnedServiceImpl(ds);
 
         GamesOwned go1 = buildGamesOwned(ds);
-        go1.setPlayerID(TestingUtil.getPlayerID(ds));
-        go1.setGameID(TestingUtil.getGameID(ds));
         GamesOwned go2 = goService.create(go1);
         Long go2id = go2.getId();
 
@@ -151,8 +194,6 @@ public class GamesOwnedServiceImplTestCase
         GamesOwnedService goService = new GamesOwnedServiceImpl(ds);
 
         GamesOwned go1 = buildGamesOwned(ds);
-        go1.setPlayerID(TestingUtil.getPlayerID(ds));
-        go1.setGameID(TestingUtil.getGameID(ds));
         GamesOwned go2 = goService.create(go1);
         Long go2id = go2.getId();
         
@@ -173,11 +214,11 @@ public class GamesOwnedServiceImplTestCase
         assertTrue(count > 0);
     }
 
-    // Initializes a new GameOwned include valid player and game ids.
+    // Initializes a new GameOwned for a game the player does not own yet.
     private GamesOwned buildGamesOwned(DataSource ds) throws Exception
     {
         Long playerID = TestingUtil.getPlayerID(ds);
-        Long gameID = TestingUtil.getGameID(ds);
+        Long gameID = TestingUtil.getUnownedGameIDs(ds, playerID, 1).get(0);
 
         GamesOwned go = new GamesOwned();
         go.setGameID(gameID);
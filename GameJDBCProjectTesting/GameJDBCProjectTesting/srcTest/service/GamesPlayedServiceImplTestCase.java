@@ -17,6 +17,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
@@ -102,6 +103,21 @@ public class GamesPlayedServiceImplTestCase
         assertEquals(playerID, gpList.get(0).getPlayerID());
     }
 
+    @Test
+    public void testStreamByGame() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GamesPlayedService gpService = new GamesPlayedServiceImpl(ds, null, DataSourceManager.getStreamingDataSource());
+
+        Long playerID = TestingUtil.getPlayerID(ds);
+        List<Long> gameIDs = TestingUtil.retrieveGamesPlayedForPlayer(ds, playerID);
+        assertTrue(gameIDs.size() > 0);
+        int expected = gpService.retrieveByGame(gameIDs.get(0)).size();
+        try (Stream<GamesPlayed> stream = gpService.streamByGame(gameIDs.get(0))) {
+            assertEquals(expected, stream.count());
+        }
+    }
+
     @Test
     public void testRetrieveByPlayer() throws Exception
     {
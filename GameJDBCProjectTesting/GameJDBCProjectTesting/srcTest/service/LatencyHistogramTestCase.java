@@ -0,0 +1,75 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.util.LatencyHistogram;
+
+public class LatencyHistogramTestCase
+{
+    @Test
+    public void testEmpty() throws Exception
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileMicros(0.99));
+        assertEquals(0.0, histogram.getMeanMicros(), 0.0001);
+    }
+
+    @Test
+    public void testPercentiles() throws Exception
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros, TimeUnit.MICROSECONDS);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMaxMicros());
+        assertEquals(500.5, histogram.getMeanMicros(), 0.0001);
+        assertWithin(500, histogram.getPercentileMicros(0.50));
+        assertWithin(990, histogram.getPercentileMicros(0.99));
+        assertEquals(1000, histogram.getPercentileMicros(1.0));
+    }
+
+    @Test
+    public void testLargeValues() throws Exception
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3, TimeUnit.SECONDS);
+        assertWithin(3_000_000, histogram.getPercentileMicros(0.50));
+        assertEquals(3_000_000, histogram.getMaxMicros());
+    }
+
+    @Test
+    public void testReset() throws Exception
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5, TimeUnit.MILLISECONDS);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxMicros());
+    }
+
+    /**
+     * Buckets are at most 12.5% wide and report their upper edge.
+     */
+    private static void assertWithin(long expected, long actual)
+    {
+        assertTrue("expected about " + expected + " but was " + actual,
+                actual >= expected && actual <= expected * 1.125);
+    }
+}
@@ -0,0 +1,109 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.LeaderboardEntry;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.GamesPlayedService;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
+import cs4347.jdbcGame.services.impl.LeaderboardServiceImpl;
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.TestingUtil;
+
+public class LeaderboardServiceImplTestCase
+{
+    @Test
+    public void testRankingFollowsChanges() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GameService gameService = new GameServiceImpl(ds);
+        GamesPlayedService gpService = new GamesPlayedServiceImpl(ds);
+        LeaderboardServiceImpl leaderboard = new LeaderboardServiceImpl(ds, gpService);
+
+        // A fresh game, so the board only holds the sessions made here.
+        Game game = gameService.create(buildGame());
+        List<Long> playerIDs = TestingUtil.getPlayerIDs(ds, 3);
+        List<GamesPlayed> sessions = new ArrayList<GamesPlayed>();
+        try {
+            sessions.add(gpService.create(buildGamesPlayed(playerIDs.get(0), game.getId(), 100)));
+            sessions.add(gpService.create(buildGamesPlayed(playerIDs.get(1), game.getId(), 300)));
+
+            // The first query loads the board from the database.
+            assertEquals(2, leaderboard.countPlayers(game.getId()));
+            assertEquals(Integer.valueOf(1), leaderboard.retrieveRank(game.getId(), playerIDs.get(1)));
+            assertNull(leaderboard.retrieveRank(game.getId(), playerIDs.get(2)));
+
+            // Later changes are applied incrementally.
+            sessions.add(gpService.create(buildGamesPlayed(playerIDs.get(2), game.getId(), 200)));
+            sessions.add(gpService.create(buildGamesPlayed(playerIDs.get(0), game.getId(), 400)));
+            List<LeaderboardEntry> top = leaderboard.retrieveTop(game.getId(), 10);
+            assertEquals(3, top.size());
+            assertEquals(playerIDs.get(0), top.get(0).getPlayerID());
+            assertEquals(400, top.get(0).getScore());
+            assertEquals(playerIDs.get(1), top.get(1).getPlayerID());
+            assertEquals(playerIDs.get(2), top.get(2).getPlayerID());
+
+            List<LeaderboardEntry> around = leaderboard.retrieveAround(game.getId(), playerIDs.get(1), 1);
+            assertEquals(3, around.size());
+            assertEquals(2, around.get(1).getRank());
+
+            // Deleting the best session falls back to the next best score.
+            GamesPlayed best = sessions.remove(sessions.size() - 1);
+            gpService.delete(best.getId());
+            assertEquals(Integer.valueOf(3), leaderboard.retrieveRank(game.getId(), playerIDs.get(0)));
+
+            GamesPlayed second = sessions.get(1);
+            second.setScore(50);
+            gpService.update(second);
+            assertEquals(Integer.valueOf(3), leaderboard.retrieveRank(game.getId(), playerIDs.get(1)));
+        }
+        finally {
+            for (GamesPlayed gp : sessions) {
+                gpService.delete(gp.getId());
+            }
+            gameService.delete(game.getId());
+        }
+    }
+
+    private Game buildGame()
+    {
+        Game game = new Game();
+        game.setTitle("Leaderboard Test Game");
+        game.setDescription("Leaderboard Test Description");
+        game.setReleaseDate(new Date());
+        game.setVersion("1.0");
+        return game;
+    }
+
+    private GamesPlayed buildGamesPlayed(Long playerID, Long gameID, int score)
+    {
+        GamesPlayed gp = new GamesPlayed();
+        gp.setPlayerID(playerID);
+        gp.setGameID(gameID);
+        gp.setTimeFinished(new Date());
+        gp.setScore(score);
+        return gp;
+    }
+}
@@ -0,0 +1,80 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.testing.LongLongHashMap;
+
+public class LongLongHashMapTestCase
+{
+    @Test
+    public void testPutGet() throws Exception
+    {
+        LongLongHashMap map = new LongLongHashMap(2);
+        for (long key = 1; key <= 10000; key++) {
+            map.put(key, key * 10);
+        }
+        assertEquals(10000, map.size());
+        assertEquals(50, map.get(5, -1));
+        assertEquals(-1, map.get(10001, -1));
+
+        map.put(5, 7);
+        assertEquals(7, map.get(5, -1));
+        assertEquals(10000, map.size());
+    }
+
+    @Test
+    public void testZeroAndNegativeKeys() throws Exception
+    {
+        LongLongHashMap map = new LongLongHashMap();
+        assertFalse(map.containsKey(0));
+        map.put(0, 42);
+        map.put(-1, 43);
+        map.put(Long.MIN_VALUE, 44);
+        assertTrue(map.containsKey(0));
+        assertEquals(42, map.get(0, -1));
+        assertEquals(43, map.get(-1, -1));
+        assertEquals(44, map.get(Long.MIN_VALUE, -1));
+        assertEquals(3, map.size());
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(0));
+        assertFalse(map.containsKey(-1));
+    }
+
+    @Test
+    public void testMatchesHashMap() throws Exception
+    {
+        Random random = new Random(42);
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<Long, Long>();
+        for (int idx = 0; idx < 50000; idx++) {
+            long key = random.nextInt(20000) - 10000;
+            long value = random.nextLong();
+            map.put(key, value);
+            expected.put(key, value);
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue().longValue(), map.get(entry.getKey(), 0));
+        }
+    }
+}
@@ -16,6 +16,7 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -173,6 +174,57 @@ public class PlayerServiceImplTestCase
         assertTrue(playerList.size() > 0);
     }
 
+    @Test
+    public void testRetrieveCached() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        PlayerServiceImpl playerService = new PlayerServiceImpl(dataSource);
+
+        Player p1 = playerService.create(buildPlayerWithCC());
+        Player p2 = playerService.retrieve(p1.getId());
+        Player p3 = playerService.retrieve(p1.getId());
+        assertEquals(1, playerService.getCache().getMissCount());
+        assertEquals(1, playerService.getCache().getHitCount());
+        assertEquals(p2.getEmail(), p3.getEmail());
+        assertEquals(p2.getCreditCards().size(), p3.getCreditCards().size());
+    }
+
+    @Test
+    public void testDeleteInvalidatesCache() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        PlayerService playerService = new PlayerServiceImpl(dataSource);
+
+        Player p1 = playerService.create(buildPlayerWithCC());
+        assertNotNull(playerService.retrieve(p1.getId()));
+        playerService.delete(p1.getId());
+        assertNull(playerService.retrieve(p1.getId()));
+    }
+
+    @Test
+    public void testRetrieveWithCreditCards() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        PlayerService playerService = new PlayerServiceImpl(dataSource);
+
+        Player p1 = playerService.create(buildPlayerWithCC());
+        Player p2 = playerService.create(buildPlayerWithCC());
+        try {
+            List<Player> players = playerService
+                    .retrieveWithCreditCards(Arrays.asList(p2.getId(), -1L, p1.getId(), p2.getId()));
+            assertEquals(2, players.size());
+            assertEquals(p2.getId(), players.get(0).getId());
+            assertEquals(p1.getId(), players.get(1).getId());
+            for (Player player : players) {
+                assertEquals(2, player.getCreditCards().size());
+            }
+        }
+        finally {
+            playerService.delete(p1.getId());
+            playerService.delete(p2.getId());
+        }
+    }
+
     private Player buildPlayerWithCC()
     {
         Player p = new Player();
@@ -0,0 +1,70 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.util.RankedSet;
+
+public class RankedSetTestCase
+{
+    @Test
+    public void testRankAndGet() throws Exception
+    {
+        RankedSet<Integer> set = new RankedSet<Integer>(Integer::compare);
+        for (int value : new int[] { 50, 10, 40, 20, 30 }) {
+            assertTrue(set.add(value));
+        }
+        assertFalse(set.add(30));
+        assertEquals(5, set.size());
+        assertEquals(0, set.rank(10));
+        assertEquals(2, set.rank(30));
+        assertEquals(3, set.rank(35));
+        assertEquals(Integer.valueOf(40), set.get(3));
+
+        assertTrue(set.remove(30));
+        assertFalse(set.remove(30));
+        assertEquals(Integer.valueOf(40), set.get(2));
+    }
+
+    @Test
+    public void testMatchesTreeSet() throws Exception
+    {
+        Random random = new Random(42);
+        RankedSet<Integer> set = new RankedSet<Integer>(Integer::compare);
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        for (int idx = 0; idx < 20000; idx++) {
+            int value = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            }
+            else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        List<Integer> sorted = new ArrayList<Integer>(expected);
+        for (int idx = 0; idx < sorted.size(); idx++) {
+            assertEquals(sorted.get(idx), set.get(idx));
+            assertEquals(idx, set.rank(sorted.get(idx)));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.util.RowCounter;
+
+public class RowCounterTestCase
+{
+    @Test
+    public void testLoadedOnce() throws Exception
+    {
+        RowCounter counter = new RowCounter(1, TimeUnit.MINUTES);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(10, counter.get(() -> load(10, loads)));
+        assertEquals(10, counter.get(() -> load(99, loads)));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testAdd() throws Exception
+    {
+        RowCounter counter = new RowCounter(1, TimeUnit.MINUTES);
+        AtomicInteger loads = new AtomicInteger();
+
+        counter.get(() -> load(10, loads));
+        counter.add(3);
+        counter.add(-1);
+        assertEquals(12, counter.get(() -> load(99, loads)));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testReset() throws Exception
+    {
+        RowCounter counter = new RowCounter(1, TimeUnit.MINUTES);
+        AtomicInteger loads = new AtomicInteger();
+
+        counter.get(() -> load(10, loads));
+        counter.reset();
+        assertEquals(20, counter.get(() -> load(20, loads)));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testLoadOverlappingAddKept() throws Exception
+    {
+        RowCounter counter = new RowCounter(1, TimeUnit.MINUTES);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(9, counter.get(() -> {
+            // Simulates a delete committed while the table was being counted.
+            counter.add(-1);
+            return load(10, loads);
+        }));
+        counter.add(2);
+        assertEquals(11, counter.get(() -> load(30, loads)));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testLoadOverlappingResetNotKept() throws Exception
+    {
+        RowCounter counter = new RowCounter(1, TimeUnit.MINUTES);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(10, counter.get(() -> {
+            // Simulates a bulk write committed while the table was being counted.
+            counter.reset();
+            return load(10, loads);
+        }));
+        assertEquals(30, counter.get(() -> load(30, loads)));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testReseed() throws Exception
+    {
+        RowCounter counter = new RowCounter(1, TimeUnit.MILLISECONDS);
+        AtomicInteger loads = new AtomicInteger();
+
+        counter.get(() -> load(10, loads));
+        Thread.sleep(5);
+        assertEquals(20, counter.get(() -> load(20, loads)));
+        assertEquals(2, loads.get());
+    }
+
+    private static long load(long count, AtomicInteger loads)
+    {
+        loads.incrementAndGet();
+        return count;
+    }
+}
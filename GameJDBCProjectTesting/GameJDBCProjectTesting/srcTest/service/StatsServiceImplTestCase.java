@@ -0,0 +1,208 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas. 
+ * Project materials, or those derived from the materials, cannot be placed 
+ * into publicly accessible locations on the web. Project materials cannot 
+ * be shared with other project teams. Making project materials publicly 
+ * accessible, or sharing with other project teams will result in the 
+ * failure of the team responsible and any team that uses the shared materials. 
+ * Sharing project materials or using shared materials will also result 
+ * in the reporting of all team members for academic dishonesty. 
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.entity.GameStats;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.PlayerStats;
+import cs4347.jdbcGame.services.GamesOwnedService;
+import cs4347.jdbcGame.services.GamesPlayedService;
+import cs4347.jdbcGame.services.StatsService;
+import cs4347.jdbcGame.services.impl.GamesOwnedServiceImpl;
+import cs4347.jdbcGame.services.impl.GamesPlayedServiceImpl;
+import cs4347.jdbcGame.services.impl.StatsServiceImpl;
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.TestingUtil;
+
+public class StatsServiceImplTestCase
+{
+    // Above the 0-99 scores of the generated data, so it becomes the best.
+    private static final int TOP_SCORE = 1000;
+
+    @Test
+    public void testGamesPlayedMaintainsStats() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GamesPlayedService gpService = new GamesPlayedServiceImpl(ds);
+        StatsService statsService = new StatsServiceImpl(ds);
+        // The best score after the delete is recomputed from GAMES_PLAYED, so
+        // start from exact rows.
+        statsService.rebuild();
+
+        Long playerID = TestingUtil.getPlayerID(ds);
+        Long gameID = TestingUtil.getGameID(ds);
+        PlayerStats player1 = statsService.retrievePlayerStats(playerID);
+        GameStats game1 = statsService.retrieveGameStats(gameID);
+
+        GamesPlayed gp = new GamesPlayed();
+        gp.setPlayerID(playerID);
+        gp.setGameID(gameID);
+        gp.setTimeFinished(new Date());
+        gp.setScore(TOP_SCORE);
+        gpService.create(gp);
+
+        PlayerStats player2 = statsService.retrievePlayerStats(playerID);
+        assertEquals(player1.getPlayCount() + 1, player2.getPlayCount());
+        assertEquals(player1.getScoreTotal() + TOP_SCORE, player2.getScoreTotal());
+        assertEquals(Integer.valueOf(TOP_SCORE), player2.getBestScore());
+        GameStats game2 = statsService.retrieveGameStats(gameID);
+        assertEquals(game1.getPlayCount() + 1, game2.getPlayCount());
+        assertEquals(Integer.valueOf(TOP_SCORE), game2.getBestScore());
+
+        // Deleting the best session recomputes the best score.
+        gpService.delete(gp.getId());
+        PlayerStats player3 = statsService.retrievePlayerStats(playerID);
+        assertEquals(player1.getPlayCount(), player3.getPlayCount());
+        assertEquals(player1.getScoreTotal(), player3.getScoreTotal());
+        assertEquals(player1.getBestScore(), player3.getBestScore());
+        GameStats game3 = statsService.retrieveGameStats(gameID);
+        assertEquals(game1.getPlayCount(), game3.getPlayCount());
+        assertEquals(game1.getBestScore(), game3.getBestScore());
+    }
+
+    @Test
+    public void testGamesOwnedMaintainsStats() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GamesOwnedService goService = new GamesOwnedServiceImpl(ds);
+        StatsService statsService = new StatsServiceImpl(ds);
+
+        Long playerID = TestingUtil.getPlayerID(ds);
+        Long gameID = TestingUtil.getUnownedGameIDs(ds, playerID, 1).get(0);
+        PlayerStats player1 = statsService.retrievePlayerStats(playerID);
+        GameStats game1 = statsService.retrieveGameStats(gameID);
+
+        GamesOwned go = new GamesOwned();
+        go.setPlayerID(playerID);
+        go.setGameID(gameID);
+        go.setPurchaseDate(new Date());
+        go.setPurchasePrice(5.0f);
+        goService.create(go);
+
+        PlayerStats player2 = statsService.retrievePlayerStats(playerID);
+        assertEquals(player1.getOwnedCount() + 1, player2.getOwnedCount());
+        assertEquals(player1.getTotalSpend() + 5.0, player2.getTotalSpend(), 0.01);
+        GameStats game2 = statsService.retrieveGameStats(gameID);
+        assertEquals(game1.getOwnedCount() + 1, game2.getOwnedCount());
+        assertEquals(game1.getTotalSpend() + 5.0, game2.getTotalSpend(), 0.01);
+
+        go.setPurchasePrice(8.0f);
+        goService.update(go);
+        PlayerStats player3 = statsService.retrievePlayerStats(playerID);
+        assertEquals(player1.getOwnedCount() + 1, player3.getOwnedCount());
+        assertEquals(player1.getTotalSpend() + 8.0, player3.getTotalSpend(), 0.01);
+
+        goService.delete(go.getId());
+        PlayerStats player4 = statsService.retrievePlayerStats(playerID);
+        assertEquals(player1.getOwnedCount(), player4.getOwnedCount());
+        assertEquals(player1.getTotalSpend(), player4.getTotalSpend(), 0.01);
+        GameStats game4 = statsService.retrieveGameStats(gameID);
+        assertEquals(game1.getOwnedCount(), game4.getOwnedCount());
+    }
+
+    @Test
+    public void testGamesOwnedUpsertMaintainsStats() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GamesOwnedService goService = new GamesOwnedServiceImpl(ds);
+        StatsService statsService = new StatsServiceImpl(ds);
+
+        Long playerID = TestingUtil.getPlayerID(ds);
+        Long gameID = TestingUtil.getUnownedGameIDs(ds, playerID, 1).get(0);
+        PlayerStats player1 = statsService.retrievePlayerStats(playerID);
+        GameStats game1 = statsService.retrieveGameStats(gameID);
+
+        GamesOwned go = new GamesOwned();
+        go.setPlayerID(playerID);
+        go.setGameID(gameID);
+        go.setPurchaseDate(new Date());
+        go.setPurchasePrice(5.0f);
+        goService.upsert(go);
+
+        // The same pair again only moves the spend.
+        GamesOwned repriced = new GamesOwned();
+        repriced.setPlayerID(playerID);
+        repriced.setGameID(gameID);
+        repriced.setPurchaseDate(new Date());
+        repriced.setPurchasePrice(8.0f);
+        goService.upsert(repriced);
+        assertEquals(go.getId(), repriced.getId());
+
+        PlayerStats player2 = statsService.retrievePlayerStats(playerID);
+        assertEquals(player1.getOwnedCount() + 1, player2.getOwnedCount());
+        assertEquals(player1.getTotalSpend() + 8.0, player2.getTotalSpend(), 0.01);
+        GameStats game2 = statsService.retrieveGameStats(gameID);
+        assertEquals(game1.getOwnedCount() + 1, game2.getOwnedCount());
+        assertEquals(game1.getTotalSpend() + 8.0, game2.getTotalSpend(), 0.01);
+
+        goService.delete(go.getId());
+        PlayerStats player3 = statsService.retrievePlayerStats(playerID);
+        assertEquals(player1.getTotalSpend(), player3.getTotalSpend(), 0.01);
+    }
+
+    @Test
+    public void testRebuild() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GamesPlayedService gpService = new GamesPlayedServiceImpl(ds);
+        GamesOwnedService goService = new GamesOwnedServiceImpl(ds);
+        StatsService statsService = new StatsServiceImpl(ds);
+
+        statsService.rebuild(100);
+
+        Long playerID = TestingUtil.getPlayerID(ds);
+        List<GamesPlayed> sessions = gpService.retrieveByPlayer(playerID);
+        long scoreTotal = 0;
+        Integer best = null;
+        for (GamesPlayed gp : sessions) {
+            scoreTotal += gp.getScore();
+            best = best == null ? gp.getScore() : Math.max(best, gp.getScore());
+        }
+        List<GamesOwned> purchases = goService.retrieveByPlayer(playerID);
+        double spend = 0;
+        for (GamesOwned go : purchases) {
+            spend += go.getPurchasePrice();
+        }
+
+        PlayerStats stats = statsService.retrievePlayerStats(playerID);
+        assertEquals(sessions.size(), stats.getPlayCount());
+        assertEquals(scoreTotal, stats.getScoreTotal());
+        assertEquals(best, stats.getBestScore());
+        assertEquals(purchases.size(), stats.getOwnedCount());
+        assertEquals(spend, stats.getTotalSpend(), 0.01);
+    }
+
+    @Test
+    public void testRetrieveWithoutActivity() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        StatsService statsService = new StatsServiceImpl(ds);
+
+        long playerID = System.currentTimeMillis();
+        PlayerStats stats = statsService.retrievePlayerStats(playerID);
+        assertEquals(Long.valueOf(playerID), stats.getPlayerID());
+        assertEquals(0, stats.getPlayCount());
+        assertNull(stats.getBestScore());
+        assertEquals(0.0, stats.getAverageScore(), 0.0);
+    }
+
+}
@@ -0,0 +1,165 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.entity.GamesOwned;
+import cs4347.jdbcGame.entity.GamesPlayed;
+import cs4347.jdbcGame.entity.Player;
+import cs4347.jdbcGame.testing.SyntheticDataGenerator;
+import cs4347.jdbcGame.testing.ZipfDistribution;
+
+public class SyntheticDataGeneratorTestCase
+{
+    @Test
+    public void testDeterministic() throws Exception
+    {
+        CollectingSink first = generate(4347);
+        CollectingSink second = generate(4347);
+        CollectingSink other = generate(4348);
+
+        assertEquals(first.rows, second.rows);
+        assertFalse(first.rows.equals(other.rows));
+        assertEquals(2000, first.players.size());
+        assertEquals(100, first.games.size());
+    }
+
+    @Test
+    public void testOwnershipAndDates() throws Exception
+    {
+        CollectingSink sink = generate(1);
+        Map<String, GamesOwned> pairs = new HashMap<String, GamesOwned>();
+        for (GamesOwned go : sink.gamesOwned) {
+            assertTrue("duplicate ownership", pairs.put(go.getPlayerID() + ":" + go.getGameID(), go) == null);
+            Player player = sink.players.get(go.getPlayerID());
+            Game game = sink.games.get(go.getGameID());
+            assertFalse(go.getPurchaseDate().before(player.getJoinDate()));
+            assertFalse(go.getPurchaseDate().before(game.getReleaseDate()));
+        }
+        for (GamesPlayed gp : sink.gamesPlayed) {
+            GamesOwned go = pairs.get(gp.getPlayerID() + ":" + gp.getGameID());
+            assertTrue("played a game not owned", go != null);
+            assertFalse(gp.getTimeFinished().before(go.getPurchaseDate()));
+            assertTrue(gp.getScore() >= 0 && gp.getScore() < 100);
+        }
+    }
+
+    @Test
+    public void testZipfPopularity() throws Exception
+    {
+        CollectingSink sink = generate(7);
+        Map<Long, Integer> owners = new HashMap<Long, Integer>();
+        for (GamesOwned go : sink.gamesOwned) {
+            owners.merge(go.getGameID(), 1, Integer::sum);
+        }
+        List<Integer> counts = new ArrayList<Integer>(owners.values());
+        counts.sort(null);
+        int top = counts.get(counts.size() - 1);
+        int median = counts.get(counts.size() / 2);
+        assertTrue("top " + top + " median " + median, top > 5 * median);
+
+        ZipfDistribution zipf = new ZipfDistribution(100, 1.0);
+        double total = 0;
+        for (int rank = 0; rank < zipf.size(); rank++) {
+            total += zipf.probability(rank);
+        }
+        assertEquals(1.0, total, 1e-9);
+        assertEquals(2.0, zipf.probability(0) / zipf.probability(1), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoGamesRejected()
+    {
+        new SyntheticDataGenerator().setGames(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoPlayersRejected()
+    {
+        new SyntheticDataGenerator().setPlayers(0);
+    }
+
+    private CollectingSink generate(long seed) throws Exception
+    {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setSeed(seed);
+        generator.setPlayers(2000);
+        generator.setGames(100);
+        generator.setBatchSize(300);
+        CollectingSink sink = new CollectingSink();
+        generator.generate(sink);
+        return sink;
+    }
+
+    private static class CollectingSink implements SyntheticDataGenerator.Sink
+    {
+        private Map<Long, Game> games = new HashMap<Long, Game>();
+        private Map<Long, Player> players = new HashMap<Long, Player>();
+        private List<GamesOwned> gamesOwned = new ArrayList<GamesOwned>();
+        private List<GamesPlayed> gamesPlayed = new ArrayList<GamesPlayed>();
+        private List<String> rows = new ArrayList<String>();
+
+        @Override
+        public void games(List<Game> batch)
+        {
+            for (Game game : batch) {
+                game.setId((long) games.size() + 1);
+                games.put(game.getId(), game);
+                rows.add(game.getTitle() + "," + game.getReleaseDate() + "," + game.getVersion());
+            }
+        }
+
+        @Override
+        public void players(List<Player> batch)
+        {
+            for (Player player : batch) {
+                player.setId((long) players.size() + 1);
+                players.put(player.getId(), player);
+                rows.add(player.getEmail() + "," + player.getJoinDate() + "," + player.getCreditCards().size());
+            }
+        }
+
+        @Override
+        public void gamesOwned(List<GamesOwned> batch)
+        {
+            gamesOwned.addAll(batch);
+            for (GamesOwned go : batch) {
+                rows.add(go.getPlayerID() + "," + go.getGameID() + "," + go.getPurchaseDate() + ","
+                        + go.getPurchasePrice());
+            }
+        }
+
+        @Override
+        public void gamesPlayed(List<GamesPlayed> batch)
+        {
+            gamesPlayed.addAll(batch);
+            for (GamesPlayed gp : batch) {
+                rows.add(gp.getPlayerID() + "," + gp.getGameID() + "," + gp.getTimeFinished() + "," + gp.getScore());
+            }
+        }
+
+        @Override
+        public void finish()
+        {
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Date;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.UnitOfWork;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.services.impl.InMemoryTransactionMetrics;
+import cs4347.jdbcGame.services.impl.TransactionMethodMetrics;
+import cs4347.jdbcGame.services.impl.TransactionMetrics;
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.util.DAOException;
+
+public class TransactionMetricsTestCase
+{
+    @Test
+    public void testCommitAndRollback() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        GameService gameService = new GameServiceImpl(dataSource, null);
+        InMemoryTransactionMetrics metrics = new InMemoryTransactionMetrics();
+        TransactionMetrics.setExporter(metrics);
+        try {
+            Game game = gameService.create(buildGame());
+            gameService.retrieve(game.getId());
+            try {
+                // Update requires an ID.
+                gameService.update(buildGame());
+                fail("update without an ID should fail");
+            } catch (DAOException ex) {
+                // Expected
+            }
+            gameService.delete(game.getId());
+
+            TransactionMethodMetrics create = metrics.get("GameServiceImpl.create");
+            assertEquals(1, create.getCalls());
+            assertEquals(0, create.getRollbacks());
+            assertEquals(1, create.getCommit().getCount());
+            assertEquals(1, create.getHold().getCount());
+
+            // Reads do not commit.
+            TransactionMethodMetrics load = metrics.get("GameServiceImpl.load");
+            assertEquals(1, load.getCalls());
+            assertEquals(0, load.getCommit().getCount());
+
+            TransactionMethodMetrics update = metrics.get("GameServiceImpl.update");
+            assertEquals(1, update.getRollbacks());
+            assertEquals(1.0, update.getRollbackRate(), 0.0001);
+        }
+        finally {
+            TransactionMetrics.setExporter(null);
+        }
+    }
+
+    @Test
+    public void testJoinedCallsNotTimed() throws Exception
+    {
+        DataSource dataSource = DataSourceManager.getDataSource();
+        GameService gameService = new GameServiceImpl(dataSource, null);
+        InMemoryTransactionMetrics metrics = new InMemoryTransactionMetrics();
+        TransactionMetrics.setExporter(metrics);
+        try (UnitOfWork uow = UnitOfWork.begin(dataSource)) {
+            gameService.create(buildGame());
+            // Not committed, so the unit rolls back on close.
+        }
+        finally {
+            TransactionMetrics.setExporter(null);
+        }
+
+        TransactionMethodMetrics create = metrics.get("GameServiceImpl.create");
+        assertEquals(1, create.getCalls());
+        assertEquals(0, create.getHold().getCount());
+    }
+
+    private Game buildGame()
+    {
+        Game result = new Game();
+        result.setTitle("Test Title");
+        result.setDescription("Test Description");
+        result.setReleaseDate(new Date());
+        result.setVersion("1.2.3");
+        return result;
+    }
+}
@@ -0,0 +1,184 @@
+/* NOTICE: All materials provided by this project, and materials derived 
+ * from the project, are the property of the University of Texas.
+ * Project materials, or those derived from the materials, cannot be placed
+ * into publicly accessible locations on the web. Project materials cannot
+ * be shared with other project teams. Making project materials publicly
+ * accessible, or sharing with other project teams will result in the
+ * failure of the team responsible and any team that uses the shared materials.
+ * Sharing project materials or using shared materials will also result
+ * in the reporting of all team members for academic dishonesty.
+ */
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+
+import cs4347.jdbcGame.entity.Game;
+import cs4347.jdbcGame.services.GameService;
+import cs4347.jdbcGame.services.UnitOfWork;
+import cs4347.jdbcGame.services.impl.GameServiceImpl;
+import cs4347.jdbcGame.testing.DataSourceManager;
+import cs4347.jdbcGame.testing.PoolMetrics;
+import cs4347.jdbcGame.util.DAOException;
+
+public class UnitOfWorkTestCase
+{
+    @Test
+    public void testCallsShareOneConnection() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GameService gameService = new GameServiceImpl(ds, null);
+
+        PoolMetrics before = DataSourceManager.getPoolMetrics();
+        Game game;
+        try (UnitOfWork uow = UnitOfWork.begin(ds)) {
+            game = gameService.create(buildGame());
+            assertNotNull(gameService.retrieve(game.getId()));
+            gameService.count();
+            uow.commit();
+        }
+        PoolMetrics after = DataSourceManager.getPoolMetrics();
+        assertEquals(before.getBorrowedCount() + 1, after.getBorrowedCount());
+
+        assertNotNull(gameService.retrieve(game.getId()));
+        gameService.delete(game.getId());
+    }
+
+    @Test
+    public void testCloseWithoutCommitRollsBack() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GameService gameService = new GameServiceImpl(ds);
+
+        Game game;
+        try (UnitOfWork uow = UnitOfWork.begin(ds)) {
+            game = gameService.create(buildGame());
+            // The unit sees its own uncommitted write.
+            assertNotNull(gameService.retrieve(game.getId()));
+        }
+        assertFalse(UnitOfWork.isActive(ds));
+        assertNull(gameService.retrieve(game.getId()));
+    }
+
+    @Test
+    public void testFailedCallRollsBackUnit() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        GameService gameService = new GameServiceImpl(ds);
+
+        Game game;
+        try (UnitOfWork uow = UnitOfWork.begin(ds)) {
+            game = gameService.create(buildGame());
+            try {
+                // Updating a game without an id fails inside the unit.
+                gameService.update(buildGame());
+                fail("Expected DAOException");
+            } catch (DAOException ex) {
+                // expected
+            }
+            try {
+                uow.commit();
+                fail("Expected DAOException");
+            } catch (DAOException ex) {
+                // expected: the unit was marked rollback-only
+            }
+        }
+        assertNull(gameService.retrieve(game.getId()));
+    }
+
+    @Test
+    public void testAfterCommitRunsOnlyOnCommit() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        AtomicBoolean ran = new AtomicBoolean();
+
+        try (UnitOfWork uow = UnitOfWork.begin(ds)) {
+            UnitOfWork.afterCommit(ds, () -> ran.set(true));
+        }
+        assertFalse(ran.get());
+
+        try (UnitOfWork uow = UnitOfWork.begin(ds)) {
+            UnitOfWork.afterCommit(ds, () -> ran.set(true));
+            assertFalse(ran.get());
+            uow.commit();
+        }
+        assertTrue(ran.get());
+    }
+
+    @Test
+    public void testFailedCommitRollsBack() throws Exception
+    {
+        DataSource ds = DataSourceManager.getDataSource();
+        AtomicBoolean rolledBack = new AtomicBoolean();
+        // Connections whose commit fails, as on a deadlock or a lost connection.
+        DataSource failing = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { DataSource.class }, (self, dsMethod, dsArgs) -> {
+                    if (!dsMethod.getName().equals("getConnection")) {
+                        return invoke(dsMethod, ds, dsArgs);
+                    }
+                    Connection connection = (Connection) invoke(dsMethod, ds, dsArgs);
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                            (conn, method, args) -> {
+                                if (method.getName().equals("commit")) {
+                                    throw new SQLException("Forced commit failure");
+                                }
+                                if (method.getName().equals("rollback") && args == null) {
+                                    rolledBack.set(true);
+                                }
+                                return invoke(method, connection, args);
+                            });
+                });
+        GameService gameService = new GameServiceImpl(failing, null);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        Game game;
+        try (UnitOfWork uow = UnitOfWork.begin(failing)) {
+            game = gameService.create(buildGame());
+            UnitOfWork.afterCommit(failing, () -> ran.set(true));
+            try {
+                uow.commit();
+                fail("Expected SQLException");
+            } catch (SQLException ex) {
+                // expected
+            }
+            assertTrue(rolledBack.get());
+        }
+        assertFalse(ran.get());
+        assertNull(new GameServiceImpl(ds, null).retrieve(game.getId()));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable
+    {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private Game buildGame()
+    {
+        Game game = new Game();
+        game.setTitle("Unit Of Work Test Game");
+        game.setDescription("Unit Of Work Test Description");
+        game.setReleaseDate(new Date());
+        game.setVersion("1.0");
+        return game;
+    }
+}
@@ -0,0 +1,19 @@
+-- Upgrades a games database created before GamesOwned had the
+-- player_game_UNIQUE index. schema.txt only creates missing tables, so run
+-- this once on such a database before starting the services, then rebuild
+-- the summary tables with StatsService.rebuild().
+
+USE `games` ;
+
+-- Keep the first purchase (lowest id) of every (player_id, game_id) pair.
+DELETE dup FROM `games`.`GamesOwned` dup
+  JOIN `games`.`GamesOwned` keep
+    ON keep.`player_id` = dup.`player_id`
+   AND keep.`game_id` = dup.`game_id`
+   AND keep.`id` < dup.`id`;
+
+-- The unique index leads with player_id, so it also serves the player
+-- foreign key and the single-column player index is dropped.
+ALTER TABLE `games`.`GamesOwned`
+  ADD UNIQUE INDEX `player_game_UNIQUE` (`player_id` ASC, `game_id` ASC) VISIBLE,
+  DROP INDEX `fk_GamesOwned_Player1_idx`;